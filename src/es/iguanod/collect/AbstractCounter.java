@@ -19,6 +19,8 @@
  */
 package es.iguanod.collect;
 
+import es.iguanod.math.Adders;
+import es.iguanod.util.Adder;
 import es.iguanod.util.Caster;
 import es.iguanod.util.tuples.Tuple2;
 import java.io.Serializable;
@@ -38,11 +40,19 @@ import java.util.Map;
  * {@link es.iguanod.util.Caster Caster} to convert {@code BigDecimal} values to
  * {@code V} values.</p>
  * <p>
+ * Additions and subtractions, however, are done with an
+ * {@link es.iguanod.util.Adder Adder}, which can be specified in the
+ * constructors. If it is not, the built-in {@code Adder} for the class of the
+ * values returned by the {@code Caster} is used (see
+ * {@link es.iguanod.math.Adders#forCaster(Caster) Adders.forCaster}), so the
+ * conversion to {@code BigDecimal} is only a fallback for unknown
+ * {@code Number} classes.</p>
+ * <p>
  * Despite being abstract, {@code AbstractCounter} does have some internal
  * fields, so it implements {@link java.io.Serializable Serializable} and it
  * will be {@code Serializable} as long as both the {@code Comparator} (if
- * given) and the elements returned by the {@code Caster} are
- * {@code Serializable}.</p>
+ * given), the {@code Adder} (if given) and the elements returned by the
+ * {@code Caster} are {@code Serializable}.</p>
  *
  * @param <K> the class of the keys stored in the {@code Counter} with their
  * respective values
@@ -55,6 +65,7 @@ import java.util.Map;
  *
  * @see java.util.Map
  * @see es.iguanod.util.Caster
+ * @see es.iguanod.util.Adder
  * @see java.io.Serializable
  */
 public abstract class AbstractCounter<K, V extends Number> implements Counter<K, V>, Serializable{
@@ -70,6 +81,10 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	 * {@code Comparator} used to compare two {@code V} values.
 	 */
 	public final Comparator<? super V> comparator;
+	/**
+	 * {@code Adder} used to add and subtract two {@code V} values.
+	 */
+	public final Adder<V> adder;
 	/**
 	 * The value one (obtained by casting BigDecimal.ONE with the caster).
 	 */
@@ -103,9 +118,27 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	 * @param comparator the comparator for comparing values
 	 */
 	public AbstractCounter(Caster<BigDecimal, V> caster, Comparator<? super V> comparator){
+		this(caster, comparator, null);
+	}
+
+	/**
+	 * Constructs a new {@code AbstractCounter} with the specified
+	 * {@code Caster}, {@code Comparator} and {@code Adder}. If
+	 * {@code comparator} is {@code null}, the natural ordering of the values
+	 * is used, as in {@link #AbstractCounter(Caster,Comparator)}. If
+	 * {@code adder} is {@code null}, the one returned by
+	 * {@link es.iguanod.math.Adders#forCaster(Caster) Adders.forCaster} is
+	 * used.
+	 *
+	 * @param caster the caster for converting {@code BigDecimal} to {@code V}
+	 * @param comparator the comparator for comparing values
+	 * @param adder the adder for adding and subtracting values
+	 */
+	public AbstractCounter(Caster<BigDecimal, V> caster, Comparator<? super V> comparator, Adder<V> adder){
 		this.caster=caster;
 		one=this.caster.cast(BigDecimal.ONE);
 		this.comparator=comparator;
+		this.adder=adder != null ? adder : Adders.forCaster(caster);
 	}
 
 	/**
@@ -157,6 +190,43 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 		}
 	}
 
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, as {@link #sum(Object,Number) sum} does, but without
+	 * returning the previous and new values. The bulk methods of this class
+	 * ({@code sumAll} and the methods relying on it) use this method, so
+	 * implementations able to update a value without building the returned
+	 * {@code Tuple2} should override it. By default, it calls {@code sum}.
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @throws NullPointerException if {@code value} is {@code null}
+	 */
+	protected void sumValue(K key, V value){
+		sum(key, value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, as {@link #deduct(Object,Number) deduct} does, but
+	 * without returning the previous and new values. The bulk methods of this
+	 * class ({@code deductAll} and the methods relying on it) use this
+	 * method, so implementations able to update a value without building the
+	 * returned {@code Tuple2} should override it. By default, it calls
+	 * {@code deduct}.
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @throws NullPointerException if {@code value} is {@code null}
+	 */
+	protected void deductValue(K key, V value){
+		deduct(key, value);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -177,7 +247,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void sumAll(Collection<? extends K> keys){
 		for(K key:keys){
-			sum(key);
+			sumValue(key, one);
 		}
 	}
 
@@ -189,7 +259,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void sumAll(K[] keys){
 		for(K key:keys){
-			sum(key);
+			sumValue(key, one);
 		}
 	}
 
@@ -201,7 +271,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void sumAll(Map<? extends K, ? extends V> map){
 		for(Entry<? extends K, ? extends V> entry:map.entrySet()){
-			sum(entry.getKey(), entry.getValue());
+			sumValue(entry.getKey(), entry.getValue());
 		}
 	}
 
@@ -216,10 +286,20 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public <X> void sumAll(Map<? extends K, ? extends X> map, Caster<X, V> caster){
 		for(Entry<? extends K, ? extends X> entry:map.entrySet()){
-			sum(entry.getKey(), caster.cast(entry.getValue()));
+			sumValue(entry.getKey(), caster.cast(entry.getValue()));
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param counter {@inheritDoc}
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends K, ? extends V> counter){
+		sumAll(counter);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -229,7 +309,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void sumAll(Collection<? extends K> keys, V value){
 		for(K key:keys){
-			sum(key, value);
+			sumValue(key, value);
 		}
 	}
 
@@ -242,7 +322,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void sumAll(K[] keys, V value){
 		for(K key:keys){
-			sum(key, value);
+			sumValue(key, value);
 		}
 	}
 
@@ -264,7 +344,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 		Iterator<Entry<K, V>> iter=entrySet().iterator();
 		while(iter.hasNext()){
 			Entry<K, V> entry=iter.next();
-			entry.setValue(caster.cast(new BigDecimal(entry.getValue().toString()).add(new BigDecimal(value.toString()))));
+			entry.setValue(adder.add(entry.getValue(), value));
 		}
 	}
 
@@ -348,7 +428,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductAll(Collection<? extends K> keys){
 		for(K key:keys){
-			deduct(key);
+			deductValue(key, one);
 		}
 	}
 
@@ -360,7 +440,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductAll(K[] keys){
 		for(K key:keys){
-			deduct(key);
+			deductValue(key, one);
 		}
 	}
 
@@ -372,7 +452,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductAll(Map<? extends K, ? extends V> map){
 		for(Entry<? extends K, ? extends V> entry:map.entrySet()){
-			deduct(entry.getKey(), entry.getValue());
+			deductValue(entry.getKey(), entry.getValue());
 		}
 	}
 
@@ -387,7 +467,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public <X> void deductAll(Map<? extends K, ? extends X> map, Caster<X, V> caster){
 		for(Entry<? extends K, ? extends X> entry:map.entrySet()){
-			deduct(entry.getKey(), caster.cast(entry.getValue()));
+			deductValue(entry.getKey(), caster.cast(entry.getValue()));
 		}
 	}
 
@@ -400,7 +480,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductAll(Collection<? extends K> keys, V value){
 		for(K key:keys){
-			deduct(key, value);
+			deductValue(key, value);
 		}
 	}
 
@@ -413,7 +493,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductAll(K[] keys, V value){
 		for(K key:keys){
-			deduct(key, value);
+			deductValue(key, value);
 		}
 	}
 
@@ -433,7 +513,7 @@ public abstract class AbstractCounter<K, V extends Number> implements Counter<K,
 	@Override
 	public void deductToAll(V value){
 		for(K key:keySet()){
-			deduct(key, value);
+			deductValue(key, value);
 		}
 	}
 
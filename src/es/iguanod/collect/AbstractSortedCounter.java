@@ -19,10 +19,13 @@
  */
 package es.iguanod.collect;
 
+import es.iguanod.util.Adder;
 import es.iguanod.util.Caster;
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -44,6 +47,10 @@ public abstract class AbstractSortedCounter<K, V extends Number> extends Abstrac
 		super(caster, comparator);
 	}
 
+	public AbstractSortedCounter(Caster<BigDecimal, V> caster, Comparator<? super V> comparator, Adder<V> adder){
+		super(caster, comparator, adder);
+	}
+
 	@Override
 	public Set<K> maxKeySet(){
 		try{
@@ -62,6 +69,157 @@ public abstract class AbstractSortedCounter<K, V extends Number> extends Abstrac
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation iterates {@link #inverseEntrySet() inverseEntrySet}
+	 * up to the end, which is assumed to be in ascending order of value.
+	 * Subclasses are encouraged to override it.</p>
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> topN(int n){
+		RankedKeys.checkN(n);
+		ArrayDeque<Entry<V, Set<K>>> groups=new ArrayDeque<>();
+		int count=0;
+		for(Entry<V, Set<K>> group:inverseEntrySet()){
+			groups.addLast(group);
+			count+=group.getValue().size();
+			while(!groups.isEmpty() && count - groups.getFirst().getValue().size() >= n){
+				count-=groups.removeFirst().getValue().size();
+			}
+		}
+		return RankedKeys.collect(groups.descendingIterator(), n, count);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation iterates {@link #inverseEntrySet() inverseEntrySet},
+	 * which is assumed to be in ascending order of value.</p>
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> bottomN(int n){
+		return RankedKeys.collect(inverseEntrySet().iterator(), n, size());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation looks for the key in the {@link #topN(int) topN}
+	 * of the whole {@code Counter}, taking linear time. Subclasses are
+	 * encouraged to override it.</p>
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int rankOf(Object key){
+		V value=get(key);
+		if(value == null){
+			return -1;
+		}
+		RankedKeys<K, V> ranked=topN(size());
+		for(int i=0; i < ranked.size(); i++){
+			if(compare(ranked.value(i), value) == 0){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation takes the last key of the {@link #topN(int) topN}
+	 * of the {@code Counter}, taking linear time. Subclasses are encouraged
+	 * to override it.</p>
+	 *
+	 * @param rank {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	@Override
+	public K keyAtRank(int rank){
+		checkRank(rank, size());
+		return topN(rank + 1).key(rank);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation takes the last value of the
+	 * {@link #bottomN(int) bottomN} of the {@code Counter}, taking linear
+	 * time. Subclasses are encouraged to override it.</p>
+	 *
+	 * @param percentile {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 * @throws NoSuchElementException {@inheritDoc}
+	 */
+	@Override
+	public V valueAtPercentile(double percentile){
+		int position=percentilePosition(percentile, size());
+		return bottomN(position + 1).value(position);
+	}
+
+	/**
+	 * Checks that the specified rank is within the keys of a
+	 * {@code SortedCounter}.
+	 *
+	 * @param rank the rank
+	 * @param size the size of the {@code SortedCounter}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than {@code size}
+	 */
+	static void checkRank(long rank, long size){
+		if(rank < 0 || rank >= size){
+			throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Returns the position, in ascending order of value, of the key whose
+	 * value is at the specified percentile according to the nearest-rank
+	 * method.
+	 *
+	 * @param percentile the percentile
+	 * @param size the size of the {@code SortedCounter}
+	 *
+	 * @return the position of the value at {@code percentile}
+	 *
+	 * @throws IllegalArgumentException if {@code percentile} is not between
+	 * 0 and 100
+	 * @throws NoSuchElementException if {@code size} is 0
+	 */
+	static int percentilePosition(double percentile, long size){
+		if(!(percentile >= 0 && percentile <= 100)){
+			throw new IllegalArgumentException("The percentile must be between 0 and 100");
+		}
+		if(size == 0){
+			throw new NoSuchElementException();
+		}
+		long position=(long)Math.ceil(percentile / 100 * size) - 1;
+		return (int)Math.max(0, Math.min(position, size - 1));
+	}
+
 	@Override
 	public SortedCounter<K, V> tailCounter(V from_value){
 		return tailCounter(from_value, true);
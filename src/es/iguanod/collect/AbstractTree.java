@@ -23,9 +23,11 @@ import es.iguanod.base.Objects;
 import es.iguanod.util.Maybe;
 import es.iguanod.util.MaybeM;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -369,100 +371,223 @@ public abstract class AbstractTree<T> implements Tree<T>, Serializable{
 	}
 
 	@Override
-	public List<Maybe<T>> postOrderDeepFirstTraversal(TreeNode node){
-		node.checkNode(this);
-		ArrayList<Maybe<T>> ret=new ArrayList<>();
-		for(TreeNode son:this.children(node)){
-			ret.addAll(this.postOrderDeepFirstTraversal(son));
+	public Iterator<TreeNode> preOrderDeepFirstIterator(){
+		if(this.isEmpty()){
+			return Collections.<TreeNode>emptyIterator();
+		}else{
+			return preOrderDeepFirstIterator(this.root().get());
 		}
-		ret.add(this.getValue(((TNode<T>)node)));
-		return ret;
 	}
 
 	@Override
-	public List<Maybe<T>> preOrderDeepFirstTraversal(TreeNode node){
-		node.checkNode(this);
-		ArrayList<Maybe<T>> ret=new ArrayList<>();
-		ret.add(getValue(((TNode<T>)node)));
-		for(TreeNode son:this.children(node)){
-			ret.addAll(this.postOrderDeepFirstTraversal(son));
+	public Iterator<TreeNode> postOrderDeepFirstIterator(){
+		if(this.isEmpty()){
+			return Collections.<TreeNode>emptyIterator();
+		}else{
+			return postOrderDeepFirstIterator(this.root().get());
 		}
-		return ret;
 	}
 
 	@Override
-	public List<Maybe<T>> breedFirstTraversal(TreeNode node){
-		node.checkNode(this);
-
-		ArrayList<Maybe<T>> ret=new ArrayList<>();
-		LinkedList<TreeNode> queue=new LinkedList<>();
-		queue.push(node);
-
-		while(!queue.isEmpty()){
-			TreeNode son=queue.pop();
-			ret.add(this.getValue(son));
-			for(TreeNode child:this.children(son)){
-				queue.add(child);
-			}
+	public Iterator<TreeNode> breedFirstIterator(){
+		if(this.isEmpty()){
+			return Collections.<TreeNode>emptyIterator();
+		}else{
+			return breedFirstIterator(this.root().get());
 		}
-		return ret;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation keeps a stack with the {@code children} iterators
+	 * of the ancestors of the last visited node, so it takes memory
+	 * proportional to the height of the branch.</p>
+	 *
+	 * @param node {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
 	@Override
-	public Maybe<TreeNode> postOrderDeepFirstSearch(TreeNode node, T value){
+	public Iterator<TreeNode> preOrderDeepFirstIterator(final TreeNode node){
 		node.checkNode(this);
-
-		Maybe<TreeNode> ret;
-		for(TreeNode son:this.children(node)){
-			ret=this.postOrderDeepFirstSearch(son, value);
-			if(ret.isPresent()){
-				return ret;
+		return new Iterator<TreeNode>(){
+			private TreeNode first=node;
+			private final ArrayDeque<Iterator<TreeNode>> stack=new ArrayDeque<>();
+
+			@Override
+			public boolean hasNext(){
+				if(first != null){
+					return true;
+				}
+				while(!stack.isEmpty() && !stack.peek().hasNext()){
+					stack.pop();
+				}
+				return !stack.isEmpty();
 			}
-		}
 
-		if(equalsValue(node, value)){
-			return Maybe.<TreeNode>from(node);
-		}
+			@Override
+			public TreeNode next(){
+				if(!hasNext()){
+					throw new NoSuchElementException("The iterator has no more elements");
+				}
+				TreeNode next;
+				if(first != null){
+					next=first;
+					first=null;
+				}else{
+					next=stack.peek().next();
+				}
+				stack.push(children(next).iterator());
+				return next;
+			}
 
-		return Maybe.ABSENT;
+			@Override
+			public void remove(){
+				throw new UnsupportedOperationException("The traversal Iterators of a Tree don't support element removal");
+			}
+		};
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation keeps a stack with the ancestors of the next node
+	 * to visit and their {@code children} iterators, so it takes memory
+	 * proportional to the height of the branch.</p>
+	 *
+	 * @param node {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
 	@Override
-	public Maybe<TreeNode> preOrderDeepFirstSearch(TreeNode node, T value){
+	public Iterator<TreeNode> postOrderDeepFirstIterator(final TreeNode node){
 		node.checkNode(this);
+		return new Iterator<TreeNode>(){
+			private final ArrayDeque<TreeNode> nodes=new ArrayDeque<>();
+			private final ArrayDeque<Iterator<TreeNode>> stack=new ArrayDeque<>();
 
-		if(equalsValue(node, value)){
-			return Maybe.<TreeNode>from(node);
-		}
+			{
+				nodes.push(node);
+				stack.push(children(node).iterator());
+			}
 
-		Maybe<TreeNode> ret;
-		for(TreeNode son:this.children(node)){
-			ret=this.preOrderDeepFirstSearch(son, value);
-			if(ret.isPresent()){
-				return ret;
+			@Override
+			public boolean hasNext(){
+				return !nodes.isEmpty();
 			}
-		}
 
-		return Maybe.ABSENT;
+			@Override
+			public TreeNode next(){
+				if(!hasNext()){
+					throw new NoSuchElementException("The iterator has no more elements");
+				}
+				while(stack.peek().hasNext()){
+					TreeNode son=stack.peek().next();
+					nodes.push(son);
+					stack.push(children(son).iterator());
+				}
+				stack.pop();
+				return nodes.pop();
+			}
+
+			@Override
+			public void remove(){
+				throw new UnsupportedOperationException("The traversal Iterators of a Tree don't support element removal");
+			}
+		};
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation keeps a queue with the nodes already reached but
+	 * not visited yet, so it takes memory proportional to the width of the
+	 * branch.</p>
+	 *
+	 * @param node {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
 	@Override
-	public Maybe<TreeNode> breedFirstSearch(TreeNode node, T value){
+	public Iterator<TreeNode> breedFirstIterator(final TreeNode node){
 		node.checkNode(this);
+		return new Iterator<TreeNode>(){
+			private final ArrayDeque<TreeNode> queue=new ArrayDeque<>();
+
+			{
+				queue.add(node);
+			}
 
-		LinkedList<TreeNode> queue=new LinkedList<>();
-		queue.push(node);
+			@Override
+			public boolean hasNext(){
+				return !queue.isEmpty();
+			}
 
-		while(!queue.isEmpty()){
-			TreeNode son=queue.pop();
-			if(equalsValue(node, value)){
-				return Maybe.<TreeNode>from(node);
+			@Override
+			public TreeNode next(){
+				if(!hasNext()){
+					throw new NoSuchElementException("The iterator has no more elements");
+				}
+				TreeNode next=queue.poll();
+				for(TreeNode son:children(next)){
+					queue.add(son);
+				}
+				return next;
 			}
-			for(TreeNode child:this.children(son)){
-				queue.add(child);
+
+			@Override
+			public void remove(){
+				throw new UnsupportedOperationException("The traversal Iterators of a Tree don't support element removal");
 			}
+		};
+	}
+
+	private List<Maybe<T>> values(Iterator<TreeNode> iter){
+		ArrayList<Maybe<T>> ret=new ArrayList<>();
+		while(iter.hasNext()){
+			ret.add(this.getValue(iter.next()));
 		}
+		return ret;
+	}
 
+	private Maybe<TreeNode> search(Iterator<TreeNode> iter, T value){
+		while(iter.hasNext()){
+			TreeNode next=iter.next();
+			if(equalsValue(next, value)){
+				return Maybe.from(next);
+			}
+		}
 		return Maybe.ABSENT;
 	}
+
+	@Override
+	public List<Maybe<T>> postOrderDeepFirstTraversal(TreeNode node){
+		return values(this.postOrderDeepFirstIterator(node));
+	}
+
+	@Override
+	public List<Maybe<T>> preOrderDeepFirstTraversal(TreeNode node){
+		return values(this.preOrderDeepFirstIterator(node));
+	}
+
+	@Override
+	public List<Maybe<T>> breedFirstTraversal(TreeNode node){
+		return values(this.breedFirstIterator(node));
+	}
+
+	@Override
+	public Maybe<TreeNode> postOrderDeepFirstSearch(TreeNode node, T value){
+		return search(this.postOrderDeepFirstIterator(node), value);
+	}
+
+	@Override
+	public Maybe<TreeNode> preOrderDeepFirstSearch(TreeNode node, T value){
+		return search(this.preOrderDeepFirstIterator(node), value);
+	}
+
+	@Override
+	public Maybe<TreeNode> breedFirstSearch(TreeNode node, T value){
+		return search(this.breedFirstIterator(node), value);
+	}
 }
@@ -0,0 +1,278 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the {@link es.iguanod.collect.FixedCapacityQueue} interface
+ * based on a circular array, preallocated with the capacity of the queue, so
+ * inserting and removing elements never allocates memory (except for the
+ * {@link es.iguanod.util.Maybe} returned by {@link #push(Object) push} when an
+ * element is removed, which {@link #add(Object) add} avoids).
+ * <p>
+ * Besides the {@code FixedCapacityQueue} methods, the elements can be
+ * accessed by their position with {@link #get(int) get}.</p>
+ * <p>
+ * This implementation accepts {@code null} elements.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @param <T> the class of the elements being stored
+ *
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ArrayFixedCapacityQueue<T> extends AbstractCollection<T> implements FixedCapacityQueue<T>, Serializable{
+
+	private static final long serialVersionUID=-5493120841935118167L;
+	//**********
+	/**
+	 * Circular array that stores the elements.
+	 */
+	private final Object[] elements;
+	/**
+	 * Position of the oldest element in the array.
+	 */
+	private int head=0;
+	private int size=0;
+	private transient int mod_count=0;
+
+	/**
+	 * Constructs a new {@code ArrayFixedCapacityQueue} with the specified
+	 * maximum capacity.
+	 *
+	 * @param capacity the maximum capacity of the queue
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is non-possitive
+	 */
+	public ArrayFixedCapacityQueue(int capacity){
+		if(capacity <= 0){
+			throw new IllegalArgumentException("The capacity has to be possitive");
+		}
+		elements=new Object[capacity];
+	}
+
+	/**
+	 * Returns the position in the array of the element in the specified
+	 * position of the queue.
+	 *
+	 * @param index the position in the queue
+	 *
+	 * @return the position in the array
+	 */
+	private int slot(int index){
+		int slot=head + index;
+		return slot >= elements.length ? slot - elements.length : slot;
+	}
+
+	/**
+	 * Inserts the specified element in the queue, retrieving and removing the
+	 * oldest element in case the queue is full.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@link es.iguanod.util.Maybe#ABSENT Maybe.ABSENT} if the queue
+	 * wasn't full prior to this call, or a {@link es.iguanod.util.Maybe}
+	 * containing the removed element if it was
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Maybe<T> push(T elem){
+		if(size == elements.length){
+			T oldest=(T)elements[head];
+			add(elem);
+			return Maybe.from(oldest);
+		}else{
+			add(elem);
+			return Maybe.ABSENT;
+		}
+	}
+
+	/**
+	 * Retrieves and removes the oldest element of the queue, if there's any.
+	 *
+	 * @return {@link es.iguanod.util.Maybe#ABSENT Maybe.ABSENT} if the queue
+	 * was empty prior to this call, or a {@link es.iguanod.util.Maybe}
+	 * containing the removed element if it wasn't
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Maybe<T> pop(){
+		if(size == 0){
+			return Maybe.ABSENT;
+		}
+		T oldest=(T)elements[head];
+		elements[head]=null;
+		head=slot(1);
+		size--;
+		mod_count++;
+		return Maybe.from(oldest);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Maybe<T> peek(){
+		if(size == 0){
+			return Maybe.ABSENT;
+		}
+		return Maybe.from((T)elements[head]);
+	}
+
+	/**
+	 * Returns the element in the specified position of the queue, the oldest
+	 * element being in the position 0.
+	 *
+	 * @param index the position of the element
+	 *
+	 * @return the element in the position {@code index}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not
+	 * lower than the size of the queue
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int index){
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return (T)elements[slot(index)];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int capacity(){
+		return elements.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isFull(){
+		return size == elements.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		Arrays.fill(elements, null);
+		head=0;
+		size=0;
+		mod_count++;
+	}
+
+	/**
+	 * Returns an {@link java.util.Iterator} over the elements in this
+	 * collection. The elements are returned started with the oldest one and
+	 * finishing with the newest one.
+	 * <p>
+	 * The {@code Iterator} supports the
+	 * {@link java.util.Iterator#remove() remove} operation, which takes time
+	 * linear in the number of elements newer than the removed one.</p>
+	 *
+	 * @return the {@code Iterator}
+	 */
+	@Override
+	public Iterator<T> iterator(){
+		return new Iterator<T>(){
+			private int next=0;
+			private int last=-1;
+			private int expected_mod_count=mod_count;
+
+			@Override
+			public boolean hasNext(){
+				return next < size;
+			}
+
+			@Override
+			public T next(){
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				if(next >= size){
+					throw new NoSuchElementException();
+				}
+				last=next;
+				return get(next++);
+			}
+
+			@Override
+			public void remove(){
+				if(last < 0){
+					throw new IllegalStateException();
+				}
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				for(int i=last; i < size - 1; i++){
+					elements[slot(i)]=elements[slot(i + 1)];
+				}
+				elements[slot(size - 1)]=null;
+				size--;
+				next=last;
+				last=-1;
+				expected_mod_count=++mod_count;
+			}
+		};
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full (optional operation). This method behaves
+	 * just as {@link #push(Object) push(elem)} except it doesn't retrieve the
+	 * removed element (if any) and should always returns true.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean add(T elem){
+		if(size == elements.length){
+			elements[head]=elem;
+			head=slot(1);
+		}else{
+			elements[slot(size)]=elem;
+			size++;
+		}
+		mod_count++;
+		return true;
+	}
+}
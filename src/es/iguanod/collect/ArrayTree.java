@@ -0,0 +1,944 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.base.Objects;
+import es.iguanod.util.Maybe;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link es.iguanod.collect.Tree} implementation that stores its nodes in
+ * parallel arrays (the parent, first son, last son and next sibling of every
+ * node as {@code int} indices, and the values in an {@code Object} array)
+ * instead of allocating an object per node. This takes far less memory than a
+ * {@link es.iguanod.collect.LinkedTree}, and traversals walk the arrays
+ * instead of chasing references, without recursion.
+ * <p>
+ * The {@code TreeNode} objects returned by an {@code ArrayTree} are small
+ * handles wrapping the index of the node, created on demand: the same node may
+ * be returned as different (but equal) {@code TreeNode} objects. The indices
+ * of removed nodes are reused; the handles to removed nodes keep being
+ * invalid even after that.</p>
+ * <p>
+ * Just like a {@code LinkedTree}, this implementation accepts {@code null}
+ * values and supports all the optional operations.
+ * {@link #trim() trim} shrinks the arrays to the highest index in use.
+ * Since the nodes are never renumbered (their handles have to keep being
+ * valid), the free indices below that one are kept for later
+ * insertions.</p>
+ *
+ * @param <T> the class of the values stored in the tree
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ArrayTree<T> extends AbstractTree<T>{
+
+	private static final long serialVersionUID=-5204173316680872293L;
+	private static final int DEFAULT_CAPACITY=16;
+	private static final int NONE=-1;
+	/**
+	 * Marker stored as the value of the nodes with an absent value.
+	 */
+	private static final class AbsentValue implements Serializable{
+
+		private static final long serialVersionUID=6171403398457271652L;
+
+		private Object readResolve(){
+			return ABSENT_VALUE;
+		}
+	}
+	private static final Object ABSENT_VALUE=new AbsentValue();
+	//************
+	private int[] parents;
+	private int[] first_sons;
+	private int[] last_sons;
+	/**
+	 * The next sibling of every node, or the next free index for the indices
+	 * not in use.
+	 */
+	private int[] next_siblings;
+	private int[] sons_count;
+	/**
+	 * Incremented every time an index is released, to invalidate the handles
+	 * to the removed node.
+	 */
+	private int[] generations;
+	private Object[] values;
+	private int root=NONE;
+	private int size=0;
+	/**
+	 * First index in the free list.
+	 */
+	private int free=NONE;
+	/**
+	 * Number of indices ever used; the indices from this one on are unused.
+	 */
+	private int used=0;
+	/**
+	 * Generation of the indices added when growing the arrays, higher than
+	 * the generation of any index dropped by {@link #trim() trim}, so that
+	 * the handles to those indices are never valid again.
+	 */
+	private int min_generation=0;
+
+	/**
+	 * Handle to a node of the enclosing {@code ArrayTree}.
+	 */
+	private final class ArrayTNode extends TreeNode implements Serializable{
+
+		private static final long serialVersionUID=-2937265013587301845L;
+		//************
+		private final int index;
+		private final int generation;
+
+		private ArrayTNode(int index){
+			this.index=index;
+			this.generation=generations[index];
+		}
+
+		@Override
+		protected void checkNode(Tree tree){
+			if(tree != ArrayTree.this || index >= generations.length || generations[index] != generation){
+				throw new NoSuchElementException("The node doesn't belong to the tree");
+			}
+		}
+
+		@Override
+		protected void invalidate(Tree tree){
+			this.checkNode(tree);
+			generations[index]++;
+		}
+
+		@Override
+		public boolean equals(Object obj){
+			if(!(obj instanceof ArrayTree<?>.ArrayTNode)){
+				return false;
+			}
+			ArrayTree<?>.ArrayTNode node=(ArrayTree<?>.ArrayTNode)obj;
+			return node.tree() == ArrayTree.this && node.index == index && node.generation == generation;
+		}
+
+		@Override
+		public int hashCode(){
+			return 31 * index + generation;
+		}
+
+		private ArrayTree<?> tree(){
+			return ArrayTree.this;
+		}
+	}
+
+	public ArrayTree(){
+		this(0);
+	}
+
+	public ArrayTree(int max_sons){
+		this(max_sons, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new empty {@code ArrayTree} with the specified maximum
+	 * number of sons per node and room for {@code initial_capacity} nodes
+	 * before growing its arrays.
+	 *
+	 * @param max_sons the maximum number of sons per node, or a non-positive
+	 * number for no limit
+	 * @param initial_capacity the initial capacity of the arrays
+	 *
+	 * @throws IllegalArgumentException if {@code initial_capacity} is
+	 * negative
+	 */
+	public ArrayTree(int max_sons, int initial_capacity){
+		super(max_sons);
+		if(initial_capacity < 0){
+			throw new IllegalArgumentException("The initial capacity cannot be negative");
+		}
+		allocateArrays(initial_capacity);
+	}
+
+	public ArrayTree(Tree<? extends T> tree){
+		this(tree, tree.maxSons());
+	}
+
+	public ArrayTree(Tree<? extends T> tree, int max_sons){
+		super(max_sons);
+		allocateArrays(tree.isEmpty() ? 0 : tree.size());
+		if(tree.isEmpty()){
+			return;
+		}
+		copyStructure(tree, tree.root().get());
+	}
+
+	private void allocateArrays(int capacity){
+		parents=new int[capacity];
+		first_sons=new int[capacity];
+		last_sons=new int[capacity];
+		next_siblings=new int[capacity];
+		sons_count=new int[capacity];
+		generations=new int[capacity];
+		values=new Object[capacity];
+	}
+
+	private void copyStructure(Tree<? extends T> tree_src, TreeNode node){
+		root=allocate(tree_src.getValue(node), NONE);
+		ArrayList<TreeNode> to_copy=new ArrayList<>();
+		IntArrayList copied=new IntArrayList();
+		to_copy.add(node);
+		copied.add(root);
+		for(int i=0; i < to_copy.size(); i++){
+			TreeNode next_copy=to_copy.get(i);
+			int next_copied=copied.get(i);
+			if(this.maxSons() > 0 && tree_src.childrenSize(next_copy) > this.maxSons()){
+				throw new IllegalArgumentException("A node of the passed tree has more children than the accepted by this tree (" + this.maxSons() + ")");
+			}
+			for(TreeNode son:tree_src.children(next_copy)){
+				to_copy.add(son);
+				copied.add(allocate(tree_src.getValue(son), next_copied));
+			}
+		}
+	}
+
+	/**
+	 * Minimal growable list of {@code int}s used by the traversals.
+	 */
+	private static final class IntArrayList{
+
+		private int[] elements=new int[DEFAULT_CAPACITY];
+		private int size=0;
+
+		private void add(int elem){
+			if(size == elements.length){
+				elements=Arrays.copyOf(elements, size * 2);
+			}
+			elements[size++]=elem;
+		}
+
+		private int get(int index){
+			return elements[index];
+		}
+	}
+
+	@Override
+	protected final boolean nullsAllowed(){
+		return true;
+	}
+
+	@Override
+	protected final boolean structureModifiable(){
+		return true;
+	}
+
+	//************ Index management
+	private void ensureCapacity(int capacity){
+		if(capacity <= values.length){
+			return;
+		}
+		int old_capacity=values.length;
+		int new_capacity=Math.max(capacity, old_capacity + (old_capacity >> 1) + 1);
+		parents=Arrays.copyOf(parents, new_capacity);
+		first_sons=Arrays.copyOf(first_sons, new_capacity);
+		last_sons=Arrays.copyOf(last_sons, new_capacity);
+		next_siblings=Arrays.copyOf(next_siblings, new_capacity);
+		sons_count=Arrays.copyOf(sons_count, new_capacity);
+		generations=Arrays.copyOf(generations, new_capacity);
+		Arrays.fill(generations, old_capacity, new_capacity, min_generation);
+		values=Arrays.copyOf(values, new_capacity);
+	}
+
+	/**
+	 * Stores a new node as the last son of the specified parent.
+	 *
+	 * @param value the value of the node
+	 * @param parent the index of the parent, or {@code NONE} for the root
+	 *
+	 * @return the index of the new node
+	 */
+	private int allocate(Maybe<? extends T> value, int parent){
+		int index;
+		if(free != NONE){
+			index=free;
+			free=next_siblings[index];
+		}else{
+			ensureCapacity(used + 1);
+			index=used++;
+		}
+		parents[index]=parent;
+		first_sons[index]=NONE;
+		last_sons[index]=NONE;
+		next_siblings[index]=NONE;
+		sons_count[index]=0;
+		values[index]=value.isPresent() ? value.get() : ABSENT_VALUE;
+		if(parent != NONE){
+			if(last_sons[parent] == NONE){
+				first_sons[parent]=index;
+			}else{
+				next_siblings[last_sons[parent]]=index;
+			}
+			last_sons[parent]=index;
+			sons_count[parent]++;
+		}
+		size++;
+		return index;
+	}
+
+	/**
+	 * Removes the specified node, which must not be the root, from the list
+	 * of sons of its parent.
+	 */
+	private void unlink(int index){
+		int parent=parents[index];
+		int prev=NONE;
+		for(int son=first_sons[parent]; son != index; son=next_siblings[son]){
+			prev=son;
+		}
+		if(prev == NONE){
+			first_sons[parent]=next_siblings[index];
+		}else{
+			next_siblings[prev]=next_siblings[index];
+		}
+		if(last_sons[parent] == index){
+			last_sons[parent]=prev;
+		}
+		sons_count[parent]--;
+	}
+
+	/**
+	 * Releases the indices of the specified node and all its descendants,
+	 * which must have been already unlinked from the tree. The nodes are
+	 * released in post-order, so the walk never reads the links of a node
+	 * after it has been added to the free list.
+	 */
+	private void release(int top){
+		int index=leftmostLeaf(top);
+		while(index != NONE){
+			int next=nextPostOrder(index, top);
+			generations[index]++;
+			values[index]=null;
+			next_siblings[index]=free;
+			free=index;
+			size--;
+			index=next;
+		}
+	}
+
+	/**
+	 * Unlinks and releases the specified node and all its descendants.
+	 */
+	private void removeBranch(int index){
+		if(index == root){
+			root=NONE;
+		}else{
+			unlink(index);
+		}
+		release(index);
+	}
+
+	private int index(TreeNode node){
+		node.checkNode(this);
+		return ((ArrayTNode)node).index;
+	}
+
+	private TreeNode node(int index){
+		return new ArrayTNode(index);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Maybe<T> value(int index){
+		Object value=values[index];
+		return value == ABSENT_VALUE ? Maybe.<T>absent() : Maybe.from((T)value);
+	}
+
+	private boolean equalsValue(int index, Object obj){
+		return values[index] != ABSENT_VALUE && Objects.equals(values[index], obj);
+	}
+
+	//************ Walks over the arrays
+	/**
+	 * Returns the node next to the specified one in a pre-order walk of the
+	 * branch hanging from {@code top}, or {@code NONE} if it was the last one.
+	 */
+	private int nextPreOrder(int index, int top){
+		if(first_sons[index] != NONE){
+			return first_sons[index];
+		}
+		while(index != top){
+			if(next_siblings[index] != NONE){
+				return next_siblings[index];
+			}
+			index=parents[index];
+		}
+		return NONE;
+	}
+
+	private int leftmostLeaf(int index){
+		while(first_sons[index] != NONE){
+			index=first_sons[index];
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the node next to the specified one in a post-order walk of the
+	 * branch hanging from {@code top}, or {@code NONE} if it was the last one.
+	 */
+	private int nextPostOrder(int index, int top){
+		if(index == top){
+			return NONE;
+		}
+		if(next_siblings[index] != NONE){
+			return leftmostLeaf(next_siblings[index]);
+		}
+		return parents[index];
+	}
+
+	//************ Tree methods
+	@Override
+	public void trim(){
+		int capacity=0;
+		for(int index=root; index != NONE; index=nextPreOrder(index, root)){
+			capacity=Math.max(capacity, index + 1);
+		}
+		// Drop the free indices above the highest one in use
+		int prev=NONE;
+		for(int index=free; index != NONE; index=next_siblings[index]){
+			if(index < capacity){
+				if(prev == NONE){
+					free=index;
+				}else{
+					next_siblings[prev]=index;
+				}
+				prev=index;
+			}
+		}
+		if(prev == NONE){
+			free=NONE;
+		}else{
+			next_siblings[prev]=NONE;
+		}
+		for(int index=capacity; index < generations.length; index++){
+			min_generation=Math.max(min_generation, generations[index]);
+		}
+		used=capacity;
+		parents=Arrays.copyOf(parents, capacity);
+		first_sons=Arrays.copyOf(first_sons, capacity);
+		last_sons=Arrays.copyOf(last_sons, capacity);
+		next_siblings=Arrays.copyOf(next_siblings, capacity);
+		sons_count=Arrays.copyOf(sons_count, capacity);
+		generations=Arrays.copyOf(generations, capacity);
+		values=Arrays.copyOf(values, capacity);
+	}
+
+	@Override
+	public TreeNode push(T value){
+		if(root != NONE && this.maxSons() <= 0){
+			throw new UnsupportedOperationException("If maximum of sons per node is not specified push is only supported to set the root");
+		}
+
+		if(root == NONE){
+			root=allocate(Maybe.from(value), NONE);
+			return node(root);
+		}
+
+		// Breadth first search of the first node with room for another son
+		IntArrayList queue=new IntArrayList();
+		queue.add(root);
+		for(int i=0;; i++){
+			int index=queue.get(i);
+			if(sons_count[index] < this.maxSons()){
+				return node(allocate(Maybe.from(value), index));
+			}
+			for(int son=first_sons[index]; son != NONE; son=next_siblings[son]){
+				queue.add(son);
+			}
+		}
+	}
+
+	@Override
+	public Maybe<T> pop(){
+		if(root == NONE){
+			return Maybe.ABSENT;
+		}
+
+		// The last node in breadth first order
+		IntArrayList queue=new IntArrayList();
+		queue.add(root);
+		for(int i=0; i < queue.size; i++){
+			for(int son=first_sons[queue.get(i)]; son != NONE; son=next_siblings[son]){
+				queue.add(son);
+			}
+		}
+		int last=queue.get(queue.size - 1);
+		Maybe<T> ret=value(last);
+		removeBranch(last);
+		return ret;
+	}
+
+	@Override
+	public boolean remove(Object obj){
+		if(root == NONE){
+			return false;
+		}
+		if(equalsValue(root, obj)){
+			removeBranch(root);
+			return true;
+		}
+
+		IntArrayList queue=new IntArrayList();
+		queue.add(root);
+		for(int i=0; i < queue.size; i++){
+			for(int son=first_sons[queue.get(i)]; son != NONE; son=next_siblings[son]){
+				if(equalsValue(son, obj)){
+					removeBranch(son);
+					return true;
+				}
+				queue.add(son);
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Maybe<TreeNode> root(){
+		return root == NONE ? Maybe.ABSENT : Maybe.from(node(root));
+	}
+
+	@Override
+	public void clear(){
+		if(root != NONE){
+			removeBranch(root);
+		}
+		// The generations are kept, so the indices can be reused from 0
+		free=NONE;
+		used=0;
+	}
+
+	@Override
+	public Maybe<T> getValue(TreeNode node){
+		return value(index(node));
+	}
+
+	@Override
+	public Maybe<T> setValue(TreeNode node, T value){
+		int index=index(node);
+		Maybe<T> old_value=value(index);
+		values[index]=value;
+		return old_value;
+	}
+
+	@Override
+	public TreeNode add(TreeNode node, T value){
+		int index=index(node);
+		if(this.maxSons() > 0 && sons_count[index] >= this.maxSons()){
+			throw new IllegalStateException("The node has no space for more elements");
+		}
+		return node(allocate(Maybe.from(value), index));
+	}
+
+	@Override
+	public boolean contains(Object obj){
+		return root != NONE && this.contains(node(root), obj);
+	}
+
+	@Override
+	public boolean containsChild(TreeNode node, Object obj){
+		for(int son=first_sons[index(node)]; son != NONE; son=next_siblings[son]){
+			if(equalsValue(son, obj)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean containsDescendant(TreeNode node, Object obj){
+		int top=index(node);
+		for(int index=nextPreOrder(top, top); index != NONE; index=nextPreOrder(index, top)){
+			if(equalsValue(index, obj)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return root == NONE;
+	}
+
+	@Override
+	public boolean hasChildren(TreeNode node){
+		return first_sons[index(node)] != NONE;
+	}
+
+	@Override
+	public boolean remove(TreeNode node, Object obj){
+		for(int son=first_sons[index(node)]; son != NONE; son=next_siblings[son]){
+			if(equalsValue(son, obj)){
+				removeBranch(son);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Maybe<T> remove(TreeNode node, int index){
+		int son=child(index(node), index);
+		if(son == NONE){
+			return Maybe.ABSENT;
+		}
+		Maybe<T> ret=value(son);
+		removeBranch(son);
+		return ret;
+	}
+
+	@Override
+	public void removeSons(TreeNode node){
+		int index=index(node);
+		while(first_sons[index] != NONE){
+			removeBranch(first_sons[index]);
+		}
+	}
+
+	@Override
+	public boolean retainAll(TreeNode node, Collection<?> col){
+		boolean modif=false;
+		int son=first_sons[index(node)];
+		while(son != NONE){
+			int next=next_siblings[son];
+			boolean contained=false;
+			for(Object obj:col){
+				if(equalsValue(son, obj)){
+					contained=true;
+					break;
+				}
+			}
+			if(!contained){
+				removeBranch(son);
+				modif=true;
+			}
+			son=next;
+		}
+		return modif;
+	}
+
+	@Override
+	public int height(TreeNode node){
+		int top=index(node);
+		int height=1;
+		int depth=1;
+		int index=top;
+		while(true){
+			if(first_sons[index] != NONE){
+				index=first_sons[index];
+				depth++;
+				height=Math.max(height, depth);
+				continue;
+			}
+			while(index != top && next_siblings[index] == NONE){
+				index=parents[index];
+				depth--;
+			}
+			if(index == top){
+				return height;
+			}
+			index=next_siblings[index];
+		}
+	}
+
+	@Override
+	public int depth(TreeNode node){
+		int depth=0;
+		for(int index=parents[index(node)]; index != NONE; index=parents[index]){
+			depth++;
+		}
+		return depth;
+	}
+
+	@Override
+	public int size(){
+		return size;
+	}
+
+	@Override
+	public int size(TreeNode node){
+		int top=index(node);
+		int size=0;
+		for(int index=top; index != NONE; index=nextPreOrder(index, top)){
+			size++;
+		}
+		return size;
+	}
+
+	@Override
+	public int childrenSize(TreeNode node){
+		return sons_count[index(node)];
+	}
+
+	@Override
+	public Iterable<TreeNode> children(TreeNode node){
+		final int index=index(node);
+		return new Iterable<TreeNode>(){
+			@Override
+			public Iterator<TreeNode> iterator(){
+				return new Iterator<TreeNode>(){
+					private int next=first_sons[index];
+
+					@Override
+					public boolean hasNext(){
+						return next != NONE;
+					}
+
+					@Override
+					public TreeNode next(){
+						if(!hasNext()){
+							throw new NoSuchElementException("The iterator has no more elements");
+						}
+						int ret=next;
+						next=next_siblings[next];
+						return node(ret);
+					}
+
+					@Override
+					public void remove(){
+						throw new UnsupportedOperationException("The children Iterator of a Tree doesn't support element removal");
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Returns the index of the son in the specified position of a node, or
+	 * {@code NONE} if there's no such son.
+	 */
+	private int child(int index, int position){
+		if(position < 0 || position >= sons_count[index]){
+			return NONE;
+		}
+		int son=first_sons[index];
+		for(int i=0; i < position; i++){
+			son=next_siblings[son];
+		}
+		return son;
+	}
+
+	@Override
+	public Maybe<TreeNode> getChild(TreeNode node, int index){
+		int son=child(index(node), index);
+		return son == NONE ? Maybe.ABSENT : Maybe.from(node(son));
+	}
+
+	@Override
+	public Maybe<TreeNode> parent(TreeNode node){
+		int parent=parents[index(node)];
+		return parent == NONE ? Maybe.ABSENT : Maybe.from(node(parent));
+	}
+
+	/**
+	 * Base of the traversal iterators, which walk the arrays.
+	 */
+	private abstract class IndexIterator implements Iterator<TreeNode>{
+
+		protected final int top;
+		protected int next;
+
+		private IndexIterator(int top, int first){
+			this.top=top;
+			this.next=first;
+		}
+
+		protected abstract int advance(int index);
+
+		@Override
+		public boolean hasNext(){
+			return next != NONE;
+		}
+
+		@Override
+		public TreeNode next(){
+			if(next == NONE){
+				throw new NoSuchElementException("The iterator has no more elements");
+			}
+			int ret=next;
+			next=advance(next);
+			return node(ret);
+		}
+
+		@Override
+		public void remove(){
+			throw new UnsupportedOperationException("The traversal Iterators of a Tree don't support element removal");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation takes constant memory, since it walks the parent
+	 * and sibling links.</p>
+	 *
+	 * @param node {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Iterator<TreeNode> preOrderDeepFirstIterator(TreeNode node){
+		final int top=index(node);
+		return new IndexIterator(top, top){
+			@Override
+			protected int advance(int index){
+				return nextPreOrder(index, top);
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation takes constant memory, since it walks the parent
+	 * and sibling links.</p>
+	 *
+	 * @param node {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Iterator<TreeNode> postOrderDeepFirstIterator(TreeNode node){
+		final int top=index(node);
+		return new IndexIterator(top, leftmostLeaf(top)){
+			@Override
+			protected int advance(int index){
+				return nextPostOrder(index, top);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<TreeNode> breedFirstIterator(TreeNode node){
+		final IntArrayList queue=new IntArrayList();
+		queue.add(index(node));
+		return new Iterator<TreeNode>(){
+			private int i=0;
+
+			@Override
+			public boolean hasNext(){
+				return i < queue.size;
+			}
+
+			@Override
+			public TreeNode next(){
+				if(!hasNext()){
+					throw new NoSuchElementException("The iterator has no more elements");
+				}
+				int index=queue.get(i++);
+				for(int son=first_sons[index]; son != NONE; son=next_siblings[son]){
+					queue.add(son);
+				}
+				return node(index);
+			}
+
+			@Override
+			public void remove(){
+				throw new UnsupportedOperationException("The traversal Iterators of a Tree don't support element removal");
+			}
+		};
+	}
+
+	@Override
+	public List<Maybe<T>> postOrderDeepFirstTraversal(TreeNode node){
+		int top=index(node);
+		ArrayList<Maybe<T>> ret=new ArrayList<>();
+		for(int index=leftmostLeaf(top); index != NONE; index=nextPostOrder(index, top)){
+			ret.add(value(index));
+		}
+		return ret;
+	}
+
+	@Override
+	public List<Maybe<T>> preOrderDeepFirstTraversal(TreeNode node){
+		int top=index(node);
+		ArrayList<Maybe<T>> ret=new ArrayList<>();
+		for(int index=top; index != NONE; index=nextPreOrder(index, top)){
+			ret.add(value(index));
+		}
+		return ret;
+	}
+
+	@Override
+	public List<Maybe<T>> breedFirstTraversal(TreeNode node){
+		IntArrayList queue=new IntArrayList();
+		queue.add(index(node));
+		ArrayList<Maybe<T>> ret=new ArrayList<>();
+		for(int i=0; i < queue.size; i++){
+			int index=queue.get(i);
+			ret.add(value(index));
+			for(int son=first_sons[index]; son != NONE; son=next_siblings[son]){
+				queue.add(son);
+			}
+		}
+		return ret;
+	}
+
+	@Override
+	public Maybe<TreeNode> postOrderDeepFirstSearch(TreeNode node, T value){
+		int top=index(node);
+		for(int index=leftmostLeaf(top); index != NONE; index=nextPostOrder(index, top)){
+			if(equalsValue(index, value)){
+				return Maybe.from(node(index));
+			}
+		}
+		return Maybe.ABSENT;
+	}
+
+	@Override
+	public Maybe<TreeNode> preOrderDeepFirstSearch(TreeNode node, T value){
+		int top=index(node);
+		for(int index=top; index != NONE; index=nextPreOrder(index, top)){
+			if(equalsValue(index, value)){
+				return Maybe.from(node(index));
+			}
+		}
+		return Maybe.ABSENT;
+	}
+
+	@Override
+	public Maybe<TreeNode> breedFirstSearch(TreeNode node, T value){
+		IntArrayList queue=new IntArrayList();
+		queue.add(index(node));
+		for(int i=0; i < queue.size; i++){
+			int index=queue.get(i);
+			if(equalsValue(index, value)){
+				return Maybe.from(node(index));
+			}
+			for(int son=first_sons[index]; son != NONE; son=next_siblings[son]){
+				queue.add(son);
+			}
+		}
+		return Maybe.ABSENT;
+	}
+}
@@ -0,0 +1,367 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.HashCounter.HashCounterBuilder;
+import es.iguanod.math.Adders;
+import es.iguanod.math.BigLong;
+import es.iguanod.math.BigLongM;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * {@code HashCounter} specialized for {@link es.iguanod.math.BigLong} values,
+ * which never overflow. The values are stored as
+ * {@link es.iguanod.math.BigLongM} objects owned by the {@code Counter}, and
+ * summing or deducting a value updates them in place with
+ * {@link es.iguanod.math.BigLongM#addM(BigLong) addM} and
+ * {@link es.iguanod.math.BigLongM#subM(BigLong) subM}, instead of allocating
+ * a new value per operation.
+ * <p>
+ * Therefore, the values returned by {@link #get(Object) get}, by the views
+ * and in the second place of the tuples returned by {@code sum} and
+ * {@code deduct} are the live values of the {@code Counter}: they change when
+ * the values associated with their keys do, and must not be modified nor kept
+ * beyond that. The first place of the returned tuples is a snapshot of the
+ * previous value, and the values passed to the {@code Counter} are always
+ * copied, except for those set through {@code Entry.setValue}, which are
+ * copied the next time they are updated only if they are not
+ * {@code BigLongM}.</p>
+ * <p>
+ * Besides the {@code Counter} methods, {@code BigLongHashCounter} offers
+ * {@link #sumLong(Object,long) sumLong} and
+ * {@link #deductLong(Object,long) deductLong}, which do not allocate the
+ * returned tuple nor the snapshot of the previous value.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class BigLongHashCounter<K> extends HashCounter<K, BigLong>{
+
+	private static final long serialVersionUID=-1864301650398215735L;
+
+	public static class BigLongHashCounterBuilder<K> extends HashCounterBuilder<K, BigLong>{
+
+		private static final long serialVersionUID=4170652291486038112L;
+
+		public BigLongHashCounterBuilder(){
+			super(new Caster<BigDecimal, BigLong>(){
+				private static final long serialVersionUID=-6385130986245961738L;
+
+				@Override
+				public BigLong cast(BigDecimal t){
+					return new BigLong(t.toBigInteger());
+				}
+			});
+			super.setAdder(Adders.BIG_LONG);
+		}
+
+		@Override
+		public BigLongHashCounterBuilder<K> setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public BigLongHashCounterBuilder<K> setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public BigLongHashCounterBuilder<K> setComparator(Comparator<? super BigLong> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public BigLongHashCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends BigLong> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public BigLongHashCounter<K> build(){
+			return new BigLongHashCounter<>(this);
+		}
+	}
+	public static final Caster<Number, BigLong> NUM_CASTER=new Caster<Number, BigLong>(){
+		private static final long serialVersionUID=164912068267529453L;
+
+		@Override
+		public BigLong cast(Number t){
+			return new BigLong(t);
+		}
+	};
+
+	protected BigLongHashCounter(BigLongHashCounterBuilder<K> builder){
+		super(builder);
+		for(Entry<K, BigLong> entry:super.entrySet()){
+			entry.setValue(new BigLongM(entry.getValue()));
+		}
+	}
+
+	public BigLongHashCounter(){
+		this(new BigLongHashCounterBuilder<K>());
+	}
+
+	/**
+	 * Returns the value associated with the specified key as a
+	 * {@code BigLongM} owned by this {@code Counter}, replacing it by a copy
+	 * if it is not a {@code BigLongM}; or {@code null} if the key is not
+	 * present.
+	 *
+	 * @param key the key
+	 *
+	 * @return the mutable value associated with {@code key}, or {@code null}
+	 */
+	private BigLongM mutable(K key){
+		BigLong value=super.get(key);
+		if(value == null || value instanceof BigLongM){
+			return (BigLongM)value;
+		}
+		BigLongM copy=new BigLongM(value);
+		super.put(key, copy);
+		return copy;
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new (live) value. If the key is not
+	 * already present in this {@code Counter}, this method behaves as if it
+	 * was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,BigLong) sum}, but
+	 * allocates neither the returned tuple nor the snapshot of the previous
+	 * value.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public BigLong sumLong(K key, long value){
+		BigLongM current=mutable(key);
+		if(current == null){
+			current=new BigLongM(value);
+			super.put(key, current);
+			return current;
+		}
+		return current.addM(value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new (live) value. If the key is not
+	 * already present in this {@code Counter}, this method behaves as if it
+	 * was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,BigLong) deduct},
+	 * but allocates neither the returned tuple nor the snapshot of the
+	 * previous value.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public BigLong deductLong(K key, long value){
+		BigLongM current=mutable(key);
+		if(current == null){
+			current=new BigLongM(value).negateM();
+			super.put(key, current);
+			return current;
+		}
+		return current.subM(value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<BigLong, BigLong> sum(K key, BigLong value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		BigLongM current=mutable(key);
+		if(current == null){
+			current=new BigLongM(value);
+			super.put(key, current);
+			return new Tuple2<BigLong, BigLong>(null, current);
+		}
+		BigLong oldvalue=new BigLong(current);
+		return new Tuple2<BigLong, BigLong>(oldvalue, current.addM(value));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<BigLong, BigLong> deduct(K key, BigLong value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		BigLongM current=mutable(key);
+		if(current == null){
+			current=new BigLongM(value).negateM();
+			super.put(key, current);
+			return new Tuple2<BigLong, BigLong>(null, current);
+		}
+		BigLong oldvalue=new BigLong(current);
+		return new Tuple2<BigLong, BigLong>(oldvalue, current.subM(value));
+	}
+
+	/**
+	 * {@inheritDoc} The value associated with the key is updated in place.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void sumValue(K key, BigLong value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		BigLongM current=mutable(key);
+		if(current == null){
+			super.put(key, new BigLongM(value));
+		}else{
+			current.addM(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The value associated with the key is updated in place.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void deductValue(K key, BigLong value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		BigLongM current=mutable(key);
+		if(current == null){
+			super.put(key, new BigLongM(value).negateM());
+		}else{
+			current.subM(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(Collection<? extends K> keys){
+		for(K key:keys){
+			sumLong(key, 1);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(K[] keys){
+		for(K key:keys){
+			sumLong(key, 1);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(BigLong value){
+		for(K key:super.keySet()){
+			mutable(key).addM(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(BigLong value){
+		for(K key:super.keySet()){
+			mutable(key).subM(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The value is copied.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public BigLong put(K key, BigLong value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		return super.put(key, new BigLongM(value));
+	}
+}
@@ -40,6 +40,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  *
@@ -237,6 +240,191 @@ public final class CollectionsIg{
 			return new SynchronizedFixedCapacityQueue<>(queue);
 		}
 	}//</editor-fold>
+
+	//<editor-fold defaultstate="collapsed" desc="Parallel methods">
+	/**
+	 * Merges all the specified {@code Counters} into the first one, in
+	 * parallel, using a new {@link java.util.concurrent.ForkJoinPool}. See
+	 * {@link #parallelMerge(List,ForkJoinPool)}.
+	 *
+	 * @param <K> the class of the keys of the {@code Counters}
+	 * @param <V> the class of the values of the {@code Counters}
+	 * @param counters the {@code Counters} to be merged
+	 *
+	 * @return the first {@code Counter} of the list, with the values of all
+	 * the others sumed to it
+	 *
+	 * @throws IllegalArgumentException if the list is empty
+	 */
+	public static <K, V extends Number> Counter<K, V> parallelMerge(List<? extends Counter<K, V>> counters){
+		ForkJoinPool pool=new ForkJoinPool();
+		try{
+			return parallelMerge(counters, pool);
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Merges all the specified {@code Counters} into the first one, in
+	 * parallel, using the specified {@link java.util.concurrent.ForkJoinPool}.
+	 * The {@code Counters} are merged pairwise with
+	 * {@link Counter#mergeFrom(Counter) mergeFrom} in a tree reduction, so
+	 * the merge of {@code n} {@code Counters} takes about {@code log2(n)}
+	 * sequential steps. Note that the {@code Counters} of the list other than
+	 * the first one may be modified too, as they hold the partial results of
+	 * the reduction; and that no {@code Counter} of the list may be accessed
+	 * by other threads until this method returns.
+	 *
+	 * @param <K> the class of the keys of the {@code Counters}
+	 * @param <V> the class of the values of the {@code Counters}
+	 * @param counters the {@code Counters} to be merged
+	 * @param pool the {@code ForkJoinPool} in which the merge is run
+	 *
+	 * @return the first {@code Counter} of the list, with the values of all
+	 * the others sumed to it
+	 *
+	 * @throws IllegalArgumentException if the list is empty
+	 */
+	public static <K, V extends Number> Counter<K, V> parallelMerge(List<? extends Counter<K, V>> counters, ForkJoinPool pool){
+		if(counters.isEmpty()){
+			throw new IllegalArgumentException("At least one Counter is needed");
+		}
+		pool.invoke(new MergeTask<>(counters, 0, counters.size()));
+		return counters.get(0);
+	}
+
+	/**
+	 * Counts the occurrences of every element of the specified
+	 * {@code Collection} in parallel, using a new
+	 * {@link java.util.concurrent.ForkJoinPool}. See
+	 * {@link #toIntCounter(Collection,ForkJoinPool)}.
+	 *
+	 * @param <K> the class of the elements
+	 * @param keys the elements to be counted
+	 *
+	 * @return a new {@code IntHashCounter} with the number of occurrences of
+	 * every element
+	 */
+	public static <K> IntHashCounter<K> toIntCounter(Collection<? extends K> keys){
+		ForkJoinPool pool=new ForkJoinPool();
+		try{
+			return toIntCounter(keys, pool);
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Counts the occurrences of every element of the specified
+	 * {@code Collection} in parallel, using the specified
+	 * {@link java.util.concurrent.ForkJoinPool}. The elements are split in
+	 * chunks, each chunk is counted by a single task in an
+	 * {@code IntHashCounter} of its own, and the partial
+	 * {@code IntHashCounters} are combined with
+	 * {@link Counter#mergeFrom(Counter) mergeFrom}.
+	 *
+	 * @param <K> the class of the elements
+	 * @param keys the elements to be counted
+	 * @param pool the {@code ForkJoinPool} in which the count is run
+	 *
+	 * @return a new {@code IntHashCounter} with the number of occurrences of
+	 * every element
+	 */
+	public static <K> IntHashCounter<K> toIntCounter(Collection<? extends K> keys, ForkJoinPool pool){
+		Object[] array=keys.toArray();
+		return pool.invoke(new IntCountTask<K>(array, 0, array.length));
+	}
+
+	/**
+	 * Sums the values of the elements of the specified {@code Collection} to
+	 * their keys in parallel, using a new
+	 * {@link java.util.concurrent.ForkJoinPool}. See
+	 * {@link #toDoubleCounter(Collection,Caster,Caster,ForkJoinPool)}.
+	 *
+	 * @param <T> the class of the elements
+	 * @param <K> the class of the keys
+	 * @param items the elements to be counted
+	 * @param key_caster the {@code Caster} extracting the key of an element
+	 * @param value_caster the {@code Caster} extracting the value of an
+	 * element
+	 *
+	 * @return a new {@code DoubleHashCounter} with the sum of the values of
+	 * the elements of every key
+	 */
+	public static <T, K> DoubleHashCounter<K> toDoubleCounter(Collection<? extends T> items, Caster<? super T, ? extends K> key_caster, Caster<? super T, Double> value_caster){
+		ForkJoinPool pool=new ForkJoinPool();
+		try{
+			return toDoubleCounter(items, key_caster, value_caster, pool);
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Sums the values of the elements of the specified {@code Collection} to
+	 * their keys in parallel, using the specified
+	 * {@link java.util.concurrent.ForkJoinPool}. The elements are split in
+	 * chunks, each chunk is summed by a single task in a
+	 * {@code DoubleHashCounter} of its own, and the partial
+	 * {@code DoubleHashCounters} are combined with
+	 * {@link Counter#mergeFrom(Counter) mergeFrom}. The {@code Casters} are
+	 * called concurrently from several threads.
+	 *
+	 * @param <T> the class of the elements
+	 * @param <K> the class of the keys
+	 * @param items the elements to be counted
+	 * @param key_caster the {@code Caster} extracting the key of an element
+	 * @param value_caster the {@code Caster} extracting the value of an
+	 * element
+	 * @param pool the {@code ForkJoinPool} in which the count is run
+	 *
+	 * @return a new {@code DoubleHashCounter} with the sum of the values of
+	 * the elements of every key
+	 */
+	public static <T, K> DoubleHashCounter<K> toDoubleCounter(Collection<? extends T> items, Caster<? super T, ? extends K> key_caster, Caster<? super T, Double> value_caster, ForkJoinPool pool){
+		Object[] array=items.toArray();
+		return pool.invoke(new DoubleCountTask<T, K>(array, 0, array.length, key_caster, value_caster));
+	}
+
+	/**
+	 * Counts the occurrences of every element of the specified
+	 * {@code Collection} in parallel, using a new
+	 * {@link java.util.concurrent.ForkJoinPool}, and returns them sorted.
+	 * See {@link #toSortedCounter(Collection,ForkJoinPool)}.
+	 *
+	 * @param <K> the class of the elements
+	 * @param keys the elements to be counted
+	 *
+	 * @return a new {@code IntTreeCounter} with the number of occurrences of
+	 * every element
+	 */
+	public static <K> IntTreeCounter<K> toSortedCounter(Collection<? extends K> keys){
+		ForkJoinPool pool=new ForkJoinPool();
+		try{
+			return toSortedCounter(keys, pool);
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Counts the occurrences of every element of the specified
+	 * {@code Collection} in parallel, using the specified
+	 * {@link java.util.concurrent.ForkJoinPool}, and returns them sorted. The
+	 * elements are counted as in {@link #toIntCounter(Collection,ForkJoinPool)
+	 * toIntCounter}, and the values are sorted once at the end.
+	 *
+	 * @param <K> the class of the elements
+	 * @param keys the elements to be counted
+	 * @param pool the {@code ForkJoinPool} in which the count is run
+	 *
+	 * @return a new {@code IntTreeCounter} with the number of occurrences of
+	 * every element
+	 */
+	public static <K> IntTreeCounter<K> toSortedCounter(Collection<? extends K> keys, ForkJoinPool pool){
+		return new IntTreeCounterBuilder<K>().setInitialMappings(toIntCounter(keys, pool)).build();
+	}//</editor-fold>
 	//</editor-fold>
 
 	//<editor-fold defaultstate="collapsed" desc="Classes for methods">
@@ -333,6 +521,11 @@ public final class CollectionsIg{
 			throw new UnsupportedOperationException("Unmodifiable Counter");
 		}
 
+		@Override
+		public void mergeFrom(Counter<? extends K, ? extends V> counter){
+			throw new UnsupportedOperationException("Unmodifiable Counter");
+		}
+
 		@Override
 		public <X> void sumAll(Map<? extends K, ? extends X> map, Caster<X, V> caster){
 			throw new UnsupportedOperationException("Unmodifiable Counter");
@@ -514,6 +707,31 @@ public final class CollectionsIg{
 			return Collections.unmodifiableSet(((SortedCounter<K, V>)counter).minKeySet());
 		}
 
+		@Override
+		public RankedKeys<K, V> topN(int n){
+			return ((SortedCounter<K, V>)counter).topN(n);
+		}
+
+		@Override
+		public RankedKeys<K, V> bottomN(int n){
+			return ((SortedCounter<K, V>)counter).bottomN(n);
+		}
+
+		@Override
+		public int rankOf(Object key){
+			return ((SortedCounter<K, V>)counter).rankOf(key);
+		}
+
+		@Override
+		public K keyAtRank(int rank){
+			return ((SortedCounter<K, V>)counter).keyAtRank(rank);
+		}
+
+		@Override
+		public V valueAtPercentile(double percentile){
+			return ((SortedCounter<K, V>)counter).valueAtPercentile(percentile);
+		}
+
 		@Override
 		public V maxValue(){
 			return ((SortedCounter<K, V>)counter).maxValue();
@@ -761,6 +979,36 @@ public final class CollectionsIg{
 			return tree.breedFirstSearch(node, value);
 		}
 
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(){
+			return tree.preOrderDeepFirstIterator();
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(){
+			return tree.postOrderDeepFirstIterator();
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(){
+			return tree.breedFirstIterator();
+		}
+
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(TreeNode node){
+			return tree.preOrderDeepFirstIterator(node);
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(TreeNode node){
+			return tree.postOrderDeepFirstIterator(node);
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(TreeNode node){
+			return tree.breedFirstIterator(node);
+		}
+
 		//<editor-fold defaultstate="collapsed" desc="Unsupported methods">
 		@Override
 		public TreeNode push(T elem){
@@ -1245,6 +1493,13 @@ public final class CollectionsIg{
 			}
 		}
 
+		@Override
+		public void mergeFrom(Counter<? extends K, ? extends V> counter){
+			synchronized(mutex){
+				this.counter.mergeFrom(counter);
+			}
+		}
+
 		@Override
 		public <X> void sumAll(Map<? extends K, ? extends X> map, Caster<X, V> caster){
 			synchronized(mutex){
@@ -1601,6 +1856,41 @@ public final class CollectionsIg{
 			}
 		}
 
+		@Override
+		public RankedKeys<K, V> topN(int n){
+			synchronized(mutex){
+				return ((SortedCounter<K, V>)counter).topN(n);
+			}
+		}
+
+		@Override
+		public RankedKeys<K, V> bottomN(int n){
+			synchronized(mutex){
+				return ((SortedCounter<K, V>)counter).bottomN(n);
+			}
+		}
+
+		@Override
+		public int rankOf(Object key){
+			synchronized(mutex){
+				return ((SortedCounter<K, V>)counter).rankOf(key);
+			}
+		}
+
+		@Override
+		public K keyAtRank(int rank){
+			synchronized(mutex){
+				return ((SortedCounter<K, V>)counter).keyAtRank(rank);
+			}
+		}
+
+		@Override
+		public V valueAtPercentile(double percentile){
+			synchronized(mutex){
+				return ((SortedCounter<K, V>)counter).valueAtPercentile(percentile);
+			}
+		}
+
 		@Override
 		public Set<K> keySet(V value){
 			synchronized(mutex){
@@ -2038,6 +2328,81 @@ public final class CollectionsIg{
 				return tree.breedFirstSearch(node, value);
 			}
 		}
+
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(){
+			synchronized(mutex){
+				return synchronizedIterator(tree.preOrderDeepFirstIterator());
+			}
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(){
+			synchronized(mutex){
+				return synchronizedIterator(tree.postOrderDeepFirstIterator());
+			}
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(){
+			synchronized(mutex){
+				return synchronizedIterator(tree.breedFirstIterator());
+			}
+		}
+
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(TreeNode node){
+			synchronized(mutex){
+				return synchronizedIterator(tree.preOrderDeepFirstIterator(node));
+			}
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(TreeNode node){
+			synchronized(mutex){
+				return synchronizedIterator(tree.postOrderDeepFirstIterator(node));
+			}
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(TreeNode node){
+			synchronized(mutex){
+				return synchronizedIterator(tree.breedFirstIterator(node));
+			}
+		}
+
+		/**
+		 * Wraps an iterator of the backed tree so that every call is done
+		 * holding the mutex. A traversal remains consistent only if the
+		 * tree is not modified meanwhile, which the callers can ensure by
+		 * synchronizing on the mutex (this tree, unless another one was
+		 * given) while iterating.
+		 */
+		private Iterator<TreeNode> synchronizedIterator(final Iterator<TreeNode> iter){
+			return new Iterator<TreeNode>(){
+
+				@Override
+				public boolean hasNext(){
+					synchronized(mutex){
+						return iter.hasNext();
+					}
+				}
+
+				@Override
+				public TreeNode next(){
+					synchronized(mutex){
+						return iter.next();
+					}
+				}
+
+				@Override
+				public void remove(){
+					synchronized(mutex){
+						iter.remove();
+					}
+				}
+			};
+		}
 	}//</editor-fold>
 
 	//<editor-fold defaultstate="collapsed" desc="SynchronizedBinaryTree">
@@ -2248,6 +2613,109 @@ public final class CollectionsIg{
 	}//</editor-fold>
 	//</editor-fold>
 
+	//<editor-fold defaultstate="collapsed" desc="MergeTask">
+	private static class MergeTask<K, V extends Number> extends RecursiveAction{
+
+		private static final long serialVersionUID=-3880471251318146095L;
+		//************
+		private final List<? extends Counter<K, V>> counters;
+		private final int from;
+		private final int to;
+
+		public MergeTask(List<? extends Counter<K, V>> counters, int from, int to){
+			this.counters=counters;
+			this.from=from;
+			this.to=to;
+		}
+
+		@Override
+		protected void compute(){
+			if(to - from < 2){
+				return;
+			}
+			int mid=(from + to) >>> 1;
+			invokeAll(new MergeTask<>(counters, from, mid), new MergeTask<>(counters, mid, to));
+			counters.get(from).mergeFrom(counters.get(mid));
+		}
+	}//</editor-fold>
+
+	//<editor-fold defaultstate="collapsed" desc="CountTasks">
+	/**
+	 * Number of elements under which a count task is not split.
+	 */
+	private static final int COUNT_THRESHOLD=1 << 13;
+
+	private static class IntCountTask<K> extends RecursiveTask<IntHashCounter<K>>{
+
+		private static final long serialVersionUID=6937170392866427140L;
+		//************
+		private final Object[] keys;
+		private final int from;
+		private final int to;
+
+		public IntCountTask(Object[] keys, int from, int to){
+			this.keys=keys;
+			this.from=from;
+			this.to=to;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected IntHashCounter<K> compute(){
+			if(to - from <= COUNT_THRESHOLD){
+				IntHashCounter<K> counter=new IntHashCounter<>();
+				for(int i=from; i < to; i++){
+					counter.sumInt((K)keys[i], 1);
+				}
+				return counter;
+			}
+			int mid=(from + to) >>> 1;
+			IntCountTask<K> right=new IntCountTask<>(keys, mid, to);
+			right.fork();
+			IntHashCounter<K> counter=new IntCountTask<K>(keys, from, mid).compute();
+			counter.mergeFrom(right.join());
+			return counter;
+		}
+	}
+
+	private static class DoubleCountTask<T, K> extends RecursiveTask<DoubleHashCounter<K>>{
+
+		private static final long serialVersionUID=-2514893705468139016L;
+		//************
+		private final Object[] items;
+		private final int from;
+		private final int to;
+		private final Caster<? super T, ? extends K> key_caster;
+		private final Caster<? super T, Double> value_caster;
+
+		public DoubleCountTask(Object[] items, int from, int to, Caster<? super T, ? extends K> key_caster, Caster<? super T, Double> value_caster){
+			this.items=items;
+			this.from=from;
+			this.to=to;
+			this.key_caster=key_caster;
+			this.value_caster=value_caster;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected DoubleHashCounter<K> compute(){
+			if(to - from <= COUNT_THRESHOLD){
+				DoubleHashCounter<K> counter=new DoubleHashCounter<>();
+				for(int i=from; i < to; i++){
+					T item=(T)items[i];
+					counter.sumDouble(key_caster.cast(item), value_caster.cast(item));
+				}
+				return counter;
+			}
+			int mid=(from + to) >>> 1;
+			DoubleCountTask<T, K> right=new DoubleCountTask<>(items, mid, to, key_caster, value_caster);
+			right.fork();
+			DoubleHashCounter<K> counter=new DoubleCountTask<T, K>(items, from, mid, key_caster, value_caster).compute();
+			counter.mergeFrom(right.join());
+			return counter;
+		}
+	}//</editor-fold>
+
 	//<editor-fold defaultstate="collapsed" desc="TreeRef">
 	/**
 	 * Warning: all methods that accept a TreeNode may have an O(log(N))
@@ -2268,14 +2736,13 @@ public final class CollectionsIg{
 
 		private void searchNode(TreeNode node){
 			node.checkNode(tree);
-			Maybe<TreeNode> parent;
-			while((parent=tree.parent(node)).isPresent()){
-				if(node == root){
-					return;
+			while(!node.equals(root)){
+				Maybe<TreeNode> parent=tree.parent(node);
+				if(parent.isAbsent()){
+					throw new NoSuchElementException("The node doesn't belong to the tree");
 				}
 				node=parent.get();
 			}
-			throw new NoSuchElementException("The node doesn't belong to the tree");
 		}
 
 		@Override
@@ -2497,6 +2964,39 @@ public final class CollectionsIg{
 			searchNode(node);
 			return tree.breedFirstSearch(node, value);
 		}
+
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(){
+			return tree.preOrderDeepFirstIterator(root);
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(){
+			return tree.postOrderDeepFirstIterator(root);
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(){
+			return tree.breedFirstIterator(root);
+		}
+
+		@Override
+		public Iterator<TreeNode> preOrderDeepFirstIterator(TreeNode node){
+			searchNode(node);
+			return tree.preOrderDeepFirstIterator(node);
+		}
+
+		@Override
+		public Iterator<TreeNode> postOrderDeepFirstIterator(TreeNode node){
+			searchNode(node);
+			return tree.postOrderDeepFirstIterator(node);
+		}
+
+		@Override
+		public Iterator<TreeNode> breedFirstIterator(TreeNode node){
+			searchNode(node);
+			return tree.breedFirstIterator(node);
+		}
 	}
 	//</editor-fold>
 	//</editor-fold>
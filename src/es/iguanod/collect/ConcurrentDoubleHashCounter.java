@@ -0,0 +1,460 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.ConcurrentHashCounter.ConcurrentHashCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ConcurrentHashCounter} specialized for {@code Double} values. Every
+ * key is associated with a cell extending
+ * {@link java.util.concurrent.atomic.AtomicLong AtomicLong} (holding the raw bits of the
+ * {@code double}), so the values
+ * are updated with a single compare-and-set operation and without boxing.
+ * <p>
+ * Besides the {@code Counter} methods, {@code ConcurrentDoubleHashCounter}
+ * offers {@link #sumDouble(Object,double) sumDouble},
+ * {@link #deductDouble(Object,double) deductDouble} and {@link #getDouble(Object) getDouble},
+ * which work with primitive values and don't allocate any object unless the
+ * key is new.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentDoubleHashCounter<K> extends ConcurrentHashCounter<K, Double>{
+
+	private static final long serialVersionUID=-873622604160715936L;
+
+	public static class ConcurrentDoubleHashCounterBuilder<K> extends ConcurrentHashCounterBuilder<K, Double>{
+
+		private static final long serialVersionUID=4020687915736612318L;
+
+		public ConcurrentDoubleHashCounterBuilder(){
+			super(new Caster<BigDecimal, Double>(){
+				private static final long serialVersionUID=-6327408837260183295L;
+
+				@Override
+				public Double cast(BigDecimal t){
+					return t.doubleValue();
+				}
+			});
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounterBuilder<K> setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounterBuilder<K> setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounterBuilder<K> setConcurrencyLevel(int concurrency_level){
+			super.setConcurrencyLevel(concurrency_level);
+			return this;
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounterBuilder<K> setComparator(Comparator<? super Double> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends Double> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public ConcurrentDoubleHashCounter<K> build(){
+			return new ConcurrentDoubleHashCounter<>(this);
+		}
+	}
+	public static final Caster<Number, Double> NUM_CASTER=new Caster<Number, Double>(){
+		private static final long serialVersionUID=2716450937016640977L;
+
+		@Override
+		public Double cast(Number t){
+			return t.doubleValue();
+		}
+	};
+
+	/**
+	 * {@code Cell} holding a {@code double} as its raw long bits.
+	 */
+	private static final class DoubleCell extends AtomicLong implements Cell<Double>{
+
+		private static final long serialVersionUID=-3904877151263396052L;
+
+		private DoubleCell(double value){
+			super(Double.doubleToRawLongBits(value));
+		}
+
+		private double getDouble(){
+			return Double.longBitsToDouble(get());
+		}
+
+		private double addAndGetDouble(double value){
+			for(;;){
+				long bits=get();
+				double newvalue=Double.longBitsToDouble(bits) + value;
+				if(compareAndSet(bits, Double.doubleToRawLongBits(newvalue))){
+					return newvalue;
+				}
+			}
+		}
+
+		@Override
+		public Double getValue(){
+			return getDouble();
+		}
+
+		@Override
+		public Double setValue(Double value){
+			return Double.longBitsToDouble(getAndSet(Double.doubleToRawLongBits(value)));
+		}
+
+		@Override
+		public boolean replaceValue(Double expect, Double update){
+			return compareAndSet(Double.doubleToRawLongBits(expect), Double.doubleToRawLongBits(update));
+		}
+
+		@Override
+		public Tuple2<Double, Double> sum(Double value){
+			for(;;){
+				long bits=get();
+				double oldvalue=Double.longBitsToDouble(bits);
+				double newvalue=oldvalue + value;
+				if(compareAndSet(bits, Double.doubleToRawLongBits(newvalue))){
+					return new Tuple2<Double, Double>(oldvalue, newvalue);
+				}
+			}
+		}
+
+		@Override
+		public Tuple2<Double, Double> deduct(Double value){
+			for(;;){
+				long bits=get();
+				double oldvalue=Double.longBitsToDouble(bits);
+				double newvalue=oldvalue - value;
+				if(compareAndSet(bits, Double.doubleToRawLongBits(newvalue))){
+					return new Tuple2<Double, Double>(oldvalue, newvalue);
+				}
+			}
+		}
+	}
+
+	protected ConcurrentDoubleHashCounter(ConcurrentDoubleHashCounterBuilder<K> builder){
+		super(builder);
+	}
+
+	public ConcurrentDoubleHashCounter(){
+		this(new ConcurrentDoubleHashCounterBuilder<K>());
+	}
+
+	@Override
+	protected Cell<Double> newCell(Double value){
+		return new DoubleCell(value);
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Double) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public double sumDouble(K key, double value){
+		DoubleCell cell=(DoubleCell)getCell(key);
+		if(cell == null){
+			cell=(DoubleCell)putCellIfAbsent(key, new DoubleCell(value));
+			if(cell == null){
+				return value;
+			}
+		}
+		return cell.addAndGetDouble(value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Double) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public double deductDouble(K key, double value){
+		DoubleCell cell=(DoubleCell)getCell(key);
+		if(cell == null){
+			cell=(DoubleCell)putCellIfAbsent(key, new DoubleCell(-value));
+			if(cell == null){
+				return -value;
+			}
+		}
+		return cell.addAndGetDouble(-value);
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public double getDouble(Object key){
+		DoubleCell cell=(DoubleCell)getCell(key);
+		return cell == null ? 0 : cell.getDouble();
+	}
+
+
+	/**
+	 * Adds {@code 1.0/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys){
+		sumAll(keys, 1.0 / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1.0/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys){
+		sumAll(keys, 1.0 / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys, Double value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys, Double value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1.0/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		sumToAll(1.0 / this.size());
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Double value){
+		sumToAll(value / this.size());
+	}
+
+	/**
+	 * Deducts {@code 1.0/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys){
+		deductAll(keys, 1.0 / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1.0/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys){
+		deductAll(keys, 1.0 / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys, Double value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys, Double value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		deductToAll(1.0 / this.size());
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Double value){
+		deductToAll(value / this.size());
+	}
+}
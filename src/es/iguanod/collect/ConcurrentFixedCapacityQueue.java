@@ -0,0 +1,309 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe implementation of the {@link es.iguanod.collect.FixedCapacityQueue}
+ * interface for a single producer and any number of consumers, based on a
+ * ring buffer in which every slot is tagged with the sequence number of the
+ * element it holds. It is meant for bounded "last N events" buffers fed by
+ * one thread and read by several others.
+ * <p>
+ * {@link #push(Object) push} and {@link #add(Object) add} must be called by
+ * one thread at a time (usually, always by the same thread); the rest of the
+ * methods can be called by any thread concurrently. Inserting an element is
+ * wait-free: it never blocks nor retries more than once, whatever the
+ * consumers do. {@link #pop() pop}, {@link #peek() peek} and
+ * {@link #clear() clear} are lock-free, and the elements are never lost nor
+ * duplicated: each one is either retrieved by exactly one call to
+ * {@code pop}, returned by exactly one call to {@code push} when it is
+ * overwritten, or left in the queue.</p>
+ * <p>
+ * The {@link #iterator() iterator} returns a snapshot of the queue: a run of
+ * consecutive elements, in insertion order, that were all in the queue at the
+ * same time. Elements are copied (not removed) by the iteration, and the
+ * {@code Iterator} doesn't support the {@code remove} operation. The
+ * {@link #size() size} is exact only if the queue is not being modified.</p>
+ * <p>
+ * This implementation accepts {@code null} elements. Popped elements are kept
+ * reachable until they are overwritten.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @param <T> the class of the elements being stored
+ *
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentFixedCapacityQueue<T> extends AbstractCollection<T> implements FixedCapacityQueue<T>, Serializable{
+
+	private static final long serialVersionUID=-3061987405625519498L;
+	/**
+	 * Sequence number of a slot being written.
+	 */
+	private static final long WRITING=-1;
+	//**********
+	private final int capacity;
+	/**
+	 * Sequence number of the element held by every slot, or {@code WRITING}.
+	 */
+	private final AtomicLongArray sequences;
+	private final AtomicReferenceArray<T> elements;
+	/**
+	 * Sequence number of the oldest element in the queue. Only moved forward,
+	 * with compare-and-set, by the consumers and by the producer when it
+	 * overwrites an element.
+	 */
+	private final AtomicLong head=new AtomicLong();
+	/**
+	 * Sequence number of the next element to be inserted. Only written by the
+	 * producer.
+	 */
+	private volatile long tail=0;
+
+	/**
+	 * Constructs a new {@code ConcurrentFixedCapacityQueue} with the
+	 * specified maximum capacity.
+	 *
+	 * @param capacity the maximum capacity of the queue
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is non-possitive
+	 */
+	public ConcurrentFixedCapacityQueue(int capacity){
+		if(capacity <= 0){
+			throw new IllegalArgumentException("The capacity has to be possitive");
+		}
+		this.capacity=capacity;
+		sequences=new AtomicLongArray(capacity);
+		for(int i=0; i < capacity; i++){
+			sequences.set(i, WRITING);
+		}
+		elements=new AtomicReferenceArray<>(capacity);
+	}
+
+	private int slot(long sequence){
+		return (int)(sequence % capacity);
+	}
+
+	/**
+	 * Reads the element with the specified sequence number, if its slot still
+	 * holds it.
+	 *
+	 * @param sequence the sequence number of the element
+	 *
+	 * @return a {@code Maybe} containing the element, or
+	 * {@link es.iguanod.util.Maybe#ABSENT Maybe.ABSENT} if it has been
+	 * overwritten (or is being overwritten)
+	 */
+	private Maybe<T> read(long sequence){
+		int slot=slot(sequence);
+		if(sequences.get(slot) != sequence){
+			return Maybe.ABSENT;
+		}
+		T elem=elements.get(slot);
+		if(sequences.get(slot) != sequence){
+			return Maybe.ABSENT;
+		}
+		return Maybe.from(elem);
+	}
+
+	/**
+	 * Inserts the specified element, removing the oldest one if the queue is
+	 * full.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@code true} if the oldest element was removed
+	 */
+	private boolean insert(T elem){
+		long sequence=tail;
+		long oldest=sequence - capacity;
+		boolean evicted=false;
+		if(oldest >= 0){
+			// The consumers can only move the head forward, so if this fails
+			// the oldest element has just been popped
+			evicted=head.get() == oldest && head.compareAndSet(oldest, oldest + 1);
+		}
+		int slot=slot(sequence);
+		sequences.set(slot, WRITING);
+		elements.set(slot, elem);
+		sequences.set(slot, sequence);
+		tail=sequence + 1;
+		return evicted;
+	}
+
+	/**
+	 * Inserts the specified element in the queue, retrieving and removing the
+	 * oldest element in case the queue is full. This method must not be
+	 * called by several threads at the same time.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@link es.iguanod.util.Maybe#ABSENT Maybe.ABSENT} if the queue
+	 * wasn't full prior to this call, or a {@link es.iguanod.util.Maybe}
+	 * containing the removed element if it was
+	 */
+	@Override
+	public Maybe<T> push(T elem){
+		T oldest=tail >= capacity ? elements.get(slot(tail)) : null;
+		if(insert(elem)){
+			return Maybe.from(oldest);
+		}
+		return Maybe.ABSENT;
+	}
+
+	/**
+	 * Retrieves and removes the oldest element of the queue, if there's any.
+	 *
+	 * @return {@link es.iguanod.util.Maybe#ABSENT Maybe.ABSENT} if the queue
+	 * was empty prior to this call, or a {@link es.iguanod.util.Maybe}
+	 * containing the removed element if it wasn't
+	 */
+	@Override
+	public Maybe<T> pop(){
+		while(true){
+			long first=head.get();
+			if(first >= tail){
+				return Maybe.ABSENT;
+			}
+			Maybe<T> elem=read(first);
+			if(elem.isPresent() && head.compareAndSet(first, first + 1)){
+				return elem;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Maybe<T> peek(){
+		while(true){
+			long first=head.get();
+			if(first >= tail){
+				return Maybe.ABSENT;
+			}
+			Maybe<T> elem=read(first);
+			if(elem.isPresent()){
+				return elem;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int capacity(){
+		return capacity;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		long first=head.get();
+		return (int)Math.min(capacity, tail - first);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty(){
+		return head.get() >= tail;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isFull(){
+		return size() == capacity;
+	}
+
+	/**
+	 * Removes all the elements inserted in the queue prior to this call.
+	 */
+	@Override
+	public void clear(){
+		long last=tail;
+		long first;
+		do{
+			first=head.get();
+		}while(first < last && !head.compareAndSet(first, last));
+	}
+
+	/**
+	 * Returns an {@link java.util.Iterator} over a snapshot of the elements in
+	 * this collection. The elements are returned started with the oldest one
+	 * and finishing with the newest one.
+	 * <p>
+	 * The {@code Iterator} doesn't support the
+	 * {@link java.util.Iterator#remove() remove} operation.</p>
+	 *
+	 * @return the {@code Iterator}
+	 */
+	@Override
+	public Iterator<T> iterator(){
+		long first=head.get();
+		long last=tail;
+		ArrayList<T> snapshot=new ArrayList<>((int)Math.min(capacity, last - first));
+		// Overwritten slots always hold the oldest elements, so copying from
+		// the newest one and stopping at the first overwritten slot yields a
+		// run of consecutive elements
+		for(long sequence=last - 1; sequence >= first && sequence >= last - capacity; sequence--){
+			Maybe<T> elem=read(sequence);
+			if(!elem.isPresent()){
+				break;
+			}
+			snapshot.add(elem.get());
+		}
+		Collections.reverse(snapshot);
+		return Collections.unmodifiableList(snapshot).iterator();
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full. This method behaves just as
+	 * {@link #push(Object) push(elem)} except it doesn't retrieve the removed
+	 * element (if any) and always returns true. This method must not be
+	 * called by several threads at the same time.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean add(T elem){
+		insert(elem);
+		return true;
+	}
+}
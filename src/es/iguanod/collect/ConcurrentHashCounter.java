@@ -0,0 +1,910 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Adder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe hash table based implementation of the {@code Counter}
+ * interface. Contrary to the {@code Counter} returned by
+ * {@link CollectionsIg#synchronizedCounter(Counter) synchronizedCounter}, this
+ * class doesn't serialize the operations behind a single lock: every key is
+ * associated with a cell that is updated with compare-and-set operations, and
+ * the cells are stored in a {@link java.util.concurrent.ConcurrentHashMap}, so
+ * summing or deducting values to different keys scales with the number of
+ * threads, and retrieval operations never block.
+ * <p>
+ * The operations on a single key ({@code sum}, {@code deduct}, {@code put},
+ * {@code putMax}, {@code putMin}, {@code get}) are atomic. The bulk
+ * operations ({@code sumAll}, {@code sumToAll}, {@code putAll}...) are not,
+ * since they are performed key by key; and the views and the iterators are
+ * weakly consistent, as those of {@code ConcurrentHashMap}. Summing to or
+ * deducting from a key while it is being removed by another thread can lose
+ * that update, since it may be applied to the cell of the removed mapping.</p>
+ * <p>
+ * This class doesn't accept the {@code null} key.</p>
+ * <p>
+ * {@code ConcurrentHashCounter} provides no public constructors. Instead,
+ * objects are instantiated with a builder,
+ * {@link ConcurrentHashCounterBuilder ConcurrentHashCounterBuilder}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ * @param <V> a subclass of {@link java.lang.Number Number}, being the class of
+ * the values associated with the keys stored in the {@code Counter}
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentHashCounter<K, V extends Number> extends AbstractCounter<K, V>{
+
+	private static final long serialVersionUID=-2197458309316046913L;
+	//************
+	/**
+	 * Underlaying map from the keys to their cells.
+	 */
+	private final ConcurrentHashMap<K, Cell<V>> map;
+	//************
+	private transient Collection<V> backed_values;
+	private transient Set<Entry<K, V>> backed_entryset;
+
+	/**
+	 * Builder used to construct objects of the
+	 * {@link es.iguanod.collect.ConcurrentHashCounter} class. A
+	 * {@link es.iguanod.util.Caster} from {@link java.math.BigDecimal} to
+	 * {@code V} must be provided. Aside from that, the initial capacity, load
+	 * factor and concurrency level of the underlaying
+	 * {@link java.util.concurrent.ConcurrentHashMap}, a
+	 * {@link java.util.Comparator} and an {@link es.iguanod.util.Adder} for
+	 * the values, and a {@link java.util.Map} with the initial mappings for
+	 * the {@code ConcurrentHashCounter} can be provided.
+	 * <p>
+	 * All the methods of the {@code ConcurrentHashCounterBuilder} (except for
+	 * the {@link #build build} method) return {@code this}, so calls can be
+	 * chained.</p>
+	 * <p>
+	 * If no initial capacity, load factor or concurrency level are
+	 * specified, the defaults of {@code ConcurrentHashMap} are used (16, 0.75
+	 * and 16).</p>
+	 *
+	 * @param <K> the class of the keys stored in the {@code Counter} with
+	 * their respective values
+	 * @param <V> a subclass of {@link java.lang.Number Number}, being the
+	 * class of the values associated with the keys stored in the
+	 * {@code Counter}
+	 *
+	 * @author <a href="mailto:rubiof.david@gmail.com">David Rubio
+	 * Fernández</a>
+	 * @since 1.0.1
+	 * @version 1.0.1
+	 */
+	public static class ConcurrentHashCounterBuilder<K, V extends Number> implements Serializable{
+
+		private static final long serialVersionUID=-6060946325426893874L;
+		//************
+		private final Caster<BigDecimal, V> caster;
+		private Comparator<? super V> comparator=null;
+		private Adder<V> adder=null;
+		private int initial_capacity=16;
+		private float load_factor=0.75f;
+		private int concurrency_level=16;
+		private Map<? extends K, ? extends V> initial_map=null;
+
+		/**
+		 * Constructs a {@code ConcurrentHashCounterBuilder} with the
+		 * specified {@code Caster}.
+		 *
+		 * @param caster the {@code Caster} for the
+		 * {@code ConcurrentHashCounter}
+		 */
+		public ConcurrentHashCounterBuilder(Caster<BigDecimal, V> caster){
+			this.caster=caster;
+		}
+
+		/**
+		 * Sets the initial capacity of the underlaying hash table.
+		 *
+		 * @param initial_capacity the initial capacity
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code initial_capacity} is
+		 * negative
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setInitialCapacity(int initial_capacity){
+			if(initial_capacity < 0){
+				throw new IllegalArgumentException("The initial capacity must be non-negative");
+			}
+			this.initial_capacity=initial_capacity;
+			return this;
+		}
+
+		/**
+		 * Sets the load factor of the underlaying hash table.
+		 *
+		 * @param load_factor the load factor
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code load_factor} is
+		 * non-possitive
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setLoadFactor(float load_factor){
+			if(load_factor <= 0){
+				throw new IllegalArgumentException("The load factor must be possitive");
+			}
+			this.load_factor=load_factor;
+			return this;
+		}
+
+		/**
+		 * Sets the estimated number of threads that will modify the
+		 * {@code ConcurrentHashCounter} concurrently.
+		 *
+		 * @param concurrency_level the concurrency level
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code concurrency_level} is
+		 * non-possitive
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setConcurrencyLevel(int concurrency_level){
+			if(concurrency_level <= 0){
+				throw new IllegalArgumentException("The concurrency level must be possitive");
+			}
+			this.concurrency_level=concurrency_level;
+			return this;
+		}
+
+		/**
+		 * Sets the {@code Comparator} for the values of the
+		 * {@code ConcurrentHashCounter}. If {@code comparator} is
+		 * {@code null}, no {@code Comparator} will be used (this is the
+		 * default behaviour anyway).
+		 *
+		 * @param comparator the {@code Comparator}
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setComparator(Comparator<? super V> comparator){
+			this.comparator=comparator;
+			return this;
+		}
+
+		/**
+		 * Sets the {@code Adder} for the values of the
+		 * {@code ConcurrentHashCounter}. If {@code adder} is {@code null}, the
+		 * one returned by
+		 * {@link es.iguanod.math.Adders#forCaster(Caster) Adders.forCaster}
+		 * will be used (this is the default behaviour anyway).
+		 *
+		 * @param adder the {@code Adder}
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setAdder(Adder<V> adder){
+			this.adder=adder;
+			return this;
+		}
+
+		/**
+		 * Sets the initial mappings for the {@code ConcurrentHashCounter}. If
+		 * {@code map} is {@code null}, no initial mappings will be used (this
+		 * is the default behaviour anyway).
+		 *
+		 * @param map the {@code Map} with the pairs key-value to be used as
+		 * initial mappings
+		 *
+		 * @return this {@code ConcurrentHashCounterBuilder}
+		 *
+		 * @throws NullPointerException if any of the keys or values in
+		 * {@code map} is {@code null}
+		 */
+		public ConcurrentHashCounterBuilder<K, V> setInitialMappings(Map<? extends K, ? extends V> map){
+			if(map != null){
+				for(Entry<? extends K, ? extends V> entry:map.entrySet()){
+					if(entry.getKey() == null){
+						throw new NullPointerException("Null keys not allowed in ConcurrentHashCounters");
+					}
+					if(entry.getValue() == null){
+						throw new NullPointerException("Null values not allowed in Counters");
+					}
+				}
+			}
+			this.initial_map=map;
+			return this;
+		}
+
+		/**
+		 * Construct a new {@code ConcurrentHashCounter} with the attributes
+		 * specified by the calls to this {@code ConcurrentHashCounterBuilder}
+		 * methods.
+		 *
+		 * @return the {@code ConcurrentHashCounter}
+		 */
+		public ConcurrentHashCounter<K, V> build(){
+			return new ConcurrentHashCounter<>(this);
+		}
+	}
+
+	/**
+	 * Holder of the value associated with a key. Every operation of a
+	 * {@code Cell} must be atomic.
+	 *
+	 * @param <V> the class of the value held
+	 */
+	protected static interface Cell<V extends Number> extends Serializable{
+
+		/**
+		 * Returns the value held.
+		 *
+		 * @return the value
+		 */
+		public V getValue();
+
+		/**
+		 * Replaces the value held.
+		 *
+		 * @param value the new value
+		 *
+		 * @return the old value
+		 */
+		public V setValue(V value);
+
+		/**
+		 * Replaces the value held only if it is still {@code expect}, as
+		 * returned by a previous call to {@link #getValue() getValue}.
+		 *
+		 * @param expect the expected value
+		 * @param update the new value
+		 *
+		 * @return {@code true} if the value was replaced
+		 */
+		public boolean replaceValue(V expect, V update);
+
+		/**
+		 * Adds the specified value to the value held.
+		 *
+		 * @param value the value to add
+		 *
+		 * @return a {@code Tuple2} with the old and the new values
+		 */
+		public Tuple2<V, V> sum(V value);
+
+		/**
+		 * Subtracts the specified value to the value held.
+		 *
+		 * @param value the value to subtract
+		 *
+		 * @return a {@code Tuple2} with the old and the new values
+		 */
+		public Tuple2<V, V> deduct(V value);
+	}
+
+	/**
+	 * Generic {@code Cell} operating with the {@code Adder} of the
+	 * {@code Counter}.
+	 */
+	private final class AdderCell extends AtomicReference<V> implements Cell<V>{
+
+		private static final long serialVersionUID=4402930592316097187L;
+
+		private AdderCell(V value){
+			super(value);
+		}
+
+		@Override
+		public V getValue(){
+			return get();
+		}
+
+		@Override
+		public V setValue(V value){
+			return getAndSet(value);
+		}
+
+		@Override
+		public boolean replaceValue(V expect, V update){
+			return compareAndSet(expect, update);
+		}
+
+		@Override
+		public Tuple2<V, V> sum(V value){
+			for(;;){
+				V oldvalue=get();
+				V newvalue=adder.add(oldvalue, value);
+				if(compareAndSet(oldvalue, newvalue)){
+					return new Tuple2<>(oldvalue, newvalue);
+				}
+			}
+		}
+
+		@Override
+		public Tuple2<V, V> deduct(V value){
+			for(;;){
+				V oldvalue=get();
+				V newvalue=adder.subtract(oldvalue, value);
+				if(compareAndSet(oldvalue, newvalue)){
+					return new Tuple2<>(oldvalue, newvalue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Construct a new {@code ConcurrentHashCounter} with the attributes
+	 * specified by the {@code ConcurrentHashCounterBuilder}.
+	 *
+	 * @param builder the {@code ConcurrentHashCounterBuilder} with the
+	 * parameters for this {@code ConcurrentHashCounter}
+	 */
+	protected ConcurrentHashCounter(ConcurrentHashCounterBuilder<K, V> builder){
+		super(builder.caster, builder.comparator, builder.adder);
+		if(builder.initial_map == null){
+			map=new ConcurrentHashMap<>(builder.initial_capacity, builder.load_factor, builder.concurrency_level);
+		}else{
+			map=new ConcurrentHashMap<>(Math.max((int)(builder.initial_map.size() / builder.load_factor) + 1, builder.initial_capacity), builder.load_factor, builder.concurrency_level);
+			for(Entry<? extends K, ? extends V> entry:builder.initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Creates the {@code Cell} for a key that has just been added to this
+	 * {@code Counter}. Subclasses can override this method to provide cells
+	 * specialized for their class of values.
+	 *
+	 * @param value the initial value of the cell
+	 *
+	 * @return the new {@code Cell}
+	 */
+	protected Cell<V> newCell(V value){
+		return new AdderCell(value);
+	}
+
+	/**
+	 * Returns the {@code Cell} of the specified key, or {@code null} if there
+	 * is no mapping for it.
+	 *
+	 * @param key the key
+	 *
+	 * @return the {@code Cell} of {@code key}, or {@code null}
+	 */
+	protected final Cell<V> getCell(Object key){
+		return key == null ? null : map.get(key);
+	}
+
+	/**
+	 * Associates the specified {@code Cell} with the specified key unless
+	 * there already is a mapping for it, in which case the current
+	 * {@code Cell} is returned.
+	 *
+	 * @param key the key
+	 * @param cell the new {@code Cell}
+	 *
+	 * @return the {@code Cell} already associated with {@code key}, or
+	 * {@code null} if {@code cell} was associated with it
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	protected final Cell<V> putCellIfAbsent(K key, Cell<V> cell){
+		if(key == null){
+			throw new NullPointerException("Null keys not allowed in ConcurrentHashCounters");
+		}
+		return map.putIfAbsent(key, cell);
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the specified key or value is
+	 * {@code null}
+	 */
+	@Override
+	public Tuple2<V, V> sum(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		Cell<V> cell=getCell(key);
+		if(cell == null){
+			cell=putCellIfAbsent(key, newCell(value));
+			if(cell == null){
+				return new Tuple2<>(null, value);
+			}
+		}
+		return cell.sum(value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the specified key or value is
+	 * {@code null}
+	 */
+	@Override
+	public Tuple2<V, V> deduct(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		Cell<V> cell=getCell(key);
+		if(cell == null){
+			V newvalue=adder.negate(value);
+			cell=putCellIfAbsent(key, newCell(newvalue));
+			if(cell == null){
+				return new Tuple2<>(null, newvalue);
+			}
+		}
+		return cell.deduct(value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		for(Cell<V> cell:map.values()){
+			cell.sum(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		for(Cell<V> cell:map.values()){
+			cell.deduct(value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<V, V> putMax(K key, V value){
+		return pvtPutIf(key, value, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<V, V> putMin(K key, V value){
+		return pvtPutIf(key, value, false);
+	}
+
+	private Tuple2<V, V> pvtPutIf(K key, V value, boolean max){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		Cell<V> cell=getCell(key);
+		if(cell == null){
+			cell=putCellIfAbsent(key, newCell(value));
+			if(cell == null){
+				return new Tuple2<>(null, value);
+			}
+		}
+		for(;;){
+			V oldvalue=cell.getValue();
+			int cmp=compare(value, oldvalue);
+			if(max ? cmp <= 0 : cmp >= 0){
+				return new Tuple2<>(oldvalue, oldvalue);
+			}
+			if(cell.replaceValue(oldvalue, value)){
+				return new Tuple2<>(oldvalue, value);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of key-value mappings on this {@code Counter}.
+	 *
+	 * @return the number of mappings
+	 */
+	@Override
+	public int size(){
+		return map.size();
+	}
+
+	/**
+	 * Returns wether this {@code Counter} contains no key-value mappings.
+	 *
+	 * @return true if this {@code Counter} has no mappings, false otherwise
+	 */
+	@Override
+	public boolean isEmpty(){
+		return map.isEmpty();
+	}
+
+	/**
+	 * Returns wether this {@code Counter} contains a mapping for the
+	 * specified key.
+	 *
+	 * @param key the key whose presence in this {@code Counter} is to be
+	 * tested
+	 *
+	 * @return true if this {@code Counter} contains a mapping for the
+	 * specified key, false otherwise
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return key != null && map.containsKey(key);
+	}
+
+	/**
+	 * Returns wether this {@code Counter} has at leas one key mapped to the
+	 * specified value.
+	 *
+	 * @param value value whose presence in this map is to be tested
+	 *
+	 * @return true if this {@code Counter} contains at least one key mapped
+	 * to the specified value, false otherwise
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Number)){
+			return false;
+		}
+		try{
+			for(Cell<V> cell:map.values()){
+				if(equals((V)value, cell.getValue())){
+					return true;
+				}
+			}
+		}catch(ClassCastException ex){
+			return false;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code null}
+	 * if this {@code Counter} contains no mapping for the key. This method
+	 * never blocks.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code null}
+	 * if there is no such mappnig
+	 */
+	@Override
+	public V get(Object key){
+		Cell<V> cell=getCell(key);
+		return cell == null ? null : cell.getValue();
+	}
+
+	/**
+	 * Associates the specified value with the specified key in this
+	 * {@code Counter}. If the {@code Counter} previously contained a mapping
+	 * for the key, the old value is replaced.
+	 *
+	 * @param key key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 *
+	 * @return the previous value associated with {@code key}, or {@code null}
+	 * if this {@code Counter} contained no previous mapping for {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} or {@code value} is
+	 * {@code null}
+	 */
+	@Override
+	public V put(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		Cell<V> cell=getCell(key);
+		if(cell == null){
+			cell=putCellIfAbsent(key, newCell(value));
+			if(cell == null){
+				return null;
+			}
+		}
+		return cell.setValue(value);
+	}
+
+	/**
+	 * Removes the mapping for the specified key from this {@code Counter} if
+	 * present.
+	 *
+	 * @param key the key whose mapping is to be removed
+	 *
+	 * @return the previous value associated with {@code key}, or {@code null}
+	 * if this {@code Counter} contained no previous mapping for {@code key}
+	 */
+	@Override
+	public V remove(Object key){
+		if(key == null){
+			return null;
+		}
+		Cell<V> cell=map.remove(key);
+		return cell == null ? null : cell.getValue();
+	}
+
+	/**
+	 * Removes all the mappings from this {@code Counter}.
+	 */
+	@Override
+	public void clear(){
+		map.clear();
+	}
+
+	/**
+	 * Returns a {@code Set} view of the keys contained in this
+	 * {@code Counter}. The set is backed by the counter, so changes to the
+	 * counter are reflected in the set, and vice-versa. The set supports
+	 * element removal, which removes the corresponding mapping from the
+	 * counter, but it does not support the {@code add} or {@code addAll}
+	 * operations. Its iterators are weakly consistent.
+	 *
+	 * @return the {@code Set} view of the keys contained in this
+	 * {@code Counter}
+	 */
+	@Override
+	public Set<K> keySet(){
+		return map.keySet();
+	}
+
+	/**
+	 * Returns a {@code Collection} view of the values contained in this
+	 * {@code Counter}. The collection is backed by the counter, so changes to
+	 * the counter are reflected in the collection, and vice-versa. The
+	 * collection supports element removal through its iterator, which
+	 * removes the corresponding mapping from the counter, but it does not
+	 * support the {@code add} or {@code addAll} operations. Its iterators are
+	 * weakly consistent.
+	 *
+	 * @return the {@code Collection} view of the values contained in this
+	 * {@code Counter}
+	 */
+	@Override
+	public Collection<V> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<V>(){
+				@Override
+				public int size(){
+					return map.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public void clear(){
+					map.clear();
+				}
+
+				@Override
+				public Iterator<V> iterator(){
+					final Iterator<Cell<V>> iter=map.values().iterator();
+					return new Iterator<V>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public V next(){
+							return iter.next().getValue();
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	/**
+	 * Returns a {@code Set} view of the mappings contained in this
+	 * {@code Counter}. The set is backed by the counter, so changes to the
+	 * counter are reflected in the set, and vice-versa. The
+	 * {@code setValue} operation of its entries writes through to the
+	 * counter. The set supports element removal through its iterator, which
+	 * removes the corresponding mapping from the counter, but it does not
+	 * support the {@code add} or {@code addAll} operations. Its iterators are
+	 * weakly consistent.
+	 *
+	 * @return the {@code Set} view of the mappings contained in this
+	 * {@code Counter}
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, V>>(){
+				@Override
+				public int size(){
+					return map.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					V value=get(((Entry)obj).getKey());
+					return value != null && value.equals(((Entry)obj).getValue());
+				}
+
+				@Override
+				public void clear(){
+					map.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, V>> iterator(){
+					final Iterator<Entry<K, Cell<V>>> iter=map.entrySet().iterator();
+					return new Iterator<Entry<K, V>>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public Entry<K, V> next(){
+							return new CellEntry(iter.next());
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	/**
+	 * Entry of the entrySet view, reading and writing through the
+	 * {@code Cell} of the key.
+	 */
+	private final class CellEntry implements Entry<K, V>{
+
+		private final K key;
+		private final Cell<V> cell;
+
+		private CellEntry(Entry<K, Cell<V>> entry){
+			this.key=entry.getKey();
+			this.cell=entry.getValue();
+		}
+
+		@Override
+		public K getKey(){
+			return key;
+		}
+
+		@Override
+		public V getValue(){
+			return cell.getValue();
+		}
+
+		@Override
+		public V setValue(V value){
+			if(value == null){
+				throw new NullPointerException("Null values not allowed in Counters");
+			}
+			return cell.setValue(value);
+		}
+
+		@Override
+		public boolean equals(Object obj){
+			if(!(obj instanceof Entry)){
+				return false;
+			}
+			Entry e=(Entry)obj;
+			return key.equals(e.getKey()) && getValue().equals(e.getValue());
+		}
+
+		@Override
+		public int hashCode(){
+			return key.hashCode() ^ getValue().hashCode();
+		}
+
+		@Override
+		public String toString(){
+			return key + "=" + getValue();
+		}
+	}
+
+	/**
+	 * Returns a string representation of this {@code Counter}. The string
+	 * representation consists of a list of key-value mappings in the order
+	 * returned by the counters's entrySet view's iterator, enclosed in braces
+	 * ("{}"). Adjacent mappings are separated by the characters ", " (comma
+	 * and space). Each key-value mapping is rendered as the key followed by
+	 * an equals sign ("=") followed by the associated value.
+	 *
+	 * @return the string representation of this {@code Counter}
+	 */
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(Entry<K, Cell<V>> entry:map.entrySet()){
+			if(str.length() > 1){
+				str.append(", ");
+			}
+			K key=entry.getKey();
+			str.append(key == this ? "(this Map)" : key).append('=').append(entry.getValue().getValue());
+		}
+		return str.append('}').toString();
+	}
+}
@@ -0,0 +1,490 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.ConcurrentHashCounter.ConcurrentHashCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code ConcurrentHashCounter} specialized for {@code Integer} values. Every
+ * key is associated with a cell extending
+ * {@link java.util.concurrent.atomic.AtomicInteger AtomicInteger}, so the values
+ * are updated with a single compare-and-set operation and without boxing.
+ * <p>
+ * Besides the {@code Counter} methods, {@code ConcurrentIntHashCounter}
+ * offers {@link #sumInt(Object,int) sumInt},
+ * {@link #deductInt(Object,int) deductInt} and {@link #getInt(Object) getInt},
+ * which work with primitive values and don't allocate any object unless the
+ * key is new.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentIntHashCounter<K> extends ConcurrentHashCounter<K, Integer>{
+
+	private static final long serialVersionUID=-4471296683712057601L;
+
+	public static class ConcurrentIntHashCounterBuilder<K> extends ConcurrentHashCounterBuilder<K, Integer>{
+
+		private static final long serialVersionUID=8230964188714926043L;
+
+		public ConcurrentIntHashCounterBuilder(){
+			super(new Caster<BigDecimal, Integer>(){
+				private static final long serialVersionUID=-2593110874522370489L;
+
+				@Override
+				public Integer cast(BigDecimal t){
+					return t.intValue();
+				}
+			});
+		}
+
+		@Override
+		public ConcurrentIntHashCounterBuilder<K> setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public ConcurrentIntHashCounterBuilder<K> setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public ConcurrentIntHashCounterBuilder<K> setConcurrencyLevel(int concurrency_level){
+			super.setConcurrencyLevel(concurrency_level);
+			return this;
+		}
+
+		@Override
+		public ConcurrentIntHashCounterBuilder<K> setComparator(Comparator<? super Integer> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public ConcurrentIntHashCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends Integer> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public ConcurrentIntHashCounter<K> build(){
+			return new ConcurrentIntHashCounter<>(this);
+		}
+	}
+	public static final Caster<Number, Integer> NUM_CASTER=new Caster<Number, Integer>(){
+		private static final long serialVersionUID=-7018305587130462113L;
+
+		@Override
+		public Integer cast(Number t){
+			return t.intValue();
+		}
+	};
+
+	/**
+	 * {@code Cell} holding an {@code int}.
+	 */
+	private static final class IntCell extends AtomicInteger implements Cell<Integer>{
+
+		private static final long serialVersionUID=5512076214932908870L;
+
+		private IntCell(int value){
+			super(value);
+		}
+
+		@Override
+		public Integer getValue(){
+			return get();
+		}
+
+		@Override
+		public Integer setValue(Integer value){
+			return getAndSet(value);
+		}
+
+		@Override
+		public boolean replaceValue(Integer expect, Integer update){
+			return compareAndSet(expect, update);
+		}
+
+		@Override
+		public Tuple2<Integer, Integer> sum(Integer value){
+			int newvalue=addAndGet(value);
+			return new Tuple2<Integer, Integer>(newvalue - value, newvalue);
+		}
+
+		@Override
+		public Tuple2<Integer, Integer> deduct(Integer value){
+			int newvalue=addAndGet(-value);
+			return new Tuple2<Integer, Integer>(newvalue + value, newvalue);
+		}
+	}
+
+	protected ConcurrentIntHashCounter(ConcurrentIntHashCounterBuilder<K> builder){
+		super(builder);
+	}
+
+	public ConcurrentIntHashCounter(){
+		this(new ConcurrentIntHashCounterBuilder<K>());
+	}
+
+	@Override
+	protected Cell<Integer> newCell(Integer value){
+		return new IntCell(value);
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Integer) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public int sumInt(K key, int value){
+		IntCell cell=(IntCell)getCell(key);
+		if(cell == null){
+			cell=(IntCell)putCellIfAbsent(key, new IntCell(value));
+			if(cell == null){
+				return value;
+			}
+		}
+		return cell.addAndGet(value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Integer) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public int deductInt(K key, int value){
+		IntCell cell=(IntCell)getCell(key);
+		if(cell == null){
+			cell=(IntCell)putCellIfAbsent(key, new IntCell(-value));
+			if(cell == null){
+				return -value;
+			}
+		}
+		return cell.addAndGet(-value);
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public int getInt(Object key){
+		IntCell cell=(IntCell)getCell(key);
+		return cell == null ? 0 : cell.get();
+	}
+
+	/**
+	 * Adds {@code 1/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the collection is one, the amount summed to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys){
+		sumAll(keys, 1 / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the array is one, the amount summed to the elements
+	 * will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys){
+		sumAll(keys, 1 / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys, Integer value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys, Integer value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of this {@code Counter} is one, the amount summed to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		if(this.size() == 1){
+			sumToAll(1);
+		}
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Integer value){
+		int size=this.size();
+		if(value >= size){
+			sumToAll(value / size);
+		}
+	}
+
+	/**
+	 * Deducts {@code 1/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the collection is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys){
+		deductAll(keys, 1 / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the array is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys){
+		deductAll(keys, 1 / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys, Integer value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys, Integer value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of this {@code Counter} is one, the amount deducted to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		if(this.size() == 1){
+			deductToAll(1);
+		}
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Integers},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Integer value){
+		int size=this.size();
+		if(value >= size){
+			deductToAll(value / size);
+		}
+	}
+}
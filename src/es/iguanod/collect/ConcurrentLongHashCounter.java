@@ -0,0 +1,490 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.ConcurrentHashCounter.ConcurrentHashCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ConcurrentHashCounter} specialized for {@code Long} values. Every
+ * key is associated with a cell extending
+ * {@link java.util.concurrent.atomic.AtomicLong AtomicLong}, so the values
+ * are updated with a single compare-and-set operation and without boxing.
+ * <p>
+ * Besides the {@code Counter} methods, {@code ConcurrentLongHashCounter}
+ * offers {@link #sumLong(Object,long) sumLong},
+ * {@link #deductLong(Object,long) deductLong} and {@link #getLong(Object) getLong},
+ * which work with primitive values and don't allocate any object unless the
+ * key is new.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentLongHashCounter<K> extends ConcurrentHashCounter<K, Long>{
+
+	private static final long serialVersionUID=3348275520974016687L;
+
+	public static class ConcurrentLongHashCounterBuilder<K> extends ConcurrentHashCounterBuilder<K, Long>{
+
+		private static final long serialVersionUID=-1150964637216230781L;
+
+		public ConcurrentLongHashCounterBuilder(){
+			super(new Caster<BigDecimal, Long>(){
+				private static final long serialVersionUID=6692340199281537724L;
+
+				@Override
+				public Long cast(BigDecimal t){
+					return t.longValue();
+				}
+			});
+		}
+
+		@Override
+		public ConcurrentLongHashCounterBuilder<K> setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public ConcurrentLongHashCounterBuilder<K> setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public ConcurrentLongHashCounterBuilder<K> setConcurrencyLevel(int concurrency_level){
+			super.setConcurrencyLevel(concurrency_level);
+			return this;
+		}
+
+		@Override
+		public ConcurrentLongHashCounterBuilder<K> setComparator(Comparator<? super Long> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public ConcurrentLongHashCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends Long> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public ConcurrentLongHashCounter<K> build(){
+			return new ConcurrentLongHashCounter<>(this);
+		}
+	}
+	public static final Caster<Number, Long> NUM_CASTER=new Caster<Number, Long>(){
+		private static final long serialVersionUID=-5838021761490013365L;
+
+		@Override
+		public Long cast(Number t){
+			return t.longValue();
+		}
+	};
+
+	/**
+	 * {@code Cell} holding an {@code long}.
+	 */
+	private static final class LongCell extends AtomicLong implements Cell<Long>{
+
+		private static final long serialVersionUID=1980531772648300410L;
+
+		private LongCell(long value){
+			super(value);
+		}
+
+		@Override
+		public Long getValue(){
+			return get();
+		}
+
+		@Override
+		public Long setValue(Long value){
+			return getAndSet(value);
+		}
+
+		@Override
+		public boolean replaceValue(Long expect, Long update){
+			return compareAndSet(expect, update);
+		}
+
+		@Override
+		public Tuple2<Long, Long> sum(Long value){
+			long newvalue=addAndGet(value);
+			return new Tuple2<Long, Long>(newvalue - value, newvalue);
+		}
+
+		@Override
+		public Tuple2<Long, Long> deduct(Long value){
+			long newvalue=addAndGet(-value);
+			return new Tuple2<Long, Long>(newvalue + value, newvalue);
+		}
+	}
+
+	protected ConcurrentLongHashCounter(ConcurrentLongHashCounterBuilder<K> builder){
+		super(builder);
+	}
+
+	public ConcurrentLongHashCounter(){
+		this(new ConcurrentLongHashCounterBuilder<K>());
+	}
+
+	@Override
+	protected Cell<Long> newCell(Long value){
+		return new LongCell(value);
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Long) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public long sumLong(K key, long value){
+		LongCell cell=(LongCell)getCell(key);
+		if(cell == null){
+			cell=(LongCell)putCellIfAbsent(key, new LongCell(value));
+			if(cell == null){
+				return value;
+			}
+		}
+		return cell.addAndGet(value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Long) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	public long deductLong(K key, long value){
+		LongCell cell=(LongCell)getCell(key);
+		if(cell == null){
+			cell=(LongCell)putCellIfAbsent(key, new LongCell(-value));
+			if(cell == null){
+				return -value;
+			}
+		}
+		return cell.addAndGet(-value);
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public long getLong(Object key){
+		LongCell cell=(LongCell)getCell(key);
+		return cell == null ? 0 : cell.get();
+	}
+
+	/**
+	 * Adds {@code 1/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount summed to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys){
+		sumAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount summed to the elements
+	 * will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys){
+		sumAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys, Long value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys, Long value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount summed to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		if(this.size() == 1){
+			sumToAll(1L);
+		}
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			sumToAll(value / size);
+		}
+	}
+
+	/**
+	 * Deducts {@code 1/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys){
+		deductAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys){
+		deductAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys, Long value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys, Long value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount deducted to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		if(this.size() == 1){
+			deductToAll(1L);
+		}
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			deductToAll(value / size);
+		}
+	}
+}
@@ -0,0 +1,1084 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Adder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe implementation of the {@code SortedCounter} interface. Contrary
+ * to the {@code SortedCounter} returned by
+ * {@link CollectionsIg#synchronizedSortedCounter(SortedCounter) synchronizedSortedCounter},
+ * reading operations don't block in the common case: the mappings are kept
+ * in a {@link java.util.concurrent.ConcurrentHashMap} (the lookup) and in a
+ * {@link java.util.concurrent.ConcurrentSkipListSet} ordered by value (the
+ * index), so {@link #maxValue() maxValue}, {@link #minValue() minValue}, the
+ * views and the {@code Counters} returned by {@code headCounter},
+ * {@code tailCounter} and {@code subCounter} can be read while other threads
+ * are modifying the {@code Counter}.
+ * <p>
+ * Modifications of a key are serialized with a lock chosen from a set of
+ * locks by the hash of the key (lock striping), so modifications of different
+ * keys proceed in parallel. Every modification adds the new mapping to the
+ * index before removing the old one, and readers skip the mappings that are
+ * no longer current, so a key never disappears from the index while its value
+ * changes. As a consequence, the views are weakly consistent: an iteration
+ * reflects the state of every key at some point since the iteration was
+ * created, and may miss a key whose value moves to a position already visited
+ * by the iterator.</p>
+ * <p>
+ * {@link #maxValue() maxValue}, {@link #minValue() minValue},
+ * {@link #topN(int) topN}, {@link #bottomN(int) bottomN} and the
+ * {@code isEmpty} method of the sub-{@code Counters} never miss a key, and
+ * never block: every modification running while one of them walks the index
+ * records its key in a log of the walk, and the walk resolves the logged keys
+ * (and the keys of the mappings it skips) through the lookup. Their result is
+ * the one they would return if every key had one of the values it took while
+ * they were running.</p>
+ * <p>
+ * The {@code size} method of the sub-{@code Counters} is linear in the
+ * number of mappings, since the index doesn't keep the size of its
+ * ranges.</p>
+ * <p>
+ * The bulk operations ({@code sumAll}, {@code sumToAll}, {@code clear}...)
+ * are not atomic, since they are performed key by key.</p>
+ * <p>
+ * This class doesn't accept the {@code null} key. Objects are instantiated
+ * with a builder,
+ * {@link ConcurrentTreeCounterBuilder ConcurrentTreeCounterBuilder}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ * @param <V> a subclass of {@link java.lang.Number Number}, being the class of
+ * the values associated with the keys stored in the {@code Counter}
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentTreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V>{
+
+	private static final long serialVersionUID=-7702410646263960578L;
+	//************
+	private final ConcurrentHashMap<K, Node<K, V>> lookup;
+	private final ConcurrentSkipListSet<Node<K, V>> root;
+	private final NavigableSet<Node<K, V>> index;
+	private final AtomicLong sequence;
+	private final ScanLogs<K> scans;
+	private final Lock[] locks;
+	private final boolean reverse;
+	//************
+	private final boolean sub;
+	private final boolean use_from;
+	private final boolean from_inc;
+	private final V from;
+	private final boolean use_to;
+	private final boolean to_inc;
+	private final V to;
+	//************
+	private transient Set<K> backed_keyset;
+	private transient Collection<V> backed_values;
+	private transient Set<Entry<K, V>> backed_entryset;
+	private transient Set<Entry<V, Set<K>>> backed_inverse_entryset;
+
+	public static class ConcurrentTreeCounterBuilder<K, V extends Number> implements Serializable{
+
+		private static final long serialVersionUID=2907310425776021542L;
+		//************
+		private final Caster<BigDecimal, V> caster;
+		private Comparator<? super V> comparator=null;
+		private Adder<V> adder=null;
+		private boolean reverse=false;
+		private int concurrency_level=16;
+		private Map<? extends K, ? extends V> initial_map=null;
+
+		public ConcurrentTreeCounterBuilder(Caster<BigDecimal, V> caster){
+			this.caster=caster;
+		}
+
+		public ConcurrentTreeCounterBuilder<K, V> reverse(boolean reverse){
+			this.reverse=reverse;
+			return this;
+		}
+
+		public ConcurrentTreeCounterBuilder<K, V> setComparator(Comparator<? super V> comparator){
+			this.comparator=comparator;
+			return this;
+		}
+
+		public ConcurrentTreeCounterBuilder<K, V> setAdder(Adder<V> adder){
+			this.adder=adder;
+			return this;
+		}
+
+		/**
+		 * Sets the estimated number of threads that will modify the
+		 * {@code ConcurrentTreeCounter} concurrently.
+		 *
+		 * @param concurrency_level the concurrency level
+		 *
+		 * @return this {@code ConcurrentTreeCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code concurrency_level} is
+		 * non-possitive
+		 */
+		public ConcurrentTreeCounterBuilder<K, V> setConcurrencyLevel(int concurrency_level){
+			if(concurrency_level <= 0){
+				throw new IllegalArgumentException("The concurrency level must be possitive");
+			}
+			this.concurrency_level=concurrency_level;
+			return this;
+		}
+
+		public ConcurrentTreeCounterBuilder<K, V> setInitialMappings(Map<? extends K, ? extends V> map){
+			this.initial_map=map;
+			return this;
+		}
+
+		public ConcurrentTreeCounter<K, V> build(){
+			return new ConcurrentTreeCounter<>(this);
+		}
+	}
+
+	/**
+	 * Mapping stored in the index. {@code seq} breaks the ties between
+	 * mappings with the same value, so every mapping is a different element
+	 * of the index.
+	 */
+	private static final class Node<K, V> implements Serializable{
+
+		private static final long serialVersionUID=5129604113278165025L;
+		//************
+		private final K key;
+		private final V value;
+		private final long seq;
+
+		private Node(K key, V value, long seq){
+			this.key=key;
+			this.value=value;
+			this.seq=seq;
+		}
+	}
+
+	private static final class NodeComparator<V> implements Comparator<Node<?, V>>, Serializable{
+
+		private static final long serialVersionUID=-3323700845806006371L;
+		//************
+		private final Comparator<? super V> comparator;
+
+		private NodeComparator(Comparator<? super V> comparator){
+			this.comparator=comparator;
+		}
+
+		@Override
+		public int compare(Node<?, V> node1, Node<?, V> node2){
+			int cmp=comparator != null ? comparator.compare(node1.value, node2.value) : ((Comparable<V>)node1.value).compareTo(node2.value);
+			return cmp != 0 ? cmp : Long.compare(node1.seq, node2.seq);
+		}
+	}
+
+	private static final class Lock implements Serializable{
+
+		private static final long serialVersionUID=-1848291066396370137L;
+	}
+
+	/**
+	 * Logs of the scans in progress, shared with the sub-{@code Counters}.
+	 * Every replacement adds its key to all the logs after the new mapping
+	 * becomes current and before the old one is removed from the index. The
+	 * logs belong to the running scans, so they are not serialized.
+	 */
+	private static final class ScanLogs<K> implements Serializable{
+
+		private static final long serialVersionUID=-6470251930184447023L;
+		//************
+		private transient CopyOnWriteArrayList<Set<K>> logs=new CopyOnWriteArrayList<>();
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException{
+			in.defaultReadObject();
+			logs=new CopyOnWriteArrayList<>();
+		}
+	}
+
+	private static <K, V extends Number> Comparator<? super V> preprocessComparator(ConcurrentTreeCounterBuilder<K, V> builder){
+		if(builder.reverse){
+			return Collections.reverseOrder(builder.comparator);
+		}
+		return builder.comparator;
+	}
+
+	protected ConcurrentTreeCounter(ConcurrentTreeCounterBuilder<K, V> builder){
+		super(builder.caster, preprocessComparator(builder), builder.adder);
+		this.reverse=builder.reverse;
+		lookup=new ConcurrentHashMap<>(16, 0.75f, builder.concurrency_level);
+		root=new ConcurrentSkipListSet<>(new NodeComparator<V>(this.comparator));
+		index=root;
+		sequence=new AtomicLong();
+		scans=new ScanLogs<>();
+		int stripes=1;
+		while(stripes < builder.concurrency_level * 4 && stripes < (1 << 16)){
+			stripes<<=1;
+		}
+		locks=new Lock[stripes];
+		for(int i=0; i < stripes; i++){
+			locks[i]=new Lock();
+		}
+		sub=false;
+		use_from=false;
+		from_inc=false;
+		from=null;
+		use_to=false;
+		to_inc=false;
+		to=null;
+		if(builder.initial_map != null){
+			for(Entry<? extends K, ? extends V> entry:builder.initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private ConcurrentTreeCounter(ConcurrentTreeCounter<K, V> counter, boolean use_from, boolean from_inc, V from, boolean use_to, boolean to_inc, V to){
+		super(counter.caster, counter.comparator, counter.adder);
+		this.lookup=counter.lookup;
+		this.root=counter.root;
+		this.sequence=counter.sequence;
+		this.scans=counter.scans;
+		this.locks=counter.locks;
+		this.reverse=counter.reverse;
+		this.sub=true;
+
+		if(counter.use_from && (!use_from || compare(counter.from, from) > 0 || (compare(counter.from, from) == 0 && !counter.from_inc))){
+			use_from=true;
+			from=counter.from;
+			from_inc=counter.from_inc;
+		}
+		if(counter.use_to && (!use_to || compare(counter.to, to) < 0 || (compare(counter.to, to) == 0 && !counter.to_inc))){
+			use_to=true;
+			to=counter.to;
+			to_inc=counter.to_inc;
+		}
+		this.use_from=use_from;
+		this.from_inc=from_inc;
+		this.from=from;
+		this.use_to=use_to;
+		this.to_inc=to_inc;
+		this.to=to;
+
+		if(use_from && use_to){
+			int cmp=compare(from, to);
+			if(cmp > 0 || (cmp == 0 && (!from_inc || !to_inc))){
+				index=new ConcurrentSkipListSet<>(root.comparator());
+			}else{
+				index=root.subSet(lowerProbe(from, from_inc), true, upperProbe(to, to_inc), true);
+			}
+		}else if(use_from){
+			index=root.tailSet(lowerProbe(from, from_inc), true);
+		}else if(use_to){
+			index=root.headSet(upperProbe(to, to_inc), true);
+		}else{
+			index=root;
+		}
+	}
+
+	/**
+	 * Returns a node placed before every mapping with value {@code value} if
+	 * {@code inclusive}, or after them otherwise.
+	 */
+	private Node<K, V> lowerProbe(V value, boolean inclusive){
+		return new Node<>(null, value, inclusive ? Long.MIN_VALUE : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Returns a node placed after every mapping with value {@code value} if
+	 * {@code inclusive}, or before them otherwise.
+	 */
+	private Node<K, V> upperProbe(V value, boolean inclusive){
+		return new Node<>(null, value, inclusive ? Long.MAX_VALUE : Long.MIN_VALUE);
+	}
+
+	private boolean inLimits(V value){
+		if(use_from){
+			int cmp=compare(value, from);
+			if(cmp < 0 || (cmp == 0 && !from_inc)){
+				return false;
+			}
+		}
+		if(use_to){
+			int cmp=compare(value, to);
+			if(cmp > 0 || (cmp == 0 && !to_inc)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isCurrent(Node<K, V> node){
+		return lookup.get(node.key) == node;
+	}
+
+	private Lock lockFor(Object key){
+		int h=key.hashCode();
+		h^=(h >>> 16);
+		return locks[h & (locks.length - 1)];
+	}
+
+	private void checkModifiable(){
+		if(sub){
+			throw new UnsupportedOperationException("Sub-ConcurrentTreeCounters items cannot be modified directly");
+		}
+	}
+
+	private void checkKeyValue(K key, V value){
+		if(key == null){
+			throw new NullPointerException("Null keys not allowed in ConcurrentTreeCounters");
+		}
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+	}
+
+	/**
+	 * Replaces the mapping of a key. Must be called holding the lock of the
+	 * key.
+	 */
+	private void pvtReplace(K key, Node<K, V> oldnode, V newvalue){
+		Node<K, V> newnode=new Node<>(key, newvalue, sequence.incrementAndGet());
+		root.add(newnode);
+		lookup.put(key, newnode);
+		if(!scans.logs.isEmpty()){
+			for(Set<K> log:scans.logs){
+				log.add(key);
+			}
+		}
+		if(oldnode != null){
+			root.remove(oldnode);
+		}
+	}
+
+	@Override
+	public Tuple2<V, V> sum(K key, V value){
+		checkModifiable();
+		checkKeyValue(key, value);
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			V newvalue=oldnode == null ? value : adder.add(oldnode.value, value);
+			pvtReplace(key, oldnode, newvalue);
+			return new Tuple2<>(oldnode == null ? null : oldnode.value, newvalue);
+		}
+	}
+
+	@Override
+	public Tuple2<V, V> deduct(K key, V value){
+		checkModifiable();
+		checkKeyValue(key, value);
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			V newvalue=oldnode == null ? adder.negate(value) : adder.subtract(oldnode.value, value);
+			pvtReplace(key, oldnode, newvalue);
+			return new Tuple2<>(oldnode == null ? null : oldnode.value, newvalue);
+		}
+	}
+
+	@Override
+	public void sumToAll(V value){
+		checkModifiable();
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		for(K key:lookup.keySet()){
+			synchronized(lockFor(key)){
+				Node<K, V> oldnode=lookup.get(key);
+				if(oldnode != null){
+					pvtReplace(key, oldnode, adder.add(oldnode.value, value));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void deductToAll(V value){
+		checkModifiable();
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		for(K key:lookup.keySet()){
+			synchronized(lockFor(key)){
+				Node<K, V> oldnode=lookup.get(key);
+				if(oldnode != null){
+					pvtReplace(key, oldnode, adder.subtract(oldnode.value, value));
+				}
+			}
+		}
+	}
+
+	@Override
+	public Tuple2<V, V> putMax(K key, V value){
+		checkModifiable();
+		checkKeyValue(key, value);
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			if(oldnode != null && compare(oldnode.value, value) >= 0){
+				return new Tuple2<>(oldnode.value, oldnode.value);
+			}
+			pvtReplace(key, oldnode, value);
+			return new Tuple2<>(oldnode == null ? null : oldnode.value, value);
+		}
+	}
+
+	@Override
+	public Tuple2<V, V> putMin(K key, V value){
+		checkModifiable();
+		checkKeyValue(key, value);
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			if(oldnode != null && compare(oldnode.value, value) <= 0){
+				return new Tuple2<>(oldnode.value, oldnode.value);
+			}
+			pvtReplace(key, oldnode, value);
+			return new Tuple2<>(oldnode == null ? null : oldnode.value, value);
+		}
+	}
+
+	@Override
+	public V put(K key, V value){
+		checkModifiable();
+		checkKeyValue(key, value);
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			pvtReplace(key, oldnode, value);
+			return oldnode == null ? null : oldnode.value;
+		}
+	}
+
+	@Override
+	public V remove(Object key){
+		if(key == null){
+			return null;
+		}
+		synchronized(lockFor(key)){
+			Node<K, V> oldnode=lookup.get(key);
+			if(oldnode == null || !inLimits(oldnode.value)){
+				return null;
+			}
+			lookup.remove(key);
+			root.remove(oldnode);
+			return oldnode.value;
+		}
+	}
+
+	@Override
+	public void clear(){
+		for(Node<K, V> node:index){
+			remove(node.key);
+		}
+	}
+
+	/**
+	 * Returns the number of key-value mappings on this {@code Counter}. For
+	 * the {@code Counters} returned by {@code headCounter},
+	 * {@code tailCounter} and {@code subCounter}, this method is linear in the
+	 * number of mappings.
+	 *
+	 * @return the number of mappings
+	 */
+	@Override
+	public int size(){
+		if(!sub){
+			return lookup.size();
+		}
+		int size=0;
+		for(Iterator<Node<K, V>> iter=new NodeIterator(index.iterator()); iter.hasNext(); iter.next()){
+			if(size < Integer.MAX_VALUE){
+				size++;
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty(){
+		if(!sub){
+			return lookup.isEmpty();
+		}
+		return scan(false, 1).isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key){
+		if(key == null){
+			return false;
+		}
+		Node<K, V> node=lookup.get(key);
+		return node != null && inLimits(node.value);
+	}
+
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Number)){
+			return false;
+		}
+		try{
+			return inLimits((V)value) && new NodeIterator(root.subSet(lowerProbe((V)value, true), true, upperProbe((V)value, true), true).iterator()).hasNext();
+		}catch(ClassCastException ex){
+			return false;
+		}
+	}
+
+	@Override
+	public V get(Object key){
+		if(key == null){
+			return null;
+		}
+		Node<K, V> node=lookup.get(key);
+		return node != null && inLimits(node.value) ? node.value : null;
+	}
+
+	/**
+	 * Returns whether the node {@code node1} is placed after {@code node2}
+	 * when the index is walked in the specified direction.
+	 */
+	private boolean after(Node<K, V> node1, Node<K, V> node2, boolean descending){
+		int cmp=root.comparator().compare(node1, node2);
+		return descending ? cmp < 0 : cmp > 0;
+	}
+
+	/**
+	 * Keeps the most recent of the nodes found for the key of {@code node}.
+	 */
+	private static <K, V> void keep(Map<K, Node<K, V>> found, Node<K, V> node){
+		Node<K, V> previous=found.get(node.key);
+		if(previous == null || previous.seq < node.seq){
+			found.put(node.key, node);
+		}
+	}
+
+	/**
+	 * Returns the first {@code n} mappings of the index in the specified
+	 * direction, one per key, without blocking.
+	 * <p>
+	 * The walk can meet a mapping that is no longer current, and a key can be
+	 * given a new mapping placed behind the walk while its old one is removed
+	 * ahead of it. The first case is resolved through the lookup, taking the
+	 * current mapping of the key if it is behind the walk (a current mapping
+	 * ahead of it is met later, or replaced). The keys of the second case
+	 * are in the log of the scan, since the replacement logs its key before
+	 * removing the old mapping, so they are resolved through the lookup once
+	 * the walk is finished. Hence the result holds the first {@code n} keys
+	 * if every key had one of the values it took during the scan.</p>
+	 */
+	private List<Node<K, V>> scan(boolean descending, int n){
+		Set<K> log=Collections.newSetFromMap(new ConcurrentHashMap<K, Boolean>());
+		Map<K, Node<K, V>> found=new HashMap<>();
+		Node<K, V> last=null;
+		scans.logs.add(log);
+		try{
+			Iterator<Node<K, V>> iter=descending ? index.descendingIterator() : index.iterator();
+			while(found.size() < n && iter.hasNext()){
+				last=iter.next();
+				Node<K, V> current=lookup.get(last.key);
+				if(current == last){
+					keep(found, current);
+				}else if(current != null && inLimits(current.value) && !after(current, last, descending)){
+					keep(found, current);
+				}
+			}
+		}finally{
+			scans.logs.remove(log);
+		}
+		boolean exhausted=found.size() < n;
+		for(K key:log){
+			Node<K, V> current=lookup.get(key);
+			if(current != null && inLimits(current.value) && (exhausted || !after(current, last, descending))){
+				keep(found, current);
+			}
+		}
+		List<Node<K, V>> nodes=new ArrayList<>(found.values());
+		Comparator<? super Node<K, V>> order=root.comparator();
+		if(descending){
+			order=Collections.reverseOrder(order);
+		}
+		Collections.sort(nodes, order);
+		return nodes.size() > n ? nodes.subList(0, n) : nodes;
+	}
+
+	/**
+	 * Returns the value of the first mapping of the index in the specified
+	 * direction.
+	 */
+	private V first(boolean descending){
+		List<Node<K, V>> nodes=scan(descending, 1);
+		if(nodes.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return nodes.get(0).value;
+	}
+
+	/**
+	 * Returns the highest value of this {@code SortedCounter}. This method
+	 * never blocks, nor misses a key whose value changes while it runs.
+	 *
+	 * @return the highest value of this {@code SortedCounter}
+	 *
+	 * @throws NoSuchElementException if this {@code SortedCounter} is empty
+	 */
+	@Override
+	public V maxValue(){
+		return first(!reverse);
+	}
+
+	/**
+	 * Returns the lowest value of this {@code SortedCounter}. This method
+	 * never blocks, nor misses a key whose value changes while it runs.
+	 *
+	 * @return the lowest value of this {@code SortedCounter}
+	 *
+	 * @throws NoSuchElementException if this {@code SortedCounter} is empty
+	 */
+	@Override
+	public V minValue(){
+		return first(reverse);
+	}
+
+	/**
+	 * {@inheritDoc} This method walks the index from its highest end,
+	 * visiting only the returned keys (and the mappings being replaced), and
+	 * like {@link #maxValue() maxValue} it never blocks.
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> topN(int n){
+		return collect(!reverse, n);
+	}
+
+	/**
+	 * {@inheritDoc} This method walks the index from its lowest end, visiting
+	 * only the returned keys (and the mappings being replaced), and like
+	 * {@link #minValue() minValue} it never blocks.
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> bottomN(int n){
+		return collect(reverse, n);
+	}
+
+	/**
+	 * Collects the keys and values of the first {@code n} mappings of the
+	 * index in the specified direction.
+	 *
+	 * @param descending whether the index is walked from its last node
+	 * @param n the maximum number of keys to be collected
+	 *
+	 * @return the {@code RankedKeys}
+	 */
+	private RankedKeys<K, V> collect(boolean descending, int n){
+		RankedKeys.checkN(n);
+		List<Node<K, V>> nodes=scan(descending, n);
+		Object[] keys=new Object[nodes.size()];
+		Object[] values=new Object[keys.length];
+		for(int i=0; i < keys.length; i++){
+			Node<K, V> node=nodes.get(i);
+			keys[i]=node.key;
+			values[i]=node.value;
+		}
+		return new RankedKeys<>(keys, values, keys.length);
+	}
+
+	@Override
+	public Set<K> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<K>(){
+				@Override
+				public int size(){
+					return ConcurrentTreeCounter.this.size();
+				}
+
+				@Override
+				public boolean isEmpty(){
+					return ConcurrentTreeCounter.this.isEmpty();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					return ConcurrentTreeCounter.this.remove(obj) != null;
+				}
+
+				@Override
+				public void clear(){
+					ConcurrentTreeCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<K> iterator(){
+					return new KeyIterator(index.iterator());
+				}
+			};
+		}
+		return backed_keyset;
+	}
+
+	@Override
+	public Set<K> keySet(final V value){
+		final NavigableSet<Node<K, V>> set=inLimits(value) ? root.subSet(lowerProbe(value, true), true, upperProbe(value, true), true) : new ConcurrentSkipListSet<>(root.comparator());
+		return new AbstractSet<K>(){
+			@Override
+			public int size(){
+				int size=0;
+				for(Iterator<K> iter=iterator(); iter.hasNext(); iter.next()){
+					size++;
+				}
+				return size;
+			}
+
+			@Override
+			public boolean isEmpty(){
+				return !iterator().hasNext();
+			}
+
+			@Override
+			public boolean contains(Object obj){
+				if(obj == null){
+					return false;
+				}
+				Node<K, V> node=lookup.get(obj);
+				return node != null && inLimits(value) && compare(node.value, value) == 0;
+			}
+
+			@Override
+			public Iterator<K> iterator(){
+				return new KeyIterator(set.iterator());
+			}
+		};
+	}
+
+	@Override
+	public Collection<V> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<V>(){
+				@Override
+				public int size(){
+					return ConcurrentTreeCounter.this.size();
+				}
+
+				@Override
+				public boolean isEmpty(){
+					return ConcurrentTreeCounter.this.isEmpty();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public void clear(){
+					ConcurrentTreeCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<V> iterator(){
+					final NodeIterator iter=new NodeIterator(index.iterator());
+					return new Iterator<V>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public V next(){
+							return iter.next().value;
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, V>>(){
+				@Override
+				public int size(){
+					return ConcurrentTreeCounter.this.size();
+				}
+
+				@Override
+				public boolean isEmpty(){
+					return ConcurrentTreeCounter.this.isEmpty();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					V value=get(((Entry)obj).getKey());
+					return value != null && value.equals(((Entry)obj).getValue());
+				}
+
+				@Override
+				public void clear(){
+					ConcurrentTreeCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, V>> iterator(){
+					final NodeIterator iter=new NodeIterator(index.iterator());
+					return new Iterator<Entry<K, V>>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public Entry<K, V> next(){
+							Node<K, V> node=iter.next();
+							return new SimpleEntry<K, V>(node.key, node.value){
+								private static final long serialVersionUID=-4937361187045230374L;
+
+								@Override
+								public V setValue(V value){
+									super.setValue(value);
+									return put(getKey(), value);
+								}
+							};
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	@Override
+	public Set<Entry<V, Set<K>>> inverseEntrySet(){
+		if(backed_inverse_entryset == null){
+			backed_inverse_entryset=new AbstractSet<Entry<V, Set<K>>>(){
+				@Override
+				public int size(){
+					int size=0;
+					for(Iterator<Entry<V, Set<K>>> iter=iterator(); iter.hasNext(); iter.next()){
+						size++;
+					}
+					return size;
+				}
+
+				@Override
+				public boolean isEmpty(){
+					return ConcurrentTreeCounter.this.isEmpty();
+				}
+
+				@Override
+				public void clear(){
+					ConcurrentTreeCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<V, Set<K>>> iterator(){
+					final NodeIterator iter=new NodeIterator(index.iterator());
+					return new Iterator<Entry<V, Set<K>>>(){
+						private V last=null;
+
+						@Override
+						public boolean hasNext(){
+							while(iter.hasNext()){
+								if(last == null || compare(iter.peek().value, last) != 0){
+									return true;
+								}
+								iter.next();
+							}
+							return false;
+						}
+
+						@Override
+						public Entry<V, Set<K>> next(){
+							if(!hasNext()){
+								throw new NoSuchElementException();
+							}
+							last=iter.next().value;
+							return new SimpleEntry<V, Set<K>>(last, Collections.unmodifiableSet(keySet(last))){
+								private static final long serialVersionUID=-1204373908016548932L;
+
+								@Override
+								public Set<K> setValue(Set<K> value) throws UnsupportedOperationException{
+									throw new UnsupportedOperationException("ConcurrentTreeCounter inverseEntrySet Entries cannot be modified");
+								}
+							};
+						}
+
+						@Override
+						public void remove(){
+							if(last == null){
+								throw new IllegalStateException();
+							}
+							for(K key:keySet(last)){
+								ConcurrentTreeCounter.this.remove(key);
+							}
+						}
+					};
+				}
+			};
+		}
+		return backed_inverse_entryset;
+	}
+
+	@Override
+	public SortedCounter<K, V> tailCounter(V from_value, boolean inclusive){
+		return new ConcurrentTreeCounter<>(this, true, inclusive, from_value, false, false, null);
+	}
+
+	@Override
+	public SortedCounter<K, V> headCounter(V to_value, boolean inclusive){
+		return new ConcurrentTreeCounter<>(this, false, false, null, true, inclusive, to_value);
+	}
+
+	@Override
+	public SortedCounter<K, V> subCounter(V from_value, boolean from_inclusive, V to_value, boolean to_inclusive){
+		return new ConcurrentTreeCounter<>(this, true, from_inclusive, from_value, true, to_inclusive, to_value);
+	}
+
+	/**
+	 * Iterator over the nodes of the index that are still current, that is,
+	 * skipping those whose key has been removed or given a new value.
+	 */
+	private final class NodeIterator implements Iterator<Node<K, V>>{
+
+		private final Iterator<Node<K, V>> iter;
+		private Node<K, V> next;
+		private Node<K, V> last=null;
+
+		private NodeIterator(Iterator<Node<K, V>> iter){
+			this.iter=iter;
+			advance();
+		}
+
+		private void advance(){
+			next=null;
+			while(iter.hasNext()){
+				Node<K, V> node=iter.next();
+				if(isCurrent(node)){
+					next=node;
+					return;
+				}
+			}
+		}
+
+		private Node<K, V> peek(){
+			return next;
+		}
+
+		@Override
+		public boolean hasNext(){
+			return next != null;
+		}
+
+		@Override
+		public Node<K, V> next(){
+			if(next == null){
+				throw new NoSuchElementException();
+			}
+			last=next;
+			advance();
+			return last;
+		}
+
+		@Override
+		public void remove(){
+			if(last == null){
+				throw new IllegalStateException();
+			}
+			ConcurrentTreeCounter.this.remove(last.key);
+			last=null;
+		}
+	}
+
+	private final class KeyIterator implements Iterator<K>{
+
+		private final NodeIterator iter;
+
+		private KeyIterator(Iterator<Node<K, V>> iter){
+			this.iter=new NodeIterator(iter);
+		}
+
+		@Override
+		public boolean hasNext(){
+			return iter.hasNext();
+		}
+
+		@Override
+		public K next(){
+			return iter.next().key;
+		}
+
+		@Override
+		public void remove(){
+			iter.remove();
+		}
+	}
+}
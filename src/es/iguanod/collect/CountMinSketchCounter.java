@@ -0,0 +1,703 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.math.Adders;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Approximate {@code Counter} of {@code Long} values backed by a Count-Min
+ * Sketch. The sketch is a table of {@code depth} rows of {@code width}
+ * counters; every key is hashed to one counter of each row, and its value is
+ * estimated as the minimum of those counters. Therefore the memory used is
+ * fixed, no matter how many distinct keys are summed, but the keys themselves
+ * are not stored.
+ * <p>
+ * As long as only non-negative values are summed, the value associated with a
+ * key is never lower than its real count, and it exceeds it by more than
+ * {@code e/width} times the {@link #totalCount() total count} with a
+ * probability of at most {@code e^-depth}. With <i>conservative update</i>
+ * enabled, only the counters that would otherwise fall below the new estimate
+ * are increased, which noticeably reduces the overestimation, but values can
+ * no longer be deducted.</p>
+ * <p>
+ * A key is considered to be contained in the {@code Counter} if its estimated
+ * value is not {@code 0} (zero), and {@link #get(Object) get} returns
+ * {@code null} otherwise, as a {@code HashCounter} would for an absent key.
+ * Since the keys are not stored, {@code size}, {@code keySet}, {@code values},
+ * {@code entrySet}, {@code containsValue}, {@code put}, {@code remove},
+ * {@code sumToAll} and the methods relying on them throw
+ * {@code UnsupportedOperationException}.</p>
+ * <p>
+ * Two sketches with the same width, depth and seed can be combined with
+ * {@link #merge(CountMinSketchCounter) merge}, so a stream can be counted with
+ * one {@code CountMinSketchCounter} per thread and the results joined
+ * afterwards.</p>
+ *
+ * @param <K> the class of the keys summed to the {@code Counter}
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class CountMinSketchCounter<K> extends AbstractCounter<K, Long>{
+
+	private static final long serialVersionUID=-2918461083776106259L;
+	private static final Caster<BigDecimal, Long> CASTER=new Caster<BigDecimal, Long>(){
+		private static final long serialVersionUID=-3304216712245853390L;
+
+		@Override
+		public Long cast(BigDecimal t){
+			return t.longValue();
+		}
+	};
+
+	/**
+	 * Builder used to construct objects of the
+	 * {@link es.iguanod.collect.CountMinSketchCounter} class. The width,
+	 * depth and seed of the sketch, and whether conservative update is used,
+	 * can be provided; the width and depth can also be derived from the
+	 * desired accuracy with {@link #setAccuracy(double,double) setAccuracy}.
+	 * <p>
+	 * All the methods of the {@code CountMinSketchCounterBuilder} (except for
+	 * the {@link #build build} method) return {@code this}, so calls can be
+	 * chained.</p>
+	 * <p>
+	 * If nothing is specified, a sketch of 4 rows of 1024 counters with seed
+	 * {@code 0} and without conservative update is built.</p>
+	 *
+	 * @param <K> the class of the keys summed to the {@code Counter}
+	 *
+	 * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+	 * @since 1.0.1
+	 * @version 1.0.1
+	 */
+	public static class CountMinSketchCounterBuilder<K> implements Serializable{
+
+		private static final long serialVersionUID=4981300745197166132L;
+		//************
+		private int width=1024;
+		private int depth=4;
+		private long seed=0;
+		private boolean conservative=false;
+
+		/**
+		 * Sets the number of counters of each row of the sketch.
+		 *
+		 * @param width the width of the sketch
+		 *
+		 * @return this {@code CountMinSketchCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code width} is non-possitive
+		 */
+		public CountMinSketchCounterBuilder<K> setWidth(int width){
+			if(width <= 0){
+				throw new IllegalArgumentException("The width must be possitive");
+			}
+			this.width=width;
+			return this;
+		}
+
+		/**
+		 * Sets the number of rows of the sketch.
+		 *
+		 * @param depth the depth of the sketch
+		 *
+		 * @return this {@code CountMinSketchCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code depth} is non-possitive
+		 */
+		public CountMinSketchCounterBuilder<K> setDepth(int depth){
+			if(depth <= 0){
+				throw new IllegalArgumentException("The depth must be possitive");
+			}
+			this.depth=depth;
+			return this;
+		}
+
+		/**
+		 * Sets the width and depth of the sketch so that the value associated
+		 * with a key exceeds its real count by more than {@code epsilon}
+		 * times the total count with a probability of at most
+		 * {@code delta}.
+		 *
+		 * @param epsilon the relative error
+		 * @param delta the probability of exceeding the relative error
+		 *
+		 * @return this {@code CountMinSketchCounterBuilder}
+		 *
+		 * @throws IllegalArgumentException if {@code epsilon} or
+		 * {@code delta} are not in the range {@code (0,1)}
+		 */
+		public CountMinSketchCounterBuilder<K> setAccuracy(double epsilon, double delta){
+			if(!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)){
+				throw new IllegalArgumentException("The relative error and its probability must be in the range (0,1)");
+			}
+			this.width=(int)Math.ceil(Math.E / epsilon);
+			this.depth=(int)Math.ceil(Math.log(1 / delta));
+			return this;
+		}
+
+		/**
+		 * Sets the seed of the hash functions of the sketch. Only sketches
+		 * with the same seed can be merged.
+		 *
+		 * @param seed the seed
+		 *
+		 * @return this {@code CountMinSketchCounterBuilder}
+		 */
+		public CountMinSketchCounterBuilder<K> setSeed(long seed){
+			this.seed=seed;
+			return this;
+		}
+
+		/**
+		 * Sets whether the sketch uses conservative update.
+		 *
+		 * @param conservative {@code true} to use conservative update
+		 *
+		 * @return this {@code CountMinSketchCounterBuilder}
+		 */
+		public CountMinSketchCounterBuilder<K> setConservativeUpdate(boolean conservative){
+			this.conservative=conservative;
+			return this;
+		}
+
+		/**
+		 * Constructs a new empty {@code CountMinSketchCounter} with the
+		 * parameters of this {@code CountMinSketchCounterBuilder}.
+		 *
+		 * @return a new {@code CountMinSketchCounter}
+		 *
+		 * @throws IllegalArgumentException if the sketch would have more than
+		 * {@code Integer.MAX_VALUE} counters
+		 */
+		public CountMinSketchCounter<K> build(){
+			return new CountMinSketchCounter<>(this);
+		}
+	}
+	//************
+	private final int width;
+	private final int depth;
+	private final long seed;
+	private final boolean conservative;
+	/**
+	 * The counters, row after row.
+	 */
+	private final long[] table;
+	private long total=0;
+
+	protected CountMinSketchCounter(CountMinSketchCounterBuilder<K> builder){
+		super(CASTER, null, Adders.LONG);
+		if((long)builder.width * builder.depth > Integer.MAX_VALUE){
+			throw new IllegalArgumentException("The sketch is too big");
+		}
+		this.width=builder.width;
+		this.depth=builder.depth;
+		this.seed=builder.seed;
+		this.conservative=builder.conservative;
+		this.table=new long[width * depth];
+	}
+
+	public CountMinSketchCounter(){
+		this(new CountMinSketchCounterBuilder<K>());
+	}
+
+	/**
+	 * Returns the number of counters of each row of the sketch.
+	 *
+	 * @return the width of the sketch
+	 */
+	public int width(){
+		return width;
+	}
+
+	/**
+	 * Returns the number of rows of the sketch.
+	 *
+	 * @return the depth of the sketch
+	 */
+	public int depth(){
+		return depth;
+	}
+
+	/**
+	 * Returns the seed of the hash functions of the sketch.
+	 *
+	 * @return the seed of the sketch
+	 */
+	public long seed(){
+		return seed;
+	}
+
+	/**
+	 * Returns whether the sketch uses conservative update.
+	 *
+	 * @return {@code true} if the sketch uses conservative update
+	 */
+	public boolean isConservative(){
+		return conservative;
+	}
+
+	/**
+	 * Returns the sum of all the values summed to this {@code Counter} minus
+	 * the sum of all the values deducted, that is, the real sum of all the
+	 * values associated with the keys.
+	 *
+	 * @return the total count of this {@code Counter}
+	 */
+	public long totalCount(){
+		return total;
+	}
+
+	private static int pvtMix(int h){
+		h^=h >>> 16;
+		h*=0x85ebca6b;
+		h^=h >>> 13;
+		h*=0xc2b2ae35;
+		h^=h >>> 16;
+		return h;
+	}
+
+	/**
+	 * Returns the first hash of the key. The counter of the key in the row
+	 * {@code i} is derived from two hashes as {@code h1+i*h2}, which is as
+	 * good as {@code depth} independent hash functions for a Count-Min
+	 * Sketch.
+	 *
+	 * @param key the key
+	 *
+	 * @return the first hash
+	 */
+	private int pvtHash1(Object key){
+		return pvtMix((key == null ? 0 : key.hashCode()) ^ (int)seed);
+	}
+
+	private int pvtHash2(int h1){
+		return pvtMix(h1 ^ (int)(seed >>> 32) ^ 0x9e3779b9) | 1;
+	}
+
+	private int pvtCell(int row, int h1, int h2){
+		return row * width + ((h1 + row * h2) & Integer.MAX_VALUE) % width;
+	}
+
+	private long pvtEstimate(Object key){
+		int h1=pvtHash1(key);
+		int h2=pvtHash2(h1);
+		long min=Long.MAX_VALUE;
+		for(int i=0; i < depth; i++){
+			long count=table[pvtCell(i, h1, h2)];
+			if(count < min){
+				min=count;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Adds the specified value to the counters of the specified key, and
+	 * returns the previous estimate of its value.
+	 *
+	 * @param key the key
+	 * @param value the value
+	 *
+	 * @return the previous estimate
+	 */
+	private long pvtSum(K key, long value){
+		int h1=pvtHash1(key);
+		int h2=pvtHash2(h1);
+		long min=Long.MAX_VALUE;
+		if(conservative){
+			if(value < 0){
+				throw new IllegalArgumentException("Conservative update CountMinSketchCounters only accept non-negative values");
+			}
+			for(int i=0; i < depth; i++){
+				long count=table[pvtCell(i, h1, h2)];
+				if(count < min){
+					min=count;
+				}
+			}
+			long newvalue=min + value;
+			for(int i=0; i < depth; i++){
+				int cell=pvtCell(i, h1, h2);
+				if(table[cell] < newvalue){
+					table[cell]=newvalue;
+				}
+			}
+		}else{
+			for(int i=0; i < depth; i++){
+				int cell=pvtCell(i, h1, h2);
+				long count=table[cell];
+				if(count < min){
+					min=count;
+				}
+				table[cell]=count + value;
+			}
+		}
+		total+=value;
+		return min;
+	}
+
+	/**
+	 * Adds the specified value to the estimated value associated with the
+	 * specified key, and returns the new estimate.
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Long) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the value associated with {@code key}
+	 *
+	 * @return the new estimated value associated with {@code key}
+	 *
+	 * @throws IllegalArgumentException if the sketch uses conservative update
+	 * and {@code value} is negative
+	 */
+	public long sumLong(K key, long value){
+		pvtSum(key, value);
+		return pvtEstimate(key);
+	}
+
+	/**
+	 * Deducts the specified value to the estimated value associated with the
+	 * specified key, and returns the new estimate.
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Long) deduct}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the value associated with
+	 * {@code key}
+	 *
+	 * @return the new estimated value associated with {@code key}
+	 *
+	 * @throws UnsupportedOperationException if the sketch uses conservative
+	 * update
+	 */
+	public long deductLong(K key, long value){
+		if(conservative){
+			throw new UnsupportedOperationException("Conservative update CountMinSketchCounters values cannot be deducted");
+		}
+		pvtSum(key, -value);
+		return pvtEstimate(key);
+	}
+
+	/**
+	 * Returns the estimated value associated with the specified key, which
+	 * is {@code 0} (zero) if it has never been summed.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the estimated value associated with {@code key}
+	 */
+	public long getLong(Object key){
+		return pvtEstimate(key);
+	}
+
+	/**
+	 * Adds the counters of the specified {@code CountMinSketchCounter} to the
+	 * counters of this one, so that this {@code Counter} estimates the values
+	 * of both. The specified {@code CountMinSketchCounter} is not modified.
+	 *
+	 * @param other the {@code CountMinSketchCounter} to be merged into this
+	 * one
+	 *
+	 * @throws IllegalArgumentException if the width, depth or seed of both
+	 * sketches are not equal
+	 */
+	public void merge(CountMinSketchCounter<? extends K> other){
+		if(other.width != width || other.depth != depth || other.seed != seed){
+			throw new IllegalArgumentException("Only CountMinSketchCounters with the same width, depth and seed can be merged");
+		}
+		for(int i=0; i < table.length; i++){
+			table[i]+=other.table[i];
+		}
+		total+=other.total;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the specified {@code Counter} is a {@code CountMinSketchCounter},
+	 * this method is equivalent to
+	 * {@link #merge(CountMinSketchCounter) merge}.</p>
+	 *
+	 * @param counter {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException if the specified {@code Counter} is a
+	 * {@code CountMinSketchCounter} whose width, depth or seed are not equal
+	 * to those of this one
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends K, ? extends Long> counter){
+		if(counter instanceof CountMinSketchCounter){
+			merge((CountMinSketchCounter<? extends K>)counter);
+		}else{
+			super.mergeFrom(counter);
+		}
+	}
+
+	/**
+	 * Adds the specified value to the estimated value associated with the
+	 * specified key. The returned tuple holds the previous estimate, or
+	 * {@code null} if it was {@code 0} (zero), and the new estimate.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the specified value is {@code null}
+	 * @throws IllegalArgumentException if the sketch uses conservative update
+	 * and {@code value} is negative
+	 */
+	@Override
+	public Tuple2<Long, Long> sum(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		long oldvalue=pvtSum(key, value);
+		return new Tuple2<>(oldvalue == 0 ? null : oldvalue, pvtEstimate(key));
+	}
+
+	/**
+	 * Deducts the specified value to the estimated value associated with the
+	 * specified key. The returned tuple holds the previous estimate, or
+	 * {@code null} if it was {@code 0} (zero), and the new estimate.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the specified value is {@code null}
+	 * @throws UnsupportedOperationException if the sketch uses conservative
+	 * update
+	 */
+	@Override
+	public Tuple2<Long, Long> deduct(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		if(conservative){
+			throw new UnsupportedOperationException("Conservative update CountMinSketchCounters values cannot be deducted");
+		}
+
+		long oldvalue=pvtSum(key, -value);
+		return new Tuple2<>(oldvalue == 0 ? null : oldvalue, pvtEstimate(key));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(Collection<? extends K> keys){
+		for(K key:keys){
+			pvtSum(key, 1);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(K[] keys){
+		for(K key:keys){
+			pvtSum(key, 1);
+		}
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void sumToAll(Long value){
+		throw new UnsupportedOperationException("CountMinSketchCounters values cannot be summed to all the keys");
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void deductToAll(Long value){
+		throw new UnsupportedOperationException("CountMinSketchCounters values cannot be deducted to all the keys");
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int size(){
+		throw new UnsupportedOperationException("CountMinSketchCounters do not store their keys");
+	}
+
+	/**
+	 * Returns {@code true} if every counter of the sketch is {@code 0}
+	 * (zero).
+	 *
+	 * @return {@code true} if this {@code Counter} is empty
+	 */
+	@Override
+	public boolean isEmpty(){
+		for(long count:table){
+			if(count != 0){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the estimated value associated with the
+	 * specified key is not {@code 0} (zero).
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return pvtEstimate(key) != 0;
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		throw new UnsupportedOperationException("CountMinSketchCounters do not store their keys");
+	}
+
+	/**
+	 * Returns the estimated value associated with the specified key, or
+	 * {@code null} if it is {@code 0} (zero).
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Long get(Object key){
+		long value=pvtEstimate(key);
+		return value == 0 ? null : value;
+	}
+
+	/**
+	 * Unsupported operation, since the counters of a key may be shared with
+	 * other keys.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Long put(K key, Long value){
+		throw new UnsupportedOperationException("CountMinSketchCounters values cannot be put");
+	}
+
+	/**
+	 * Unsupported operation, since the counters of a key may be shared with
+	 * other keys.
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Long remove(Object key){
+		throw new UnsupportedOperationException("CountMinSketchCounters keys cannot be removed");
+	}
+
+	@Override
+	public void clear(){
+		Arrays.fill(table, 0);
+		total=0;
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Set<K> keySet(){
+		throw new UnsupportedOperationException("CountMinSketchCounters do not store their keys");
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Collection<Long> values(){
+		throw new UnsupportedOperationException("CountMinSketchCounters do not store their keys");
+	}
+
+	/**
+	 * Unsupported operation, since the keys are not stored.
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Set<Entry<K, Long>> entrySet(){
+		throw new UnsupportedOperationException("CountMinSketchCounters do not store their keys");
+	}
+}
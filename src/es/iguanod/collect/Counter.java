@@ -210,6 +210,29 @@ public interface Counter<K, V extends Number> extends Map<K, V>{
 	 */
 	public <X> void sumAll(Map<? extends K, ? extends X> map, Caster<X, V> caster);
 
+	/**
+	 * Sums all the values of the specified {@code Counter} to the values
+	 * associated with the same keys in this {@code Counter} (optional
+	 * operation). The result is the same as that of
+	 * {@link #sumAll(Map) sumAll}, but implementations can take advantage of
+	 * the internal storage of both {@code Counters} when they are of the same
+	 * kind, so this is the preferred way to combine {@code Counters} filled
+	 * separately (for example, one per thread). The specified
+	 * {@code Counter} is not modified.
+	 *
+	 * @param counter the {@code Counter} whose values are to be sumed to this
+	 * {@code Counter}
+	 *
+	 * @throws NullPointerException if the specified {@code Counter} is
+	 * {@code null}, or if any of its keys is {@code null} and this
+	 * {@code Counter} does not permit {@code null} keys
+	 * @throws UnsupportedOperationException if this {@code Counter} is
+	 * unmodifiable and so this operation is not supported
+	 *
+	 * @see #sumAll(Map)
+	 */
+	public void mergeFrom(Counter<? extends K, ? extends V> counter);
+
 	/**
 	 * Applies the {@link #sum(Object, Number) sum} operation to every key in
 	 * the specified {@code Collection} and the specified value (optional
@@ -0,0 +1,625 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Caster;
+import es.iguanod.util.Clock;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code SortedCounter} whose values decay exponentially with time: a value
+ * summed to a key is halved every {@link #halfLife() half-life}, so the
+ * values of the {@code Counter} behave as scores in which recent sums weigh
+ * more than old ones ("trending" scores).
+ * <p>
+ * Decaying the values does not require visiting them. Since every value
+ * decays by the same factor, the values are stored multiplied by the inverse
+ * of the decay accumulated since a reference time, and are multiplied by the
+ * current decay when they are read; so every operation costs the same as in a
+ * {@link TreeCounter} and the order of the keys never has to be updated
+ * because of the decay. The stored values grow exponentially with time, so
+ * once in a long while (every 144 half-lives) they are all rescaled, taking
+ * time linear in the size of the {@code Counter}.</p>
+ * <p>
+ * The time is read from a {@link es.iguanod.util.Clock Clock}, the system
+ * clock by default. The keys whose value has decayed below a threshold can be
+ * removed with {@link #prune(double) prune}.</p>
+ * <p>
+ * Since the set of keys whose value is within a range changes with time,
+ * {@code headCounter}, {@code tailCounter} and {@code subCounter} throw
+ * {@code UnsupportedOperationException}. The values and entries returned by
+ * the views are the values at the time the view is iterated, and
+ * {@link #keySet(Double) keySet(value)} only finds the keys whose value
+ * is exactly {@code value} (up to the precision of the rescaling).</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class DecayingCounter<K> extends AbstractSortedCounter<K, Double>{
+
+	private static final long serialVersionUID=3370524580961738329L;
+	private static final Caster<BigDecimal, Double> CASTER=new Caster<BigDecimal, Double>(){
+		private static final long serialVersionUID=-1390458327708457723L;
+
+		@Override
+		public Double cast(BigDecimal t){
+			return t.doubleValue();
+		}
+	};
+	/**
+	 * Highest exponent of the inverse of the accumulated decay before the
+	 * stored values are rescaled (e^100 is about 2^144).
+	 */
+	private static final double RESCALE_EXPONENT=100;
+
+	/**
+	 * Builder used to construct objects of the
+	 * {@link es.iguanod.collect.DecayingCounter} class. The half-life of the
+	 * values must be provided; a {@link es.iguanod.util.Clock Clock} can be
+	 * provided too (by default, {@link es.iguanod.util.Clock#SYSTEM} is
+	 * used).
+	 * <p>
+	 * All the methods of the {@code DecayingCounterBuilder} (except for the
+	 * {@link #build build} method) return {@code this}, so calls can be
+	 * chained.</p>
+	 *
+	 * @param <K> the class of the keys stored in the {@code Counter} with
+	 * their respective values
+	 *
+	 * @author <a href="mailto:rubiof.david@gmail.com">David Rubio
+	 * Fernández</a>
+	 * @since 1.0.1
+	 * @version 1.0.1
+	 */
+	public static class DecayingCounterBuilder<K> implements Serializable{
+
+		private static final long serialVersionUID=-2036101659532470861L;
+		//************
+		private final double half_life;
+		private Clock clock=Clock.SYSTEM;
+
+		/**
+		 * Constructs a {@code DecayingCounterBuilder} with the specified
+		 * half-life.
+		 *
+		 * @param half_life the time it takes a value to decay to its half
+		 * @param unit the unit of {@code half_life}
+		 *
+		 * @throws IllegalArgumentException if {@code half_life} is
+		 * non-possitive
+		 */
+		public DecayingCounterBuilder(long half_life, TimeUnit unit){
+			if(half_life <= 0){
+				throw new IllegalArgumentException("The half-life must be possitive");
+			}
+			this.half_life=unit.toNanos(half_life) / 1e6;
+		}
+
+		/**
+		 * Sets the {@code Clock} from which the time is read.
+		 *
+		 * @param clock the {@code Clock}
+		 *
+		 * @return this {@code DecayingCounterBuilder}
+		 *
+		 * @throws NullPointerException if {@code clock} is {@code null}
+		 */
+		public DecayingCounterBuilder<K> setClock(Clock clock){
+			if(clock == null){
+				throw new NullPointerException("The clock cannot be null");
+			}
+			this.clock=clock;
+			return this;
+		}
+
+		/**
+		 * Construct a new {@code DecayingCounter} with the attributes
+		 * specified by the calls to this {@code DecayingCounterBuilder}
+		 * methods.
+		 *
+		 * @return the {@code DecayingCounter}
+		 */
+		public DecayingCounter<K> build(){
+			return new DecayingCounter<>(this);
+		}
+	}
+	//************
+	/**
+	 * Half-life in milliseconds.
+	 */
+	private final double half_life;
+	/**
+	 * Decay rate per millisecond.
+	 */
+	private final double rate;
+	private final Clock clock;
+	/**
+	 * The values multiplied by the inverse of the decay accumulated since
+	 * {@code landmark}.
+	 */
+	private final DoubleTreeCounter<K> stored;
+	/**
+	 * Reference time of the stored values.
+	 */
+	private long landmark;
+	//************
+	private transient Collection<Double> backed_values;
+	private transient Set<Entry<K, Double>> backed_entryset;
+	private transient Set<Entry<Double, Set<K>>> backed_inverse_entryset;
+
+	protected DecayingCounter(DecayingCounterBuilder<K> builder){
+		super(CASTER);
+		half_life=builder.half_life;
+		rate=Math.log(2) / half_life;
+		clock=builder.clock;
+		stored=new DoubleTreeCounter<>();
+		landmark=clock.now();
+	}
+
+	/**
+	 * Constructs a new empty {@code DecayingCounter} with the specified
+	 * half-life, reading the time from the system clock.
+	 *
+	 * @param half_life the time it takes a value to decay to its half
+	 * @param unit the unit of {@code half_life}
+	 *
+	 * @throws IllegalArgumentException if {@code half_life} is
+	 * non-possitive
+	 */
+	public DecayingCounter(long half_life, TimeUnit unit){
+		this(new DecayingCounterBuilder<K>(half_life, unit));
+	}
+
+	/**
+	 * Returns the half-life of the values of this {@code Counter}.
+	 *
+	 * @param unit the unit of the returned half-life
+	 *
+	 * @return the half-life in the specified unit
+	 */
+	public double halfLife(TimeUnit unit){
+		return half_life * 1e6 / unit.toNanos(1);
+	}
+
+	/**
+	 * Returns the half-life of the values of this {@code Counter} in
+	 * milliseconds.
+	 *
+	 * @return the half-life in milliseconds
+	 */
+	public double halfLife(){
+		return half_life;
+	}
+
+	/**
+	 * Returns the decay accumulated since {@code landmark}, by which the
+	 * stored values have to be multiplied to obtain the current values,
+	 * rescaling the stored values first if it has become too small.
+	 *
+	 * @return the current scale of the stored values
+	 */
+	private double scale(){
+		long now=clock.now();
+		double exponent=rate * (now - landmark);
+		if(exponent > RESCALE_EXPONENT){
+			double scale=Math.exp(-exponent);
+			HashMap<K, Double> rescaled=new HashMap<>(stored.size() * 4 / 3 + 1);
+			for(Entry<K, Double> entry:stored.entrySet()){
+				rescaled.put(entry.getKey(), entry.getValue() * scale);
+			}
+			stored.clear();
+			stored.putAll(rescaled);
+			landmark=now;
+			return 1;
+		}
+		return Math.exp(-exponent);
+	}
+
+	/**
+	 * Removes every key whose current value is lower than the specified
+	 * threshold.
+	 *
+	 * @param threshold the lowest value of the keys to be kept
+	 *
+	 * @return the number of keys removed
+	 */
+	public int prune(double threshold){
+		if(stored.isEmpty()){
+			return 0;
+		}
+		ArrayList<K> removed=new ArrayList<>(stored.headCounter(threshold / scale(), false).keySet());
+		for(K key:removed){
+			stored.remove(key);
+		}
+		return removed.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<Double, Double> sum(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		double scale=scale();
+		Tuple2<Double, Double> ret=stored.sum(key, value / scale);
+		return new Tuple2<>(ret.getFirst() == null ? null : ret.getFirst() * scale, ret.getSecond() * scale);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<Double, Double> deduct(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		double scale=scale();
+		Tuple2<Double, Double> ret=stored.deduct(key, value / scale);
+		return new Tuple2<>(ret.getFirst() == null ? null : ret.getFirst() * scale, ret.getSecond() * scale);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(Double value){
+		stored.sumToAll(value / scale());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(Double value){
+		stored.deductToAll(value / scale());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Double put(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		double scale=scale();
+		Double oldvalue=stored.put(key, value / scale);
+		return oldvalue == null ? null : oldvalue * scale;
+	}
+
+	@Override
+	public int size(){
+		return stored.size();
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return stored.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key){
+		return stored.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value){
+		return values().contains(value);
+	}
+
+	@Override
+	public Double get(Object key){
+		Double value=stored.get(key);
+		return value == null ? null : value * scale();
+	}
+
+	@Override
+	public Double remove(Object key){
+		Double value=stored.remove(key);
+		return value == null ? null : value * scale();
+	}
+
+	@Override
+	public void clear(){
+		stored.clear();
+		landmark=clock.now();
+	}
+
+	@Override
+	public Double maxValue(){
+		double scale=scale();
+		return stored.maxValue() * scale;
+	}
+
+	@Override
+	public Double minValue(){
+		double scale=scale();
+		return stored.minValue() * scale;
+	}
+
+	@Override
+	public RankedKeys<K, Double> topN(int n){
+		double scale=scale();
+		return scaled(stored.topN(n), scale);
+	}
+
+	@Override
+	public RankedKeys<K, Double> bottomN(int n){
+		double scale=scale();
+		return scaled(stored.bottomN(n), scale);
+	}
+
+	/**
+	 * Returns a copy of the specified {@code RankedKeys} with its values
+	 * multiplied by the specified scale.
+	 *
+	 * @param ranked the keys with their stored values
+	 * @param scale the current scale of the stored values
+	 *
+	 * @return the keys with their current values
+	 */
+	private static <K> RankedKeys<K, Double> scaled(RankedKeys<K, Double> ranked, double scale){
+		Object[] keys=new Object[ranked.size()];
+		Object[] values=new Object[ranked.size()];
+		for(int i=0; i < keys.length; i++){
+			keys[i]=ranked.key(i);
+			values[i]=i > 0 && ranked.value(i) == ranked.value(i - 1) ? values[i - 1] : ranked.doubleValue(i) * scale;
+		}
+		return new RankedKeys<>(keys, values, keys.length);
+	}
+
+	@Override
+	public int rankOf(Object key){
+		return stored.rankOf(key);
+	}
+
+	@Override
+	public K keyAtRank(int rank){
+		return stored.keyAtRank(rank);
+	}
+
+	@Override
+	public Double valueAtPercentile(double percentile){
+		double scale=scale();
+		return stored.valueAtPercentile(percentile) * scale;
+	}
+
+	@Override
+	public Set<K> keySet(){
+		return stored.keySet();
+	}
+
+	@Override
+	public Set<K> keySet(Double value){
+		return stored.keySet(value / scale());
+	}
+
+	@Override
+	public Collection<Double> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<Double>(){
+				@Override
+				public int size(){
+					return stored.size();
+				}
+
+				@Override
+				public void clear(){
+					DecayingCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Double> iterator(){
+					final double scale=scale();
+					final Iterator<Double> iter=stored.values().iterator();
+					return new Iterator<Double>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public Double next(){
+							return iter.next() * scale;
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	@Override
+	public Set<Entry<K, Double>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, Double>>(){
+				@Override
+				public int size(){
+					return stored.size();
+				}
+
+				@Override
+				public void clear(){
+					DecayingCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, Double>> iterator(){
+					final double scale=scale();
+					final Iterator<Entry<K, Double>> iter=stored.entrySet().iterator();
+					return new Iterator<Entry<K, Double>>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public Entry<K, Double> next(){
+							Entry<K, Double> entry=iter.next();
+							return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue() * scale);
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	@Override
+	public Set<Entry<Double, Set<K>>> inverseEntrySet(){
+		if(backed_inverse_entryset == null){
+			backed_inverse_entryset=new AbstractSet<Entry<Double, Set<K>>>(){
+				@Override
+				public int size(){
+					return stored.inverseEntrySet().size();
+				}
+
+				@Override
+				public Iterator<Entry<Double, Set<K>>> iterator(){
+					final double scale=scale();
+					final Iterator<Entry<Double, Set<K>>> iter=stored.inverseEntrySet().iterator();
+					return new Iterator<Entry<Double, Set<K>>>(){
+						@Override
+						public boolean hasNext(){
+							return iter.hasNext();
+						}
+
+						@Override
+						public Entry<Double, Set<K>> next(){
+							Entry<Double, Set<K>> entry=iter.next();
+							return new SimpleImmutableEntry<>(entry.getKey() * scale, entry.getValue());
+						}
+
+						@Override
+						public void remove(){
+							iter.remove();
+						}
+					};
+				}
+			};
+		}
+		return backed_inverse_entryset;
+	}
+
+	/**
+	 * Unsupported operation, since the keys whose values are within the
+	 * range change with time.
+	 *
+	 * @param from_value {@inheritDoc}
+	 * @param inclusive {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public SortedCounter<K, Double> tailCounter(Double from_value, boolean inclusive){
+		throw new UnsupportedOperationException("DecayingCounters do not support sub-counters");
+	}
+
+	/**
+	 * Unsupported operation, since the keys whose values are within the
+	 * range change with time.
+	 *
+	 * @param to_value {@inheritDoc}
+	 * @param inclusive {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public SortedCounter<K, Double> headCounter(Double to_value, boolean inclusive){
+		throw new UnsupportedOperationException("DecayingCounters do not support sub-counters");
+	}
+
+	/**
+	 * Unsupported operation, since the keys whose values are within the
+	 * range change with time.
+	 *
+	 * @param from_value {@inheritDoc}
+	 * @param from_inclusive {@inheritDoc}
+	 * @param to_value {@inheritDoc}
+	 * @param to_inclusive {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public SortedCounter<K, Double> subCounter(Double from_value, boolean from_inclusive, Double to_value, boolean to_inclusive){
+		throw new UnsupportedOperationException("DecayingCounters do not support sub-counters");
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link es.iguanod.collect.FixedCapacityQueue} specialized for
+ * {@code double} elements, stored in a preallocated circular {@code double}
+ * array. Besides the {@code FixedCapacityQueue} methods, which box the
+ * elements, {@code DoubleFixedCapacityQueue} offers
+ * {@link #pushDouble(double) pushDouble}, {@link #popDouble() popDouble},
+ * {@link #peekDouble() peekDouble} and {@link #getDouble(int) getDouble},
+ * which neither box the elements nor wrap them in a
+ * {@link es.iguanod.util.Maybe}.
+ * <p>
+ * This implementation doesn't accept {@code null} elements.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ *
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class DoubleFixedCapacityQueue extends AbstractCollection<Double> implements FixedCapacityQueue<Double>, Serializable{
+
+	private static final long serialVersionUID=-7330859042674013815L;
+	//**********
+	/**
+	 * Circular array that stores the elements.
+	 */
+	private final double[] elements;
+	/**
+	 * Position of the oldest element in the array.
+	 */
+	private int head=0;
+	private int size=0;
+	private transient int mod_count=0;
+
+	/**
+	 * Constructs a new {@code DoubleFixedCapacityQueue} with the specified
+	 * maximum capacity.
+	 *
+	 * @param capacity the maximum capacity of the queue
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is non-possitive
+	 */
+	public DoubleFixedCapacityQueue(int capacity){
+		if(capacity <= 0){
+			throw new IllegalArgumentException("The capacity has to be possitive");
+		}
+		elements=new double[capacity];
+	}
+
+	/**
+	 * Returns the position in the array of the element in the specified
+	 * position of the queue.
+	 *
+	 * @param index the position in the queue
+	 *
+	 * @return the position in the array
+	 */
+	private int slot(int index){
+		int slot=head + index;
+		return slot >= elements.length ? slot - elements.length : slot;
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full, and returns the removed element, or
+	 * {@code 0.0} (zero) if the queue wasn't full prior to this call (use
+	 * {@link #isFull() isFull} beforehand to tell both cases apart, if
+	 * needed). Returning zero allows keeping a running sum of the elements
+	 * without checking whether the queue was full.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return the removed element, or {@code 0.0}
+	 */
+	public double pushDouble(double elem){
+		double oldest=0;
+		if(size == elements.length){
+			oldest=elements[head];
+			elements[head]=elem;
+			head=slot(1);
+		}else{
+			elements[slot(size)]=elem;
+			size++;
+		}
+		mod_count++;
+		return oldest;
+	}
+
+	/**
+	 * Retrieves and removes the oldest element of the queue.
+	 *
+	 * @return the oldest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double popDouble(){
+		if(size == 0){
+			throw new NoSuchElementException();
+		}
+		double oldest=elements[head];
+		head=slot(1);
+		size--;
+		mod_count++;
+		return oldest;
+	}
+
+	/**
+	 * Retrieves without removing the oldest element of the queue.
+	 *
+	 * @return the oldest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double peekDouble(){
+		if(size == 0){
+			throw new NoSuchElementException();
+		}
+		return elements[head];
+	}
+
+	/**
+	 * Returns the element in the specified position of the queue, the oldest
+	 * element being in the position 0.
+	 *
+	 * @param index the position of the element
+	 *
+	 * @return the element in the position {@code index}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not
+	 * lower than the size of the queue
+	 */
+	public double getDouble(int index){
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return elements[slot(index)];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param elem {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if {@code elem} is {@code null}
+	 */
+	@Override
+	public Maybe<Double> push(Double elem){
+		if(elem == null){
+			throw new NullPointerException("Null elements not allowed in DoubleFixedCapacityQueues");
+		}
+		boolean full=size == elements.length;
+		double oldest=pushDouble(elem);
+		return full ? Maybe.from(oldest) : Maybe.<Double>absent();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Maybe<Double> pop(){
+		return size == 0 ? Maybe.<Double>absent() : Maybe.from(popDouble());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Maybe<Double> peek(){
+		return size == 0 ? Maybe.<Double>absent() : Maybe.from(peekDouble());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int capacity(){
+		return elements.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isFull(){
+		return size == elements.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		head=0;
+		size=0;
+		mod_count++;
+	}
+
+	/**
+	 * Returns an {@link java.util.Iterator} over the elements in this
+	 * collection. The elements are returned started with the oldest one and
+	 * finishing with the newest one.
+	 * <p>
+	 * The {@code Iterator} supports the
+	 * {@link java.util.Iterator#remove() remove} operation, which takes time
+	 * linear in the number of elements newer than the removed one.</p>
+	 *
+	 * @return the {@code Iterator}
+	 */
+	@Override
+	public Iterator<Double> iterator(){
+		return new Iterator<Double>(){
+			private int next=0;
+			private int last=-1;
+			private int expected_mod_count=mod_count;
+
+			@Override
+			public boolean hasNext(){
+				return next < size;
+			}
+
+			@Override
+			public Double next(){
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				if(next >= size){
+					throw new NoSuchElementException();
+				}
+				last=next;
+				return getDouble(next++);
+			}
+
+			@Override
+			public void remove(){
+				if(last < 0){
+					throw new IllegalStateException();
+				}
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				for(int i=last; i < size - 1; i++){
+					elements[slot(i)]=elements[slot(i + 1)];
+				}
+				size--;
+				next=last;
+				last=-1;
+				expected_mod_count=++mod_count;
+			}
+		};
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full. This method behaves just as
+	 * {@link #push(Double) push(elem)} except it doesn't retrieve the
+	 * removed element (if any) and always returns true.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@code true}
+	 *
+	 * @throws NullPointerException if {@code elem} is {@code null}
+	 */
+	@Override
+	public boolean add(Double elem){
+		if(elem == null){
+			throw new NullPointerException("Null elements not allowed in DoubleFixedCapacityQueues");
+		}
+		pushDouble(elem);
+		return true;
+	}
+}
@@ -22,11 +22,42 @@ package es.iguanod.collect;
 import es.iguanod.util.Caster;
 import es.iguanod.util.tuples.Tuple2;
 import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * {@code HashCounter} specialized for {@code Double} values. Instead of a
+ * {@link java.util.HashMap}, the mappings are stored in an open addressing
+ * hash table made of an array of keys and a parallel {@code double[]} array of
+ * values, so no entry object nor boxed value is kept per mapping.
+ * <p>
+ * Besides the {@code Counter} methods, {@code DoubleHashCounter} offers
+ * {@link #sumDouble(Object,double) sumDouble},
+ * {@link #deductDouble(Object,double) deductDouble} and
+ * {@link #getDouble(Object) getDouble}, which work with primitive values and
+ * locate the key with a single probe of the hash table, without allocating
+ * any object unless the table has to grow.</p>
+ * <p>
+ * {@link #sumToAll(Double) sumToAll}, {@link #deductToAll(Double) deductToAll} and the
+ * {@code balanced...ToAll} methods usually run in constant time: instead of
+ * updating every value, they update an offset that is added to the stored
+ * values when they are read. To keep the error of adding and removing the
+ * offset below {@code 2^-32}, the offset is folded into the stored values
+ * (taking time linear in the capacity of the table) whenever its absolute
+ * value would exceed {@code 2^20} or it would not be finite, and it is reset
+ * when the {@code Counter} becomes empty. Summing or deducting to all the
+ * keys of an empty {@code Counter} does nothing.</p>
+ * <p>
+ * Since the table uses open addressing, load factors greater than
+ * {@code 0.9} are treated as {@code 0.9}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
  *
  * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
  * @since 1.0.1
@@ -89,14 +120,265 @@ public class DoubleHashCounter<K> extends HashCounter<K, Double>{
 		}
 	};
 
+	//************
+	/**
+	 * Hash index of the keys.
+	 */
+	private OpenHashIndex<K> index;
+	/**
+	 * Values, parallel to the slots of the index.
+	 */
+	private double[] values;
+	/**
+	 * Amount added to every stored value to obtain the actual value, so that
+	 * {@code sumToAll} and {@code deductToAll} run in constant time.
+	 */
+	private double offset=0;
+	/**
+	 * Maximum absolute value of the offset before it is folded into the
+	 * stored values.
+	 */
+	private static final double MAX_OFFSET=1 << 20;
+	//************
+	private transient Set<K> backed_keyset;
+	private transient Collection<Double> backed_values;
+	private transient Set<Entry<K, Double>> backed_entryset;
+
 	protected DoubleHashCounter(DoubleHashCounterBuilder<K> builder){
-		super(builder);
+		super(builder, false);
+		Map<? extends K, ? extends Double> initial_map=builder.getInitialMappings();
+		if(initial_map == null){
+			index=new OpenHashIndex<>(builder.getInitialCapacity(), builder.getLoadFactor());
+		}else{
+			index=new OpenHashIndex<>(initial_map.size(), builder.getLoadFactor());
+		}
+		values=new double[index.capacity()];
+		if(initial_map != null){
+			for(Entry<? extends K, ? extends Double> entry:initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
 	}
 
 	public DoubleHashCounter(){
 		this(new DoubleHashCounterBuilder<K>());
 	}
 
+	/**
+	 * Returns the slot of the specified key, inserting it with an associated
+	 * value of {@code 0} (zero) if it is not present. {@code free} is the
+	 * value returned by {@link OpenHashIndex#probe(Object) probe} for the
+	 * key.
+	 *
+	 * @param key the key
+	 * @param free the encoded free slot
+	 *
+	 * @return the slot of the key
+	 */
+	private int insert(K key, int free){
+		if(index.isCrowded()){
+			int[] moved=index.rehash();
+			double[] newvalues=new double[index.capacity()];
+			for(int i=0; i < moved.length; i++){
+				if(moved[i] >= 0){
+					newvalues[moved[i]]=values[i];
+				}
+			}
+			values=newvalues;
+			free=index.probe(key);
+		}
+		int slot=-free - 1;
+		index.insert(slot, key);
+		values[slot]=-offset;
+		return slot;
+	}
+
+	/**
+	 * Resets the offset if this {@code Counter} is empty, so that the values
+	 * inserted afterwards are stored exactly.
+	 */
+	private void resetOffsetIfEmpty(){
+		if(index.size() == 0){
+			offset=0;
+		}
+	}
+
+	/**
+	 * Removes the mapping stored in the specified slot.
+	 *
+	 * @param slot the slot
+	 */
+	private void removeSlot(int slot){
+		index.removeAt(slot);
+		resetOffsetIfEmpty();
+	}
+
+	/**
+	 * Adds the specified amount to every value, updating the offset or, if it
+	 * would grow beyond {@code MAX_OFFSET} or not be finite, folding it into
+	 * the stored values.
+	 *
+	 * @param delta the amount to be added
+	 */
+	private void shiftAll(double delta){
+		if(index.size() == 0){
+			return;
+		}
+		double shifted=offset + delta;
+		if(Math.abs(shifted) <= MAX_OFFSET){
+			offset=shifted;
+			return;
+		}
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				values[i]=values[i] + offset + delta;
+			}
+		}
+		offset=0;
+	}
+
+	/**
+	 * Returns the actual value stored in the specified slot.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the value of the slot
+	 */
+	private double valueAt(int slot){
+		return values[slot] + offset;
+	}
+
+	/**
+	 * Sets the actual value stored in the specified slot.
+	 *
+	 * @param slot the slot
+	 * @param value the value of the slot
+	 */
+	private void setValueAt(int slot, double value){
+		values[slot]=value - offset;
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Double) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public double sumDouble(K key, double value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+		}
+		return (values[slot]+=value) + offset;
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Double) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public double deductDouble(K key, double value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+		}
+		return (values[slot]-=value) + offset;
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public double getDouble(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? 0 : valueAt(slot);
+	}
+
+	/**
+	 * Adds every value of the {@code deltas} array to the current value
+	 * associated with the key in the same position of the {@code keys}
+	 * array. If a key is not already present in this {@code Counter}, this
+	 * method behaves as if it was present with an associated value of
+	 * {@code 0} (zero).
+	 * <p>
+	 * This method neither boxes the values nor allocates any object per key,
+	 * unless the table has to grow.</p>
+	 *
+	 * @param keys the keys which values are to be modified
+	 * @param deltas the values to be added to the values associated with the
+	 * respective keys
+	 *
+	 * @throws IllegalArgumentException if the arrays have different lengths
+	 */
+	public void sumAll(K[] keys, double[] deltas){
+		if(keys.length != deltas.length){
+			throw new IllegalArgumentException("The keys and deltas arrays must have the same length");
+		}
+		for(int i=0; i < keys.length; i++){
+			sumDouble(keys[i], deltas[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void sumValue(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		sumDouble(key, value);
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void deductValue(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		deductDouble(key, value);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -113,15 +395,160 @@ public class DoubleHashCounter<K> extends HashCounter<K, Double>{
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		Double newvalue;
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+			setValueAt(slot, value);
+			return new Tuple2<Double, Double>(null, value);
+		}
+		double oldvalue=valueAt(slot);
+		values[slot]+=value;
+		return new Tuple2<>(oldvalue, oldvalue + value);
+	}
 
-		if(!this.containsKey(key)){
-			newvalue=value;
-		}else{
-			newvalue=this.get(key) + value;
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<Double, Double> deduct(K key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+			setValueAt(slot, -value);
+			return new Tuple2<Double, Double>(null, -value);
+		}
+		double oldvalue=valueAt(slot);
+		values[slot]-=value;
+		return new Tuple2<>(oldvalue, oldvalue - value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the specified {@code Counter} is also an {@code DoubleHashCounter}, its
+	 * table is traversed directly and no value is boxed.</p>
+	 *
+	 * @param counter {@inheritDoc}
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends K, ? extends Double> counter){
+		if(!(counter instanceof DoubleHashCounter)){
+			super.mergeFrom(counter);
+			return;
+		}
+		DoubleHashCounter<? extends K> other=(DoubleHashCounter<? extends K>)counter;
+		OpenHashIndex<? extends K> otherindex=other.index;
+		double[] othervalues=other.values;
+		double otheroffset=other.offset;
+		for(int i=0; i < othervalues.length; i++){
+			if(otherindex.isUsed(i)){
+				sumDouble(otherindex.keyAt(i), othervalues[i] + otheroffset);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This method runs in constant time, unless the offset has to be folded
+	 * into the values.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(Double value){
+		shiftAll(value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This method runs in constant time, unless the offset has to be folded
+	 * into the values.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(Double value){
+		shiftAll(-value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return index.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty(){
+		return index.size() == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return index.indexOf(key) >= 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Double)){
+			return false;
 		}
+		double v=(Double)value;
+		long bits=Double.doubleToLongBits(v);
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i) && (comparator == null ? Double.doubleToLongBits(valueAt(i)) == bits : comparator.compare(valueAt(i), v) == 0)){
+				return true;
+			}
+		}
+		return false;
+	}
 
-		return new Tuple2<>(this.put(key, newvalue), newvalue);
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Double get(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? null : valueAt(slot);
 	}
 
 	/**
@@ -135,20 +562,260 @@ public class DoubleHashCounter<K> extends HashCounter<K, Double>{
 	 * @throws NullPointerException {@inheritDoc}
 	 */
 	@Override
-	public Tuple2<Double, Double> deduct(K key, Double value){
+	public Double put(K key, Double value){
 		if(value == null){
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		Double newvalue;
+		int slot=index.probe(key);
+		if(slot < 0){
+			setValueAt(insert(key, slot), value);
+			return null;
+		}
+		double oldvalue=valueAt(slot);
+		setValueAt(slot, value);
+		return oldvalue;
+	}
 
-		if(!this.containsKey(key)){
-			newvalue=-value;
-		}else{
-			newvalue=this.get(key) - value;
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Double remove(Object key){
+		int slot=index.indexOf(key);
+		if(slot < 0){
+			return null;
+		}
+		double oldvalue=valueAt(slot);
+		removeSlot(slot);
+		return oldvalue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		index.clear();
+		offset=0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<K> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<K>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					int slot=index.indexOf(obj);
+					if(slot < 0){
+						return false;
+					}
+					removeSlot(slot);
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					DoubleHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<K> iterator(){
+					return index.new SlotIterator<K>(){
+						@Override
+						protected K element(int slot){
+							return index.keyAt(slot);
+						}
+
+						@Override
+						protected void removed(int slot){
+							resetOffsetIfEmpty();
+						}
+					};
+				}
+			};
 		}
+		return backed_keyset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Collection<Double> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<Double>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
 
-		return new Tuple2<>(this.put(key, newvalue), newvalue);
+				@Override
+				public void clear(){
+					DoubleHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Double> iterator(){
+					return index.new SlotIterator<Double>(){
+						@Override
+						protected Double element(int slot){
+							return valueAt(slot);
+						}
+
+						@Override
+						protected void removed(int slot){
+							resetOffsetIfEmpty();
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Entry<K, Double>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, Double>>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					int slot=index.indexOf(((Entry)obj).getKey());
+					return slot >= 0 && ((Entry)obj).getValue() instanceof Double && Double.doubleToLongBits(valueAt(slot)) == Double.doubleToLongBits((Double)((Entry)obj).getValue());
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					if(!contains(obj)){
+						return false;
+					}
+					removeSlot(index.indexOf(((Entry)obj).getKey()));
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					DoubleHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, Double>> iterator(){
+					return index.new SlotIterator<Entry<K, Double>>(){
+						@Override
+						protected Entry<K, Double> element(final int slot){
+							return new Entry<K, Double>(){
+								private final K key=index.keyAt(slot);
+
+								@Override
+								public K getKey(){
+									return key;
+								}
+
+								@Override
+								public Double getValue(){
+									return valueAt(slot);
+								}
+
+								@Override
+								public Double setValue(Double value){
+									if(value == null){
+										throw new NullPointerException("Null values not allowed in Counters");
+									}
+									double oldvalue=valueAt(slot);
+									setValueAt(slot, value);
+									return oldvalue;
+								}
+
+								@Override
+								public boolean equals(Object obj){
+									if(!(obj instanceof Entry)){
+										return false;
+									}
+									Entry e=(Entry)obj;
+									return (key == null ? e.getKey() == null : key.equals(e.getKey())) && getValue().equals(e.getValue());
+								}
+
+								@Override
+								public int hashCode(){
+									long bits=Double.doubleToLongBits(valueAt(slot));
+									return (key == null ? 0 : key.hashCode()) ^ (int)(bits ^ (bits >>> 32));
+								}
+
+								@Override
+								public String toString(){
+									return key + "=" + valueAt(slot);
+								}
+							};
+						}
+
+						@Override
+						protected void removed(int slot){
+							resetOffsetIfEmpty();
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				if(str.length() > 1){
+					str.append(", ");
+				}
+				K key=index.keyAt(i);
+				str.append(key == this ? "(this Map)" : key).append('=').append(valueAt(i));
+			}
+		}
+		return str.append('}').toString();
 	}
 
 	/**
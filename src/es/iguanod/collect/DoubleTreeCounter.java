@@ -58,6 +58,12 @@ public class DoubleTreeCounter<K> extends TreeCounter<K, Double>{
 			return this;
 		}
 
+		@Override
+		public DoubleTreeCounterBuilder<K> lazyIndex(boolean lazy){
+			super.lazyIndex(lazy);
+			return this;
+		}
+
 		@Override
 		public DoubleTreeCounterBuilder<K> setComparator(Comparator<? super Double> comparator){
 			super.setComparator(comparator);
@@ -19,6 +19,7 @@
  */
 package es.iguanod.collect;
 
+import es.iguanod.util.Adder;
 import es.iguanod.util.Caster;
 import es.iguanod.util.tuples.Tuple2;
 import java.io.Serializable;
@@ -78,8 +79,10 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 	 * {@link es.iguanod.util.Caster} from {@link java.math.BigDecimal} to
 	 * {@code V} must be provided. Aside from that, the initial capacity and
 	 * load factor of the underlaying hash table, a
-	 * {@link java.util.Comparator} for the values and a {@link java.util.Map}
-	 * with the initial mappings for the {@code HashCounter} can be provided.
+	 * {@link java.util.Comparator} for the values, an
+	 * {@link es.iguanod.util.Adder} for the values and a
+	 * {@link java.util.Map} with the initial mappings for the
+	 * {@code HashCounter} can be provided.
 	 * <p>
 	 * All the methods of the {@code HashCounterBuilder} (except for the
 	 * {@link #build build} method) return {@code this}, so calls can be
@@ -92,6 +95,10 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 	 * If no {@code Comparator} is specified, none will be used and the values
 	 * will be compared according to their natural ordering.</p>
 	 * <p>
+	 * If no {@code Adder} is specified, the one returned by
+	 * {@link es.iguanod.math.Adders#forCaster(Caster) Adders.forCaster} is
+	 * used.</p>
+	 * <p>
 	 * If no initial mappings are specfied, none will be used. If they are
 	 * specified, the initial capacity and load factor are ignored, and the
 	 * default load factor (0.75) and an initial capacity enough to hold all
@@ -120,6 +127,10 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 		 * The comparator of the values.
 		 */
 		private Comparator<? super V> comparator=null;
+		/**
+		 * The adder of the values.
+		 */
+		private Adder<V> adder=null;
 		/**
 		 * The initial capacity. Default=16.
 		 */
@@ -196,6 +207,21 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 			return this;
 		}
 
+		/**
+		 * Sets the {@code Adder} for the values of the {@code HashCounter}.
+		 * If {@code adder} is {@code null}, the one returned by
+		 * {@link es.iguanod.math.Adders#forCaster(Caster) Adders.forCaster}
+		 * will be used (this is the default behaviour anyway).
+		 *
+		 * @param adder the {@code Adder}
+		 *
+		 * @return this {@code HashCounterBuilder}
+		 */
+		public HashCounterBuilder<K, V> setAdder(Adder<V> adder){
+			this.adder=adder;
+			return this;
+		}
+
 		/**
 		 * Sets the initial mappings for the {@code HashCounter}. If initial
 		 * mappings are specified, the set load factor and initial capacity
@@ -222,6 +248,34 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 			return this;
 		}
 
+		/**
+		 * Returns the initial capacity set in this {@code HashCounterBuilder}.
+		 *
+		 * @return the initial capacity
+		 */
+		protected int getInitialCapacity(){
+			return initial_capacity;
+		}
+
+		/**
+		 * Returns the load factor set in this {@code HashCounterBuilder}.
+		 *
+		 * @return the load factor
+		 */
+		protected float getLoadFactor(){
+			return load_factor;
+		}
+
+		/**
+		 * Returns the initial mappings set in this {@code HashCounterBuilder},
+		 * or {@code null} if none were set.
+		 *
+		 * @return the initial mappings
+		 */
+		protected Map<? extends K, ? extends V> getInitialMappings(){
+			return initial_map;
+		}
+
 		/**
 		 * Construct a new {@code HashCounter} with the attributes specified
 		 * by the calls to this {@code HashCounterBuilder} methods.
@@ -241,8 +295,26 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 	 * {@code HashCounter}
 	 */
 	protected HashCounter(HashCounterBuilder<K, V> builder){
-		super(builder.caster, builder.comparator);
-		if(builder.initial_map == null){
+		this(builder, true);
+	}
+
+	/**
+	 * Construct a new {@code HashCounter} with the attributes specified by
+	 * the {@code HashCounterBuilder}, optionally without allocating the
+	 * underlaying {@code HashMap}. Subclasses that provide their own storage
+	 * (and therefore override every method of this class accessing the
+	 * {@code Map}) should pass {@code false} as {@code allocate_map}.
+	 *
+	 * @param builder the {@code HashCodeBuilder} with the parameters for this
+	 * {@code HashCounter}
+	 * @param allocate_map wether the underlaying {@code HashMap} has to be
+	 * allocated
+	 */
+	protected HashCounter(HashCounterBuilder<K, V> builder, boolean allocate_map){
+		super(builder.caster, builder.comparator, builder.adder);
+		if(!allocate_map){
+			map=null;
+		}else if(builder.initial_map == null){
 			map=new HashMap<>(builder.initial_capacity, builder.load_factor);
 		}else{
 			map=new HashMap<>(builder.initial_map);
@@ -268,15 +340,11 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		V newvalue;
-
-		if(!map.containsKey(key)){
-			newvalue=value;
-		}else{
-			newvalue=caster.cast(new BigDecimal(map.get(key).toString()).add(new BigDecimal(value.toString())));
-		}
+		V oldvalue=map.get(key);
+		V newvalue=oldvalue == null ? value : adder.add(oldvalue, value);
+		map.put(key, newvalue);
 
-		return new Tuple2<>(map.put(key, newvalue), newvalue);
+		return new Tuple2<>(oldvalue, newvalue);
 	}
 
 	/**
@@ -298,15 +366,47 @@ public class HashCounter<K, V extends Number> extends AbstractCounter<K, V>{
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		V newvalue;
+		V oldvalue=map.get(key);
+		V newvalue=oldvalue == null ? adder.negate(value) : adder.subtract(oldvalue, value);
+		map.put(key, newvalue);
 
-		if(!map.containsKey(key)){
-			newvalue=caster.cast(new BigDecimal(value.toString()).negate());
-		}else{
-			newvalue=caster.cast(new BigDecimal(map.get(key).toString()).subtract(new BigDecimal(value.toString())));
+		return new Tuple2<>(oldvalue, newvalue);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void sumValue(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		V oldvalue=map.get(key);
+		map.put(key, oldvalue == null ? value : adder.add(oldvalue, value));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void deductValue(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		return new Tuple2<>(map.put(key, newvalue), newvalue);
+		V oldvalue=map.get(key);
+		map.put(key, oldvalue == null ? adder.negate(value) : adder.subtract(oldvalue, value));
 	}
 
 	/**
@@ -0,0 +1,171 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@code Set} storing its elements in an {@code ArrayList} and their
+ * positions in a {@code HashMap}, used by {@link TreeCounter} for the groups
+ * of keys with the same value. Besides the constant time {@code add},
+ * {@code remove} and {@code contains} of a {@code HashSet}, the element in any
+ * position is obtained in constant time with {@link #get(int) get}, and so is
+ * the first element of the iteration, no matter how many elements have been
+ * removed before (a {@code HashSet} visits its emptied buckets again).
+ * <p>
+ * An element is removed by moving the last one to its position, so the
+ * iteration order is not the insertion order. The iterators are
+ * fail-fast.</p>
+ *
+ * @param <E> the class of the elements
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+final class IndexedHashSet<E> extends AbstractSet<E> implements Serializable{
+
+	private static final long serialVersionUID=3184090361571282147L;
+	//************
+	private final ArrayList<E> elements;
+	private final HashMap<E, Integer> positions;
+	private transient int mod_count=0;
+
+	IndexedHashSet(){
+		elements=new ArrayList<>();
+		positions=new HashMap<>();
+	}
+
+	IndexedHashSet(Collection<? extends E> col){
+		elements=new ArrayList<>(col.size());
+		positions=new HashMap<>(Math.max((int)(col.size() / 0.75f) + 1, 16));
+		addAll(col);
+	}
+
+	/**
+	 * Returns the element in the specified position of the iteration order.
+	 *
+	 * @param index the position of the element
+	 *
+	 * @return the element in position {@code index}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not
+	 * lower than the size of the set
+	 */
+	E get(int index){
+		return elements.get(index);
+	}
+
+	@Override
+	public int size(){
+		return elements.size();
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return elements.isEmpty();
+	}
+
+	@Override
+	public boolean contains(Object obj){
+		return positions.containsKey(obj);
+	}
+
+	@Override
+	public boolean add(E elem){
+		if(positions.containsKey(elem)){
+			return false;
+		}
+		positions.put(elem, elements.size());
+		elements.add(elem);
+		mod_count++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object obj){
+		Integer position=positions.remove(obj);
+		if(position == null){
+			return false;
+		}
+		E last=elements.remove(elements.size() - 1);
+		if(position < elements.size()){
+			elements.set(position, last);
+			positions.put(last, position);
+		}
+		mod_count++;
+		return true;
+	}
+
+	@Override
+	public void clear(){
+		elements.clear();
+		positions.clear();
+		mod_count++;
+	}
+
+	@Override
+	public Iterator<E> iterator(){
+		return new Iterator<E>(){
+			private int next=0;
+			private int last=-1;
+			private int expected_mod_count=mod_count;
+
+			@Override
+			public boolean hasNext(){
+				return next < elements.size();
+			}
+
+			@Override
+			public E next(){
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				if(next >= elements.size()){
+					throw new NoSuchElementException();
+				}
+				last=next++;
+				return elements.get(last);
+			}
+
+			@Override
+			public void remove(){
+				if(last < 0){
+					throw new IllegalStateException();
+				}
+				if(expected_mod_count != mod_count){
+					throw new ConcurrentModificationException();
+				}
+				// The last element takes the place of the removed one
+				IndexedHashSet.this.remove(elements.get(last));
+				next=last;
+				last=-1;
+				expected_mod_count=mod_count;
+			}
+		};
+	}
+}
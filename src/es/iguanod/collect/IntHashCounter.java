@@ -23,12 +23,36 @@ import es.iguanod.collect.HashCounter.HashCounterBuilder;
 import es.iguanod.util.Caster;
 import es.iguanod.util.tuples.Tuple2;
 import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * {@code HashCounter} specialized for {@code Integer} values. Instead of a
+ * {@link java.util.HashMap}, the mappings are stored in an open addressing
+ * hash table made of an array of keys and a parallel {@code int[]} array of
+ * values, so no entry object nor boxed value is kept per mapping.
+ * <p>
+ * Besides the {@code Counter} methods, {@code IntHashCounter} offers
+ * {@link #sumInt(Object,int) sumInt}, {@link #deductInt(Object,int) deductInt}
+ * and {@link #getInt(Object) getInt}, which work with primitive values and
+ * locate the key with a single probe of the hash table, without allocating
+ * any object unless the table has to grow.</p>
+ * <p>
+ * {@link #sumToAll(Integer) sumToAll}, {@link #deductToAll(Integer) deductToAll} and the
+ * {@code balanced...ToAll} methods run in constant time: instead of updating
+ * every value, they update an offset that is added to the stored values when
+ * they are read.</p>
+ * <p>
+ * Since the table uses open addressing, load factors greater than
+ * {@code 0.9} are treated as {@code 0.9}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
  *
  * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
  * @since 1.0.1
@@ -91,14 +115,216 @@ public class IntHashCounter<K> extends HashCounter<K, Integer>{
 		}
 	};
 
+	//************
+	/**
+	 * Hash index of the keys.
+	 */
+	private OpenHashIndex<K> index;
+	/**
+	 * Values, parallel to the slots of the index.
+	 */
+	private int[] values;
+	/**
+	 * Amount added to every stored value to obtain the actual value, so that
+	 * {@code sumToAll} and {@code deductToAll} run in constant time.
+	 */
+	private int offset=0;
+	//************
+	private transient Set<K> backed_keyset;
+	private transient Collection<Integer> backed_values;
+	private transient Set<Entry<K, Integer>> backed_entryset;
+
 	protected IntHashCounter(IntHashCounterBuilder<K> builder){
-		super(builder);
+		super(builder, false);
+		Map<? extends K, ? extends Integer> initial_map=builder.getInitialMappings();
+		if(initial_map == null){
+			index=new OpenHashIndex<>(builder.getInitialCapacity(), builder.getLoadFactor());
+		}else{
+			index=new OpenHashIndex<>(initial_map.size(), builder.getLoadFactor());
+		}
+		values=new int[index.capacity()];
+		if(initial_map != null){
+			for(Entry<? extends K, ? extends Integer> entry:initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
 	}
 
 	public IntHashCounter(){
 		this(new IntHashCounterBuilder<K>());
 	}
 
+	/**
+	 * Returns the slot of the specified key, inserting it with an associated
+	 * value of {@code 0} (zero) if it is not present. {@code free} is the
+	 * value returned by {@link OpenHashIndex#probe(Object) probe} for the
+	 * key.
+	 *
+	 * @param key the key
+	 * @param free the encoded free slot
+	 *
+	 * @return the slot of the key
+	 */
+	private int insert(K key, int free){
+		if(index.isCrowded()){
+			int[] moved=index.rehash();
+			int[] newvalues=new int[index.capacity()];
+			for(int i=0; i < moved.length; i++){
+				if(moved[i] >= 0){
+					newvalues[moved[i]]=values[i];
+				}
+			}
+			values=newvalues;
+			free=index.probe(key);
+		}
+		int slot=-free - 1;
+		index.insert(slot, key);
+		values[slot]=-offset;
+		return slot;
+	}
+
+	/**
+	 * Returns the actual value stored in the specified slot.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the value of the slot
+	 */
+	private int valueAt(int slot){
+		return values[slot] + offset;
+	}
+
+	/**
+	 * Sets the actual value stored in the specified slot.
+	 *
+	 * @param slot the slot
+	 * @param value the value of the slot
+	 */
+	private void setValueAt(int slot, int value){
+		values[slot]=value - offset;
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Integer) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public int sumInt(K key, int value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+		}
+		return (values[slot]+=value) + offset;
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Integer) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public int deductInt(K key, int value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+		}
+		return (values[slot]-=value) + offset;
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public int getInt(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? 0 : valueAt(slot);
+	}
+
+	/**
+	 * Adds every value of the {@code deltas} array to the current value
+	 * associated with the key in the same position of the {@code keys}
+	 * array. If a key is not already present in this {@code Counter}, this
+	 * method behaves as if it was present with an associated value of
+	 * {@code 0} (zero).
+	 * <p>
+	 * This method neither boxes the values nor allocates any object per key,
+	 * unless the table has to grow.</p>
+	 *
+	 * @param keys the keys which values are to be modified
+	 * @param deltas the values to be added to the values associated with the
+	 * respective keys
+	 *
+	 * @throws IllegalArgumentException if the arrays have different lengths
+	 */
+	public void sumAll(K[] keys, int[] deltas){
+		if(keys.length != deltas.length){
+			throw new IllegalArgumentException("The keys and deltas arrays must have the same length");
+		}
+		for(int i=0; i < keys.length; i++){
+			sumInt(keys[i], deltas[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void sumValue(K key, Integer value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		sumInt(key, value);
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	protected void deductValue(K key, Integer value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		deductInt(key, value);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -115,15 +341,15 @@ public class IntHashCounter<K> extends HashCounter<K, Integer>{
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		Integer newvalue;
-
-		if(!this.containsKey(key)){
-			newvalue=value;
-		}else{
-			newvalue=this.get(key) + value;
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+			setValueAt(slot, value);
+			return new Tuple2<Integer, Integer>(null, value);
 		}
-
-		return new Tuple2<>(this.put(key, newvalue), newvalue);
+		int oldvalue=valueAt(slot);
+		values[slot]+=value;
+		return new Tuple2<>(oldvalue, oldvalue + value);
 	}
 
 	/**
@@ -142,29 +368,380 @@ public class IntHashCounter<K> extends HashCounter<K, Integer>{
 			throw new NullPointerException("Null values not allowed in Counters");
 		}
 
-		Integer newvalue;
-
-		if(!this.containsKey(key)){
-			newvalue=-value;
-		}else{
-			newvalue=this.get(key) - value;
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+			setValueAt(slot, -value);
+			return new Tuple2<Integer, Integer>(null, -value);
 		}
+		int oldvalue=valueAt(slot);
+		values[slot]-=value;
+		return new Tuple2<>(oldvalue, oldvalue - value);
+	}
 
-		return new Tuple2<>(this.put(key, newvalue), newvalue);
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the specified {@code Counter} is also an {@code IntHashCounter}, its
+	 * table is traversed directly and no value is boxed.</p>
+	 *
+	 * @param counter {@inheritDoc}
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends K, ? extends Integer> counter){
+		if(!(counter instanceof IntHashCounter)){
+			super.mergeFrom(counter);
+			return;
+		}
+		IntHashCounter<? extends K> other=(IntHashCounter<? extends K>)counter;
+		OpenHashIndex<? extends K> otherindex=other.index;
+		int[] othervalues=other.values;
+		int otheroffset=other.offset;
+		for(int i=0; i < othervalues.length; i++){
+			if(otherindex.isUsed(i)){
+				sumInt(otherindex.keyAt(i), othervalues[i] + otheroffset);
+			}
+		}
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * This method runs in constant time.</p>
 	 *
 	 * @param value {@inheritDoc}
 	 */
 	@Override
 	public void sumToAll(Integer value){
-		Iterator<Entry<K, Integer>> iter=entrySet().iterator();
-		while(iter.hasNext()){
-			Entry<K, Integer> entry=iter.next();
-			entry.setValue(entry.getValue() + value);
+		offset+=value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This method runs in constant time.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(Integer value){
+		offset-=value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return index.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty(){
+		return index.size() == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return index.indexOf(key) >= 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Integer)){
+			return false;
+		}
+		int v=(Integer)value;
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i) && (comparator == null ? valueAt(i) == v : comparator.compare(valueAt(i), v) == 0)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Integer get(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? null : valueAt(slot);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Integer put(K key, Integer value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		int slot=index.probe(key);
+		if(slot < 0){
+			setValueAt(insert(key, slot), value);
+			return null;
+		}
+		int oldvalue=valueAt(slot);
+		setValueAt(slot, value);
+		return oldvalue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Integer remove(Object key){
+		int slot=index.indexOf(key);
+		if(slot < 0){
+			return null;
+		}
+		index.removeAt(slot);
+		return valueAt(slot);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		index.clear();
+		offset=0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<K> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<K>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					int slot=index.indexOf(obj);
+					if(slot < 0){
+						return false;
+					}
+					index.removeAt(slot);
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					IntHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<K> iterator(){
+					return index.new SlotIterator<K>(){
+						@Override
+						protected K element(int slot){
+							return index.keyAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_keyset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Collection<Integer> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<Integer>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public void clear(){
+					IntHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Integer> iterator(){
+					return index.new SlotIterator<Integer>(){
+						@Override
+						protected Integer element(int slot){
+							return valueAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Entry<K, Integer>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, Integer>>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					int slot=index.indexOf(((Entry)obj).getKey());
+					return slot >= 0 && ((Entry)obj).getValue() instanceof Integer && valueAt(slot) == (Integer)((Entry)obj).getValue();
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					if(!contains(obj)){
+						return false;
+					}
+					index.removeAt(index.indexOf(((Entry)obj).getKey()));
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					IntHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, Integer>> iterator(){
+					return index.new SlotIterator<Entry<K, Integer>>(){
+						@Override
+						protected Entry<K, Integer> element(final int slot){
+							return new Entry<K, Integer>(){
+								private final K key=index.keyAt(slot);
+
+								@Override
+								public K getKey(){
+									return key;
+								}
+
+								@Override
+								public Integer getValue(){
+									return valueAt(slot);
+								}
+
+								@Override
+								public Integer setValue(Integer value){
+									if(value == null){
+										throw new NullPointerException("Null values not allowed in Counters");
+									}
+									int oldvalue=valueAt(slot);
+									setValueAt(slot, value);
+									return oldvalue;
+								}
+
+								@Override
+								public boolean equals(Object obj){
+									if(!(obj instanceof Entry)){
+										return false;
+									}
+									Entry e=(Entry)obj;
+									return (key == null ? e.getKey() == null : key.equals(e.getKey())) && getValue().equals(e.getValue());
+								}
+
+								@Override
+								public int hashCode(){
+									return (key == null ? 0 : key.hashCode()) ^ valueAt(slot);
+								}
+
+								@Override
+								public String toString(){
+									return key + "=" + valueAt(slot);
+								}
+							};
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				if(str.length() > 1){
+					str.append(", ");
+				}
+				K key=index.keyAt(i);
+				str.append(key == this ? "(this Map)" : key).append('=').append(valueAt(i));
+			}
 		}
+		return str.append('}').toString();
 	}
 
 	/**
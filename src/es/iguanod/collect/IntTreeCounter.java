@@ -60,6 +60,12 @@ public class IntTreeCounter<K> extends TreeCounter<K, Integer>{
 			return this;
 		}
 
+		@Override
+		public IntTreeCounterBuilder<K> lazyIndex(boolean lazy){
+			super.lazyIndex(lazy);
+			return this;
+		}
+
 		@Override
 		public IntTreeCounterBuilder<K> setComparator(Comparator<? super Integer> comparator){
 			super.setComparator(comparator);
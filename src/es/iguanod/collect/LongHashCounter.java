@@ -0,0 +1,1006 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ * 
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.HashCounter.HashCounterBuilder;
+import es.iguanod.math.Adders;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code HashCounter} specialized for {@code Long} values. Instead of a
+ * {@link java.util.HashMap}, the mappings are stored in an open addressing
+ * hash table made of an array of keys and a parallel {@code long[]} array of
+ * values, so no entry object nor boxed value is kept per mapping.
+ * <p>
+ * Besides the {@code Counter} methods, {@code LongHashCounter} offers
+ * {@link #sumLong(Object,long) sumLong},
+ * {@link #deductLong(Object,long) deductLong} and
+ * {@link #getLong(Object) getLong}, which work with primitive values and
+ * locate the key with a single probe of the hash table, without allocating
+ * any object unless the table has to grow.</p>
+ * <p>
+ * Unlike the other primitive {@code Counters}, which overflow silently, every
+ * operation adding or deducting values throws an
+ * {@code ArithmeticException} if the result overflows a {@code long}, leaving
+ * the {@code Counter} unmodified.</p>
+ * <p>
+ * Since the table uses open addressing, load factors greater than
+ * {@code 0.9} are treated as {@code 0.9}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class LongHashCounter<K> extends HashCounter<K, Long>{
+
+	private static final long serialVersionUID=-5302247914430917364L;
+
+	public static class LongHashCounterBuilder<K> extends HashCounterBuilder<K, Long>{
+
+		private static final long serialVersionUID=2296771940582637401L;
+
+		public LongHashCounterBuilder(){
+			super(new Caster<BigDecimal, Long>(){
+				private static final long serialVersionUID=-7045925314652180923L;
+
+				@Override
+				public Long cast(BigDecimal t){
+					return t.longValue();
+				}
+			});
+			super.setAdder(Adders.LONG_EXACT);
+		}
+
+		@Override
+		public LongHashCounterBuilder<K> setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public LongHashCounterBuilder<K> setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public LongHashCounterBuilder<K> setComparator(Comparator<? super Long> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public LongHashCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends Long> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public LongHashCounter<K> build(){
+			return new LongHashCounter<>(this);
+		}
+	}
+	public static final Caster<Number, Long> NUM_CASTER=new Caster<Number, Long>(){
+		private static final long serialVersionUID=164912068267529453L;
+
+		@Override
+		public Long cast(Number t){
+			return t.longValue();
+		}
+	};
+
+	//************
+	/**
+	 * Hash index of the keys.
+	 */
+	private OpenHashIndex<K> index;
+	/**
+	 * Values, parallel to the slots of the index.
+	 */
+	private long[] values;
+	//************
+	private transient Set<K> backed_keyset;
+	private transient Collection<Long> backed_values;
+	private transient Set<Entry<K, Long>> backed_entryset;
+
+	protected LongHashCounter(LongHashCounterBuilder<K> builder){
+		super(builder, false);
+		Map<? extends K, ? extends Long> initial_map=builder.getInitialMappings();
+		if(initial_map == null){
+			index=new OpenHashIndex<>(builder.getInitialCapacity(), builder.getLoadFactor());
+		}else{
+			index=new OpenHashIndex<>(initial_map.size(), builder.getLoadFactor());
+		}
+		values=new long[index.capacity()];
+		if(initial_map != null){
+			for(Entry<? extends K, ? extends Long> entry:initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	public LongHashCounter(){
+		this(new LongHashCounterBuilder<K>());
+	}
+
+	/**
+	 * Returns the slot of the specified key, inserting it with an associated
+	 * value of {@code 0} (zero) if it is not present. {@code free} is the
+	 * value returned by {@link OpenHashIndex#probe(Object) probe} for the
+	 * key.
+	 *
+	 * @param key the key
+	 * @param free the encoded free slot
+	 *
+	 * @return the slot of the key
+	 */
+	private int insert(K key, int free){
+		if(index.isCrowded()){
+			int[] moved=index.rehash();
+			long[] newvalues=new long[index.capacity()];
+			for(int i=0; i < moved.length; i++){
+				if(moved[i] >= 0){
+					newvalues[moved[i]]=values[i];
+				}
+			}
+			values=newvalues;
+			free=index.probe(key);
+		}
+		int slot=-free - 1;
+		index.insert(slot, key);
+		values[slot]=0;
+		return slot;
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Object,Long) sum}, but
+	 * neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	public long sumLong(K key, long value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			return values[insert(key, slot)]=value;
+		}
+		return values[slot]=Adders.addExact(values[slot], value);
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Object,Long) deduct},
+	 * but neither boxes the values nor allocates the returned tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 *
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	public long deductLong(K key, long value){
+		int slot=index.probe(key);
+		if(slot < 0){
+			long newvalue=Adders.subtractExact(0, value);
+			return values[insert(key, slot)]=newvalue;
+		}
+		return values[slot]=Adders.subtractExact(values[slot], value);
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public long getLong(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? 0 : values[slot];
+	}
+
+	/**
+	 * Adds every value of the {@code deltas} array to the current value
+	 * associated with the key in the same position of the {@code keys}
+	 * array. If a key is not already present in this {@code Counter}, this
+	 * method behaves as if it was present with an associated value of
+	 * {@code 0} (zero).
+	 * <p>
+	 * This method neither boxes the values nor allocates any object per key,
+	 * unless the table has to grow.</p>
+	 *
+	 * @param keys the keys which values are to be modified
+	 * @param deltas the values to be added to the values associated with the
+	 * respective keys
+	 *
+	 * @throws IllegalArgumentException if the arrays have different lengths
+	 * @throws ArithmeticException if a new value overflows a {@code long}, in
+	 * which case the deltas before it have already been summed
+	 */
+	public void sumAll(K[] keys, long[] deltas){
+		if(keys.length != deltas.length){
+			throw new IllegalArgumentException("The keys and deltas arrays must have the same length");
+		}
+		for(int i=0; i < keys.length; i++){
+			sumLong(keys[i], deltas[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	@Override
+	protected void sumValue(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		sumLong(key, value);
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	@Override
+	protected void deductValue(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		deductLong(key, value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	@Override
+	public Tuple2<Long, Long> sum(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		int slot=index.probe(key);
+		if(slot < 0){
+			slot=insert(key, slot);
+			return new Tuple2<>(null, values[slot]=value);
+		}
+		long oldvalue=values[slot];
+		return new Tuple2<>(oldvalue, values[slot]=Adders.addExact(oldvalue, value));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 * @throws ArithmeticException if the new value overflows a {@code long}
+	 */
+	@Override
+	public Tuple2<Long, Long> deduct(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		int slot=index.probe(key);
+		if(slot < 0){
+			long newvalue=Adders.subtractExact(0, value);
+			return new Tuple2<>(null, values[insert(key, slot)]=newvalue);
+		}
+		long oldvalue=values[slot];
+		return new Tuple2<>(oldvalue, values[slot]=Adders.subtractExact(oldvalue, value));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the specified {@code Counter} is also a {@code LongHashCounter}, its
+	 * table is traversed directly and no value is boxed.</p>
+	 *
+	 * @param counter {@inheritDoc}
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends K, ? extends Long> counter){
+		if(!(counter instanceof LongHashCounter)){
+			super.mergeFrom(counter);
+			return;
+		}
+		LongHashCounter<? extends K> other=(LongHashCounter<? extends K>)counter;
+		OpenHashIndex<? extends K> otherindex=other.index;
+		long[] othervalues=other.values;
+		for(int i=0; i < othervalues.length; i++){
+			if(otherindex.isUsed(i)){
+				sumLong(otherindex.keyAt(i), othervalues[i]);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if any of the new values overflows a
+	 * {@code long}
+	 */
+	@Override
+	public void sumToAll(Long value){
+		long v=value;
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				Adders.addExact(values[i], v);
+			}
+		}
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				values[i]+=v;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws ArithmeticException if any of the new values overflows a
+	 * {@code long}
+	 */
+	@Override
+	public void deductToAll(Long value){
+		long v=value;
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				Adders.subtractExact(values[i], v);
+			}
+		}
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				values[i]-=v;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return index.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty(){
+		return index.size() == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return index.indexOf(key) >= 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Long)){
+			return false;
+		}
+		long v=(Long)value;
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i) && (comparator == null ? values[i] == v : comparator.compare(values[i], v) == 0)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Long get(Object key){
+		int slot=index.indexOf(key);
+		return slot < 0 ? null : values[slot];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Long put(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		int slot=index.probe(key);
+		if(slot < 0){
+			values[insert(key, slot)]=value;
+			return null;
+		}
+		long oldvalue=values[slot];
+		values[slot]=value;
+		return oldvalue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Long remove(Object key){
+		int slot=index.indexOf(key);
+		if(slot < 0){
+			return null;
+		}
+		index.removeAt(slot);
+		return values[slot];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		index.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<K> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<K>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					int slot=index.indexOf(obj);
+					if(slot < 0){
+						return false;
+					}
+					index.removeAt(slot);
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					LongHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<K> iterator(){
+					return index.new SlotIterator<K>(){
+						@Override
+						protected K element(int slot){
+							return index.keyAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_keyset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Collection<Long> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<Long>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public void clear(){
+					LongHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Long> iterator(){
+					return index.new SlotIterator<Long>(){
+						@Override
+						protected Long element(int slot){
+							return values[slot];
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Entry<K, Long>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<K, Long>>(){
+				@Override
+				public int size(){
+					return index.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					int slot=index.indexOf(((Entry)obj).getKey());
+					return slot >= 0 && ((Entry)obj).getValue() instanceof Long && values[slot] == (Long)((Entry)obj).getValue();
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					if(!contains(obj)){
+						return false;
+					}
+					index.removeAt(index.indexOf(((Entry)obj).getKey()));
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					LongHashCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<K, Long>> iterator(){
+					return index.new SlotIterator<Entry<K, Long>>(){
+						@Override
+						protected Entry<K, Long> element(final int slot){
+							return new Entry<K, Long>(){
+								private final K key=index.keyAt(slot);
+
+								@Override
+								public K getKey(){
+									return key;
+								}
+
+								@Override
+								public Long getValue(){
+									return values[slot];
+								}
+
+								@Override
+								public Long setValue(Long value){
+									if(value == null){
+										throw new NullPointerException("Null values not allowed in Counters");
+									}
+									long oldvalue=values[slot];
+									values[slot]=value;
+									return oldvalue;
+								}
+
+								@Override
+								public boolean equals(Object obj){
+									if(!(obj instanceof Entry)){
+										return false;
+									}
+									Entry e=(Entry)obj;
+									return (key == null ? e.getKey() == null : key.equals(e.getKey())) && getValue().equals(e.getValue());
+								}
+
+								@Override
+								public int hashCode(){
+									return (key == null ? 0 : key.hashCode()) ^ (int)(values[slot] ^ (values[slot] >>> 32));
+								}
+
+								@Override
+								public String toString(){
+									return key + "=" + values[slot];
+								}
+							};
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(int i=0; i < values.length; i++){
+			if(index.isUsed(i)){
+				if(str.length() > 1){
+					str.append(", ");
+				}
+				K key=index.keyAt(i);
+				str.append(key == this ? "(this Map)" : key).append('=').append(values[i]);
+			}
+		}
+		return str.append('}').toString();
+	}
+
+	/**
+	 * Adds {@code 1/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount summed to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys){
+		sumAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount summed to the elements
+	 * will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys){
+		sumAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys, Long value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys, Long value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount summed to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		if(this.size() == 1){
+			sumToAll(1L);
+		}
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			sumToAll(value / size);
+		}
+	}
+
+	/**
+	 * Deducts {@code 1/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys){
+		deductAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys){
+		deductAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys, Long value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys, Long value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount deducted to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		if(this.size() == 1){
+			deductToAll(1L);
+		}
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			deductToAll(value / size);
+		}
+	}
+}
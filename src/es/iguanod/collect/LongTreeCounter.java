@@ -0,0 +1,372 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ * 
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.LongHashCounter.LongHashCounterBuilder;
+import es.iguanod.math.Adders;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@code TreeCounter} specialized for {@code Long} values, backed by a
+ * {@link LongHashCounter}. As in {@code LongHashCounter}, every operation
+ * adding or deducting values throws an {@code ArithmeticException} if the
+ * result overflows a {@code long}.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class LongTreeCounter<K> extends TreeCounter<K, Long>{
+
+	private static final long serialVersionUID=-1209441620350687562L;
+
+	public static class LongTreeCounterBuilder<K> extends TreeCounterBuilder<K, Long>{
+
+		private static final long serialVersionUID=6810302712884540431L;
+
+		public LongTreeCounterBuilder(){
+			super(new Caster<BigDecimal, Long>(){
+				private static final long serialVersionUID=3151460398741262806L;
+
+				@Override
+				public Long cast(BigDecimal t){
+					return t.longValue();
+				}
+			});
+			super.setLookupBuilder(new LongHashCounterBuilder<K>());
+			super.setAdder(Adders.LONG_EXACT);
+		}
+
+		@Override
+		public LongTreeCounterBuilder<K> reverse(boolean reverse){
+			super.reverse(reverse);
+			return this;
+		}
+
+		@Override
+		public LongTreeCounterBuilder<K> lazyIndex(boolean lazy){
+			super.lazyIndex(lazy);
+			return this;
+		}
+
+		@Override
+		public LongTreeCounterBuilder<K> setComparator(Comparator<? super Long> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		/**
+		 * The ? extends Long is pointless as Long is final, but is
+		 * needed to be considered an actual override
+		 *
+		 * @param map
+		 *
+		 * @return
+		 */
+		@Override
+		public LongTreeCounterBuilder<K> setInitialMappings(Map<? extends K, ? extends Long> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public LongTreeCounter<K> build(){
+			return new LongTreeCounter<>(this);
+		}
+	}
+	public static final Caster<Number, Long> NUM_CASTER=new Caster<Number, Long>(){
+		private static final long serialVersionUID=164912068267529453L;
+
+		@Override
+		public Long cast(Number t){
+			return t.longValue();
+		}
+	};
+
+	protected LongTreeCounter(LongTreeCounterBuilder<K> builder){
+		super(builder);
+	}
+
+	public LongTreeCounter(){
+		this(new LongTreeCounterBuilder<K>());
+	}
+
+	/**
+	 * Adds {@code 1/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount summed to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys){
+		sumAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount summed to the elements
+	 * will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys){
+		sumAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends K> keys, Long value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount summed to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(K[] keys, Long value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount summed to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		if(this.size() == 1){
+			sumToAll(1L);
+		}
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount summed to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			sumToAll(value / size);
+		}
+	}
+
+	/**
+	 * Deducts {@code 1/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys){
+		deductAll(keys, 1L / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array is one, the amount deducted to the
+	 * elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys){
+		deductAll(keys, 1L / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the collection is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends K> keys, Long value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of the array greater or equal than {@code value}, the
+	 * amount deducted to the elements will be zero.</p>
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(K[] keys, Long value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is one, the amount deducted to
+	 * the elements will be zero.</p>
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		if(this.size() == 1){
+			deductToAll(1L);
+		}
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 * <p>
+	 * <b>Note</b>: since this {@code Counter} works with {@code Longs},
+	 * unless the size of this {@code Counter} is greater or equal than
+	 * {@code value}, the amount deducted to the elements will be zero.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Long value){
+		int size=this.size();
+		if(value >= size){
+			deductToAll(value / size);
+		}
+	}
+}
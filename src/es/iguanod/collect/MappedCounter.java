@@ -0,0 +1,799 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only {@code Counter} of {@code Long} keys backed by a memory-mapped
+ * snapshot file. Unlike Java serialization, opening a snapshot does not read
+ * nor deserialize its contents: the file is mapped in memory and
+ * {@link #get(Object) get} probes the mapped hash table directly, so a
+ * snapshot of any size is opened in constant time and only the pages that
+ * are actually queried are loaded by the operating system.
+ * <p>
+ * Snapshots are written with {@link #writeInts(Counter,Path) writeInts},
+ * {@link #writeLongs(Counter,Path) writeLongs} or
+ * {@link #writeDoubles(Counter,Path) writeDoubles} from any {@code Counter}
+ * with {@code Long} keys (typically one of the primitive specializations,
+ * such as {@link OffHeapIntCounter}), and opened with the corresponding
+ * {@link #openInts(Path) openInts}, {@link #openLongs(Path) openLongs} or
+ * {@link #openDoubles(Path) openDoubles}.</p>
+ * <p>
+ * Unlike the serialized forms of the classes of this library, the snapshot
+ * format is versioned: {@link #VERSION} is increased every time the format
+ * changes, and opening a snapshot of an unknown version fails with an
+ * {@code IOException} instead of returning wrong values. A version 1
+ * snapshot is made of, in little-endian byte order:</p>
+ * <ol>
+ * <li>A 32 bytes header: the magic number {@code 0x49474353} ({@code int}),
+ * the version ({@code int}), the type of the values ({@code int}: {@code 1}
+ * for {@code int}, {@code 2} for {@code long} and {@code 3} for
+ * {@code double}), the width of a record in bytes ({@code int}), the number
+ * of mappings ({@code long}) and the number of slots of the table
+ * ({@code long}, a power of two).</li>
+ * <li>A bitmap with one bit per slot telling wether it is used, padded to a
+ * multiple of 8 bytes.</li>
+ * <li>The records of the slots, each one made of the key ({@code long})
+ * followed by the value. A key is stored in the first free slot found by
+ * linear probing from {@code h & (slots-1)}, where {@code h} is
+ * {@code x ^ (x >>> 32)} and {@code x} is the key multiplied by
+ * {@code 0x9E3779B97F4A7C15L}.</li>
+ * </ol>
+ * <p>
+ * Every modifying method throws {@code UnsupportedOperationException}, and
+ * {@code MappedCounters} cannot be serialized. The file must not be modified
+ * nor rewritten in place while it is mapped, since the changes would be seen
+ * by the mapped buffers halfway (and truncating it makes the JVM crash on
+ * the next access). Writing a new snapshot to the same path with the
+ * methods of this class is safe, since they replace the file instead of
+ * rewriting it.</p>
+ *
+ * @param <V> {@code Integer}, {@code Long} or {@code Double}, being the class
+ * of the values associated with the keys stored in the {@code Counter}
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public final class MappedCounter<V extends Number> extends AbstractCounter<Long, V>{
+
+	private static final long serialVersionUID=2649019273818451466L;
+	/**
+	 * The version of the snapshot format written by this class.
+	 */
+	public static final int VERSION=1;
+	//************
+	private static final int MAGIC=0x49474353;
+	private static final int HEADER_SIZE=32;
+	private static final int INT=1;
+	private static final int LONG=2;
+	private static final int DOUBLE=3;
+	private static final float LOAD_FACTOR=0.75f;
+	/**
+	 * Base 2 logarithm of the highest number of records mapped by each
+	 * buffer, so that no buffer exceeds 1GB.
+	 */
+	private static final int CHUNK_BITS=26;
+	//************
+	private static final Caster<BigDecimal, Integer> INT_CASTER=new Caster<BigDecimal, Integer>(){
+		private static final long serialVersionUID=-2205339520744357402L;
+
+		@Override
+		public Integer cast(BigDecimal t){
+			return t.intValue();
+		}
+	};
+	private static final Caster<BigDecimal, Long> LONG_CASTER=new Caster<BigDecimal, Long>(){
+		private static final long serialVersionUID=7420637461049381162L;
+
+		@Override
+		public Long cast(BigDecimal t){
+			return t.longValue();
+		}
+	};
+	private static final Caster<BigDecimal, Double> DOUBLE_CASTER=new Caster<BigDecimal, Double>(){
+		private static final long serialVersionUID=-5613470781282406914L;
+
+		@Override
+		public Double cast(BigDecimal t){
+			return t.doubleValue();
+		}
+	};
+	//************
+	private final int type;
+	private final int size;
+	private final transient Table table;
+	//************
+	private transient Set<Long> backed_keyset;
+	private transient Collection<V> backed_values;
+	private transient Set<Entry<Long, V>> backed_entryset;
+
+	/**
+	 * Geometry and buffers of a mapped table, shared by the writer and the
+	 * reader.
+	 */
+	private static final class Table{
+
+		private final int record_width;
+		private final long capacity;
+		private final int chunk_bits;
+		private final long chunk_mask;
+		private final MappedByteBuffer bitmap;
+		private final MappedByteBuffer[] chunks;
+
+		private Table(FileChannel channel, MapMode mode, int record_width, long capacity) throws IOException{
+			this.record_width=record_width;
+			this.capacity=capacity;
+			chunk_bits=Math.min(CHUNK_BITS, Long.numberOfTrailingZeros(capacity));
+			chunk_mask=(1L << chunk_bits) - 1;
+			long bitmap_size=capacity >>> 3;
+			bitmap=channel.map(mode, HEADER_SIZE, bitmap_size);
+			bitmap.order(ByteOrder.LITTLE_ENDIAN);
+			long offset=HEADER_SIZE + ((bitmap_size + 7) & ~7L);
+			long chunk_size=(long)record_width << chunk_bits;
+			chunks=new MappedByteBuffer[(int)(capacity >>> chunk_bits)];
+			for(int i=0; i < chunks.length; i++){
+				chunks[i]=channel.map(mode, offset, chunk_size);
+				chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+				offset+=chunk_size;
+			}
+		}
+
+		/**
+		 * Writes the changes made through the buffers to the storage device,
+		 * since {@code FileChannel.force} doesn't cover them.
+		 */
+		private void force(){
+			bitmap.force();
+			for(MappedByteBuffer chunk:chunks){
+				chunk.force();
+			}
+		}
+
+		private static long fileSize(int record_width, long capacity){
+			return HEADER_SIZE + (((capacity >>> 3) + 7) & ~7L) + record_width * capacity;
+		}
+
+		private boolean isUsed(long slot){
+			return (bitmap.get((int)(slot >>> 3)) & (1 << (slot & 7))) != 0;
+		}
+
+		private void setUsed(long slot){
+			int i=(int)(slot >>> 3);
+			bitmap.put(i, (byte)(bitmap.get(i) | (1 << (slot & 7))));
+		}
+
+		private ByteBuffer chunk(long slot){
+			return chunks[(int)(slot >>> chunk_bits)];
+		}
+
+		private int offset(long slot){
+			return (int)(slot & chunk_mask) * record_width;
+		}
+
+		private long keyAt(long slot){
+			return chunk(slot).getLong(offset(slot));
+		}
+
+		private long indexOf(long key){
+			long mask=capacity - 1;
+			long i=hash(key) & mask;
+			while(isUsed(i)){
+				if(keyAt(i) == key){
+					return i;
+				}
+				i=(i + 1) & mask;
+			}
+			return -1;
+		}
+
+		private long insert(long key){
+			long mask=capacity - 1;
+			long i=hash(key) & mask;
+			while(isUsed(i)){
+				i=(i + 1) & mask;
+			}
+			setUsed(i);
+			chunk(i).putLong(offset(i), key);
+			return i;
+		}
+	}
+
+	private MappedCounter(Caster<BigDecimal, V> caster, int type, int size, Table table){
+		super(caster);
+		this.type=type;
+		this.size=size;
+		this.table=table;
+	}
+
+	private static long hash(long key){
+		long h=key * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private static long tableSizeFor(int size){
+		long min=(long)Math.ceil(size / (double)LOAD_FACTOR) + 1;
+		long cap=8;
+		while(cap < min){
+			cap<<=1;
+		}
+		return cap;
+	}
+
+	//************ Writing
+	/**
+	 * Writes a snapshot of the specified {@code Counter} with {@code int}
+	 * values to the specified file, atomically replacing it if it exists.
+	 * <p>
+	 * The snapshot is first written to a temporary file in the same
+	 * directory, and forced to the storage device (the mapped records before
+	 * the header), which is then moved over {@code path}, so a crash
+	 * never leaves a truncated snapshot behind, and the {@code
+	 * MappedCounters} already opened on the old file keep reading its old
+	 * contents. The temporary file is deleted if the snapshot cannot be
+	 * written.</p>
+	 *
+	 * @param counter the {@code Counter}
+	 * @param path the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 * @throws NullPointerException if {@code counter} contains the
+	 * {@code null} key
+	 * @throws ConcurrentModificationException if {@code counter} is
+	 * modified while the snapshot is written
+	 */
+	public static void writeInts(Counter<Long, ? extends Number> counter, Path path) throws IOException{
+		write(counter, path, INT);
+	}
+
+	/**
+	 * Writes a snapshot of the specified {@code Counter} with {@code long}
+	 * values to the specified file, atomically replacing it if it exists.
+	 * See {@link #writeInts(Counter,Path) writeInts} for details.
+	 *
+	 * @param counter the {@code Counter}
+	 * @param path the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 * @throws NullPointerException if {@code counter} contains the
+	 * {@code null} key
+	 * @throws ConcurrentModificationException if {@code counter} is
+	 * modified while the snapshot is written
+	 */
+	public static void writeLongs(Counter<Long, ? extends Number> counter, Path path) throws IOException{
+		write(counter, path, LONG);
+	}
+
+	/**
+	 * Writes a snapshot of the specified {@code Counter} with {@code double}
+	 * values to the specified file, atomically replacing it if it exists.
+	 * See {@link #writeInts(Counter,Path) writeInts} for details.
+	 *
+	 * @param counter the {@code Counter}
+	 * @param path the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 * @throws NullPointerException if {@code counter} contains the
+	 * {@code null} key
+	 * @throws ConcurrentModificationException if {@code counter} is
+	 * modified while the snapshot is written
+	 */
+	public static void writeDoubles(Counter<Long, ? extends Number> counter, Path path) throws IOException{
+		write(counter, path, DOUBLE);
+	}
+
+	private static void write(Counter<Long, ? extends Number> counter, Path path, int type) throws IOException{
+		int size=counter.size();
+		int record_width=type == INT ? 12 : 16;
+		long capacity=tableSizeFor(size);
+		Path dir=path.toAbsolutePath().getParent();
+		Path tmp=Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+		boolean moved=false;
+		try{
+			writeTable(counter, tmp, type, size, record_width, capacity);
+			Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			moved=true;
+		}finally{
+			if(!moved){
+				Files.deleteIfExists(tmp);
+			}
+		}
+	}
+
+	private static void writeTable(Counter<Long, ? extends Number> counter, Path path, int type, int size, int record_width, long capacity) throws IOException{
+		try(FileChannel channel=FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+			Table table=new Table(channel, MapMode.READ_WRITE, record_width, capacity);
+			int written=0;
+			for(Map.Entry<Long, ? extends Number> entry:counter.entrySet()){
+				if(entry.getKey() == null){
+					throw new NullPointerException("Null keys not allowed in snapshots");
+				}
+				if(++written > size){
+					throw new ConcurrentModificationException();
+				}
+				long slot=table.insert(entry.getKey());
+				ByteBuffer chunk=table.chunk(slot);
+				int offset=table.offset(slot) + 8;
+				switch(type){
+					case INT:
+						chunk.putInt(offset, entry.getValue().intValue());
+						break;
+					case LONG:
+						chunk.putLong(offset, entry.getValue().longValue());
+						break;
+					default:
+						chunk.putDouble(offset, entry.getValue().doubleValue());
+				}
+			}
+			if(written != size){
+				throw new ConcurrentModificationException();
+			}
+			// The records must be stored before the header that validates them
+			table.force();
+			ByteBuffer header=ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(record_width).putLong(size).putLong(capacity).flip();
+			while(header.hasRemaining()){
+				channel.write(header, header.position());
+			}
+			channel.force(true);
+		}
+	}
+
+	//************ Reading
+	/**
+	 * Opens a snapshot with {@code int} values, mapping it in memory.
+	 *
+	 * @param path the file
+	 *
+	 * @return a read-only {@code Counter} backed by the snapshot
+	 *
+	 * @throws IOException if an I/O error occurs, the file is not a valid
+	 * snapshot with {@code int} values, or its version is not supported
+	 */
+	public static MappedCounter<Integer> openInts(Path path) throws IOException{
+		return open(path, INT, INT_CASTER);
+	}
+
+	/**
+	 * Opens a snapshot with {@code long} values, mapping it in memory.
+	 *
+	 * @param path the file
+	 *
+	 * @return a read-only {@code Counter} backed by the snapshot
+	 *
+	 * @throws IOException if an I/O error occurs, the file is not a valid
+	 * snapshot with {@code long} values, or its version is not supported
+	 */
+	public static MappedCounter<Long> openLongs(Path path) throws IOException{
+		return open(path, LONG, LONG_CASTER);
+	}
+
+	/**
+	 * Opens a snapshot with {@code double} values, mapping it in memory.
+	 *
+	 * @param path the file
+	 *
+	 * @return a read-only {@code Counter} backed by the snapshot
+	 *
+	 * @throws IOException if an I/O error occurs, the file is not a valid
+	 * snapshot with {@code double} values, or its version is not supported
+	 */
+	public static MappedCounter<Double> openDoubles(Path path) throws IOException{
+		return open(path, DOUBLE, DOUBLE_CASTER);
+	}
+
+	private static <V extends Number> MappedCounter<V> open(Path path, int type, Caster<BigDecimal, V> caster) throws IOException{
+		try(FileChannel channel=FileChannel.open(path, StandardOpenOption.READ)){
+			if(channel.size() < HEADER_SIZE){
+				throw new IOException("Not a Counter snapshot");
+			}
+			ByteBuffer header=channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			if(header.getInt() != MAGIC){
+				throw new IOException("Not a Counter snapshot");
+			}
+			int version=header.getInt();
+			if(version != VERSION){
+				throw new IOException("Unsupported snapshot version: " + version);
+			}
+			if(header.getInt() != type){
+				throw new IOException("The snapshot values are not of the requested type");
+			}
+			int record_width=header.getInt();
+			long size=header.getLong();
+			long capacity=header.getLong();
+			if(record_width != (type == INT ? 12 : 16) || size < 0 || size > Integer.MAX_VALUE || capacity < 8 || Long.bitCount(capacity) != 1 || size >= capacity || channel.size() < Table.fileSize(record_width, capacity)){
+				throw new IOException("Corrupted Counter snapshot");
+			}
+			return new MappedCounter<>(caster, type, (int)size, new Table(channel, MapMode.READ_ONLY, record_width, capacity));
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException{
+		throw new NotSerializableException("MappedCounters cannot be serialized");
+	}
+
+	//************ Queries
+	private V valueAt(long slot){
+		ByteBuffer chunk=table.chunk(slot);
+		int offset=table.offset(slot) + 8;
+		switch(type){
+			case INT:
+				return (V)Integer.valueOf(chunk.getInt(offset));
+			case LONG:
+				return (V)Long.valueOf(chunk.getLong(offset));
+			default:
+				return (V)Double.valueOf(chunk.getDouble(offset));
+		}
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped as a
+	 * {@code long}, or {@code 0} (zero) if this {@code Counter} contains no
+	 * mapping for the key. {@code double} values are truncated.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public long getLong(long key){
+		long slot=table.indexOf(key);
+		if(slot < 0){
+			return 0;
+		}
+		ByteBuffer chunk=table.chunk(slot);
+		int offset=table.offset(slot) + 8;
+		switch(type){
+			case INT:
+				return chunk.getInt(offset);
+			case LONG:
+				return chunk.getLong(offset);
+			default:
+				return (long)chunk.getDouble(offset);
+		}
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped as a
+	 * {@code double}, or {@code 0} (zero) if this {@code Counter} contains no
+	 * mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public double getDouble(long key){
+		long slot=table.indexOf(key);
+		if(slot < 0){
+			return 0;
+		}
+		ByteBuffer chunk=table.chunk(slot);
+		int offset=table.offset(slot) + 8;
+		switch(type){
+			case INT:
+				return chunk.getInt(offset);
+			case LONG:
+				return chunk.getLong(offset);
+			default:
+				return chunk.getDouble(offset);
+		}
+	}
+
+	@Override
+	public int size(){
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key){
+		return key instanceof Long && table.indexOf((Long)key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value){
+		if(value == null){
+			return false;
+		}
+		for(long i=0; i < table.capacity; i++){
+			if(table.isUsed(i) && (comparator == null ? valueAt(i).equals(value) : comparator.compare(valueAt(i), (V)value) == 0)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public V get(Object key){
+		if(!(key instanceof Long)){
+			return null;
+		}
+		long slot=table.indexOf((Long)key);
+		return slot < 0 ? null : valueAt(slot);
+	}
+
+	//************ Unsupported modifications
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Tuple2<V, V> sum(Long key, V value){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Tuple2<V, V> deduct(Long key, V value){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void sumToAll(V value){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void deductToAll(V value){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V put(Long key, V value){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V remove(Object key){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	/**
+	 * Unsupported operation, since {@code MappedCounters} are read-only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void clear(){
+		throw new UnsupportedOperationException("MappedCounters are read-only");
+	}
+
+	//************ Views
+	/**
+	 * Iterator over the used slots of the table.
+	 *
+	 * @param <E> the class of the elements returned
+	 */
+	private abstract class SlotIterator<E> implements Iterator<E>{
+
+		private long next=-1;
+
+		SlotIterator(){
+			advance();
+		}
+
+		private void advance(){
+			do{
+				next++;
+			}while(next < table.capacity && !table.isUsed(next));
+		}
+
+		protected abstract E element(long slot);
+
+		@Override
+		public boolean hasNext(){
+			return next < table.capacity;
+		}
+
+		@Override
+		public E next(){
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			long slot=next;
+			advance();
+			return element(slot);
+		}
+
+		@Override
+		public void remove(){
+			throw new UnsupportedOperationException("MappedCounters are read-only");
+		}
+	}
+
+	@Override
+	public Set<Long> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<Long>(){
+				@Override
+				public int size(){
+					return size;
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public Iterator<Long> iterator(){
+					return new SlotIterator<Long>(){
+						@Override
+						protected Long element(long slot){
+							return table.keyAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_keyset;
+	}
+
+	@Override
+	public Collection<V> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<V>(){
+				@Override
+				public int size(){
+					return size;
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public Iterator<V> iterator(){
+					return new SlotIterator<V>(){
+						@Override
+						protected V element(long slot){
+							return valueAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	@Override
+	public Set<Entry<Long, V>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<Long, V>>(){
+				@Override
+				public int size(){
+					return size;
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					V value=get(((Entry)obj).getKey());
+					return value != null && value.equals(((Entry)obj).getValue());
+				}
+
+				@Override
+				public Iterator<Entry<Long, V>> iterator(){
+					return new SlotIterator<Entry<Long, V>>(){
+						@Override
+						protected Entry<Long, V> element(long slot){
+							return new AbstractMap.SimpleImmutableEntry<>(table.keyAt(slot), valueAt(slot));
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(long i=0; i < table.capacity; i++){
+			if(table.isUsed(i)){
+				if(str.length() > 1){
+					str.append(", ");
+				}
+				str.append(table.keyAt(i)).append('=').append(valueAt(i));
+			}
+		}
+		return str.append('}').toString();
+	}
+}
@@ -0,0 +1,903 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.HashCounter.HashCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code HashCounter} specialized for {@code Long} keys and {@code Double}
+ * values, whose mappings are stored outside of the Java heap. The mappings
+ * are kept in an open addressing hash table made of direct
+ * {@link java.nio.ByteBuffer ByteBuffers} holding the primitive keys and
+ * values, so no object is kept per mapping and the garbage collection pauses
+ * do not grow with the size of the {@code Counter}. It is meant for counters
+ * with hundreds of millions of keys, for which an {@link DoubleHashCounter}
+ * would still keep a boxed key per mapping.
+ * <p>
+ * Besides the {@code Counter} methods, {@code OffHeapDoubleCounter} offers
+ * {@link #sumDouble(long,double) sumDouble}, {@link #deductDouble(long,double) deductDouble}
+ * and {@link #getDouble(long) getDouble}, which work with primitive keys and
+ * values and do not allocate any object unless the table has to grow.</p>
+ * <p>
+ * This {@code Counter} does not accept {@code null} keys. Since the table
+ * uses open addressing, load factors greater than {@code 0.9} are treated as
+ * {@code 0.9}. The off-heap memory is released when the {@code Counter} is
+ * garbage collected.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class OffHeapDoubleCounter extends HashCounter<Long, Double>{
+
+	private static final long serialVersionUID=-3797479672389288719L;
+
+	public static class OffHeapDoubleCounterBuilder extends HashCounterBuilder<Long, Double>{
+
+		private static final long serialVersionUID=3045618310910582810L;
+
+		public OffHeapDoubleCounterBuilder(){
+			super(new Caster<BigDecimal, Double>(){
+				private static final long serialVersionUID=-8224955173606200308L;
+
+				@Override
+				public Double cast(BigDecimal t){
+					return t.doubleValue();
+				}
+			});
+		}
+
+		@Override
+		public OffHeapDoubleCounterBuilder setInitialCapacity(int initial_capacity){
+			super.setInitialCapacity(initial_capacity);
+			return this;
+		}
+
+		@Override
+		public OffHeapDoubleCounterBuilder setLoadFactor(float load_factor){
+			super.setLoadFactor(load_factor);
+			return this;
+		}
+
+		@Override
+		public OffHeapDoubleCounterBuilder setComparator(Comparator<? super Double> comparator){
+			super.setComparator(comparator);
+			return this;
+		}
+
+		@Override
+		public OffHeapDoubleCounterBuilder setInitialMappings(Map<? extends Long, ? extends Double> map){
+			super.setInitialMappings(map);
+			return this;
+		}
+
+		@Override
+		public OffHeapDoubleCounter build(){
+			return new OffHeapDoubleCounter(this);
+		}
+	}
+	public static final Caster<Number, Double> NUM_CASTER=DoubleHashCounter.NUM_CASTER;
+
+	//************
+	/**
+	 * Off-heap table with the keys and values.
+	 */
+	private final OffHeapTable table;
+	//************
+	private transient Set<Long> backed_keyset;
+	private transient Collection<Double> backed_values;
+	private transient Set<Entry<Long, Double>> backed_entryset;
+
+	protected OffHeapDoubleCounter(OffHeapDoubleCounterBuilder builder){
+		super(builder, false);
+		Map<? extends Long, ? extends Double> initial_map=builder.getInitialMappings();
+		if(initial_map == null){
+			table=new OffHeapTable(builder.getInitialCapacity(), builder.getLoadFactor(), 8);
+		}else{
+			table=new OffHeapTable(initial_map.size(), builder.getLoadFactor(), 8);
+			for(Entry<? extends Long, ? extends Double> entry:initial_map.entrySet()){
+				put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	public OffHeapDoubleCounter(){
+		this(new OffHeapDoubleCounterBuilder());
+	}
+
+	/**
+	 * Looks for the specified key in the table, as
+	 * {@link OffHeapTable#probe(long) probe} does.
+	 *
+	 * @param key the key
+	 *
+	 * @return the slot of the key, or {@code -(free+1)} if it is absent
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	private long probe(Long key){
+		return table.probe(checkKey(key));
+	}
+
+	/**
+	 * Returns the specified key unboxed.
+	 *
+	 * @param key the key
+	 *
+	 * @return the unboxed key
+	 *
+	 * @throws NullPointerException if {@code key} is {@code null}
+	 */
+	private static long checkKey(Long key){
+		if(key == null){
+			throw new NullPointerException("Null keys not allowed in off-heap Counters");
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the slot of the specified key, or {@code -1} if it is not
+	 * present.
+	 *
+	 * @param key the key
+	 *
+	 * @return the slot of the key or {@code -1}
+	 */
+	private long indexOf(Object key){
+		return key instanceof Long ? table.indexOf((Long)key) : -1;
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #sum(Long,Double) sum}, but
+	 * neither boxes the key and values nor allocates the returned
+	 * tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be added to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public double sumDouble(long key, double value){
+		long slot=table.probe(key);
+		if(slot < 0){
+			slot=table.insert(key, slot);
+		}
+		double newvalue=table.getDouble(slot) + value;
+		table.putDouble(slot, newvalue);
+		return newvalue;
+	}
+
+	/**
+	 * Deducts the specified value to the current value associated with the
+	 * specified key, and returns the new value. If the key is not already
+	 * present in this {@code Counter}, this method behaves as if it was
+	 * present with an associated value of {@code 0} (zero).
+	 * <p>
+	 * This method is equivalent to {@link #deduct(Long,Double) deduct}, but
+	 * neither boxes the key and values nor allocates the returned
+	 * tuple.</p>
+	 *
+	 * @param key key which value is to be modified
+	 * @param value value to be deducted to the previous value associated with
+	 * {@code key}
+	 *
+	 * @return the new value associated with {@code key}
+	 */
+	public double deductDouble(long key, double value){
+		return sumDouble(key, -value);
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or {@code 0}
+	 * (zero) if this {@code Counter} contains no mapping for the key.
+	 *
+	 * @param key the key whose value is to be obtained
+	 *
+	 * @return the value to which the specified key is mapped, or {@code 0}
+	 * if there is no such mapping
+	 */
+	public double getDouble(long key){
+		long slot=table.indexOf(key);
+		return slot < 0 ? 0 : table.getDouble(slot);
+	}
+
+	/**
+	 * Adds every value of the {@code deltas} array to the current value
+	 * associated with the key in the same position of the {@code keys}
+	 * array. If a key is not already present in this {@code Counter}, this
+	 * method behaves as if it was present with an associated value of
+	 * {@code 0} (zero).
+	 * <p>
+	 * This method neither boxes the values nor allocates any object per key,
+	 * unless the table has to grow.</p>
+	 *
+	 * @param keys the keys which values are to be modified
+	 * @param deltas the values to be added to the values associated with the
+	 * respective keys
+	 *
+	 * @throws IllegalArgumentException if the arrays have different lengths
+	 */
+	public void sumAll(long[] keys, double[] deltas){
+		if(keys.length != deltas.length){
+			throw new IllegalArgumentException("The keys and deltas arrays must have the same length");
+		}
+		for(int i=0; i < keys.length; i++){
+			sumDouble(keys[i], deltas[i]);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the key or the value are {@code null}
+	 */
+	@Override
+	protected void sumValue(Long key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		sumDouble(checkKey(key), value);
+	}
+
+	/**
+	 * {@inheritDoc} This method does not box the value associated with the
+	 * key.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the key or the value are {@code null}
+	 */
+	@Override
+	protected void deductValue(Long key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		deductDouble(checkKey(key), value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the key or the value are {@code null}
+	 */
+	@Override
+	public Tuple2<Double, Double> sum(Long key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		long slot=probe(key);
+		if(slot < 0){
+			slot=table.insert(key, slot);
+			table.putDouble(slot, value);
+			return new Tuple2<>(null, value);
+		}
+		double oldvalue=table.getDouble(slot);
+		table.putDouble(slot, oldvalue + value);
+		return new Tuple2<>(oldvalue, oldvalue + value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the key or the value are {@code null}
+	 */
+	@Override
+	public Tuple2<Double, Double> deduct(Long key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		long slot=probe(key);
+		if(slot < 0){
+			slot=table.insert(key, slot);
+			table.putDouble(slot, -value);
+			return new Tuple2<>(null, -value);
+		}
+		double oldvalue=table.getDouble(slot);
+		table.putDouble(slot, oldvalue - value);
+		return new Tuple2<>(oldvalue, oldvalue - value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the specified {@code Counter} is also an {@code OffHeapDoubleCounter},
+	 * its table is traversed directly and neither keys nor values are
+	 * boxed.</p>
+	 *
+	 * @param counter {@inheritDoc}
+	 */
+	@Override
+	public void mergeFrom(Counter<? extends Long, ? extends Double> counter){
+		if(!(counter instanceof OffHeapDoubleCounter)){
+			super.mergeFrom(counter);
+			return;
+		}
+		OffHeapTable othertable=((OffHeapDoubleCounter)counter).table;
+		for(long i=0; i < othertable.capacity(); i++){
+			if(othertable.isUsed(i)){
+				sumDouble(othertable.keyAt(i), othertable.getDouble(i));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(Double value){
+		double v=value;
+		for(long i=0; i < table.capacity(); i++){
+			if(table.isUsed(i)){
+				table.putDouble(i, table.getDouble(i) + v);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return table.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty(){
+		return table.size() == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsKey(Object key){
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public boolean containsValue(Object value){
+		if(!(value instanceof Double)){
+			return false;
+		}
+		double v=(Double)value;
+		long bits=Double.doubleToLongBits(v);
+		for(long i=0; i < table.capacity(); i++){
+			if(table.isUsed(i) && (comparator == null ? Double.doubleToLongBits(table.getDouble(i)) == bits : comparator.compare(table.getDouble(i), v) == 0)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Double get(Object key){
+		long slot=indexOf(key);
+		return slot < 0 ? null : table.getDouble(slot);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the key or the value are {@code null}
+	 */
+	@Override
+	public Double put(Long key, Double value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		long slot=probe(key);
+		if(slot < 0){
+			table.putDouble(table.insert(key, slot), value);
+			return null;
+		}
+		double oldvalue=table.getDouble(slot);
+		table.putDouble(slot, value);
+		return oldvalue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Double remove(Object key){
+		long slot=indexOf(key);
+		if(slot < 0){
+			return null;
+		}
+		table.removeAt(slot);
+		return table.getDouble(slot);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		table.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Long> keySet(){
+		if(backed_keyset == null){
+			backed_keyset=new AbstractSet<Long>(){
+				@Override
+				public int size(){
+					return table.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsKey(obj);
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					long slot=indexOf(obj);
+					if(slot < 0){
+						return false;
+					}
+					table.removeAt(slot);
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					OffHeapDoubleCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Long> iterator(){
+					return table.new SlotIterator<Long>(){
+						@Override
+						protected Long element(long slot){
+							return table.keyAt(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_keyset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Collection<Double> values(){
+		if(backed_values == null){
+			backed_values=new AbstractCollection<Double>(){
+				@Override
+				public int size(){
+					return table.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					return containsValue(obj);
+				}
+
+				@Override
+				public void clear(){
+					OffHeapDoubleCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Double> iterator(){
+					return table.new SlotIterator<Double>(){
+						@Override
+						protected Double element(long slot){
+							return table.getDouble(slot);
+						}
+					};
+				}
+			};
+		}
+		return backed_values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public Set<Entry<Long, Double>> entrySet(){
+		if(backed_entryset == null){
+			backed_entryset=new AbstractSet<Entry<Long, Double>>(){
+				@Override
+				public int size(){
+					return table.size();
+				}
+
+				@Override
+				public boolean contains(Object obj){
+					if(!(obj instanceof Entry)){
+						return false;
+					}
+					long slot=indexOf(((Entry)obj).getKey());
+					return slot >= 0 && ((Entry)obj).getValue() instanceof Double && Double.doubleToLongBits(table.getDouble(slot)) == Double.doubleToLongBits((Double)((Entry)obj).getValue());
+				}
+
+				@Override
+				public boolean remove(Object obj){
+					if(!contains(obj)){
+						return false;
+					}
+					table.removeAt(indexOf(((Entry)obj).getKey()));
+					return true;
+				}
+
+				@Override
+				public void clear(){
+					OffHeapDoubleCounter.this.clear();
+				}
+
+				@Override
+				public Iterator<Entry<Long, Double>> iterator(){
+					return table.new SlotIterator<Entry<Long, Double>>(){
+						@Override
+						protected Entry<Long, Double> element(final long slot){
+							return new Entry<Long, Double>(){
+								private final Long key=table.keyAt(slot);
+
+								@Override
+								public Long getKey(){
+									return key;
+								}
+
+								@Override
+								public Double getValue(){
+									return table.getDouble(slot);
+								}
+
+								@Override
+								public Double setValue(Double value){
+									if(value == null){
+										throw new NullPointerException("Null values not allowed in Counters");
+									}
+									double oldvalue=table.getDouble(slot);
+									table.putDouble(slot, value);
+									return oldvalue;
+								}
+
+								@Override
+								public boolean equals(Object obj){
+									if(!(obj instanceof Entry)){
+										return false;
+									}
+									Entry e=(Entry)obj;
+									return key.equals(e.getKey()) && getValue().equals(e.getValue());
+								}
+
+								@Override
+								public int hashCode(){
+									long bits=Double.doubleToLongBits(table.getDouble(slot));
+									return key.hashCode() ^ (int)(bits ^ (bits >>> 32));
+								}
+
+								@Override
+								public String toString(){
+									return key + "=" + table.getDouble(slot);
+								}
+							};
+						}
+					};
+				}
+			};
+		}
+		return backed_entryset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("{");
+		for(long i=0; i < table.capacity(); i++){
+			if(table.isUsed(i)){
+				if(str.length() > 1){
+					str.append(", ");
+				}
+				str.append(table.keyAt(i)).append('=').append(table.getDouble(i));
+			}
+		}
+		return str.append('}').toString();
+	}
+
+	/**
+	 * Adds {@code 1.0/keys.}{@link java.util.Collection#size() size()} to the
+	 * current value associated with every key in the specified. If the key is
+	 * not already present in this {@code Counter}, this method behaves as if
+	 * it was present with an associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends Long> keys){
+		sumAll(keys, 1.0 / keys.size());
+	}
+
+	/**
+	 * Adds {@code 1.0/keys.length} to the current value associated with every
+	 * key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Long[] keys){
+		sumAll(keys, 1.0 / keys.length);
+	}
+
+	/**
+	 * Adds {@code value/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Collection<? extends Long> keys, Double value){
+		sumAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Adds {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 */
+	@Override
+	public void balancedSum(Long[] keys, Double value){
+		sumAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Adds {@code 1.0/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(){
+		sumToAll(1.0 / this.size());
+	}
+
+	/**
+	 * Adds {@code value/this.}{@link #size() size()}), to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #sum(Object,Number)
+	 * @see #sumToAll(Number)
+	 */
+	@Override
+	public void balancedSumToAll(Double value){
+		sumToAll(value / this.size());
+	}
+
+	/**
+	 * Deducts {@code 1.0/keys.}{@link java.util.Collection#size() size()} to
+	 * the current value associated with every key in the specified. If the
+	 * key is not already present in this {@code Counter}, this method behaves
+	 * as if it was present with an associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends Long> keys){
+		deductAll(keys, 1.0 / keys.size());
+	}
+
+	/**
+	 * Deducts {@code 1.0/keys.length} to the current value associated with
+	 * every key in the specified. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Long[] keys){
+		deductAll(keys, 1.0 / keys.length);
+	}
+
+	/**
+	 * Deducts {@code value/keys.}{@link java.util.Collection#size() size()}
+	 * to the current value associated with every key in the specified
+	 * {@code Collection}. If the key is not already present in this
+	 * {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Collection<? extends Long> keys, Double value){
+		deductAll(keys, value / keys.size());
+	}
+
+	/**
+	 * Deducts {@code value/keys.length} to the current value associated with
+	 * every key in the specified array. If the key is not already present in
+	 * this {@code Counter}, this method behaves as if it was present with an
+	 * associated value of {@code 0} (zero).
+	 *
+	 * @param keys {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 */
+	@Override
+	public void balancedDeduct(Long[] keys, Double value){
+		deductAll(keys, value / keys.length);
+	}
+
+	/**
+	 * Deducts {@code 1/this.}{@link #size() size()}) to the current value
+	 * associated with every key in this {@code Counter}.
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(){
+		deductToAll(1.0 / this.size());
+	}
+
+	/**
+	 * Deducts {@code value/this.}{@link #size() size()}), to the current
+	 * value associated with every key in this {@code Counter}.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 *
+	 * @see #deduct(Object,Number)
+	 * @see #deductToAll(Number)
+	 */
+	@Override
+	public void balancedDeductToAll(Double value){
+		deductToAll(value / this.size());
+	}
+}
@@ -0,0 +1,482 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open addressing (linear probing) hash table of primitive {@code long} keys
+ * and fixed-width primitive values, stored outside of the Java heap in direct
+ * {@link java.nio.ByteBuffer ByteBuffers}. It is used by the off-heap
+ * specializations of {@link HashCounter}: no object at all is kept per
+ * mapping, so the number of mappings has no effect on the garbage collector.
+ * <p>
+ * The table is split in pages of at most {@code 2^16} slots, each one made of
+ * a buffer with the records (the key followed by the value) and a buffer with
+ * the state of the slots (free, used or removed), so that the table can grow
+ * beyond the 2GB limit of a single buffer. Slots are addressed with
+ * {@code long} indices and, as in {@link OpenHashIndex}, removed keys leave a
+ * tombstone behind so that slots never move except when the table is
+ * rehashed, which the table does by itself when a key is inserted.</p>
+ * <p>
+ * The off-heap memory is released when the table (and therefore its buffers)
+ * is garbage collected. When serialized, only the mappings are written.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+final class OffHeapTable implements Serializable{
+
+	private static final long serialVersionUID=-6202746551209917832L;
+	//************
+	/**
+	 * Highest load factor accepted, so that there is always at least one free
+	 * slot to end the probing sequences.
+	 */
+	static final float MAX_LOAD_FACTOR=0.9f;
+	/**
+	 * Highest number of slots.
+	 */
+	static final long MAX_CAPACITY=1L << 32;
+	/**
+	 * Base 2 logarithm of the highest number of slots of a page.
+	 */
+	private static final int PAGE_BITS=16;
+	//************
+	private static final byte FREE=0;
+	private static final byte USED=1;
+	private static final byte REMOVED=2;
+	//************
+	private final int value_width;
+	private final int record_width;
+	private final float load_factor;
+	private transient ByteBuffer[] records;
+	private transient ByteBuffer[] states;
+	private transient long capacity;
+	private transient int page_bits;
+	private transient long page_mask;
+	private transient int size;
+	private transient long used;
+	private transient long threshold;
+
+	/**
+	 * Constructs a new empty {@code OffHeapTable} able to hold
+	 * {@code initial_capacity} keys without rehashing.
+	 *
+	 * @param initial_capacity the number of keys to hold without rehashing
+	 * @param load_factor the load factor, capped at {@link #MAX_LOAD_FACTOR}
+	 * @param value_width the width of the values in bytes, either {@code 4}
+	 * or {@code 8}
+	 */
+	OffHeapTable(int initial_capacity, float load_factor, int value_width){
+		this.load_factor=Math.min(load_factor, MAX_LOAD_FACTOR);
+		this.value_width=value_width;
+		this.record_width=8 + value_width;
+		allocate(tableSizeFor(initial_capacity));
+	}
+
+	private long tableSizeFor(long n){
+		long min=(long)Math.ceil(n / (double)load_factor) + 1;
+		long cap=8;
+		while(cap < min && cap < MAX_CAPACITY){
+			cap<<=1;
+		}
+		return cap;
+	}
+
+	private void allocate(long capacity){
+		this.capacity=capacity;
+		page_bits=Math.min(PAGE_BITS, Long.numberOfTrailingZeros(capacity));
+		page_mask=(1L << page_bits) - 1;
+		int pages=(int)(capacity >>> page_bits);
+		records=new ByteBuffer[pages];
+		states=new ByteBuffer[pages];
+		for(int i=0; i < pages; i++){
+			records[i]=ByteBuffer.allocateDirect(record_width << page_bits).order(ByteOrder.nativeOrder());
+			states[i]=ByteBuffer.allocateDirect(1 << page_bits);
+		}
+		threshold=Math.min(capacity - 1, (long)(capacity * (double)load_factor));
+		used=size;
+	}
+
+	private static long hash(long key){
+		long h=key * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private byte state(long slot){
+		return states[(int)(slot >>> page_bits)].get((int)(slot & page_mask));
+	}
+
+	private void setState(long slot, byte state){
+		states[(int)(slot >>> page_bits)].put((int)(slot & page_mask), state);
+	}
+
+	private ByteBuffer page(long slot){
+		return records[(int)(slot >>> page_bits)];
+	}
+
+	private int offset(long slot){
+		return (int)(slot & page_mask) * record_width;
+	}
+
+	/**
+	 * Returns the number of slots of the table.
+	 *
+	 * @return the number of slots
+	 */
+	long capacity(){
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of keys stored.
+	 *
+	 * @return the number of keys
+	 */
+	int size(){
+		return size;
+	}
+
+	/**
+	 * Returns the slot of the specified key, or {@code -1} if it is not in
+	 * the table.
+	 *
+	 * @param key the key to look for
+	 *
+	 * @return the slot of the key or {@code -1}
+	 */
+	long indexOf(long key){
+		long slot=probe(key);
+		return slot >= 0 ? slot : -1;
+	}
+
+	/**
+	 * Looks for the specified key. Returns its slot if it is present;
+	 * otherwise, returns {@code -(free+1)}, where {@code free} is the slot in
+	 * which the key would be inserted by {@link #insert(long,long) insert}.
+	 *
+	 * @param key the key to look for
+	 *
+	 * @return the slot of the key, or {@code -(free+1)} if it is absent
+	 */
+	long probe(long key){
+		long mask=capacity - 1;
+		long i=hash(key) & mask;
+		long free=-1;
+		byte state;
+		while((state=state(i)) != FREE){
+			if(state == REMOVED){
+				if(free < 0){
+					free=i;
+				}
+			}else if(page(i).getLong(offset(i)) == key){
+				return i;
+			}
+			i=(i + 1) & mask;
+		}
+		return -((free < 0 ? i : free) + 1);
+	}
+
+	/**
+	 * Inserts the specified key with a zeroed value, rehashing the table
+	 * first if inserting one more key would exceed the load factor.
+	 * {@code free} is the value returned by {@link #probe(long) probe} for
+	 * the key.
+	 *
+	 * @param key the key to insert
+	 * @param free the encoded free slot
+	 *
+	 * @return the slot of the key
+	 *
+	 * @throws IllegalStateException if the table cannot hold more keys
+	 */
+	long insert(long key, long free){
+		if(size == Integer.MAX_VALUE){
+			throw new IllegalStateException("Maximum capacity reached");
+		}
+		if(used >= threshold){
+			rehash();
+			free=probe(key);
+		}
+		long slot=-free - 1;
+		if(state(slot) == FREE){
+			used++;
+		}
+		setState(slot, USED);
+		ByteBuffer page=page(slot);
+		int offset=offset(slot);
+		page.putLong(offset, key);
+		if(value_width == 8){
+			page.putLong(offset + 8, 0);
+		}else{
+			page.putInt(offset + 8, 0);
+		}
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Removes the key stored in the specified slot.
+	 *
+	 * @param slot the slot to free
+	 */
+	void removeAt(long slot){
+		setState(slot, REMOVED);
+		size--;
+	}
+
+	/**
+	 * Rebuilds the table, doubling its capacity unless most of the used
+	 * slots are tombstones.
+	 */
+	private void rehash(){
+		ByteBuffer[] oldrecords=records;
+		ByteBuffer[] oldstates=states;
+		int oldbits=page_bits;
+		long oldcapacity=capacity;
+		long newcapacity=capacity;
+		if(size >= threshold / 2){
+			if(capacity >= MAX_CAPACITY){
+				if(size >= threshold){
+					throw new IllegalStateException("Maximum capacity reached");
+				}
+			}else{
+				newcapacity<<=1;
+			}
+		}
+		allocate(newcapacity);
+		long mask=newcapacity - 1;
+		long oldmask=(1L << oldbits) - 1;
+		for(long j=0; j < oldcapacity; j++){
+			if(oldstates[(int)(j >>> oldbits)].get((int)(j & oldmask)) == USED){
+				ByteBuffer oldpage=oldrecords[(int)(j >>> oldbits)];
+				int oldoffset=(int)(j & oldmask) * record_width;
+				long key=oldpage.getLong(oldoffset);
+				long i=hash(key) & mask;
+				while(state(i) != FREE){
+					i=(i + 1) & mask;
+				}
+				setState(i, USED);
+				ByteBuffer page=page(i);
+				int offset=offset(i);
+				page.putLong(offset, key);
+				if(value_width == 8){
+					page.putLong(offset + 8, oldpage.getLong(oldoffset + 8));
+				}else{
+					page.putInt(offset + 8, oldpage.getInt(oldoffset + 8));
+				}
+			}
+		}
+		used=size;
+	}
+
+	/**
+	 * Tells wether the specified slot holds a key.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return {@code true} if the slot holds a key
+	 */
+	boolean isUsed(long slot){
+		return state(slot) == USED;
+	}
+
+	/**
+	 * Returns the key stored in the specified slot, which must be used.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the key stored in the slot
+	 */
+	long keyAt(long slot){
+		return page(slot).getLong(offset(slot));
+	}
+
+	/**
+	 * Returns the {@code int} value stored in the specified slot. Only valid
+	 * for tables with 4 bytes wide values.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the value stored in the slot
+	 */
+	int getInt(long slot){
+		return page(slot).getInt(offset(slot) + 8);
+	}
+
+	/**
+	 * Stores an {@code int} value in the specified slot. Only valid for
+	 * tables with 4 bytes wide values.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	void putInt(long slot, int value){
+		page(slot).putInt(offset(slot) + 8, value);
+	}
+
+	/**
+	 * Returns the {@code long} value stored in the specified slot. Only
+	 * valid for tables with 8 bytes wide values.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the value stored in the slot
+	 */
+	long getLong(long slot){
+		return page(slot).getLong(offset(slot) + 8);
+	}
+
+	/**
+	 * Stores a {@code long} value in the specified slot. Only valid for
+	 * tables with 8 bytes wide values.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	void putLong(long slot, long value){
+		page(slot).putLong(offset(slot) + 8, value);
+	}
+
+	/**
+	 * Returns the {@code double} value stored in the specified slot. Only
+	 * valid for tables with 8 bytes wide values.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the value stored in the slot
+	 */
+	double getDouble(long slot){
+		return page(slot).getDouble(offset(slot) + 8);
+	}
+
+	/**
+	 * Stores a {@code double} value in the specified slot. Only valid for
+	 * tables with 8 bytes wide values.
+	 *
+	 * @param slot the slot
+	 * @param value the value
+	 */
+	void putDouble(long slot, double value){
+		page(slot).putDouble(offset(slot) + 8, value);
+	}
+
+	/**
+	 * Removes all the keys. The capacity is kept.
+	 */
+	void clear(){
+		for(ByteBuffer page:states){
+			for(int i=0; i < page.capacity(); i+=8){
+				page.putLong(i, 0);
+			}
+		}
+		size=0;
+		used=0;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException{
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for(long i=0; i < capacity; i++){
+			if(isUsed(i)){
+				out.writeLong(keyAt(i));
+				if(value_width == 8){
+					out.writeLong(getLong(i));
+				}else{
+					out.writeInt(getInt(i));
+				}
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException{
+		in.defaultReadObject();
+		int n=in.readInt();
+		size=0;
+		allocate(tableSizeFor(n));
+		for(int j=0; j < n; j++){
+			long key=in.readLong();
+			long slot=insert(key, probe(key));
+			if(value_width == 8){
+				putLong(slot, in.readLong());
+			}else{
+				putInt(slot, in.readInt());
+			}
+		}
+	}
+
+	/**
+	 * Iterator over the used slots of an {@code OffHeapTable}. Subclasses
+	 * only have to turn a slot into the element to be returned. Removal
+	 * through the iterator is supported.
+	 *
+	 * @param <E> the class of the elements returned
+	 */
+	abstract class SlotIterator<E> implements Iterator<E>{
+
+		private long next=-1;
+		private long last=-1;
+
+		SlotIterator(){
+			advance();
+		}
+
+		private void advance(){
+			do{
+				next++;
+			}while(next < capacity && !isUsed(next));
+		}
+
+		protected abstract E element(long slot);
+
+		@Override
+		public boolean hasNext(){
+			return next < capacity;
+		}
+
+		@Override
+		public E next(){
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			last=next;
+			advance();
+			return element(last);
+		}
+
+		@Override
+		public void remove(){
+			if(last < 0){
+				throw new IllegalStateException();
+			}
+			removeAt(last);
+			last=-1;
+		}
+	}
+}
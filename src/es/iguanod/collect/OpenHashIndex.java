@@ -0,0 +1,328 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open addressing (linear probing) hash index used by the primitive
+ * specializations of {@link HashCounter}. The index only stores the keys: it
+ * assigns every key a slot and the owner keeps the values in a parallel
+ * primitive array indexed by that same slot, so no entry object is allocated
+ * per mapping.
+ * <p>
+ * Removed keys leave a tombstone behind so that slots never move except when
+ * the index is rehashed. When {@link #rehash() rehash} is called the owner must
+ * relocate its values following the returned slot mapping.</p>
+ * <p>
+ * This class accepts the {@code null} key.</p>
+ *
+ * @param <K> the class of the keys stored in the index
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+final class OpenHashIndex<K> implements Serializable{
+
+	private static final long serialVersionUID=-3526941097710833621L;
+	//************
+	/**
+	 * Highest load factor accepted, so that there is always at least one free
+	 * slot to end the probing sequences.
+	 */
+	static final float MAX_LOAD_FACTOR=0.9f;
+	/**
+	 * Highest number of slots.
+	 */
+	static final int MAX_CAPACITY=1 << 30;
+
+	/**
+	 * Markers stored in the keys array. They are enum constants so they
+	 * survive serialization.
+	 */
+	private static enum Marker{
+
+		NULL_KEY,
+		REMOVED;
+	}
+	//************
+	private Object[] keys;
+	private final float load_factor;
+	private int size=0;
+	private int used=0;
+	private int threshold;
+
+	/**
+	 * Constructs a new empty {@code OpenHashIndex} able to hold
+	 * {@code initial_capacity} keys without rehashing.
+	 *
+	 * @param initial_capacity the number of keys to hold without rehashing
+	 * @param load_factor the load factor, capped at {@link #MAX_LOAD_FACTOR}
+	 */
+	OpenHashIndex(int initial_capacity, float load_factor){
+		this.load_factor=Math.min(load_factor, MAX_LOAD_FACTOR);
+		allocate(tableSizeFor((int)Math.min(Integer.MAX_VALUE, (long)Math.ceil(initial_capacity / (double)this.load_factor) + 1)));
+	}
+
+	private static int tableSizeFor(int n){
+		int cap=2;
+		while(cap < n && cap < MAX_CAPACITY){
+			cap<<=1;
+		}
+		return cap;
+	}
+
+	private void allocate(int capacity){
+		keys=new Object[capacity];
+		threshold=Math.min(capacity - 1, (int)(capacity * load_factor));
+		used=size;
+	}
+
+	private static int hash(Object key){
+		int h=key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the number of slots of the index, that is, the length the
+	 * parallel values array must have.
+	 *
+	 * @return the number of slots
+	 */
+	int capacity(){
+		return keys.length;
+	}
+
+	/**
+	 * Returns the number of keys stored.
+	 *
+	 * @return the number of keys
+	 */
+	int size(){
+		return size;
+	}
+
+	/**
+	 * Returns the slot of the specified key, or {@code -1} if it is not in
+	 * the index.
+	 *
+	 * @param key the key to look for
+	 *
+	 * @return the slot of the key or {@code -1}
+	 */
+	int indexOf(Object key){
+		int slot=probe(key);
+		return slot >= 0 ? slot : -1;
+	}
+
+	/**
+	 * Looks for the specified key. Returns its slot if it is present;
+	 * otherwise, returns {@code -(free+1)}, where {@code free} is the slot in
+	 * which the key would be inserted by {@link #insert(int,Object) insert}.
+	 *
+	 * @param key the key to look for
+	 *
+	 * @return the slot of the key, or {@code -(free+1)} if it is absent
+	 */
+	int probe(Object key){
+		Object k=key == null ? Marker.NULL_KEY : key;
+		int mask=keys.length - 1;
+		int i=hash(k) & mask;
+		int free=-1;
+		Object cur;
+		while((cur=keys[i]) != null){
+			if(cur == Marker.REMOVED){
+				if(free < 0){
+					free=i;
+				}
+			}else if(cur == k || cur.equals(k)){
+				return i;
+			}
+			i=(i + 1) & mask;
+		}
+		return -((free < 0 ? i : free) + 1);
+	}
+
+	/**
+	 * Tells wether inserting one more key would exceed the load factor, in
+	 * which case {@link #rehash() rehash} must be called (and the key
+	 * probed again) before inserting it.
+	 *
+	 * @return {@code true} if a rehash is needed before the next insertion
+	 */
+	boolean isCrowded(){
+		return used >= threshold;
+	}
+
+	/**
+	 * Inserts the specified key in the free slot returned by
+	 * {@link #probe(Object) probe}.
+	 *
+	 * @param slot the free slot (already decoded, that is, non-negative)
+	 * @param key the key to insert
+	 */
+	void insert(int slot, K key){
+		if(keys[slot] == null){
+			used++;
+		}
+		keys[slot]=key == null ? Marker.NULL_KEY : key;
+		size++;
+	}
+
+	/**
+	 * Removes the key stored in the specified slot.
+	 *
+	 * @param slot the slot to free
+	 */
+	void removeAt(int slot){
+		keys[slot]=Marker.REMOVED;
+		size--;
+	}
+
+	/**
+	 * Rebuilds the index, doubling its capacity unless most of the used
+	 * slots are tombstones. Returns an array with, for every old slot, the
+	 * slot the key has been relocated to, or {@code -1} if the old slot held
+	 * no key.
+	 *
+	 * @return the relocation of every old slot
+	 */
+	int[] rehash(){
+		Object[] old=keys;
+		int capacity=old.length;
+		if(size >= threshold / 2){
+			if(capacity >= MAX_CAPACITY){
+				if(size >= threshold){
+					throw new IllegalStateException("Maximum capacity reached");
+				}
+			}else{
+				capacity<<=1;
+			}
+		}
+		allocate(capacity);
+		int mask=capacity - 1;
+		int[] moved=new int[old.length];
+		for(int j=0; j < old.length; j++){
+			Object k=old[j];
+			if(k == null || k == Marker.REMOVED){
+				moved[j]=-1;
+			}else{
+				int i=hash(k) & mask;
+				while(keys[i] != null){
+					i=(i + 1) & mask;
+				}
+				keys[i]=k;
+				moved[j]=i;
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * Tells wether the specified slot holds a key.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return {@code true} if the slot holds a key
+	 */
+	boolean isUsed(int slot){
+		Object k=keys[slot];
+		return k != null && k != Marker.REMOVED;
+	}
+
+	/**
+	 * Returns the key stored in the specified slot, which must be used.
+	 *
+	 * @param slot the slot
+	 *
+	 * @return the key stored in the slot
+	 */
+	K keyAt(int slot){
+		Object k=keys[slot];
+		return k == Marker.NULL_KEY ? null : (K)k;
+	}
+
+	/**
+	 * Removes all the keys. The capacity is kept.
+	 */
+	void clear(){
+		Arrays.fill(keys, null);
+		size=0;
+		used=0;
+	}
+
+	/**
+	 * Iterator over the used slots of an {@code OpenHashIndex}. Subclasses
+	 * only have to turn a slot into the element to be returned. Removal
+	 * through the iterator is supported and calls {@link #removed(int)}
+	 * after the key is removed.
+	 *
+	 * @param <E> the class of the elements returned
+	 */
+	abstract class SlotIterator<E> implements Iterator<E>{
+
+		private int next=-1;
+		private int last=-1;
+
+		SlotIterator(){
+			advance();
+		}
+
+		private void advance(){
+			do{
+				next++;
+			}while(next < keys.length && !isUsed(next));
+		}
+
+		protected abstract E element(int slot);
+
+		protected void removed(int slot){
+		}
+
+		@Override
+		public boolean hasNext(){
+			return next < keys.length;
+		}
+
+		@Override
+		public E next(){
+			if(!hasNext()){
+				throw new NoSuchElementException();
+			}
+			last=next;
+			advance();
+			return element(last);
+		}
+
+		@Override
+		public void remove(){
+			if(last < 0){
+				throw new IllegalStateException();
+			}
+			removeAt(last);
+			removed(last);
+			last=-1;
+		}
+	}
+}
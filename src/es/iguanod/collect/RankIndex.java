@@ -0,0 +1,250 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * Order-statistic index of the values of a {@link TreeCounter}: a treap
+ * (a binary search tree balanced by random priorities) with a node per
+ * distinct value, weighted by the number of keys associated with it, in which
+ * every node also stores the total weight of its subtree. Thus the number of
+ * keys whose value is before a given one, and the value of the key at a
+ * given position, are found in time logarithmic in the number of distinct
+ * values.
+ * <p>
+ * The index does not store the keys; the owner keeps it in sync by calling
+ * {@link #add(Object,int) add} whenever keys join or leave the group of a
+ * value. Positions are counted in the order of the {@code Comparator} of the
+ * index, starting at 0.</p>
+ *
+ * @param <V> the class of the values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+final class RankIndex<V> implements Serializable{
+
+	private static final long serialVersionUID=7961350712885374014L;
+
+	private static final class Node<V> implements Serializable{
+
+		private static final long serialVersionUID=-2894605531826102283L;
+		//************
+		private final V value;
+		private final int priority;
+		private int weight;
+		private long total;
+		private Node<V> left;
+		private Node<V> right;
+
+		private Node(V value, int weight, int priority){
+			this.value=value;
+			this.weight=weight;
+			this.total=weight;
+			this.priority=priority;
+		}
+
+		private void update(){
+			total=weight + (left == null ? 0 : left.total) + (right == null ? 0 : right.total);
+		}
+	}
+	//************
+	private final Comparator<? super V> comparator;
+	private Node<V> root=null;
+	/**
+	 * State of the xorshift generator of the priorities.
+	 */
+	private int seed=0x2545F491;
+
+	/**
+	 * Constructs a new empty {@code RankIndex} ordered by the specified
+	 * {@code Comparator}, or by the natural ordering of the values if it is
+	 * {@code null}.
+	 *
+	 * @param comparator the comparator of the values
+	 */
+	RankIndex(Comparator<? super V> comparator){
+		this.comparator=comparator;
+	}
+
+	/**
+	 * Constructs a new {@code RankIndex} with the groups of keys of the
+	 * specified inverse map, ordered by its {@code Comparator}.
+	 *
+	 * @param map the inverse map
+	 */
+	RankIndex(NavigableMap<V, ? extends Set<?>> map){
+		this(map.comparator());
+		for(Entry<V, ? extends Set<?>> entry:map.entrySet()){
+			add(entry.getKey(), entry.getValue().size());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compare(V value1, V value2){
+		return comparator == null ? ((Comparable<? super V>)value1).compareTo(value2) : comparator.compare(value1, value2);
+	}
+
+	private int nextPriority(){
+		seed^=seed << 13;
+		seed^=seed >>> 17;
+		seed^=seed << 5;
+		return seed;
+	}
+
+	/**
+	 * Returns the number of keys in the index.
+	 *
+	 * @return the total weight of the index
+	 */
+	long total(){
+		return root == null ? 0 : root.total;
+	}
+
+	/**
+	 * Adds the specified number of keys to the group of the specified value,
+	 * or removes them if {@code count} is negative. The value is removed from
+	 * the index when its group becomes empty.
+	 *
+	 * @param value the value
+	 * @param count the number of keys that join the group of {@code value}
+	 */
+	void add(V value, int count){
+		if(count != 0){
+			root=add(root, value, count);
+		}
+	}
+
+	private Node<V> add(Node<V> node, V value, int count){
+		if(node == null){
+			return count > 0 ? new Node<>(value, count, nextPriority()) : null;
+		}
+		int cmp=compare(value, node.value);
+		if(cmp == 0){
+			node.weight+=count;
+			if(node.weight <= 0){
+				return merge(node.left, node.right);
+			}
+		}else if(cmp < 0){
+			node.left=add(node.left, value, count);
+			if(node.left != null && node.left.priority > node.priority){
+				Node<V> left=node.left;
+				node.left=left.right;
+				node.update();
+				left.right=node;
+				left.update();
+				return left;
+			}
+		}else{
+			node.right=add(node.right, value, count);
+			if(node.right != null && node.right.priority > node.priority){
+				Node<V> right=node.right;
+				node.right=right.left;
+				node.update();
+				right.left=node;
+				right.update();
+				return right;
+			}
+		}
+		node.update();
+		return node;
+	}
+
+	private Node<V> merge(Node<V> left, Node<V> right){
+		if(left == null){
+			return right;
+		}
+		if(right == null){
+			return left;
+		}
+		if(left.priority > right.priority){
+			left.right=merge(left.right, right);
+			left.update();
+			return left;
+		}else{
+			right.left=merge(left, right.left);
+			right.update();
+			return right;
+		}
+	}
+
+	/**
+	 * Returns the number of keys whose value is before the specified one,
+	 * including those with the same value if {@code inclusive} is
+	 * {@code true}.
+	 *
+	 * @param value the value
+	 * @param inclusive whether the keys with the same value are counted
+	 *
+	 * @return the number of keys before {@code value}
+	 */
+	long countBefore(V value, boolean inclusive){
+		long count=0;
+		Node<V> node=root;
+		while(node != null){
+			int cmp=compare(value, node.value);
+			if(cmp < 0){
+				node=node.left;
+			}else{
+				count+=node.left == null ? 0 : node.left.total;
+				if(cmp == 0){
+					return inclusive ? count + node.weight : count;
+				}
+				count+=node.weight;
+				node=node.right;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the value of the key in the specified position.
+	 *
+	 * @param position the position, between 0 (inclusive) and
+	 * {@link #total() total} (exclusive)
+	 *
+	 * @return the value whose group contains the key in {@code position}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code position} is out of range
+	 */
+	V select(long position){
+		if(position < 0 || position >= total()){
+			throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + total());
+		}
+		Node<V> node=root;
+		while(true){
+			long left=node.left == null ? 0 : node.left.total;
+			if(position < left){
+				node=node.left;
+			}else if(position < left + node.weight){
+				return node.value;
+			}else{
+				position-=left + node.weight;
+				node=node.right;
+			}
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * The first keys of a {@link SortedCounter} in order of value, along with
+ * their values, as returned by {@link SortedCounter#topN(int) topN} and
+ * {@link SortedCounter#bottomN(int) bottomN}. The keys and the values are
+ * kept in two arrays, so reading them neither iterates nor copies the sets
+ * of keys of the {@code Counter}, and the keys with the same value share the
+ * same instance of the value.
+ * <p>
+ * {@code RankedKeys} objects are immutable and independent of the
+ * {@code Counter} they were obtained from: they are a snapshot of the
+ * {@code Counter} at the time of the call. The keys with the same value are
+ * in no particular order.</p>
+ *
+ * @param <K> the class of the keys
+ * @param <V> the class of the values associated with the keys
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public final class RankedKeys<K, V extends Number> implements Serializable{
+
+	private static final long serialVersionUID=-6023914818451176305L;
+	//************
+	private final Object[] keys;
+	private final Object[] values;
+	private final int size;
+
+	RankedKeys(Object[] keys, Object[] values, int size){
+		this.keys=keys;
+		this.values=values;
+		this.size=size;
+	}
+
+	/**
+	 * Checks the number of keys requested to a {@code SortedCounter}.
+	 *
+	 * @param n the number of keys
+	 *
+	 * @throws IllegalArgumentException if {@code n} is negative
+	 */
+	static void checkN(int n){
+		if(n < 0){
+			throw new IllegalArgumentException("The number of keys cannot be negative");
+		}
+	}
+
+	/**
+	 * Collects the first {@code n} keys of the groups of keys returned by the
+	 * specified iterator, each group with the value shared by its keys.
+	 *
+	 * @param groups an iterator over the values and the keys associated with
+	 * them, in the desired order
+	 * @param n the maximum number of keys to be collected
+	 * @param size an upper bound of the number of keys returned by
+	 * {@code groups}, to avoid allocating more than necessary
+	 *
+	 * @return the {@code RankedKeys}
+	 */
+	static <K, V extends Number> RankedKeys<K, V> collect(Iterator<? extends Entry<V, ? extends Collection<K>>> groups, int n, int size){
+		checkN(n);
+		int length=Math.min(n, size);
+		Object[] keys=new Object[length];
+		Object[] values=new Object[length];
+		int i=0;
+		while(i < length && groups.hasNext()){
+			Entry<V, ? extends Collection<K>> group=groups.next();
+			V value=group.getKey();
+			for(Iterator<K> iter=group.getValue().iterator(); i < length && iter.hasNext();){
+				keys[i]=iter.next();
+				values[i++]=value;
+			}
+		}
+		return new RankedKeys<>(keys, values, i);
+	}
+
+	/**
+	 * Returns the number of keys.
+	 *
+	 * @return the number of keys
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Returns {@code true} if there are no keys.
+	 *
+	 * @return {@code true} if there are no keys
+	 */
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/**
+	 * Returns the key in the specified position.
+	 *
+	 * @param rank the position of the key, starting at 0
+	 *
+	 * @return the key in the position {@code rank}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than {@link #size() size}
+	 */
+	@SuppressWarnings("unchecked")
+	public K key(int rank){
+		checkRank(rank);
+		return (K)keys[rank];
+	}
+
+	/**
+	 * Returns the value associated with the key in the specified position.
+	 *
+	 * @param rank the position of the key, starting at 0
+	 *
+	 * @return the value of the key in the position {@code rank}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than {@link #size() size}
+	 */
+	@SuppressWarnings("unchecked")
+	public V value(int rank){
+		checkRank(rank);
+		return (V)values[rank];
+	}
+
+	/**
+	 * Returns the value associated with the key in the specified position as
+	 * a {@code long}.
+	 *
+	 * @param rank the position of the key, starting at 0
+	 *
+	 * @return the value of the key in the position {@code rank}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than {@link #size() size}
+	 */
+	public long longValue(int rank){
+		return value(rank).longValue();
+	}
+
+	/**
+	 * Returns the value associated with the key in the specified position as
+	 * a {@code double}.
+	 *
+	 * @param rank the position of the key, starting at 0
+	 *
+	 * @return the value of the key in the position {@code rank}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than {@link #size() size}
+	 */
+	public double doubleValue(int rank){
+		return value(rank).doubleValue();
+	}
+
+	/**
+	 * Returns the values as an array of {@code long}.
+	 *
+	 * @return the values, in the same order as the keys
+	 */
+	public long[] longValues(){
+		long[] ret=new long[size];
+		for(int i=0; i < size; i++){
+			ret[i]=((Number)values[i]).longValue();
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the values as an array of {@code double}.
+	 *
+	 * @return the values, in the same order as the keys
+	 */
+	public double[] doubleValues(){
+		double[] ret=new double[size];
+		for(int i=0; i < size; i++){
+			ret[i]=((Number)values[i]).doubleValue();
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns an unmodifiable list with the keys, backed by this
+	 * {@code RankedKeys}.
+	 *
+	 * @return the keys
+	 */
+	public List<K> keys(){
+		return new AbstractList<K>(){
+			@Override
+			public K get(int index){
+				return key(index);
+			}
+
+			@Override
+			public int size(){
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Returns an unmodifiable list with the values, backed by this
+	 * {@code RankedKeys}.
+	 *
+	 * @return the values, in the same order as the keys
+	 */
+	public List<V> values(){
+		return new AbstractList<V>(){
+			@Override
+			public V get(int index){
+				return value(index);
+			}
+
+			@Override
+			public int size(){
+				return size;
+			}
+		};
+	}
+
+	private void checkRank(int rank){
+		if(rank < 0 || rank >= size){
+			throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj){
+		if(!(obj instanceof RankedKeys)){
+			return false;
+		}
+		RankedKeys<?, ?> other=(RankedKeys<?, ?>)obj;
+		if(size != other.size){
+			return false;
+		}
+		for(int i=0; i < size; i++){
+			if(!(keys[i] == null ? other.keys[i] == null : keys[i].equals(other.keys[i])) || !values[i].equals(other.values[i])){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode(){
+		int hash=7;
+		for(int i=0; i < size; i++){
+			hash=31 * hash + (keys[i] == null ? 0 : keys[i].hashCode());
+			hash=31 * hash + values[i].hashCode();
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString(){
+		StringBuilder str=new StringBuilder("[");
+		for(int i=0; i < size; i++){
+			if(i > 0){
+				str.append(", ");
+			}
+			str.append(keys[i]).append('=').append(values[i]);
+		}
+		return str.append(']').toString();
+	}
+}
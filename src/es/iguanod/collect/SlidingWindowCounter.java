@@ -0,0 +1,512 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.HashCounter.HashCounterBuilder;
+import es.iguanod.collect.TreeCounter.TreeCounterBuilder;
+import es.iguanod.util.Adder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.Clock;
+import es.iguanod.util.tuples.Tuple2;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code SortedCounter} that only takes into account the values summed or
+ * deducted within a sliding window of time: the value associated with a key
+ * is the total of the values summed to it during the last
+ * {@link #window() window} milliseconds, and a key is removed when all of its
+ * modifications are older than the window.
+ * <p>
+ * The window is divided in a fixed number of buckets, kept in a ring, each of
+ * them a {@link HashCounter} with the modifications done during a slice of
+ * the window, along with a {@link TreeCounter} with the totals. When a bucket
+ * expires, its values are deducted from the totals and it is reused for the
+ * new slice; so expiring the old values costs time proportional to the
+ * number of modifications expired, and is spread over the operations instead
+ * of requiring a sweep of the whole {@code Counter}. The values expire with
+ * the granularity of a bucket, so the effective window is between
+ * {@code window - window / buckets} and {@code window} milliseconds long.</p>
+ * <p>
+ * The time is read from a {@link es.iguanod.util.Clock Clock}, the system
+ * clock by default, and the expired buckets are discarded at the beginning of
+ * every operation. Since a value can only be associated with the moment it
+ * was summed, {@code put} throws {@code UnsupportedOperationException}, and
+ * {@code sumToAll} and {@code deductToAll} sum to each key in the current
+ * bucket. The views and the {@code Counters} returned by
+ * {@code headCounter}, {@code tailCounter} and {@code subCounter} are
+ * unmodifiable and do not discard the expired buckets by themselves; keys can
+ * be removed only through {@link #remove(Object) remove} and
+ * {@link #clear() clear}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ * @param <V> the class of the values associated with the keys
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class SlidingWindowCounter<K, V extends Number> extends AbstractSortedCounter<K, V>{
+
+	private static final long serialVersionUID=-8255062207438617230L;
+
+	/**
+	 * Builder used to construct objects of the
+	 * {@link es.iguanod.collect.SlidingWindowCounter} class. The caster of the
+	 * values, the length of the window and the number of buckets in which it
+	 * is divided must be provided; a {@link es.iguanod.util.Clock Clock}, a
+	 * {@code Comparator} and an {@code Adder} for the values can be provided
+	 * too.
+	 * <p>
+	 * All the methods of the {@code SlidingWindowCounterBuilder} (except for
+	 * the {@link #build build} method) return {@code this}, so calls can be
+	 * chained.</p>
+	 *
+	 * @param <K> the class of the keys stored in the {@code Counter} with
+	 * their respective values
+	 * @param <V> the class of the values associated with the keys
+	 *
+	 * @author <a href="mailto:rubiof.david@gmail.com">David Rubio
+	 * Fernández</a>
+	 * @since 1.0.1
+	 * @version 1.0.1
+	 */
+	public static class SlidingWindowCounterBuilder<K, V extends Number> implements Serializable{
+
+		private static final long serialVersionUID=5521839617604412287L;
+		//************
+		private final Caster<BigDecimal, V> caster;
+		private final long bucket_length;
+		private final int buckets;
+		private Clock clock=Clock.SYSTEM;
+		private Comparator<? super V> comparator=null;
+		private Adder<V> adder=null;
+
+		/**
+		 * Constructs a {@code SlidingWindowCounterBuilder} with the specified
+		 * caster and window.
+		 *
+		 * @param caster the caster of the values
+		 * @param window the length of the window
+		 * @param unit the unit of {@code window}
+		 * @param buckets the number of buckets in which the window is divided
+		 *
+		 * @throws IllegalArgumentException if {@code buckets} is
+		 * non-possitive or the window is shorter than a millisecond per bucket
+		 */
+		public SlidingWindowCounterBuilder(Caster<BigDecimal, V> caster, long window, TimeUnit unit, int buckets){
+			if(buckets <= 0){
+				throw new IllegalArgumentException("The number of buckets must be possitive");
+			}
+			long millis=unit.toMillis(window);
+			if(millis < buckets){
+				throw new IllegalArgumentException("The window must be at least a millisecond long per bucket");
+			}
+			this.caster=caster;
+			this.bucket_length=millis / buckets;
+			this.buckets=buckets;
+		}
+
+		/**
+		 * Sets the {@code Clock} from which the time is read.
+		 *
+		 * @param clock the {@code Clock}
+		 *
+		 * @return this {@code SlidingWindowCounterBuilder}
+		 *
+		 * @throws NullPointerException if {@code clock} is {@code null}
+		 */
+		public SlidingWindowCounterBuilder<K, V> setClock(Clock clock){
+			if(clock == null){
+				throw new NullPointerException("The clock cannot be null");
+			}
+			this.clock=clock;
+			return this;
+		}
+
+		public SlidingWindowCounterBuilder<K, V> setComparator(Comparator<? super V> comparator){
+			this.comparator=comparator;
+			return this;
+		}
+
+		public SlidingWindowCounterBuilder<K, V> setAdder(Adder<V> adder){
+			this.adder=adder;
+			return this;
+		}
+
+		/**
+		 * Construct a new {@code SlidingWindowCounter} with the attributes
+		 * specified by the calls to this {@code SlidingWindowCounterBuilder}
+		 * methods.
+		 *
+		 * @return the {@code SlidingWindowCounter}
+		 */
+		public SlidingWindowCounter<K, V> build(){
+			return new SlidingWindowCounter<>(this);
+		}
+	}
+	//************
+	private final long bucket_length;
+	private final Clock clock;
+	/**
+	 * Ring of buckets; the bucket of the slice {@code i} is the one at
+	 * {@code i % buckets.size()}.
+	 */
+	private final ArrayList<HashCounter<K, V>> buckets;
+	/**
+	 * The totals of the values of the live buckets.
+	 */
+	private final TreeCounter<K, V> total;
+	/**
+	 * Number of live buckets in which each key is present.
+	 */
+	private final HashMap<K, Integer> presence;
+	/**
+	 * The slice of the current bucket.
+	 */
+	private long current;
+
+	protected SlidingWindowCounter(SlidingWindowCounterBuilder<K, V> builder){
+		super(builder.caster, builder.comparator, builder.adder);
+		bucket_length=builder.bucket_length;
+		clock=builder.clock;
+		buckets=new ArrayList<>(builder.buckets);
+		for(int i=0; i < builder.buckets; i++){
+			buckets.add(new HashCounterBuilder<K, V>(builder.caster).setComparator(builder.comparator).setAdder(adder).build());
+		}
+		total=new TreeCounterBuilder<K, V>(builder.caster).setComparator(builder.comparator).setAdder(adder).build();
+		presence=new HashMap<>();
+		current=clock.now() / bucket_length;
+	}
+
+	/**
+	 * Returns the length of the window of this {@code Counter} in
+	 * milliseconds, that is, the length of a bucket times the number of
+	 * buckets.
+	 *
+	 * @return the length of the window in milliseconds
+	 */
+	public long window(){
+		return bucket_length * buckets.size();
+	}
+
+	/**
+	 * Discards the buckets that have expired since the last operation.
+	 */
+	private void advance(){
+		long now=clock.now() / bucket_length;
+		if(now <= current){
+			return;
+		}
+		long expired=Math.min(now - current, buckets.size());
+		for(long i=1; i <= expired; i++){
+			expire(buckets.get((int)((current + i) % buckets.size())));
+		}
+		current=now;
+	}
+
+	/**
+	 * Deducts the values of the specified bucket from the totals and clears
+	 * it.
+	 *
+	 * @param bucket the bucket to be expired
+	 */
+	private void expire(HashCounter<K, V> bucket){
+		if(bucket.isEmpty()){
+			return;
+		}
+		total.beginBatch();
+		for(Entry<K, V> entry:bucket.entrySet()){
+			K key=entry.getKey();
+			int count=presence.get(key) - 1;
+			if(count == 0){
+				presence.remove(key);
+				total.remove(key);
+			}else{
+				presence.put(key, count);
+				total.deduct(key, entry.getValue());
+			}
+		}
+		total.commit();
+		bucket.clear();
+	}
+
+	/**
+	 * Returns the bucket of the current slice, after discarding the expired
+	 * ones.
+	 *
+	 * @return the current bucket
+	 */
+	private HashCounter<K, V> bucket(){
+		advance();
+		return buckets.get((int)(current % buckets.size()));
+	}
+
+	/**
+	 * Registers the specified key as present in the specified bucket, if it
+	 * was not already.
+	 *
+	 * @param bucket the bucket
+	 * @param key the key
+	 */
+	private void register(HashCounter<K, V> bucket, K key){
+		if(!bucket.containsKey(key)){
+			Integer count=presence.get(key);
+			presence.put(key, count == null ? 1 : count + 1);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The value expires when the current bucket does.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<V, V> sum(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		HashCounter<K, V> bucket=bucket();
+		register(bucket, key);
+		bucket.sum(key, value);
+		return total.sum(key, value);
+	}
+
+	/**
+	 * {@inheritDoc} The value expires when the current bucket does.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public Tuple2<V, V> deduct(K key, V value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+
+		HashCounter<K, V> bucket=bucket();
+		register(bucket, key);
+		bucket.deduct(key, value);
+		return total.deduct(key, value);
+	}
+
+	/**
+	 * {@inheritDoc} The value is summed to each key in the current bucket.
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void sumToAll(V value){
+		advance();
+		for(K key:new ArrayList<>(total.keySet())){
+			sum(key, value);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The value is deducted to each key in the current bucket.
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(V value){
+		advance();
+		for(K key:new ArrayList<>(total.keySet())){
+			deduct(key, value);
+		}
+	}
+
+	/**
+	 * Unsupported operation, since the values of a
+	 * {@code SlidingWindowCounter} are made of the modifications done within
+	 * the window.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public V put(K key, V value){
+		throw new UnsupportedOperationException("SlidingWindowCounters values cannot be put");
+	}
+
+	@Override
+	public int size(){
+		advance();
+		return total.size();
+	}
+
+	@Override
+	public boolean isEmpty(){
+		advance();
+		return total.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key){
+		advance();
+		return total.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value){
+		advance();
+		return total.containsValue(value);
+	}
+
+	@Override
+	public V get(Object key){
+		advance();
+		return total.get(key);
+	}
+
+	@Override
+	public V remove(Object key){
+		advance();
+		if(presence.remove(key) == null){
+			return null;
+		}
+		for(HashCounter<K, V> bucket:buckets){
+			bucket.remove(key);
+		}
+		return total.remove(key);
+	}
+
+	@Override
+	public void clear(){
+		for(HashCounter<K, V> bucket:buckets){
+			bucket.clear();
+		}
+		total.clear();
+		presence.clear();
+		current=clock.now() / bucket_length;
+	}
+
+	@Override
+	public V maxValue(){
+		advance();
+		return total.maxValue();
+	}
+
+	@Override
+	public V minValue(){
+		advance();
+		return total.minValue();
+	}
+
+	@Override
+	public RankedKeys<K, V> topN(int n){
+		advance();
+		return total.topN(n);
+	}
+
+	@Override
+	public RankedKeys<K, V> bottomN(int n){
+		advance();
+		return total.bottomN(n);
+	}
+
+	@Override
+	public int rankOf(Object key){
+		advance();
+		return total.rankOf(key);
+	}
+
+	@Override
+	public K keyAtRank(int rank){
+		advance();
+		return total.keyAtRank(rank);
+	}
+
+	@Override
+	public V valueAtPercentile(double percentile){
+		advance();
+		return total.valueAtPercentile(percentile);
+	}
+
+	@Override
+	public Set<K> keySet(){
+		advance();
+		return Collections.unmodifiableSet(total.keySet());
+	}
+
+	@Override
+	public Set<K> keySet(V value){
+		advance();
+		return Collections.unmodifiableSet(total.keySet(value));
+	}
+
+	@Override
+	public Collection<V> values(){
+		advance();
+		return Collections.unmodifiableCollection(total.values());
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet(){
+		advance();
+		return Collections.unmodifiableMap(total).entrySet();
+	}
+
+	@Override
+	public Set<Entry<V, Set<K>>> inverseEntrySet(){
+		advance();
+		return Collections.unmodifiableSet(total.inverseEntrySet());
+	}
+
+	@Override
+	public SortedCounter<K, V> tailCounter(V from_value, boolean inclusive){
+		advance();
+		return CollectionsIg.unmodifiableSortedCounter(total.tailCounter(from_value, inclusive));
+	}
+
+	@Override
+	public SortedCounter<K, V> headCounter(V to_value, boolean inclusive){
+		advance();
+		return CollectionsIg.unmodifiableSortedCounter(total.headCounter(to_value, inclusive));
+	}
+
+	@Override
+	public SortedCounter<K, V> subCounter(V from_value, boolean from_inclusive, V to_value, boolean to_inclusive){
+		advance();
+		return CollectionsIg.unmodifiableSortedCounter(total.subCounter(from_value, from_inclusive, to_value, to_inclusive));
+	}
+}
@@ -56,6 +56,90 @@ public interface SortedCounter<K, V extends Number> extends Counter<K, V>{
 
 	public Set<K> minKeySet();
 
+	/**
+	 * Returns the {@code n} keys with the highest values of this
+	 * {@code SortedCounter} (or all of them, if there are fewer), in
+	 * descending order of value, along with their values. If several keys
+	 * share the value of the last position, which of them are returned is
+	 * unspecified.
+	 * <p>
+	 * Contrary to iterating {@link #inverseEntrySet() inverseEntrySet}, this
+	 * method only visits the returned keys and does not create any view of
+	 * the {@code Counter}.</p>
+	 *
+	 * @param n the maximum number of keys to be returned
+	 *
+	 * @return the {@code n} keys with the highest values
+	 *
+	 * @throws IllegalArgumentException if {@code n} is negative
+	 */
+	public RankedKeys<K, V> topN(int n);
+
+	/**
+	 * Returns the {@code n} keys with the lowest values of this
+	 * {@code SortedCounter} (or all of them, if there are fewer), in
+	 * ascending order of value, along with their values. If several keys
+	 * share the value of the last position, which of them are returned is
+	 * unspecified.
+	 * <p>
+	 * Contrary to iterating {@link #inverseEntrySet() inverseEntrySet}, this
+	 * method only visits the returned keys and does not create any view of
+	 * the {@code Counter}.</p>
+	 *
+	 * @param n the maximum number of keys to be returned
+	 *
+	 * @return the {@code n} keys with the lowest values
+	 *
+	 * @throws IllegalArgumentException if {@code n} is negative
+	 */
+	public RankedKeys<K, V> bottomN(int n);
+
+	/**
+	 * Returns the rank of the specified key in this {@code SortedCounter},
+	 * that is, the number of keys with a higher value; or {@code -1} if the
+	 * key is not present. The key with the highest value has rank 0, and
+	 * keys with the same value share the same rank.
+	 *
+	 * @param key the key whose rank is to be obtained
+	 *
+	 * @return the rank of {@code key}, or {@code -1}
+	 */
+	public int rankOf(Object key);
+
+	/**
+	 * Returns the key in the specified position of this
+	 * {@code SortedCounter} in descending order of value, that is, the key
+	 * that would be in that position of the {@link #topN(int) topN} of the
+	 * {@code Counter}. Keys with the same value are in no particular order,
+	 * so {@code keyAtRank(rankOf(key))} returns a key with the same value as
+	 * {@code key}, but not necessarily {@code key} itself.
+	 *
+	 * @param rank the position of the key, starting at 0
+	 *
+	 * @return the key in the position {@code rank}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code rank} is negative or not
+	 * lower than the size of the {@code Counter}
+	 */
+	public K keyAtRank(int rank);
+
+	/**
+	 * Returns the value at the specified percentile of the values of this
+	 * {@code SortedCounter} (counting each key once), using the nearest-rank
+	 * method: the lowest value such that at least {@code percentile} percent
+	 * of the keys have a value lower or equal than it.
+	 *
+	 * @param percentile the percentile, between 0 and 100 (both inclusive)
+	 *
+	 * @return the value at {@code percentile}
+	 *
+	 * @throws IllegalArgumentException if {@code percentile} is not between
+	 * 0 and 100
+	 * @throws java.util.NoSuchElementException if this
+	 * {@code SortedCounter} is empty
+	 */
+	public V valueAtPercentile(double percentile);
+
 	public Set<K> keySet(V value);
 
 	public Set<Entry<V, Set<K>>> inverseEntrySet();
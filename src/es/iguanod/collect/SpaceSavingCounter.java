@@ -0,0 +1,349 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.TreeCounter.TreeCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Bounded-memory {@code SortedCounter} that keeps track of the most frequent
+ * keys of a stream (the heavy hitters) using the Space-Saving algorithm. At
+ * most {@link #capacity() capacity} keys are kept: when a new key is summed
+ * and the {@code Counter} is full, the key with the lowest count is evicted
+ * and the new key takes its place, inheriting its count as overestimation
+ * error.
+ * <p>
+ * The value associated with a key is an upper bound of its real count, and
+ * {@link #guaranteedCount(Object) guaranteedCount} (the value minus the
+ * {@link #error(Object) error}) is a lower bound. Any key whose real count is
+ * greater than the total of the summed values divided by the capacity is
+ * guaranteed to be kept; and the real count of any key that is not kept is at
+ * most {@link #minValue() minValue}.</p>
+ * <p>
+ * Since values can only grow, {@code deduct}, {@code put} and the methods
+ * relying on them throw {@code UnsupportedOperationException}, and
+ * {@code sum} throws {@code IllegalArgumentException} if the value is
+ * negative. The views and the {@code Counters} returned by
+ * {@code headCounter}, {@code tailCounter} and {@code subCounter} are
+ * unmodifiable; keys can be removed only through
+ * {@link #remove(Object) remove} and {@link #clear() clear}.</p>
+ *
+ * @param <K> the class of the keys stored in the {@code Counter} with their
+ * respective values
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class SpaceSavingCounter<K> extends AbstractSortedCounter<K, Long>{
+
+	private static final long serialVersionUID=-4410698247367902917L;
+	private static final Caster<BigDecimal, Long> CASTER=new Caster<BigDecimal, Long>(){
+		private static final long serialVersionUID=6624938100167305522L;
+
+		@Override
+		public Long cast(BigDecimal t){
+			return t.longValue();
+		}
+	};
+	//************
+	private final int capacity;
+	/**
+	 * The estimated counts of the kept keys.
+	 */
+	private final TreeCounter<K, Long> counts;
+	/**
+	 * The overestimation error of the kept keys.
+	 */
+	private final HashMap<K, Long> errors;
+
+	/**
+	 * Constructs a new empty {@code SpaceSavingCounter} that keeps at most
+	 * {@code capacity} keys.
+	 *
+	 * @param capacity the maximum number of keys kept
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is non-possitive
+	 */
+	public SpaceSavingCounter(int capacity){
+		super(CASTER);
+		if(capacity <= 0){
+			throw new IllegalArgumentException("The capacity must be possitive");
+		}
+		this.capacity=capacity;
+		counts=new TreeCounterBuilder<K, Long>(CASTER).build();
+		errors=new HashMap<>();
+	}
+
+	/**
+	 * Returns the maximum number of keys kept by this {@code Counter}.
+	 *
+	 * @return the capacity of this {@code Counter}
+	 */
+	public int capacity(){
+		return capacity;
+	}
+
+	/**
+	 * Returns the maximum overestimation of the value associated with the
+	 * specified key, or {@code null} if the key is not kept by this
+	 * {@code Counter}.
+	 *
+	 * @param key the key whose error is to be obtained
+	 *
+	 * @return the error of the value associated with {@code key}, or
+	 * {@code null}
+	 */
+	public Long error(Object key){
+		return errors.get(key);
+	}
+
+	/**
+	 * Returns the value associated with the specified key minus its error,
+	 * that is, a lower bound of the real count of the key; or {@code null} if
+	 * the key is not kept by this {@code Counter}.
+	 *
+	 * @param key the key whose guaranteed count is to be obtained
+	 *
+	 * @return the guaranteed count of {@code key}, or {@code null}
+	 */
+	public Long guaranteedCount(Object key){
+		Long value=counts.get(key);
+		return value == null ? null : value - errors.get(key);
+	}
+
+	/**
+	 * Adds the specified value to the current value associated with the
+	 * specified key. If the key is not kept by this {@code Counter} and it is
+	 * full, the key with the lowest value is evicted and {@code key} replaces
+	 * it with its value plus {@code value}.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if the specified value is {@code null}
+	 * @throws IllegalArgumentException if the specified value is negative
+	 */
+	@Override
+	public Tuple2<Long, Long> sum(K key, Long value){
+		if(value == null){
+			throw new NullPointerException("Null values not allowed in Counters");
+		}
+		if(value < 0){
+			throw new IllegalArgumentException("SpaceSavingCounters only accept non-negative values");
+		}
+
+		if(counts.containsKey(key)){
+			return counts.sum(key, value);
+		}
+		if(counts.size() < capacity){
+			errors.put(key, 0L);
+			return counts.sum(key, value);
+		}
+
+		// The groups of keys of a TreeCounter give their first key in
+		// constant time, so an eviction costs a lookup in the tree
+		Long min=counts.minValue();
+		K evicted=counts.minKeySet().iterator().next();
+		counts.remove(evicted);
+		errors.remove(evicted);
+
+		Long newvalue=min + value;
+		counts.put(key, newvalue);
+		errors.put(key, min);
+		return new Tuple2<>(null, newvalue);
+	}
+
+	/**
+	 * Unsupported operation, since values kept by a
+	 * {@code SpaceSavingCounter} can only grow.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Tuple2<Long, Long> deduct(K key, Long value){
+		throw new UnsupportedOperationException("SpaceSavingCounters values cannot be deducted");
+	}
+
+	/**
+	 * Unsupported operation, since values kept by a
+	 * {@code SpaceSavingCounter} can only grow.
+	 *
+	 * @param key {@inheritDoc}
+	 * @param value {@inheritDoc}
+	 *
+	 * @return nothing
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Long put(K key, Long value){
+		throw new UnsupportedOperationException("SpaceSavingCounters values cannot be put");
+	}
+
+	/**
+	 * Unsupported operation, since the error bounds would no longer hold.
+	 *
+	 * @param value {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void sumToAll(Long value){
+		throw new UnsupportedOperationException("SpaceSavingCounters values cannot be summed to all the keys");
+	}
+
+	@Override
+	public int size(){
+		return counts.size();
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return counts.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key){
+		return counts.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value){
+		return counts.containsValue(value);
+	}
+
+	@Override
+	public Long get(Object key){
+		return counts.get(key);
+	}
+
+	@Override
+	public Long remove(Object key){
+		errors.remove(key);
+		return counts.remove(key);
+	}
+
+	@Override
+	public void clear(){
+		counts.clear();
+		errors.clear();
+	}
+
+	/**
+	 * Returns the highest value of this {@code SortedCounter}.
+	 *
+	 * @return the highest value of this {@code SortedCounter}
+	 */
+	@Override
+	public Long maxValue(){
+		return counts.maxValue();
+	}
+
+	/**
+	 * Returns the lowest value of this {@code SortedCounter}. If this
+	 * {@code Counter} is full, this is also the maximum count of any key that
+	 * is not kept.
+	 *
+	 * @return the lowest value of this {@code SortedCounter}
+	 */
+	@Override
+	public Long minValue(){
+		return counts.minValue();
+	}
+
+	@Override
+	public RankedKeys<K, Long> topN(int n){
+		return counts.topN(n);
+	}
+
+	@Override
+	public RankedKeys<K, Long> bottomN(int n){
+		return counts.bottomN(n);
+	}
+
+	@Override
+	public int rankOf(Object key){
+		return counts.rankOf(key);
+	}
+
+	@Override
+	public K keyAtRank(int rank){
+		return counts.keyAtRank(rank);
+	}
+
+	@Override
+	public Long valueAtPercentile(double percentile){
+		return counts.valueAtPercentile(percentile);
+	}
+
+	@Override
+	public Set<K> keySet(){
+		return Collections.unmodifiableSet(counts.keySet());
+	}
+
+	@Override
+	public Set<K> keySet(Long value){
+		return Collections.unmodifiableSet(counts.keySet(value));
+	}
+
+	@Override
+	public Collection<Long> values(){
+		return Collections.unmodifiableCollection(counts.values());
+	}
+
+	@Override
+	public Set<Entry<K, Long>> entrySet(){
+		return Collections.unmodifiableMap(counts).entrySet();
+	}
+
+	@Override
+	public Set<Entry<Long, Set<K>>> inverseEntrySet(){
+		return Collections.unmodifiableSet(counts.inverseEntrySet());
+	}
+
+	@Override
+	public SortedCounter<K, Long> tailCounter(Long from_value, boolean inclusive){
+		return CollectionsIg.unmodifiableSortedCounter(counts.tailCounter(from_value, inclusive));
+	}
+
+	@Override
+	public SortedCounter<K, Long> headCounter(Long to_value, boolean inclusive){
+		return CollectionsIg.unmodifiableSortedCounter(counts.headCounter(to_value, inclusive));
+	}
+
+	@Override
+	public SortedCounter<K, Long> subCounter(Long from_value, boolean from_inclusive, Long to_value, boolean to_inclusive){
+		return CollectionsIg.unmodifiableSortedCounter(counts.subCounter(from_value, from_inclusive, to_value, to_inclusive));
+	}
+}
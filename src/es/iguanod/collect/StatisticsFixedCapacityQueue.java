@@ -0,0 +1,497 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link es.iguanod.collect.FixedCapacityQueue} of {@code double} elements
+ * that maintains the statistics of the elements it holds (a moving window of
+ * the last {@link #capacity() capacity} inserted elements): their
+ * {@link #sum() sum}, {@link #mean() mean}, {@link #min() minimum},
+ * {@link #max() maximum} and {@link #variance() variance}. The statistics are
+ * updated in constant amortized time every time an element is inserted or
+ * removed, and retrieved in constant time.
+ * <p>
+ * The minimum and the maximum are kept with monotonic deques, and the mean
+ * and the variance with Welford's algorithm. To prevent the rounding errors
+ * of adding and subtracting elements from accumulating, the sum and the
+ * variance are recomputed from the elements every {@code capacity}
+ * insertions. Removing an element through the {@code Iterator} recomputes all
+ * the statistics, taking time linear in the size of the queue.</p>
+ * <p>
+ * This implementation doesn't accept {@code null} nor non-finite
+ * ({@code NaN} or infinite) elements, since subtracting an infinite element
+ * from the statistics when it leaves the window would turn them into
+ * {@code NaN}.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ *
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class StatisticsFixedCapacityQueue extends AbstractCollection<Double> implements FixedCapacityQueue<Double>, Serializable{
+
+	private static final long serialVersionUID=2468013576029184736L;
+
+	/**
+	 * Deque of the elements of the window that may still become its minimum
+	 * (or its maximum), stored with their sequence numbers. The values in the
+	 * deque are sorted, the first one being the minimum (or the maximum) of
+	 * the window.
+	 */
+	private static final class MonotonicDeque implements Serializable{
+
+		private static final long serialVersionUID=-8812340571126390187L;
+		//************
+		private final boolean max;
+		private final long[] sequences;
+		private final double[] values;
+		private int head=0;
+		private int size=0;
+
+		private MonotonicDeque(int capacity, boolean max){
+			this.max=max;
+			sequences=new long[capacity];
+			values=new double[capacity];
+		}
+
+		private int slot(int index){
+			int slot=head + index;
+			return slot >= values.length ? slot - values.length : slot;
+		}
+
+		private void add(long sequence, double value){
+			while(size > 0){
+				double last=values[slot(size - 1)];
+				if(max ? last > value : last < value){
+					break;
+				}
+				size--;
+			}
+			int slot=slot(size);
+			sequences[slot]=sequence;
+			values[slot]=value;
+			size++;
+		}
+
+		private void evict(long sequence){
+			if(size > 0 && sequences[head] == sequence){
+				head=slot(1);
+				size--;
+			}
+		}
+
+		private double first(){
+			return values[head];
+		}
+
+		private void clear(){
+			head=0;
+			size=0;
+		}
+	}
+	//************
+	private final DoubleFixedCapacityQueue queue;
+	private final MonotonicDeque min;
+	private final MonotonicDeque max;
+	/**
+	 * Sequence number of the next element to be inserted. The sequence number
+	 * of the oldest element is {@code next_sequence - size()}.
+	 */
+	private long next_sequence=0;
+	private double sum=0;
+	private double mean=0;
+	/**
+	 * Sum of the squared differences from the mean.
+	 */
+	private double squares=0;
+	/**
+	 * Insertions left until the sum and the variance are recomputed.
+	 */
+	private int until_refresh;
+
+	/**
+	 * Constructs a new {@code StatisticsFixedCapacityQueue} with the specified
+	 * maximum capacity.
+	 *
+	 * @param capacity the maximum capacity of the queue
+	 *
+	 * @throws IllegalArgumentException if {@code capacity} is non-possitive
+	 */
+	public StatisticsFixedCapacityQueue(int capacity){
+		queue=new DoubleFixedCapacityQueue(capacity);
+		min=new MonotonicDeque(capacity, false);
+		max=new MonotonicDeque(capacity, true);
+		until_refresh=capacity;
+	}
+
+	/**
+	 * Updates the statistics after inserting the specified element.
+	 */
+	private void added(double elem){
+		min.add(next_sequence, elem);
+		max.add(next_sequence, elem);
+		next_sequence++;
+		sum+=elem;
+		double delta=elem - mean;
+		mean+=delta / queue.size();
+		squares+=delta * (elem - mean);
+	}
+
+	/**
+	 * Updates the statistics after removing the oldest element, which was the
+	 * specified one.
+	 */
+	private void removed(double elem){
+		long sequence=next_sequence - queue.size() - 1;
+		min.evict(sequence);
+		max.evict(sequence);
+		if(queue.isEmpty()){
+			sum=0;
+			mean=0;
+			squares=0;
+		}else{
+			sum-=elem;
+			double delta=elem - mean;
+			mean-=delta / queue.size();
+			squares=Math.max(0, squares - delta * (elem - mean));
+		}
+	}
+
+	/**
+	 * Recomputes all the statistics from the elements in the queue.
+	 */
+	private void refresh(){
+		min.clear();
+		max.clear();
+		next_sequence-=queue.size();
+		sum=0;
+		mean=0;
+		squares=0;
+		int size=queue.size();
+		for(int i=0; i < size; i++){
+			double elem=queue.getDouble(i);
+			min.add(next_sequence, elem);
+			max.add(next_sequence, elem);
+			next_sequence++;
+			sum+=elem;
+			double delta=elem - mean;
+			mean+=delta / (i + 1);
+			squares+=delta * (elem - mean);
+		}
+		until_refresh=queue.capacity();
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full, and returns the removed element, or
+	 * {@code 0.0} (zero) if the queue wasn't full prior to this call.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return the removed element, or {@code 0.0}
+	 *
+	 * @throws IllegalArgumentException if {@code elem} is {@code NaN} or
+	 * infinite
+	 *
+	 * @see DoubleFixedCapacityQueue#pushDouble(double)
+	 */
+	public double pushDouble(double elem){
+		if(Double.isNaN(elem) || Double.isInfinite(elem)){
+			throw new IllegalArgumentException("Non-finite elements not allowed in StatisticsFixedCapacityQueues");
+		}
+		double oldest=0;
+		if(queue.isFull()){
+			oldest=queue.popDouble();
+			removed(oldest);
+		}
+		queue.pushDouble(elem);
+		added(elem);
+		if(--until_refresh == 0){
+			refresh();
+		}
+		return oldest;
+	}
+
+	/**
+	 * Retrieves and removes the oldest element of the queue.
+	 *
+	 * @return the oldest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double popDouble(){
+		double oldest=queue.popDouble();
+		removed(oldest);
+		return oldest;
+	}
+
+	/**
+	 * Retrieves without removing the oldest element of the queue.
+	 *
+	 * @return the oldest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double peekDouble(){
+		return queue.peekDouble();
+	}
+
+	/**
+	 * Returns the element in the specified position of the queue, the oldest
+	 * element being in the position 0.
+	 *
+	 * @param index the position of the element
+	 *
+	 * @return the element in the position {@code index}
+	 *
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not
+	 * lower than the size of the queue
+	 */
+	public double getDouble(int index){
+		return queue.getDouble(index);
+	}
+
+	/**
+	 * Returns the sum of the elements in the queue, or {@code 0.0} (zero) if
+	 * it is empty.
+	 *
+	 * @return the sum of the elements
+	 */
+	public double sum(){
+		return sum;
+	}
+
+	/**
+	 * Returns the arithmetic mean of the elements in the queue.
+	 *
+	 * @return the mean of the elements
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double mean(){
+		if(queue.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return mean;
+	}
+
+	/**
+	 * Returns the lowest element in the queue.
+	 *
+	 * @return the lowest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double min(){
+		if(queue.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return min.first();
+	}
+
+	/**
+	 * Returns the highest element in the queue.
+	 *
+	 * @return the highest element
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double max(){
+		if(queue.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return max.first();
+	}
+
+	/**
+	 * Returns the (population) variance of the elements in the queue.
+	 *
+	 * @return the variance of the elements
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double variance(){
+		if(queue.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return squares / queue.size();
+	}
+
+	/**
+	 * Returns the sample variance of the elements in the queue, that is, the
+	 * sum of the squared differences from the mean divided by the size of the
+	 * queue minus one; or {@code NaN} if the queue holds a single element.
+	 *
+	 * @return the sample variance of the elements
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double sampleVariance(){
+		if(queue.isEmpty()){
+			throw new NoSuchElementException();
+		}
+		return queue.size() == 1 ? Double.NaN : squares / (queue.size() - 1);
+	}
+
+	/**
+	 * Returns the (population) standard deviation of the elements in the
+	 * queue.
+	 *
+	 * @return the standard deviation of the elements
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public double standardDeviation(){
+		return Math.sqrt(variance());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @param elem {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws NullPointerException if {@code elem} is {@code null}
+	 * @throws IllegalArgumentException if {@code elem} is {@code NaN} or
+	 * infinite
+	 */
+	@Override
+	public Maybe<Double> push(Double elem){
+		if(elem == null){
+			throw new NullPointerException("Null elements not allowed in StatisticsFixedCapacityQueues");
+		}
+		boolean full=queue.isFull();
+		double oldest=pushDouble(elem);
+		return full ? Maybe.from(oldest) : Maybe.<Double>absent();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Maybe<Double> pop(){
+		return queue.isEmpty() ? Maybe.<Double>absent() : Maybe.from(popDouble());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Maybe<Double> peek(){
+		return queue.peek();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int capacity(){
+		return queue.capacity();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size(){
+		return queue.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isFull(){
+		return queue.isFull();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear(){
+		queue.clear();
+		refresh();
+	}
+
+	/**
+	 * Returns an {@link java.util.Iterator} over the elements in this
+	 * collection. The elements are returned started with the oldest one and
+	 * finishing with the newest one.
+	 * <p>
+	 * The {@code Iterator} supports the
+	 * {@link java.util.Iterator#remove() remove} operation, which takes time
+	 * linear in the number of elements in the queue.</p>
+	 *
+	 * @return the {@code Iterator}
+	 */
+	@Override
+	public Iterator<Double> iterator(){
+		return new Iterator<Double>(){
+			private final Iterator<Double> iter=queue.iterator();
+
+			@Override
+			public boolean hasNext(){
+				return iter.hasNext();
+			}
+
+			@Override
+			public Double next(){
+				return iter.next();
+			}
+
+			@Override
+			public void remove(){
+				iter.remove();
+				refresh();
+			}
+		};
+	}
+
+	/**
+	 * Inserts the specified element in the queue, removing the oldest element
+	 * in case the queue is full. This method behaves just as
+	 * {@link #push(Double) push(elem)} except it doesn't retrieve the
+	 * removed element (if any) and always returns true.
+	 *
+	 * @param elem the element to be inserted
+	 *
+	 * @return {@code true}
+	 *
+	 * @throws NullPointerException if {@code elem} is {@code null}
+	 * @throws IllegalArgumentException if {@code elem} is {@code NaN} or
+	 * infinite
+	 */
+	@Override
+	public boolean add(Double elem){
+		if(elem == null){
+			throw new NullPointerException("Null elements not allowed in StatisticsFixedCapacityQueues");
+		}
+		pushDouble(elem);
+		return true;
+	}
+}
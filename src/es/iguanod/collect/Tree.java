@@ -21,6 +21,7 @@ package es.iguanod.collect;
 
 import es.iguanod.util.Maybe;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 //TODO: al hacer la pasada final de todos los archivos, comprobar que todas las funciones hagan checkNode
@@ -206,6 +207,77 @@ public interface Tree<T>{
 
 	public Maybe<TreeNode> breedFirstSearch(TreeNode node, T value);
 
+	/**
+	 * Returns an {@code Iterator} over the nodes of the tree in pre-order
+	 * deep first order. Unlike
+	 * {@link #preOrderDeepFirstTraversal() preOrderDeepFirstTraversal}, the
+	 * nodes are visited lazily, as the {@code Iterator} advances, so stopping
+	 * the iteration early doesn't visit the rest of the tree.
+	 * <p>
+	 * The {@code Iterator} doesn't support the {@code remove} operation, and
+	 * its behaviour is undefined if the tree is structurally modified while
+	 * the iteration is in progress.</p>
+	 *
+	 * @return the {@code Iterator}
+	 */
+	public Iterator<TreeNode> preOrderDeepFirstIterator();
+
+	/**
+	 * Returns an {@code Iterator} over the nodes of the tree in post-order
+	 * deep first order, visited lazily.
+	 *
+	 * @return the {@code Iterator}
+	 *
+	 * @see #preOrderDeepFirstIterator()
+	 */
+	public Iterator<TreeNode> postOrderDeepFirstIterator();
+
+	/**
+	 * Returns an {@code Iterator} over the nodes of the tree in breed first
+	 * order, visited lazily.
+	 *
+	 * @return the {@code Iterator}
+	 *
+	 * @see #preOrderDeepFirstIterator()
+	 */
+	public Iterator<TreeNode> breedFirstIterator();
+
+	/**
+	 * Returns an {@code Iterator} over the nodes of the branch hanging from
+	 * the specified node in pre-order deep first order, visited lazily.
+	 *
+	 * @param node the root of the branch
+	 *
+	 * @return the {@code Iterator}
+	 *
+	 * @see #preOrderDeepFirstIterator()
+	 */
+	public Iterator<TreeNode> preOrderDeepFirstIterator(TreeNode node);
+
+	/**
+	 * Returns an {@code Iterator} over the nodes of the branch hanging from
+	 * the specified node in post-order deep first order, visited lazily.
+	 *
+	 * @param node the root of the branch
+	 *
+	 * @return the {@code Iterator}
+	 *
+	 * @see #preOrderDeepFirstIterator()
+	 */
+	public Iterator<TreeNode> postOrderDeepFirstIterator(TreeNode node);
+
+	/**
+	 * Returns an {@code Iterator} over the nodes of the branch hanging from
+	 * the specified node in breed first order, visited lazily.
+	 *
+	 * @param node the root of the branch
+	 *
+	 * @return the {@code Iterator}
+	 *
+	 * @see #preOrderDeepFirstIterator()
+	 */
+	public Iterator<TreeNode> breedFirstIterator(TreeNode node);
+
 	/**
 	 * Compares the specified object with this {@code Tree} for equality.
 	 * While the Tree interface adds no stipulations to the general contract
@@ -20,23 +20,27 @@
 package es.iguanod.collect;
 
 import es.iguanod.collect.HashCounter.HashCounterBuilder;
+import es.iguanod.util.Adder;
 import es.iguanod.util.Caster;
 import es.iguanod.util.tuples.Tuple2;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.AbstractCollection;
+import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 
 /**
@@ -52,6 +56,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	private HashCounter<K, V> lookup;
 	private NavigableMap<V, Set<K>> map;
 	private boolean reverse;
+	private Batch<K, V> batch;
 	//************
 	private Set<K> backed_keyset;
 	private Collection<V> backed_values;
@@ -63,8 +68,10 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		private static final long serialVersionUID=897813998949064952L;
 		private final Caster<BigDecimal, V> caster;
 		private Comparator<? super V> comparator=null;
+		private Adder<V> adder=null;
 		private Map<? extends K, ? extends V> initial_map=null;
 		private boolean reverse=false;
+		private boolean lazy=false;
 		private HashCounterBuilder<K, V> lookup_builder=null;
 
 		public TreeCounterBuilder(Caster<BigDecimal, V> caster){
@@ -76,11 +83,33 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			return this;
 		}
 
+		/**
+		 * Sets whether the index of the keys by value is maintained lazily.
+		 * If it is, modifying the value of a key costs about the same as in a
+		 * {@code HashCounter}, and the index is repaired (or rebuilt, if most
+		 * of the keys have been modified) the first time it is needed, as if
+		 * the {@code TreeCounter} was permanently in a
+		 * {@link TreeCounter#beginBatch() batch}.
+		 *
+		 * @param lazy {@code true} to maintain the index lazily
+		 *
+		 * @return this {@code TreeCounterBuilder}
+		 */
+		public TreeCounterBuilder<K, V> lazyIndex(boolean lazy){
+			this.lazy=lazy;
+			return this;
+		}
+
 		public TreeCounterBuilder<K, V> setComparator(Comparator<? super V> comparator){
 			this.comparator=comparator;
 			return this;
 		}
 
+		public TreeCounterBuilder<K, V> setAdder(Adder<V> adder){
+			this.adder=adder;
+			return this;
+		}
+
 		public TreeCounterBuilder<K, V> setInitialMappings(Map<? extends K, ? extends V> map){
 			this.initial_map=map;
 			return this;
@@ -96,6 +125,51 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		}
 	}
 
+	/**
+	 * State of the deferred updates of the inverse map, either because of a
+	 * batch in progress or because the index is lazy. It is shared between a
+	 * {@code TreeCounter} and its sub-counters.
+	 *
+	 * @param <K> the class of the keys
+	 * @param <V> the class of the values
+	 */
+	private static class Batch<K, V> implements Serializable{
+
+		private static final long serialVersionUID=-7158026993140723811L;
+		//************
+		/**
+		 * The whole inverse map, even if the deferred updates are applied
+		 * from a sub-counter.
+		 */
+		private final NavigableMap<V, Set<K>> root;
+		/**
+		 * Whether the inverse map is always updated lazily.
+		 */
+		private final boolean lazy;
+		/**
+		 * Whether there is a batch in progress.
+		 */
+		private boolean open=false;
+		/**
+		 * The keys modified since the last time the inverse map was updated,
+		 * mapped to the value they are indexed with in it ({@code null} if
+		 * they are not), or {@code null} if the updates are not deferred.
+		 */
+		private HashMap<K, V> pending;
+		/**
+		 * The order-statistic index of the whole inverse map, or
+		 * {@code null} if it has not been built yet or has been discarded
+		 * because the inverse map was rebuilt.
+		 */
+		private transient RankIndex<V> ranks;
+
+		private Batch(NavigableMap<V, Set<K>> root, boolean lazy){
+			this.root=root;
+			this.lazy=lazy;
+			this.pending=lazy ? new HashMap<K, V>() : null;
+		}
+	}
+
 	private static <K, V extends Number> Comparator<? super V> preprocessComparator(TreeCounterBuilder<K, V> builder){
 		if(builder.reverse){
 			builder.comparator=Collections.reverseOrder(builder.comparator);
@@ -104,43 +178,102 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	}
 
 	protected TreeCounter(TreeCounterBuilder<K, V> builder){
-		super(builder.caster, preprocessComparator(builder));
+		super(builder.caster, preprocessComparator(builder), builder.adder);
 		if(builder.lookup_builder == null){
-			lookup=new HashCounterBuilder<K, V>(this.caster).setComparator(this.comparator).setInitialMappings(builder.initial_map).build();
+			lookup=new HashCounterBuilder<K, V>(this.caster).setComparator(this.comparator).setAdder(this.adder).setInitialMappings(builder.initial_map).build();
 		}else{
+			if(builder.adder != null){
+				builder.lookup_builder.setAdder(builder.adder);
+			}
 			lookup=builder.lookup_builder.setComparator(this.comparator).setInitialMappings(builder.initial_map).build();
 		}
 		this.reverse=builder.reverse;
 		map=new TreeMap<>(this.comparator);
+		this.batch=new Batch<>(map, builder.lazy);
 		if(builder.initial_map != null){
 			for(Entry<? extends K, ? extends V> entry:builder.initial_map.entrySet()){
-				addToMap(entry.getKey(), entry.getValue());
+				updateMap(entry.getKey(), null, entry.getValue());
 			}
 		}
 	}
 
 	private TreeCounter(TreeCounter<K, V> counter, NavigableMap<V, Set<K>> map){
-		super(counter.caster, counter.comparator);
+		super(counter.caster, counter.comparator, counter.adder);
 		this.lookup=counter.lookup;
 		this.reverse=counter.reverse;
+		this.batch=counter.batch;
 		this.map=map;
 	}
 
 	private TreeCounter(TreeCounter<K, V> counter){
-		super(counter.caster, counter.comparator);
+		super(counter.caster, counter.comparator, counter.adder);
 		this.lookup=counter.lookup;
 		this.reverse=counter.reverse;
+		this.batch=counter.batch;
 		this.map=counter.map;
 	}
 
+	/**
+	 * Updates the rank index, if it has been built, after some keys have
+	 * joined (or left, if {@code count} is negative) the group of the
+	 * specified value in the inverse map.
+	 *
+	 * @param value the value
+	 * @param count the number of keys that have joined its group
+	 */
+	private void rankChanged(V value, int count){
+		if(batch.ranks != null){
+			batch.ranks.add(value, count);
+		}
+	}
+
+	/**
+	 * Returns the rank index of the whole inverse map, applying the pending
+	 * modifications first and building the index if necessary.
+	 *
+	 * @return the rank index
+	 */
+	private RankIndex<V> ranks(){
+		flushBatch();
+		if(batch.ranks == null){
+			batch.ranks=new RankIndex<>(batch.root);
+		}
+		return batch.ranks;
+	}
+
+	/**
+	 * Returns the position, in the rank index, of the first key of this
+	 * {@code Counter} (in the order of the inverse map).
+	 *
+	 * @param ranks the rank index
+	 *
+	 * @return the position of the first key
+	 */
+	long firstPosition(RankIndex<V> ranks){
+		return 0;
+	}
+
+	/**
+	 * Returns the position, in the rank index, following the last key of this
+	 * {@code Counter} (in the order of the inverse map).
+	 *
+	 * @param ranks the rank index
+	 *
+	 * @return the position after the last key
+	 */
+	long endPosition(RankIndex<V> ranks){
+		return ranks.total();
+	}
+
 	private void addToMap(final K key, V value){
 		if(value == null){
 			return;
 		}
+		rankChanged(value, 1);
 		if(map.containsKey(value)){
 			map.get(value).add(key);
 		}else{
-			Set<K> set=new HashSet<>();
+			Set<K> set=new IndexedHashSet<>();
 			set.add(key);
 			map.put(value, set);
 		}
@@ -156,6 +289,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		}else{
 			oldset.remove(key);
 		}
+		rankChanged(value, -1);
 	}
 
 	private void changeMap(K key, V oldvalue, V newvalue){
@@ -165,28 +299,422 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		}
 	}
 
+	/**
+	 * Updates the inverse map after the value of a key has changed from
+	 * {@code oldvalue} to {@code newvalue}, or defers the update until the
+	 * batch in progress is committed.
+	 *
+	 * @param key the key
+	 * @param oldvalue the old value, or {@code null} if the key was not
+	 * present
+	 * @param newvalue the new value, or {@code null} if the key has been
+	 * removed
+	 */
+	private void updateMap(K key, V oldvalue, V newvalue){
+		HashMap<K, V> pending=batch.pending;
+		if(pending == null){
+			changeMap(key, oldvalue, newvalue);
+		}else if(!pending.containsKey(key)){
+			pending.put(key, oldvalue);
+		}
+	}
+
+	/**
+	 * Applies to the inverse map the modifications of the batch in progress,
+	 * without ending it. The modified keys are grouped by their old and new
+	 * values, so each affected value is looked up in the tree only once no
+	 * matter how many keys leave or join it.
+	 */
+	private void flushBatch(){
+		HashMap<K, V> pending=batch.pending;
+		if(pending == null || pending.isEmpty()){
+			return;
+		}
+		NavigableMap<V, Set<K>> map=batch.root;
+		if(pending.size() > lookup.size() / 2){
+			pending.clear();
+			rebuildMap();
+			return;
+		}
+
+		HashMap<V, List<K>> removed=new HashMap<>();
+		HashMap<V, List<K>> added=new HashMap<>();
+		for(Entry<K, V> entry:pending.entrySet()){
+			K key=entry.getKey();
+			V oldvalue=entry.getValue();
+			V newvalue=lookup.get(key);
+			if(equals(oldvalue, newvalue)){
+				continue;
+			}
+			if(oldvalue != null){
+				List<K> keys=removed.get(oldvalue);
+				if(keys == null){
+					keys=new ArrayList<>();
+					removed.put(oldvalue, keys);
+				}
+				keys.add(key);
+			}
+			if(newvalue != null){
+				List<K> keys=added.get(newvalue);
+				if(keys == null){
+					keys=new ArrayList<>();
+					added.put(newvalue, keys);
+				}
+				keys.add(key);
+			}
+		}
+		pending.clear();
+
+		for(Entry<V, List<K>> entry:removed.entrySet()){
+			Set<K> set=map.get(entry.getKey());
+			for(K key:entry.getValue()){
+				set.remove(key);
+			}
+			if(set.isEmpty()){
+				map.remove(entry.getKey());
+			}
+			rankChanged(entry.getKey(), -entry.getValue().size());
+		}
+		for(Entry<V, List<K>> entry:added.entrySet()){
+			Set<K> set=map.get(entry.getKey());
+			if(set == null){
+				map.put(entry.getKey(), new IndexedHashSet<>(entry.getValue()));
+			}else{
+				set.addAll(entry.getValue());
+			}
+			rankChanged(entry.getKey(), entry.getValue().size());
+		}
+	}
+
+	/**
+	 * Rebuilds the whole inverse map from the lookup, grouping the keys by
+	 * value before inserting them in the tree.
+	 */
+	private void rebuildMap(){
+		NavigableMap<V, Set<K>> map=batch.root;
+		batch.ranks=null;
+		HashMap<V, Set<K>> groups=new HashMap<>();
+		for(Entry<K, V> entry:lookup.entrySet()){
+			Set<K> set=groups.get(entry.getValue());
+			if(set == null){
+				set=new IndexedHashSet<>();
+				groups.put(entry.getValue(), set);
+			}
+			set.add(entry.getKey());
+		}
+		map.clear();
+		for(Entry<V, Set<K>> entry:groups.entrySet()){
+			Set<K> set=map.get(entry.getKey());
+			if(set == null){
+				map.put(entry.getKey(), entry.getValue());
+			}else{
+				set.addAll(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Begins a batch of modifications. While the batch is in progress,
+	 * {@code sum}, {@code deduct}, {@code put} and {@code remove} (and the
+	 * methods relying on them) only update the value of the keys, and the
+	 * structure that keeps the keys sorted by value is updated once per
+	 * modified key when the batch is {@link #commit() committed}, instead of
+	 * once per modification. This makes bulk loads of many increments to the
+	 * same keys much cheaper.
+	 * <p>
+	 * The methods that do not depend on the order of the values
+	 * ({@code get}, {@code containsKey}, {@code size}...) are not affected by
+	 * the batch. The methods that do ({@code maxValue}, {@code minValue},
+	 * the views and the sub-counters) apply the pending modifications before
+	 * proceeding, without ending the batch.</p>
+	 *
+	 * @throws IllegalStateException if there is already a batch in progress
+	 */
+	public void beginBatch(){
+		if(batch.open){
+			throw new IllegalStateException("There is already a batch in progress");
+		}
+		batch.open=true;
+		if(batch.pending == null){
+			batch.pending=new HashMap<>();
+		}
+	}
+
+	/**
+	 * Applies the modifications of the batch in progress and ends it.
+	 *
+	 * @throws IllegalStateException if there is no batch in progress
+	 */
+	public void commit(){
+		if(!batch.open){
+			throw new IllegalStateException("There is no batch in progress");
+		}
+		flushBatch();
+		batch.open=false;
+		if(!batch.lazy){
+			batch.pending=null;
+		}
+	}
+
+	/**
+	 * Returns whether there is a batch of modifications in progress.
+	 *
+	 * @return {@code true} if there is a batch in progress
+	 *
+	 * @see #beginBatch()
+	 */
+	public boolean isBatching(){
+		return batch.open;
+	}
+
 	@Override
 	public Tuple2<V, V> sum(K key, V value){
 		Tuple2<V, V> ret=lookup.sum(key, value);
-		changeMap(key, ret.getFirst(), ret.getSecond());
+		updateMap(key, ret.getFirst(), ret.getSecond());
 		return ret;
 	}
 
 	@Override
 	public Tuple2<V, V> deduct(K key, V value){
 		Tuple2<V, V> ret=lookup.deduct(key, value);
-		changeMap(key, ret.getFirst(), ret.getSecond());
+		updateMap(key, ret.getFirst(), ret.getSecond());
 		return ret;
 	}
 
+	/**
+	 * {@inheritDoc} If there is no batch in progress, the modifications are
+	 * done in a batch of their own.
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(Collection<? extends K> keys){
+		if(batch.pending != null){
+			super.sumAll(keys);
+			return;
+		}
+		beginBatch();
+		try{
+			super.sumAll(keys);
+		}finally{
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If there is no batch in progress, the modifications are
+	 * done in a batch of their own.
+	 *
+	 * @param keys {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(K[] keys){
+		if(batch.pending != null){
+			super.sumAll(keys);
+			return;
+		}
+		beginBatch();
+		try{
+			super.sumAll(keys);
+		}finally{
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If there is no batch in progress, the modifications are
+	 * done in a batch of their own.
+	 *
+	 * @param map {@inheritDoc}
+	 */
+	@Override
+	public void sumAll(Map<? extends K, ? extends V> map){
+		if(batch.pending != null){
+			super.sumAll(map);
+			return;
+		}
+		beginBatch();
+		try{
+			super.sumAll(map);
+		}finally{
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If there is no batch in progress, the modifications are
+	 * done in a batch of their own.
+	 *
+	 * @param map {@inheritDoc}
+	 */
+	@Override
+	public void deductAll(Map<? extends K, ? extends V> map){
+		if(batch.pending != null){
+			super.deductAll(map);
+			return;
+		}
+		beginBatch();
+		try{
+			super.deductAll(map);
+		}finally{
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc} If there is no batch in progress, the modifications are
+	 * done in a batch of their own.
+	 *
+	 * @param map {@inheritDoc}
+	 */
+	@Override
+	public void putAll(Map<? extends K, ? extends V> map){
+		if(batch.pending != null){
+			super.putAll(map);
+			return;
+		}
+		beginBatch();
+		try{
+			super.putAll(map);
+		}finally{
+			commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Adding the same amount to every value does not change their order, so
+	 * instead of moving every key to its new value, the structure that keeps
+	 * the keys sorted is rebuilt in linear time from the shifted values. If
+	 * the lookup {@code Counter} applies the sum in constant time (as
+	 * {@link IntHashCounter} and {@link DoubleHashCounter} do), no key is
+	 * visited at all.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 */
 	@Override
 	public void sumToAll(V value){
-		TreeCounterEntrySetIterator iter=entrySet().iterator();
-		while(iter.hasNext()){
-			Entry<K, V> entry=iter.next();
-			entry.setValue(caster.cast(new BigDecimal(entry.getValue().toString()).add(new BigDecimal(value.toString()))));
+		flushBatch();
+		lookup.sumToAll(value);
+		shiftMap();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * As {@link #sumToAll(Number) sumToAll}, this method rebuilds the
+	 * structure that keeps the keys sorted in linear time.</p>
+	 *
+	 * @param value {@inheritDoc}
+	 */
+	@Override
+	public void deductToAll(V value){
+		flushBatch();
+		lookup.deductToAll(value);
+		shiftMap();
+	}
+
+	/**
+	 * Rebuilds the inverse map after the same amount has been added to the
+	 * value of every key in the lookup. The new value of every group of keys
+	 * is taken from the lookup, and since the groups are visited in order,
+	 * the tree is rebuilt from the already sorted groups. If the shift has
+	 * changed the order of the values (due to an overflow, or to a
+	 * {@code Comparator} not consistent with their numerical order), the
+	 * whole map is rebuilt instead.
+	 */
+	private void shiftMap(){
+		NavigableMap<V, Set<K>> map=batch.root;
+		ArrayList<Entry<V, Set<K>>> shifted=new ArrayList<>(map.size());
+		V last=null;
+		for(Set<K> set:map.values()){
+			V newvalue=lookup.get(set.iterator().next());
+			if(last != null){
+				int comp=compare(last, newvalue);
+				if(comp > 0){
+					rebuildMap();
+					return;
+				}
+				if(comp == 0){
+					shifted.get(shifted.size() - 1).getValue().addAll(set);
+					continue;
+				}
+			}
+			shifted.add(new SimpleEntry<>(newvalue, set));
+			last=newvalue;
+		}
+		map.clear();
+		map.putAll(new SortedEntries<>(shifted, comparator));
+		batch.ranks=null;
+	}
+
+	/**
+	 * Read-only {@code SortedMap} over a list of entries already sorted by
+	 * key, used to refill a {@code TreeMap} in linear time (a
+	 * {@code TreeMap} builds itself without comparing its keys when it is
+	 * filled from a {@code SortedMap} with the same {@code Comparator}). Only
+	 * the methods used to that effect are supported.
+	 */
+	private static class SortedEntries<V, S> extends AbstractMap<V, S> implements SortedMap<V, S>{
+
+		private final List<Entry<V, S>> entries;
+		private final Comparator<? super V> comparator;
+
+		private SortedEntries(List<Entry<V, S>> entries, Comparator<? super V> comparator){
+			this.entries=entries;
+			this.comparator=comparator;
+		}
+
+		@Override
+		public int size(){
+			return entries.size();
+		}
+
+		@Override
+		public Set<Entry<V, S>> entrySet(){
+			return new AbstractSet<Entry<V, S>>(){
+				@Override
+				public int size(){
+					return entries.size();
+				}
+
+				@Override
+				public Iterator<Entry<V, S>> iterator(){
+					return Collections.unmodifiableList(entries).iterator();
+				}
+			};
+		}
+
+		@Override
+		public Comparator<? super V> comparator(){
+			return comparator;
+		}
+
+		@Override
+		public SortedMap<V, S> subMap(V fromKey, V toKey){
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SortedMap<V, S> headMap(V toKey){
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public SortedMap<V, S> tailMap(V fromKey){
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public V firstKey(){
+			return entries.get(0).getKey();
+		}
+
+		@Override
+		public V lastKey(){
+			return entries.get(entries.size() - 1).getKey();
 		}
-		iter.commitChanges();
 	}
 
 	@Override
@@ -196,6 +724,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 	@Override
 	public boolean isEmpty(){
+		flushBatch();
 		return map.isEmpty();
 	}
 
@@ -207,6 +736,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	@Override
 	@SuppressWarnings("element-type-mismatch")
 	public boolean containsValue(Object value){
+		flushBatch();
 		return map.containsKey(value);
 	}
 
@@ -218,7 +748,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	@Override
 	public V put(K key, V value){
 		V oldvalue=lookup.put(key, value);
-		changeMap(key, oldvalue, value);
+		updateMap(key, oldvalue, value);
 		return oldvalue;
 	}
 
@@ -226,7 +756,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	public V remove(Object key){
 		V oldvalue=lookup.remove(key);
 		if(oldvalue != null){
-			removeFromMap((K)key, oldvalue);
+			updateMap((K)key, oldvalue, null);
 		}
 		return oldvalue;
 	}
@@ -235,10 +765,15 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 	public void clear(){
 		lookup.clear();
 		map.clear();
+		batch.ranks=null;
+		if(batch.pending != null){
+			batch.pending.clear();
+		}
 	}
 
 	@Override
 	public V maxValue(){
+		flushBatch();
 		if(reverse){
 			return map.firstKey();
 		}else{
@@ -248,6 +783,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 	@Override
 	public V minValue(){
+		flushBatch();
 		if(reverse){
 			return map.lastKey();
 		}else{
@@ -255,6 +791,107 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		}
 	}
 
+	/**
+	 * {@inheritDoc} This method walks the index of the keys by value from
+	 * its highest end, visiting only the returned keys.
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> topN(int n){
+		flushBatch();
+		return RankedKeys.collect((reverse ? map : map.descendingMap()).entrySet().iterator(), n, size());
+	}
+
+	/**
+	 * {@inheritDoc} This method walks the index of the keys by value from
+	 * its lowest end, visiting only the returned keys.
+	 *
+	 * @param n {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 */
+	@Override
+	public RankedKeys<K, V> bottomN(int n){
+		flushBatch();
+		return RankedKeys.collect((reverse ? map.descendingMap() : map).entrySet().iterator(), n, size());
+	}
+
+	/**
+	 * {@inheritDoc} The rank is obtained from an order-statistic index of the
+	 * values, in time logarithmic in the number of distinct values. The index
+	 * is built the first time it is needed (or after the structure that keeps
+	 * the keys sorted is rebuilt by {@code sumToAll}, {@code deductToAll} or a
+	 * large batch), and from then on it is kept up to date by every
+	 * modification.
+	 *
+	 * @param key {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 */
+	@Override
+	public int rankOf(Object key){
+		RankIndex<V> ranks=ranks();
+		V value=get(key);
+		if(value == null){
+			return -1;
+		}
+		if(reverse){
+			return (int)(ranks.countBefore(value, false) - firstPosition(ranks));
+		}else{
+			return (int)(endPosition(ranks) - ranks.countBefore(value, true));
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The value of the key is obtained from an order-statistic
+	 * index of the values, in time logarithmic in the number of distinct
+	 * values, and then the key is taken by position from the keys with that
+	 * value, in constant time no matter how many keys are tied.
+	 *
+	 * @param rank {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	@Override
+	public K keyAtRank(int rank){
+		RankIndex<V> ranks=ranks();
+		long first=firstPosition(ranks);
+		long end=endPosition(ranks);
+		checkRank(rank, end - first);
+		V value=ranks.select(reverse ? first + rank : end - 1 - rank);
+		long offset=rank - (reverse ? ranks.countBefore(value, false) - first : end - ranks.countBefore(value, true));
+		return ((IndexedHashSet<K>)batch.root.get(value)).get((int)offset);
+	}
+
+	/**
+	 * {@inheritDoc} The value is obtained from an order-statistic index of
+	 * the values, in time logarithmic in the number of distinct values.
+	 *
+	 * @param percentile {@inheritDoc}
+	 *
+	 * @return {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException {@inheritDoc}
+	 * @throws NoSuchElementException {@inheritDoc}
+	 */
+	@Override
+	public V valueAtPercentile(double percentile){
+		RankIndex<V> ranks=ranks();
+		long first=firstPosition(ranks);
+		long end=endPosition(ranks);
+		int position=percentilePosition(percentile, end - first);
+		return ranks.select(reverse ? end - 1 - position : first + position);
+	}
+
 	@Override
 	public Set<K> keySet(){
 		if(backed_keyset == null){
@@ -294,16 +931,19 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 	@Override
 	public SortedCounter<K, V> tailCounter(V from_value, boolean inclusive){
+		flushBatch();
 		return new SubTreeCounter<>(this, map.tailMap(from_value, inclusive), true, inclusive, from_value, false, false, null);
 	}
 
 	@Override
 	public SortedCounter<K, V> headCounter(V to_value, boolean inclusive){
+		flushBatch();
 		return new SubTreeCounter<>(this, map.headMap(to_value, inclusive), false, false, null, true, inclusive, to_value);
 	}
 
 	@Override
 	public SortedCounter<K, V> subCounter(V from_value, boolean from_inclusive, V to_value, boolean to_inclusive){
+		flushBatch();
 		return new SubTreeCounter<>(this, map.subMap(from_value, from_inclusive, to_value, to_inclusive), true, from_inclusive, from_value, true, to_inclusive, to_value);
 	}
 
@@ -387,6 +1027,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public boolean remove(Object key){
+			flushBatch();
 			V oldvalue=lookup.get(key);
 			if(oldvalue == null || !map.containsKey(oldvalue)){
 				return false;
@@ -404,6 +1045,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 		@Override
 		public Iterator<K> iterator(){
+			flushBatch();
 			return new Iterator<K>(){
 				private Iterator<Set<K>> iter=map.values().iterator();
 				private Iterator<K> set_iter=null;
@@ -431,12 +1073,14 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 					if(last == null){
 						throw new IllegalStateException();
 					}
-					if(map.get(lookup.get(last)).size() == 1){
+					V value=lookup.get(last);
+					if(map.get(value).size() == 1){
 						iter.remove();
 					}else{
 						set_iter.remove();
 					}
 					lookup.remove(last);
+					rankChanged(value, -1);
 					last=null;
 				}
 			};
@@ -455,25 +1099,29 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 		@Override
 		public int size(){
+			flushBatch();
 			Set<K> set=map.get(value);
 			return set == null ? 0 : set.size();
 		}
 
 		@Override
 		public boolean isEmpty(){
+			flushBatch();
 			return map.get(value) == null;
 		}
 
 		@Override
 		public boolean contains(Object obj){
+			flushBatch();
 			Set<K> set=map.get(value);
 			return set == null ? false : set.contains(obj);
 		}
 
 		@Override
 		public void clear(){
+			flushBatch();
 			if(map.containsKey(value)){
-				map.remove(value);
+				rankChanged(value, -map.remove(value).size());
 				for(Iterator<Entry<K, V>> iter=lookup.entrySet().iterator(); iter.hasNext();){
 					Entry<K, V> entry=iter.next();
 					if(entry.getValue().equals(value)){
@@ -486,17 +1134,23 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public boolean remove(Object key){
+			flushBatch();
 			Set<K> set=map.get(value);
 			if(set == null || !set.contains(key)){
 				return false;
 			}
 			lookup.remove(key);
 			set.remove(key);
+			if(set.isEmpty()){
+				map.remove(value);
+			}
+			rankChanged(value, -1);
 			return true;
 		}
 
 		@Override
 		public Iterator<K> iterator(){
+			flushBatch();
 			return new Iterator<K>(){
 				private Iterator<K> iter=null;
 				private K last=null;
@@ -532,6 +1186,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 						map.remove(value);
 					}
 					lookup.remove(last);
+					rankChanged(value, -1);
 					last=null;
 				}
 			};
@@ -549,12 +1204,14 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public boolean contains(Object obj){
+			flushBatch();
 			return map.containsKey(obj);
 		}
 
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public boolean remove(Object obj){
+			flushBatch();
 			try{
 				Set<K> set=map.get(obj);
 				if(set == null){
@@ -566,6 +1223,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 				if(set.isEmpty()){
 					map.remove(obj);
 				}
+				rankChanged((V)obj, -1);
 				return true;
 			}catch(ClassCastException cce){
 				return false;
@@ -574,6 +1232,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 		@Override
 		public Iterator<V> iterator(){
+			flushBatch();
 			return new Iterator<V>(){
 				private Iterator<Entry<V, Set<K>>> iter=map.entrySet().iterator();
 				private Iterator<K> set_iter;
@@ -590,12 +1249,12 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 				@Override
 				public boolean hasNext(){
-					return set_iter.hasNext() || iter.hasNext();
+					return (set_iter != null && set_iter.hasNext()) || iter.hasNext();
 				}
 
 				@Override
 				public V next(){
-					if(!set_iter.hasNext()){
+					if(set_iter == null || !set_iter.hasNext()){
 						if(!iter.hasNext()){
 							throw new NoSuchElementException();
 						}
@@ -617,6 +1276,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 					if(map.get(last_V).isEmpty()){
 						iter.remove();
 					}
+					rankChanged(last_V, -1);
 					last_K=null;
 				}
 			};
@@ -640,6 +1300,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			if(!(obj instanceof Entry)){
 				return false;
 			}
+			counter.flushBatch();
 			Set<K> set=counter.map.get(((Entry)obj).getValue());
 			return set != null && set.contains(((Entry)obj).getKey());
 		}
@@ -650,6 +1311,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			if(!(obj instanceof Entry)){
 				return false;
 			}
+			counter.flushBatch();
 			Set<K> set=counter.map.get(((Entry)obj).getValue());
 			if(set == null || !set.contains(((Entry)obj).getKey())){
 				return false;
@@ -660,6 +1322,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 				set.remove(((Entry)obj).getKey());
 			}
 			counter.lookup.remove(((Entry)obj).getKey());
+			counter.rankChanged((V)((Entry)obj).getValue(), -1);
 			return true;
 		}
 
@@ -679,6 +1342,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 		public TreeCounterEntrySetIterator(TreeCounter<K, V> counter){
 			this.counter=counter;
+			counter.flushBatch();
 			iter=counter.map.entrySet().iterator();
 			if(iter.hasNext()){
 				set_iter=iter.next().getValue().iterator();
@@ -718,11 +1382,13 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			if(last == null){
 				throw new IllegalStateException();
 			}
+			V value=counter.lookup.get(last);
 			set_iter.remove();
-			if(counter.map.get(counter.lookup.get(last)).isEmpty()){
+			if(counter.map.get(value).isEmpty()){
 				iter.remove();
 			}
 			counter.lookup.remove(last);
+			counter.rankChanged(value, -1);
 			last=null;
 		}
 
@@ -746,14 +1412,17 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 		@Override
 		public boolean contains(Object o){
+			flushBatch();
 			return TreeCounter.this.map.entrySet().contains(o);
 		}
 
 		@Override
 		public Iterator<Entry<V, Set<K>>> iterator(){
+			flushBatch();
 			return new Iterator<Entry<V, Set<K>>>(){
 				private Iterator<Entry<V, Set<K>>> iter=TreeCounter.this.map.entrySet().iterator();
 				private V last=null;
+				private Set<K> last_set=null;
 
 				@Override
 				public boolean hasNext(){
@@ -767,6 +1436,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 					}
 					Entry<V, Set<K>> next=iter.next();
 					last=next.getKey();
+					last_set=next.getValue();
 					return new SimpleEntry<V, Set<K>>(next.getKey(), Collections.unmodifiableSet(next.getValue())){
 						private static final long serialVersionUID=1629618630361929L;
 
@@ -782,14 +1452,13 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 					if(last == null){
 						throw new IllegalStateException();
 					}
-					last=null;
 					iter.remove();
-					for(Iterator<Entry<K, V>> it=lookup.entrySet().iterator(); it.hasNext();){
-						Entry<K, V> entry=it.next();
-						if(entry.getValue().equals(last)){
-							it.remove();
-						}
+					for(K key:last_set){
+						lookup.remove(key);
 					}
+					rankChanged(last, -last_set.size());
+					last=null;
+					last_set=null;
 				}
 			};
 		}
@@ -856,7 +1525,7 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 						this.to_inc=counter.to_inc && to_inc;
 					}else if(cmp > 0){
 						this.to=to;
-						this.to_inc=from_inc;
+						this.to_inc=to_inc;
 					}else if(cmp < 0){
 						this.to=counter.to;
 						this.to_inc=counter.to_inc;
@@ -901,7 +1570,34 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			}
 		}
 
+		@Override
+		long firstPosition(RankIndex<V> ranks){
+			if(empty_size || !use_from){
+				return 0;
+			}
+			return ranks.countBefore(from, !from_inc);
+		}
+
+		@Override
+		long endPosition(RankIndex<V> ranks){
+			if(empty_size){
+				return 0;
+			}
+			return use_to ? ranks.countBefore(to, to_inc) : ranks.total();
+		}
+
+		/**
+		 * Returns whether the specified value is within the range of this
+		 * sub-counter.
+		 *
+		 * @param value the value
+		 *
+		 * @return {@code true} if {@code value} is within the range
+		 */
 		private boolean inLimits(V value){
+			if(empty_size){
+				return false;
+			}
 
 			if(use_from){
 				if(from_inc){
@@ -917,11 +1613,11 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 
 			if(use_to){
 				if(to_inc){
-					if(compare(value, from) > 0){
+					if(compare(value, to) > 0){
 						return false;
 					}
 				}else{
-					if(compare(value, from) >= 0){
+					if(compare(value, to) >= 0){
 						return false;
 					}
 				}
@@ -945,6 +1641,26 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 			throw new UnsupportedOperationException("Sub-TreeCounters items cannot be modified directly");
 		}
 
+		@Override
+		public void sumToAll(V value){
+			throw new UnsupportedOperationException("Sub-TreeCounters items cannot be modified directly");
+		}
+
+		@Override
+		public void deductToAll(V value){
+			throw new UnsupportedOperationException("Sub-TreeCounters items cannot be modified directly");
+		}
+
+		@Override
+		public void beginBatch(){
+			throw new UnsupportedOperationException("Sub-TreeCounters items cannot be modified directly");
+		}
+
+		@Override
+		public void commit(){
+			throw new UnsupportedOperationException("Sub-TreeCounters items cannot be modified directly");
+		}
+
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public V remove(Object key){
@@ -961,26 +1677,26 @@ public class TreeCounter<K, V extends Number> extends AbstractSortedCounter<K, V
 		}
 
 		/**
-		 * WARNING: linear in the number of values
+		 * Returns the number of keys whose value is within the range of this
+		 * sub-counter. The bounds of the range are located in the
+		 * order-statistic index of the values of the parent
+		 * {@code TreeCounter}, so this method takes time logarithmic in the
+		 * number of distinct values (plus the time to build the index, the
+		 * first time it is needed).
 		 *
-		 * @return
+		 * @return the number of keys of this sub-counter
 		 */
 		@Override
 		public int size(){
-			long size=0;
-			for(Set<K> set:super.map.values()){
-				size+=set.size();
-				if(size > Integer.MAX_VALUE){
-					return Integer.MAX_VALUE;
-				}
-			}
-			return (int)size;
+			RankIndex<V> ranks=super.ranks();
+			return (int)Math.min(Integer.MAX_VALUE, endPosition(ranks) - firstPosition(ranks));
 		}
 
 		@Override
 		@SuppressWarnings("element-type-mismatch")
 		public boolean containsKey(Object key){
-			return super.containsKey(key) && inLimits(super.get(key));
+			V value=super.get(key);
+			return value != null && inLimits(value);
 		}
 
 		@Override
@@ -23,10 +23,9 @@ import es.iguanod.collect.CollectionsIg;
 import es.iguanod.collect.Counter;
 import es.iguanod.collect.DoubleTreeCounter.DoubleTreeCounterBuilder;
 import es.iguanod.collect.IntHashCounter;
-import es.iguanod.collect.LinkedFixedCapacityQueue;
 import es.iguanod.collect.SortedCounter;
+import es.iguanod.collect.StatisticsFixedCapacityQueue;
 import static es.iguanod.games.EloScoreTable.GameType.*;
-import es.iguanod.util.Maybe;
 import es.iguanod.util.tuples.Tuple2;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -111,8 +110,7 @@ public class EloScoreTable<T> implements Iterable<Tuple2<T, Integer>>, Serializa
 
 		private static final long serialVersionUID=469496794623962394L;
 		//************
-		private LinkedFixedCapacityQueue<Double> queue=new LinkedFixedCapacityQueue<>(RECORD_SIZE);
-		private double k_factor=0;
+		private StatisticsFixedCapacityQueue queue=new StatisticsFixedCapacityQueue(RECORD_SIZE);
 		//************
 		private Map<GameType, Map<StatType, Counter<Integer, Integer>>> stats=new EnumMap<>(GameType.class);
 		private Map<GameType, Map<Integer, Counter<Integer, Integer>>> ties_count=new EnumMap<>(GameType.class);
@@ -179,14 +177,10 @@ public class EloScoreTable<T> implements Iterable<Tuple2<T, Integer>>, Serializa
 			}else{
 				next=-1.0 / num_players;
 			}
-			k_factor+=next;
-			Maybe<Double> popped=queue.push(next);
-			if(popped.isPresent()){
-				k_factor-=popped.get();
-			}
+			queue.pushDouble(next);
 
 			if(stats.get(TEAM).get(StatType.GAMES).get(0) + stats.get(SINGLE).get(StatType.GAMES).get(0) > positioning_games){
-				return Math.abs((k_factor / positioning_games) + Math.signum(score));
+				return Math.abs((queue.sum() / positioning_games) + Math.signum(score));
 			}else{
 				return INITIAL_K_FACTOR;
 			}
@@ -471,6 +465,18 @@ public class EloScoreTable<T> implements Iterable<Tuple2<T, Integer>>, Serializa
 		return (int)(x == null ? mean : x);
 	}
 
+	public int rank(T player){
+		return table.rankOf(player);
+	}
+
+	public T playerAtRank(int rank){
+		return table.keyAtRank(rank);
+	}
+
+	public int scoreAtPercentile(double percentile){
+		return table.valueAtPercentile(percentile).intValue();
+	}
+
 	@Override
 	public Iterator<Tuple2<T, Integer>> iterator(){
 		return new Iterator<Tuple2<T, Integer>>(){
@@ -0,0 +1,385 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.math;
+
+import es.iguanod.util.Adder;
+import es.iguanod.util.Caster;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * This class consists exclusively of static fields and methods providing
+ * {@link es.iguanod.util.Adder Adders} for the {@link java.lang.Number Number}
+ * classes of the JDK and of this library.
+ * <p>
+ * The {@code Adders} of the primitive wrappers follow the Java arithmetic, so
+ * they overflow silently. The {@code Adders} of {@link BigLong} and
+ * {@link BigDouble} return {@link BigLongM} and {@link BigDoubleM} objects
+ * respectively, and never modify their parameters.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public final class Adders{
+
+	private Adders(){
+	}
+	public static final Adder<Integer> INTEGER=new Adder<Integer>(){
+		private static final long serialVersionUID=-5529170326517542066L;
+
+		@Override
+		public Integer add(Integer t1, Integer t2){
+			return t1 + t2;
+		}
+
+		@Override
+		public Integer subtract(Integer t1, Integer t2){
+			return t1 - t2;
+		}
+
+		@Override
+		public Integer negate(Integer t){
+			return -t;
+		}
+	};
+	public static final Adder<Long> LONG=new Adder<Long>(){
+		private static final long serialVersionUID=2410637015869310532L;
+
+		@Override
+		public Long add(Long t1, Long t2){
+			return t1 + t2;
+		}
+
+		@Override
+		public Long subtract(Long t1, Long t2){
+			return t1 - t2;
+		}
+
+		@Override
+		public Long negate(Long t){
+			return -t;
+		}
+	};
+	/**
+	 * {@code Adder} of {@code Longs} throwing an {@code ArithmeticException}
+	 * when the result overflows a {@code long}, instead of wrapping around.
+	 */
+	public static final Adder<Long> LONG_EXACT=new Adder<Long>(){
+		private static final long serialVersionUID=-3719262405833064722L;
+
+		@Override
+		public Long add(Long t1, Long t2){
+			return addExact(t1, t2);
+		}
+
+		@Override
+		public Long subtract(Long t1, Long t2){
+			return subtractExact(t1, t2);
+		}
+
+		@Override
+		public Long negate(Long t){
+			if(t == Long.MIN_VALUE){
+				throw new ArithmeticException("long overflow");
+			}
+			return -t;
+		}
+	};
+	public static final Adder<Double> DOUBLE=new Adder<Double>(){
+		private static final long serialVersionUID=-1946519728541700134L;
+
+		@Override
+		public Double add(Double t1, Double t2){
+			return t1 + t2;
+		}
+
+		@Override
+		public Double subtract(Double t1, Double t2){
+			return t1 - t2;
+		}
+
+		@Override
+		public Double negate(Double t){
+			return -t;
+		}
+	};
+	public static final Adder<Float> FLOAT=new Adder<Float>(){
+		private static final long serialVersionUID=7733120386741309551L;
+
+		@Override
+		public Float add(Float t1, Float t2){
+			return t1 + t2;
+		}
+
+		@Override
+		public Float subtract(Float t1, Float t2){
+			return t1 - t2;
+		}
+
+		@Override
+		public Float negate(Float t){
+			return -t;
+		}
+	};
+	public static final Adder<BigInteger> BIG_INTEGER=new Adder<BigInteger>(){
+		private static final long serialVersionUID=-2707941513602215094L;
+
+		@Override
+		public BigInteger add(BigInteger t1, BigInteger t2){
+			return t1.add(t2);
+		}
+
+		@Override
+		public BigInteger subtract(BigInteger t1, BigInteger t2){
+			return t1.subtract(t2);
+		}
+
+		@Override
+		public BigInteger negate(BigInteger t){
+			return t.negate();
+		}
+	};
+	public static final Adder<BigDecimal> BIG_DECIMAL=new Adder<BigDecimal>(){
+		private static final long serialVersionUID=4459061752946233981L;
+
+		@Override
+		public BigDecimal add(BigDecimal t1, BigDecimal t2){
+			return t1.add(t2);
+		}
+
+		@Override
+		public BigDecimal subtract(BigDecimal t1, BigDecimal t2){
+			return t1.subtract(t2);
+		}
+
+		@Override
+		public BigDecimal negate(BigDecimal t){
+			return t.negate();
+		}
+	};
+	public static final Adder<BigLong> BIG_LONG=new Adder<BigLong>(){
+		private static final long serialVersionUID=-860173557413366023L;
+
+		@Override
+		public BigLong add(BigLong t1, BigLong t2){
+			return t1.add(t2);
+		}
+
+		@Override
+		public BigLong subtract(BigLong t1, BigLong t2){
+			return t1.sub(t2);
+		}
+
+		@Override
+		public BigLong negate(BigLong t){
+			return t.negate();
+		}
+	};
+	public static final Adder<BigDouble> BIG_DOUBLE=new Adder<BigDouble>(){
+		private static final long serialVersionUID=3017926465213509848L;
+
+		@Override
+		public BigDouble add(BigDouble t1, BigDouble t2){
+			return t1.add(t2);
+		}
+
+		@Override
+		public BigDouble subtract(BigDouble t1, BigDouble t2){
+			return t1.sub(t2);
+		}
+
+		@Override
+		public BigDouble negate(BigDouble t){
+			return t.negate();
+		}
+	};
+
+	/**
+	 * Returns the sum of both parameters, as
+	 * {@link #LONG_EXACT LONG_EXACT} does, but without boxing them.
+	 *
+	 * @param a the first operand
+	 * @param b the second operand
+	 *
+	 * @return {@code a+b}
+	 *
+	 * @throws ArithmeticException if the result overflows a {@code long}
+	 */
+	public static long addExact(long a, long b){
+		long r=a + b;
+		if(((a ^ r) & (b ^ r)) < 0){
+			throw new ArithmeticException("long overflow");
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the subtraction of the second parameter to the first one, as
+	 * {@link #LONG_EXACT LONG_EXACT} does, but without boxing them.
+	 *
+	 * @param a the first operand
+	 * @param b the second operand
+	 *
+	 * @return {@code a-b}
+	 *
+	 * @throws ArithmeticException if the result overflows a {@code long}
+	 */
+	public static long subtractExact(long a, long b){
+		long r=a - b;
+		if(((a ^ b) & (a ^ r)) < 0){
+			throw new ArithmeticException("long overflow");
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the built-in {@code Adder} for the specified class, or
+	 * {@code null} if there is none. The {@code Adders} of {@link BigLong} and
+	 * {@link BigDouble} are returned for their subclasses too, since they
+	 * work with any of them.
+	 *
+	 * @param clazz the class of the values to be operated
+	 *
+	 * @return the {@code Adder} for {@code clazz}, or {@code null}
+	 */
+	public static Adder<?> forClass(Class<?> clazz){
+		if(clazz == Integer.class){
+			return INTEGER;
+		}else if(clazz == Long.class){
+			return LONG;
+		}else if(clazz == Double.class){
+			return DOUBLE;
+		}else if(clazz == Float.class){
+			return FLOAT;
+		}else if(clazz == BigInteger.class){
+			return BIG_INTEGER;
+		}else if(clazz == BigDecimal.class){
+			return BIG_DECIMAL;
+		}else if(clazz != null && BigLong.class.isAssignableFrom(clazz)){
+			return BIG_LONG;
+		}else if(clazz != null && BigDouble.class.isAssignableFrom(clazz)){
+			return BIG_DOUBLE;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns an {@code Adder} that operates by converting both operands to
+	 * {@code BigDecimal} (through their {@code toString} method) and casting
+	 * the result back with the specified {@code Caster}. It works with any
+	 * {@code Number} whose string representation can be parsed by
+	 * {@link java.math.BigDecimal#BigDecimal(String) BigDecimal}, but it is
+	 * by far the slowest option.
+	 *
+	 * @param <V> the class of the values to be operated
+	 * @param caster the {@code Caster} from {@code BigDecimal} to {@code V}
+	 *
+	 * @return the {@code Adder}
+	 */
+	public static <V extends Number> Adder<V> fromCaster(final Caster<BigDecimal, V> caster){
+		return new Adder<V>(){
+			private static final long serialVersionUID=-4140254360329467302L;
+
+			@Override
+			public V add(V t1, V t2){
+				return caster.cast(new BigDecimal(t1.toString()).add(new BigDecimal(t2.toString())));
+			}
+
+			@Override
+			public V subtract(V t1, V t2){
+				return caster.cast(new BigDecimal(t1.toString()).subtract(new BigDecimal(t2.toString())));
+			}
+
+			@Override
+			public V negate(V t){
+				return caster.cast(new BigDecimal(t.toString()).negate());
+			}
+		};
+	}
+
+	/**
+	 * Returns the most suitable {@code Adder} for the values returned by the
+	 * specified {@code Caster}. The class of the values is guessed by casting
+	 * {@code BigDecimal.ONE}; if there is a built-in {@code Adder} for it,
+	 * the returned {@code Adder} uses it whenever both operands are instances
+	 * of that class, and falls back to {@link #fromCaster(Caster) fromCaster}
+	 * otherwise (for example, when a {@code Counter<K, Number>} holds values
+	 * of several classes).
+	 *
+	 * @param <V> the class of the values to be operated
+	 * @param caster the {@code Caster} from {@code BigDecimal} to {@code V}
+	 *
+	 * @return the {@code Adder}
+	 */
+	public static <V extends Number> Adder<V> forCaster(Caster<BigDecimal, V> caster){
+		V sample=caster.cast(BigDecimal.ONE);
+		Adder<?> fast=sample == null ? null : forClass(sample.getClass());
+		if(fast == null){
+			return fromCaster(caster);
+		}
+		return new DispatchingAdder<>(fast == BIG_LONG ? BigLong.class : fast == BIG_DOUBLE ? BigDouble.class : sample.getClass(), (Adder<V>)fast, fromCaster(caster));
+	}
+
+	/**
+	 * {@code Adder} using a fast {@code Adder} when both operands are of the
+	 * expected class and a slow one otherwise.
+	 *
+	 * @param <V> the class of the values to be operated
+	 */
+	private static final class DispatchingAdder<V extends Number> implements Adder<V>{
+
+		private static final long serialVersionUID=6418553270164790917L;
+		//************
+		private final Class<?> type;
+		private final Adder<V> fast;
+		private final Adder<V> slow;
+
+		private DispatchingAdder(Class<?> type, Adder<V> fast, Adder<V> slow){
+			this.type=type;
+			this.fast=fast;
+			this.slow=slow;
+		}
+
+		@Override
+		public V add(V t1, V t2){
+			if(type.isInstance(t1) && type.isInstance(t2)){
+				return fast.add(t1, t2);
+			}
+			return slow.add(t1, t2);
+		}
+
+		@Override
+		public V subtract(V t1, V t2){
+			if(type.isInstance(t1) && type.isInstance(t2)){
+				return fast.subtract(t1, t2);
+			}
+			return slow.subtract(t1, t2);
+		}
+
+		@Override
+		public V negate(V t){
+			if(type.isInstance(t)){
+				return fast.negate(t);
+			}
+			return slow.negate(t);
+		}
+	}
+}
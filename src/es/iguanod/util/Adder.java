@@ -0,0 +1,78 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.util;
+
+import java.io.Serializable;
+
+/**
+ * Interface representing the arithmetic needed to accumulate objects of a given
+ * class, that is, adding, subtracting and negating them. It is the companion of
+ * {@link es.iguanod.util.Caster Caster} for classes that, as
+ * {@link java.lang.Number Numbers}, cannot be operated with one another
+ * directly.
+ * <p>
+ * The {@code Adder} interface adds no stipulation as to wether the operations
+ * create new objects or modify and return one of their parameters, but
+ * implementations should document it if they do the later.</p>
+ * <p>
+ * As {@code Caster}, {@code Adder} is {@code Serializable} itself to allow for
+ * anonymous {@code Adder} creation in the cases in which the outer class has to
+ * be {@code Serializable}.</p>
+ *
+ * @param <T> the class of the objects operated
+ *
+ * @see Caster
+ * @see Serializable
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public interface Adder<T> extends Serializable{
+
+	/**
+	 * Returns the sum of both parameters.
+	 *
+	 * @param t1 the first operand
+	 * @param t2 the second operand
+	 *
+	 * @return {@code t1+t2}
+	 */
+	public T add(T t1, T t2);
+
+	/**
+	 * Returns the subtraction of the second parameter to the first one.
+	 *
+	 * @param t1 the first operand
+	 * @param t2 the second operand
+	 *
+	 * @return {@code t1-t2}
+	 */
+	public T subtract(T t1, T t2);
+
+	/**
+	 * Returns the negation of its parameter.
+	 *
+	 * @param t the operand
+	 *
+	 * @return {@code -t}
+	 */
+	public T negate(T t);
+}
@@ -0,0 +1,60 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.util;
+
+import java.io.Serializable;
+
+/**
+ * Interface representing a source of the current time, used by the classes
+ * whose behaviour depends on the passing of time, so that a different source
+ * (for instance, a manually advanced one for testing, or a logical clock)
+ * can be provided instead of the system clock.
+ * <p>
+ * As {@link Caster}, {@code Clock} is {@code Serializable} itself to allow
+ * for anonymous {@code Clock} creation in the cases in which the outer class
+ * has to be {@code Serializable}.</p>
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public interface Clock extends Serializable{
+
+	/**
+	 * {@code Clock} returning the current time of the system, as returned
+	 * by {@link System#currentTimeMillis()}.
+	 */
+	public static final Clock SYSTEM=new Clock(){
+		private static final long serialVersionUID=-6733418902217338915L;
+
+		@Override
+		public long now(){
+			return System.currentTimeMillis();
+		}
+	};
+
+	/**
+	 * Returns the current time in milliseconds. The origin of the time is
+	 * not specified, but it must not go backwards.
+	 *
+	 * @return the current time in milliseconds
+	 */
+	public long now();
+}
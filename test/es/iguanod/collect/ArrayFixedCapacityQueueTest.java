@@ -0,0 +1,131 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.ArrayFixedCapacityQueue},
+ * {@link es.iguanod.collect.IntFixedCapacityQueue} and
+ * {@link es.iguanod.collect.DoubleFixedCapacityQueue} classes.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ArrayFixedCapacityQueueTest{
+
+	/**
+	 * Test of push method, of class ArrayFixedCapacityQueue, against a
+	 * LinkedFixedCapacityQueue.
+	 */
+	@Test
+	public void testPush_01(){
+		Random rand=new Random(577215);
+		ArrayFixedCapacityQueue<Integer> queue=new ArrayFixedCapacityQueue<>(7);
+		LinkedFixedCapacityQueue<Integer> expected=new LinkedFixedCapacityQueue<>(7);
+
+		for(int i=0; i < 1000; i++){
+			switch(rand.nextInt(5)){
+				case 0:
+					assertEquals(expected.pop(), queue.pop());
+					break;
+				case 1:
+					Iterator<Integer> iter=queue.iterator();
+					Iterator<Integer> exp_iter=expected.iterator();
+					int skip=rand.nextInt(8);
+					for(int j=0; j < skip && exp_iter.hasNext(); j++){
+						assertEquals(exp_iter.next(), iter.next());
+					}
+					if(skip > 0 && skip <= expected.size()){
+						iter.remove();
+						exp_iter.remove();
+					}
+					break;
+				default:
+					Integer elem=rand.nextInt(4) == 0 ? null : i;
+					assertEquals(expected.push(elem), queue.push(elem));
+			}
+			assertEquals(expected.size(), queue.size());
+			assertEquals(expected.isFull(), queue.isFull());
+			assertEquals(expected.peek(), queue.peek());
+			assertEquals(new ArrayList<>(expected), new ArrayList<>(queue));
+		}
+		assertEquals(queue.peek().get(), queue.get(0));
+	}
+
+	/**
+	 * Test of pushInt method, of class IntFixedCapacityQueue.
+	 */
+	@Test
+	public void testPushInt_01(){
+		IntFixedCapacityQueue queue=new IntFixedCapacityQueue(3);
+		assertEquals(0, queue.pushInt(1));
+		assertEquals(0, queue.pushInt(2));
+		assertEquals(0, queue.pushInt(3));
+		assertTrue(queue.isFull());
+		assertEquals(1, queue.pushInt(4));
+		assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(queue));
+		assertEquals(3, queue.getInt(1));
+		assertEquals(Maybe.from(2), queue.push(5));
+		assertEquals(3, queue.popInt());
+		assertEquals(4, queue.peekInt());
+		assertEquals(Maybe.ABSENT, queue.push(6));
+		queue.clear();
+		assertEquals(Maybe.ABSENT, queue.pop());
+	}
+
+	/**
+	 * Test of pushDouble method, of class DoubleFixedCapacityQueue, keeping a
+	 * running sum of the elements.
+	 */
+	@Test
+	public void testPushDouble_01(){
+		DoubleFixedCapacityQueue queue=new DoubleFixedCapacityQueue(16);
+		double sum=0;
+		for(int i=0; i < 100; i++){
+			sum+=i * 0.5;
+			sum-=queue.pushDouble(i * 0.5);
+		}
+		double expected=0;
+		for(double elem:queue){
+			expected+=elem;
+		}
+		assertEquals(expected, sum, 1e-9);
+		assertEquals(16, queue.size());
+		assertEquals(42.0, queue.getDouble(0), 0);
+	}
+
+	/**
+	 * Test of popInt method, of class IntFixedCapacityQueue, on an empty
+	 * queue.
+	 */
+	@Test(expected=NoSuchElementException.class)
+	public void testPopInt_01(){
+		new IntFixedCapacityQueue(1).popInt();
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.Tree.TreeNode;
+import es.iguanod.util.Maybe;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.ArrayTree} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ArrayTreeTest{
+
+	/**
+	 * Returns the nodes of the tree in breadth first order.
+	 */
+	private static <T> List<TreeNode> nodes(Tree<T> tree){
+		ArrayList<TreeNode> nodes=new ArrayList<>();
+		if(tree.isEmpty()){
+			return nodes;
+		}
+		nodes.add(tree.root().get());
+		for(int i=0; i < nodes.size(); i++){
+			for(TreeNode son:tree.children(nodes.get(i))){
+				nodes.add(son);
+			}
+		}
+		return nodes;
+	}
+
+	private static <T> void preOrder(Tree<T> tree, TreeNode node, List<Maybe<T>> acc){
+		acc.add(tree.getValue(node));
+		for(TreeNode son:tree.children(node)){
+			preOrder(tree, son, acc);
+		}
+	}
+
+	private static <T> void assertSameTree(LinkedTree<T> expected, ArrayTree<T> tree){
+		assertEquals(expected.size(), tree.size());
+		assertEquals(expected.isEmpty(), tree.isEmpty());
+		assertEquals(expected.height(), tree.height());
+		assertEquals(expected.breedFirstTraversal(), tree.breedFirstTraversal());
+		assertEquals(expected.postOrderDeepFirstTraversal(), tree.postOrderDeepFirstTraversal());
+		if(!expected.isEmpty()){
+			ArrayList<Maybe<T>> pre_order=new ArrayList<>();
+			preOrder(expected, expected.root().get(), pre_order);
+			assertEquals(pre_order, tree.preOrderDeepFirstTraversal());
+			assertEquals(pre_order, expected.preOrderDeepFirstTraversal());
+		}
+		List<TreeNode> exp_nodes=nodes(expected);
+		List<TreeNode> nodes=nodes(tree);
+		for(int i=0; i < nodes.size(); i++){
+			assertEquals(expected.size(exp_nodes.get(i)), tree.size(nodes.get(i)));
+			assertEquals(expected.height(exp_nodes.get(i)), tree.height(nodes.get(i)));
+			assertEquals(expected.depth(exp_nodes.get(i)), tree.depth(nodes.get(i)));
+			assertEquals(expected.childrenSize(exp_nodes.get(i)), tree.childrenSize(nodes.get(i)));
+		}
+	}
+
+	/**
+	 * Test of the modification methods, of class ArrayTree, against a
+	 * LinkedTree.
+	 */
+	@Test
+	public void testAdd_01(){
+		Random rand=new Random(161803);
+		LinkedTree<Integer> expected=new LinkedTree<>(3);
+		ArrayTree<Integer> tree=new ArrayTree<>(3, 0);
+
+		for(int i=0; i < 3000; i++){
+			List<TreeNode> exp_nodes=nodes(expected);
+			List<TreeNode> nodes=nodes(tree);
+			int pos=exp_nodes.isEmpty() ? -1 : rand.nextInt(exp_nodes.size());
+			Integer value=rand.nextInt(10) == 0 ? null : rand.nextInt(50);
+			switch(rand.nextInt(8)){
+				case 0:
+				case 1:
+					assertEquals(expected.remove(value), tree.remove(value));
+					break;
+				case 2:
+					if(pos >= 0){
+						assertEquals(expected.remove(exp_nodes.get(pos), value), tree.remove(nodes.get(pos), value));
+					}
+					break;
+				case 3:
+					if(pos >= 0 && rand.nextInt(4) == 0){
+						expected.removeSons(exp_nodes.get(pos));
+						tree.removeSons(nodes.get(pos));
+					}
+					break;
+				case 4:
+					if(pos >= 0){
+						assertEquals(expected.setValue(exp_nodes.get(pos), value), tree.setValue(nodes.get(pos), value));
+						assertEquals(expected.contains(value), tree.contains(value));
+					}
+					break;
+				case 5:
+					if(pos >= 0 && !expected.isFull(exp_nodes.get(pos))){
+						assertEquals(expected.getValue(expected.add(exp_nodes.get(pos), value)),
+								tree.getValue(tree.add(nodes.get(pos), value)));
+					}
+					break;
+				default:
+					assertEquals(expected.getValue(expected.push(value)), tree.getValue(tree.push(value)));
+			}
+			assertSameTree(expected, tree);
+		}
+	}
+
+	/**
+	 * Test of remove method, of class ArrayTree, by index and keeping the
+	 * sons that are contained in a collection.
+	 */
+	@Test
+	public void testRemove_01(){
+		ArrayTree<String> tree=new ArrayTree<>();
+		TreeNode root=tree.push("root");
+		TreeNode a=tree.add(root, "a");
+		tree.add(a, "a1");
+		tree.add(root, "b");
+		tree.add(root, "c");
+		TreeNode d=tree.add(root, "d");
+
+		assertEquals(Maybe.from("b"), tree.remove(root, 1));
+		assertEquals(Maybe.ABSENT, tree.remove(root, 3));
+		assertEquals(Arrays.asList(Maybe.from("root"), Maybe.from("a"), Maybe.from("a1"), Maybe.from("c"), Maybe.from("d")), tree.preOrderDeepFirstTraversal());
+
+		assertTrue(tree.retainAll(root, Arrays.asList("d")));
+		assertEquals(2, tree.size());
+		assertEquals(d, tree.getChild(root, 0).get());
+		assertEquals(Maybe.from(d), tree.preOrderDeepFirstSearch("d"));
+		assertEquals(Maybe.ABSENT, tree.breedFirstSearch("a1"));
+		try{
+			tree.getValue(a);
+			fail();
+		}catch(NoSuchElementException e){
+		}
+
+		// The released indices are reused, but the old handles stay invalid
+		tree.add(d, "e");
+		tree.add(d, "f");
+		try{
+			tree.getValue(a);
+			fail();
+		}catch(NoSuchElementException e){
+		}
+		tree.trim();
+		assertEquals(Arrays.asList(Maybe.from("e"), Maybe.from("f"), Maybe.from("d"), Maybe.from("root")), tree.postOrderDeepFirstTraversal());
+
+		tree.clear();
+		assertTrue(tree.isEmpty());
+		assertEquals(0, tree.height());
+	}
+
+	/**
+	 * Test of trim and clear methods, of class ArrayTree.
+	 */
+	@Test
+	public void testTrim_01(){
+		ArrayTree<Integer> tree=new ArrayTree<>();
+		TreeNode root=tree.push(0);
+		List<TreeNode> sons=new ArrayList<>();
+		for(int i=1; i <= 5; i++){
+			sons.add(tree.add(root, i));
+		}
+		tree.remove(root, 4);
+		tree.remove(root, 3);
+		tree.remove(root, 1);
+
+		// The free indices 4 and 5 are dropped, but index 2 is reused
+		tree.trim();
+		TreeNode six=tree.add(root, 6);
+		TreeNode seven=tree.add(root, 7);
+		assertEquals(Arrays.asList(Maybe.from(0), Maybe.from(1), Maybe.from(3), Maybe.from(6), Maybe.from(7)), tree.preOrderDeepFirstTraversal());
+		for(int i:new int[]{1, 3, 4}){
+			try{
+				tree.getValue(sons.get(i));
+				fail();
+			}catch(NoSuchElementException e){
+			}
+		}
+
+		// After clearing, the indices are reused from the first one
+		tree.clear();
+		tree.trim();
+		TreeNode new_root=tree.push(10);
+		tree.add(new_root, 11);
+		tree.add(new_root, 12);
+		assertEquals(Arrays.asList(Maybe.from(10), Maybe.from(11), Maybe.from(12)), tree.preOrderDeepFirstTraversal());
+		for(TreeNode node:Arrays.asList(root, sons.get(0), six, seven)){
+			try{
+				tree.getValue(node);
+				fail();
+			}catch(NoSuchElementException e){
+			}
+		}
+	}
+
+	/**
+	 * Test of push and pop methods, of class ArrayTree.
+	 */
+	@Test
+	public void testPop_01(){
+		ArrayTree<Integer> tree=new ArrayTree<>(2);
+		for(int i=0; i < 7; i++){
+			tree.push(i);
+		}
+		assertEquals(3, tree.height());
+		assertEquals(Arrays.asList(Maybe.from(3), Maybe.from(4), Maybe.from(1), Maybe.from(5), Maybe.from(6), Maybe.from(2), Maybe.from(0)), tree.postOrderDeepFirstTraversal());
+		for(int i=6; i >= 0; i--){
+			assertEquals(Maybe.from(i), tree.pop());
+			assertEquals(i, tree.size());
+		}
+		assertEquals(Maybe.ABSENT, tree.pop());
+		tree.push(7);
+		assertEquals(Arrays.asList(Maybe.from(7)), tree.breedFirstTraversal());
+	}
+
+	/**
+	 * Test of copy constructor, of class ArrayTree, and of its serialization.
+	 */
+	@Test
+	public void testArrayTree_01() throws IOException, ClassNotFoundException{
+		LinkedTree<Integer> linked=new LinkedTree<>(2);
+		for(int i=0; i < 20; i++){
+			linked.push(i);
+		}
+		ArrayTree<Integer> tree=new ArrayTree<>(linked);
+		assertSameTree(linked, tree);
+
+		ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+		try(ObjectOutputStream out=new ObjectOutputStream(bytes)){
+			out.writeObject(tree);
+		}
+		try(ObjectInputStream in=new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+			@SuppressWarnings("unchecked")
+			ArrayTree<Integer> copy=(ArrayTree<Integer>)in.readObject();
+			assertSameTree(linked, copy);
+		}
+	}
+
+	private static <T> List<Maybe<T>> values(Tree<T> tree, Iterator<TreeNode> iter){
+		ArrayList<Maybe<T>> values=new ArrayList<>();
+		while(iter.hasNext()){
+			values.add(tree.getValue(iter.next()));
+		}
+		return values;
+	}
+
+	/**
+	 * Test of the traversal iterators, of classes ArrayTree and AbstractTree,
+	 * and of their use through a tree reference.
+	 */
+	@Test
+	public void testPreOrderDeepFirstIterator_01(){
+		Random rand=new Random(314159);
+		LinkedTree<Integer> linked=new LinkedTree<>();
+		TreeNode linked_root=linked.push(0);
+		List<TreeNode> nodes=new ArrayList<>();
+		nodes.add(linked_root);
+		for(int i=1; i < 500; i++){
+			nodes.add(linked.add(nodes.get(rand.nextInt(nodes.size())), i));
+		}
+		ArrayTree<Integer> tree=new ArrayTree<>(linked);
+
+		ArrayList<Maybe<Integer>> pre_order=new ArrayList<>();
+		preOrder(linked, linked_root, pre_order);
+		assertEquals(pre_order, values(linked, linked.preOrderDeepFirstIterator()));
+		assertEquals(pre_order, values(tree, tree.preOrderDeepFirstIterator()));
+		assertEquals(linked.postOrderDeepFirstTraversal(), values(linked, linked.postOrderDeepFirstIterator()));
+		assertEquals(linked.postOrderDeepFirstTraversal(), values(tree, tree.postOrderDeepFirstIterator()));
+		assertEquals(linked.breedFirstTraversal(), values(linked, linked.breedFirstIterator()));
+		assertEquals(linked.breedFirstTraversal(), values(tree, tree.breedFirstIterator()));
+
+		TreeNode linked_branch=linked.getChild(linked_root, 0).get();
+		TreeNode branch=tree.getChild(tree.root().get(), 0).get();
+		Tree<Integer> ref=CollectionsIg.treeReference(tree, branch);
+		assertEquals(linked.preOrderDeepFirstTraversal(linked_branch), values(ref, ref.preOrderDeepFirstIterator()));
+		assertEquals(linked.postOrderDeepFirstTraversal(linked_branch), values(ref, ref.postOrderDeepFirstIterator()));
+		assertEquals(linked.breedFirstTraversal(linked_branch), ref.breedFirstTraversal());
+
+		Iterator<TreeNode> iter=tree.breedFirstIterator();
+		assertEquals(Maybe.from(0), tree.getValue(iter.next()));
+		assertEquals(Maybe.from(1), tree.getValue(iter.next()));
+		assertEquals(Maybe.from(linked_branch), linked.breedFirstSearch(1));
+		assertEquals(Maybe.from(linked_branch), linked.preOrderDeepFirstSearch(1));
+		assertFalse(new LinkedTree<Integer>().postOrderDeepFirstIterator().hasNext());
+		try{
+			iter.remove();
+			fail();
+		}catch(UnsupportedOperationException e){
+		}
+	}
+}
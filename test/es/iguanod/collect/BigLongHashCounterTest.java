@@ -0,0 +1,79 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.math.BigLong;
+import es.iguanod.math.BigLongM;
+import es.iguanod.util.tuples.Tuple2;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.BigLongHashCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class BigLongHashCounterTest{
+
+	/**
+	 * Test of sum method, of class BigLongHashCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		BigLongHashCounter<String> counter=new BigLongHashCounter<>();
+		BigLong big=new BigLong(Long.MAX_VALUE);
+		counter.sum("a", big);
+		BigLong live=counter.get("a");
+		Tuple2<BigLong, BigLong> ret=counter.sum("a", big);
+
+		assertEquals(big, ret.getFirst());
+		assertSame(live, ret.getSecond());
+		assertEquals(big.add(big), counter.get("a"));
+		assertEquals(new BigLong(Long.MAX_VALUE), big);
+
+		counter.sumAll(Arrays.asList("a", "b", "b"));
+		assertEquals(big.add(big).add(1), counter.get("a"));
+		assertEquals(new BigLong(2), counter.get("b"));
+		assertEquals(new BigLong(-3), counter.deductLong("c", 3));
+	}
+
+	/**
+	 * Test of put and initial mappings, of class BigLongHashCounter, which
+	 * must copy the values.
+	 */
+	@Test
+	public void testPut_01(){
+		BigLongM value=new BigLongM(10);
+		Map<String, BigLong> map=new HashMap<>();
+		map.put("a", value);
+		BigLongHashCounter<String> counter=new BigLongHashCounter.BigLongHashCounterBuilder<String>().setInitialMappings(map).build();
+		counter.put("b", value);
+
+		counter.sumToAll(BigLong.ONE);
+		assertEquals(new BigLong(11), counter.get("a"));
+		assertEquals(new BigLong(11), counter.get("b"));
+		assertEquals(new BigLong(10), value);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Caster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.CollectionsIg} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class CollectionsIgTest{
+
+	/**
+	 * Test of parallelMerge method, of class CollectionsIg, with
+	 * IntHashCounters.
+	 */
+	@Test
+	public void testParallelMerge_01(){
+		List<IntHashCounter<Integer>> counters=new ArrayList<>();
+		IntHashCounter<Integer> expected=new IntHashCounter<>();
+		Random rand=new Random(141421);
+		for(int i=0; i < 13; i++){
+			IntHashCounter<Integer> counter=new IntHashCounter<>();
+			for(int j=0; j < 1000; j++){
+				int key=rand.nextInt(500);
+				counter.sumInt(key, 1);
+				expected.sumInt(key, 1);
+			}
+			counters.add(counter);
+		}
+
+		Counter<Integer, Integer> result=CollectionsIg.parallelMerge(counters);
+		assertSame(counters.get(0), result);
+		assertEquals(new HashMap<>(expected), new HashMap<>(result));
+	}
+
+
+	/**
+	 * Test of toIntCounter, toDoubleCounter and toSortedCounter methods, of
+	 * class CollectionsIg.
+	 */
+	@Test
+	public void testToCounter_01(){
+		List<Integer> keys=new ArrayList<>();
+		Random rand=new Random(173205);
+		for(int i=0; i < 50000; i++){
+			keys.add(rand.nextInt(1000));
+		}
+		IntHashCounter<Integer> expected=new IntHashCounter<>();
+		expected.sumAll(keys);
+
+		assertEquals(new HashMap<>(expected), new HashMap<>(CollectionsIg.toIntCounter(keys)));
+		IntTreeCounter<Integer> sorted=CollectionsIg.toSortedCounter(keys);
+		assertEquals(new HashMap<>(expected), new HashMap<>(sorted));
+		assertEquals(sorted.maxValue(), Collections.max(expected.values()));
+
+		DoubleHashCounter<Integer> parity=CollectionsIg.toDoubleCounter(keys, new Caster<Integer, Integer>(){
+			private static final long serialVersionUID=1L;
+
+			@Override
+			public Integer cast(Integer t){
+				return t % 2;
+			}
+		}, new Caster<Integer, Double>(){
+			private static final long serialVersionUID=1L;
+
+			@Override
+			public Double cast(Integer t){
+				return 0.5;
+			}
+		});
+		assertEquals(2, parity.size());
+		assertEquals(25000.0, parity.getDouble(0) + parity.getDouble(1), 0);
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.ConcurrentFixedCapacityQueue}
+ * class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentFixedCapacityQueueTest{
+
+	/**
+	 * Test of push method, of class ConcurrentFixedCapacityQueue, against a
+	 * LinkedFixedCapacityQueue.
+	 */
+	@Test
+	public void testPush_01(){
+		Random rand=new Random(141421);
+		ConcurrentFixedCapacityQueue<Integer> queue=new ConcurrentFixedCapacityQueue<>(5);
+		LinkedFixedCapacityQueue<Integer> expected=new LinkedFixedCapacityQueue<>(5);
+
+		for(int i=0; i < 1000; i++){
+			switch(rand.nextInt(6)){
+				case 0:
+					assertEquals(expected.pop(), queue.pop());
+					break;
+				case 1:
+					if(rand.nextInt(10) == 0){
+						expected.clear();
+						queue.clear();
+					}
+					break;
+				default:
+					Integer elem=rand.nextInt(4) == 0 ? null : i;
+					assertEquals(expected.push(elem), queue.push(elem));
+			}
+			assertEquals(expected.size(), queue.size());
+			assertEquals(expected.isEmpty(), queue.isEmpty());
+			assertEquals(expected.isFull(), queue.isFull());
+			assertEquals(expected.peek(), queue.peek());
+			assertEquals(new ArrayList<>(expected), new ArrayList<>(queue));
+		}
+	}
+
+	/**
+	 * Test of iterator method, of class ConcurrentFixedCapacityQueue.
+	 */
+	@Test
+	public void testIterator_01(){
+		ConcurrentFixedCapacityQueue<Integer> queue=new ConcurrentFixedCapacityQueue<>(3);
+		queue.add(1);
+		queue.add(2);
+		Iterator<Integer> iter=queue.iterator();
+		queue.add(3);
+		queue.add(4);
+		assertEquals(Arrays.asList(1, 2), toList(iter));
+		assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(queue));
+		try{
+			queue.iterator().remove();
+			fail();
+		}catch(UnsupportedOperationException e){
+		}
+	}
+
+	private static <T> ArrayList<T> toList(Iterator<T> iter){
+		ArrayList<T> list=new ArrayList<>();
+		while(iter.hasNext()){
+			list.add(iter.next());
+		}
+		return list;
+	}
+
+	/**
+	 * Test of concurrent access, of class ConcurrentFixedCapacityQueue, with
+	 * one producer, several consumers and several readers. Every element has
+	 * to be either popped, evicted or left in the queue exactly once, and
+	 * every snapshot has to be a run of consecutive elements.
+	 */
+	@Test
+	public void testConcurrent_01() throws InterruptedException{
+		final int total=200000;
+		final ConcurrentFixedCapacityQueue<Integer> queue=new ConcurrentFixedCapacityQueue<>(16);
+		final int[] seen=new int[total];
+		final AtomicBoolean done=new AtomicBoolean(false);
+		final AtomicBoolean failed=new AtomicBoolean(false);
+
+		Thread[] readers=new Thread[4];
+		for(int i=0; i < readers.length; i++){
+			final boolean consumer=i % 2 == 0;
+			readers[i]=new Thread(){
+				@Override
+				public void run(){
+					ArrayList<Integer> popped=new ArrayList<>();
+					while(!done.get()){
+						if(consumer){
+							Maybe<Integer> elem=queue.pop();
+							if(elem.isPresent()){
+								popped.add(elem.get());
+							}
+						}else{
+							int last=-1;
+							int count=0;
+							for(int elem:queue){
+								if(last >= 0 && elem != last + 1){
+									failed.set(true);
+								}
+								last=elem;
+								count++;
+							}
+							if(count > queue.capacity()){
+								failed.set(true);
+							}
+						}
+					}
+					synchronized(seen){
+						for(int elem:popped){
+							seen[elem]++;
+						}
+					}
+				}
+			};
+			readers[i].start();
+		}
+		ArrayList<Integer> evicted=new ArrayList<>();
+		for(int i=0; i < total; i++){
+			Maybe<Integer> elem=queue.push(i);
+			if(elem.isPresent()){
+				evicted.add(elem.get());
+			}
+		}
+		done.set(true);
+		for(Thread reader:readers){
+			reader.join();
+		}
+
+		assertFalse(failed.get());
+		for(int elem:evicted){
+			seen[elem]++;
+		}
+		for(int elem:queue){
+			seen[elem]++;
+		}
+		for(int i=0; i < total; i++){
+			assertEquals(1, seen[i]);
+		}
+	}
+}
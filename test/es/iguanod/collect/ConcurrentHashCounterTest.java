@@ -0,0 +1,134 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.ConcurrentHashCounter.ConcurrentHashCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.tuples.Tuple2;
+import java.math.BigDecimal;
+import java.util.Map.Entry;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.ConcurrentHashCounter} class and its
+ * specializations.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentHashCounterTest{
+
+	private static final int THREADS=8;
+	private static final int ITERATIONS=20000;
+	private static final int KEYS=16;
+
+	/**
+	 * Test of sum and deduct methods, of class ConcurrentHashCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		ConcurrentHashCounter<String, Long> counter=new ConcurrentHashCounterBuilder<String, Long>(new Caster<BigDecimal, Long>(){
+			private static final long serialVersionUID=-5094421786403914871L;
+
+			@Override
+			public Long cast(BigDecimal t){
+				return t.longValue();
+			}
+		}).build();
+		Tuple2<Long, Long> ret=counter.sum("a", 3L);
+		assertNull(ret.getFirst());
+		assertEquals(Long.valueOf(3), ret.getSecond());
+		ret=counter.sum("a");
+		assertEquals(Long.valueOf(3), ret.getFirst());
+		assertEquals(Long.valueOf(4), ret.getSecond());
+		ret=counter.deduct("b", 2L);
+		assertNull(ret.getFirst());
+		assertEquals(Long.valueOf(-2), ret.getSecond());
+		assertEquals(Long.valueOf(4), counter.putMax("a", 1L).getSecond());
+		assertEquals(Long.valueOf(1), counter.putMin("a", 1L).getSecond());
+		assertEquals(Long.valueOf(1), counter.remove("a"));
+		assertEquals(1, counter.size());
+	}
+
+	/**
+	 * Test of sumInt method, of class ConcurrentIntHashCounter, from several
+	 * threads at the same time.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testSumInt_01() throws InterruptedException{
+		final ConcurrentIntHashCounter<Integer> counter=new ConcurrentIntHashCounter<>();
+		Thread[] threads=new Thread[THREADS];
+		for(int i=0; i < THREADS; i++){
+			threads[i]=new Thread(){
+				@Override
+				public void run(){
+					for(int j=0; j < ITERATIONS; j++){
+						counter.sumInt(j % KEYS, 1);
+						counter.sum(j % KEYS, 2);
+						counter.deductInt(j % KEYS, 1);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread thread:threads){
+			thread.join();
+		}
+
+		assertEquals(KEYS, counter.size());
+		for(Entry<Integer, Integer> entry:counter.entrySet()){
+			assertEquals(Integer.valueOf(2 * THREADS * ITERATIONS / KEYS), entry.getValue());
+		}
+	}
+
+	/**
+	 * Test of sumDouble method, of class ConcurrentDoubleHashCounter, from
+	 * several threads at the same time.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testSumDouble_01() throws InterruptedException{
+		final ConcurrentDoubleHashCounter<Integer> counter=new ConcurrentDoubleHashCounter<>();
+		Thread[] threads=new Thread[THREADS];
+		for(int i=0; i < THREADS; i++){
+			threads[i]=new Thread(){
+				@Override
+				public void run(){
+					for(int j=0; j < ITERATIONS; j++){
+						counter.sumDouble(j % KEYS, 0.5);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for(Thread thread:threads){
+			thread.join();
+		}
+
+		for(int key=0; key < KEYS; key++){
+			assertEquals(0.5 * THREADS * ITERATIONS / KEYS, counter.getDouble(key), 0);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.ConcurrentTreeCounter.ConcurrentTreeCounterBuilder;
+import es.iguanod.util.Caster;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.ConcurrentTreeCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class ConcurrentTreeCounterTest{
+
+	private static final Caster<BigDecimal, Integer> CASTER=new Caster<BigDecimal, Integer>(){
+		private static final long serialVersionUID=-2120592462178637404L;
+
+		@Override
+		public Integer cast(BigDecimal t){
+			return t.intValue();
+		}
+	};
+
+	/**
+	 * Test of maxValue, minValue and keySet methods, of class
+	 * ConcurrentTreeCounter.
+	 */
+	@Test
+	public void testMaxValue_01(){
+		ConcurrentTreeCounter<String, Integer> counter=new ConcurrentTreeCounterBuilder<String, Integer>(CASTER).build();
+		counter.sum("a", 3);
+		counter.sum("b", 5);
+		counter.sum("c", 5);
+		counter.deduct("d", 2);
+		counter.sum("a", 4);
+
+		assertEquals(Integer.valueOf(7), counter.maxValue());
+		assertEquals(Integer.valueOf(-2), counter.minValue());
+		assertEquals(new HashSet<>(Arrays.asList("a")), counter.maxKeySet());
+		assertEquals(new HashSet<>(Arrays.asList("b", "c")), counter.keySet(5));
+		assertEquals(4, counter.size());
+		assertEquals(3, counter.inverseEntrySet().size());
+
+		Iterator<Integer> iter=counter.values().iterator();
+		assertEquals(Integer.valueOf(-2), iter.next());
+		assertEquals(Integer.valueOf(5), iter.next());
+		assertEquals(Integer.valueOf(5), iter.next());
+		assertEquals(Integer.valueOf(7), iter.next());
+		assertFalse(iter.hasNext());
+	}
+
+	/**
+	 * Test of headCounter, tailCounter and subCounter methods, of class
+	 * ConcurrentTreeCounter.
+	 */
+	@Test
+	public void testSubCounter_01(){
+		ConcurrentTreeCounter<String, Integer> counter=new ConcurrentTreeCounterBuilder<String, Integer>(CASTER).build();
+		for(int i=0; i < 10; i++){
+			counter.put("k" + i, i);
+		}
+
+		SortedCounter<String, Integer> head=counter.headCounter(5);
+		assertEquals(5, head.size());
+		assertEquals(Integer.valueOf(4), head.maxValue());
+		assertNull(head.get("k5"));
+
+		SortedCounter<String, Integer> sub=counter.tailCounter(2, false).headCounter(7, true);
+		assertEquals(5, sub.size());
+		assertEquals(Integer.valueOf(3), sub.minValue());
+		assertEquals(Integer.valueOf(7), sub.maxValue());
+
+		counter.put("k0", 6);
+		assertEquals(6, sub.size());
+		assertEquals(4, head.size());
+		assertEquals(Integer.valueOf(6), sub.remove("k0"));
+		assertFalse(counter.containsKey("k0"));
+		assertNull(sub.remove("k9"));
+	}
+
+	/**
+	 * Test of reverse ordering, of class ConcurrentTreeCounter.
+	 */
+	@Test
+	public void testReverse_01(){
+		ConcurrentTreeCounter<String, Integer> counter=new ConcurrentTreeCounterBuilder<String, Integer>(CASTER).reverse(true).build();
+		counter.put("a", 1);
+		counter.put("b", 2);
+		assertEquals(Integer.valueOf(2), counter.maxValue());
+		assertEquals(Integer.valueOf(1), counter.minValue());
+		assertEquals("b", counter.keySet().iterator().next());
+	}
+
+	/**
+	 * Test of the reads of maxValue, minValue and topN while other threads
+	 * modify the ConcurrentTreeCounter. The values only grow, so the values
+	 * read can never decrease, and no key can be missed.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrent_01() throws InterruptedException{
+		final ConcurrentTreeCounter<Integer, Integer> counter=new ConcurrentTreeCounterBuilder<Integer, Integer>(CASTER).build();
+		for(int i=0; i < 64; i++){
+			counter.put(i, 0);
+		}
+		final CountDownLatch started=new CountDownLatch(1);
+		final AtomicBoolean done=new AtomicBoolean(false);
+		final AtomicReference<String> failure=new AtomicReference<>();
+		Thread reader=new Thread(){
+			@Override
+			public void run(){
+				try{
+					int last_max=0;
+					int last_min=0;
+					started.countDown();
+					while(!done.get()){
+						int max=counter.maxValue();
+						int min=counter.minValue();
+						if(max < last_max || min < last_min){
+							failure.compareAndSet(null, "max " + last_max + "->" + max + ", min " + last_min + "->" + min);
+						}
+						if(counter.topN(64).size() != 64){
+							failure.compareAndSet(null, "topN missed keys");
+						}
+						last_max=max;
+						last_min=min;
+					}
+				}catch(RuntimeException ex){
+					failure.compareAndSet(null, ex.toString());
+				}
+			}
+		};
+		reader.start();
+		started.await();
+		Thread[] writers=new Thread[4];
+		for(int i=0; i < writers.length; i++){
+			writers[i]=new Thread(){
+				@Override
+				public void run(){
+					for(int j=0; j < 64 * 300; j++){
+						counter.sum(j % 64);
+					}
+				}
+			};
+			writers[i].start();
+		}
+		for(Thread writer:writers){
+			writer.join();
+		}
+		done.set(true);
+		reader.join();
+
+		assertNull(failure.get());
+		assertEquals(64, counter.size());
+		assertEquals(64, counter.values().size());
+		assertEquals(Integer.valueOf(4 * 300), counter.maxValue());
+		assertEquals(Integer.valueOf(4 * 300), counter.minValue());
+	}
+
+	/**
+	 * Test of topN and bottomN methods, of class ConcurrentTreeCounter.
+	 */
+	@Test
+	public void testTopN_01(){
+		ConcurrentTreeCounter<Integer, Integer> counter=new ConcurrentTreeCounterBuilder<Integer, Integer>(CASTER).build();
+		for(int i=0; i < 100; i++){
+			counter.sum(i, i % 50);
+		}
+
+		RankedKeys<Integer, Integer> top=counter.topN(20);
+		assertEquals(20, top.size());
+		for(int i=0; i < 20; i++){
+			assertEquals(49 - i / 2, top.longValue(i));
+			assertEquals(Integer.valueOf(top.key(i) % 50), top.value(i));
+		}
+		assertEquals(new HashSet<>(Arrays.asList(0, 50)), new HashSet<>(counter.bottomN(2).keys()));
+		assertEquals(100, counter.bottomN(1000).size());
+		assertEquals(Arrays.asList(10, 10), counter.headCounter(11).topN(2).values());
+	}
+}
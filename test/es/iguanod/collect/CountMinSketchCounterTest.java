@@ -0,0 +1,131 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.CountMinSketchCounter.CountMinSketchCounterBuilder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.CountMinSketchCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class CountMinSketchCounterTest{
+
+	/**
+	 * Test of sum, deduct and get methods, of class CountMinSketchCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		CountMinSketchCounter<String> counter=new CountMinSketchCounter<>();
+		assertTrue(counter.isEmpty());
+		assertNull(counter.get("a"));
+
+		counter.sumAll(Arrays.asList("a", "b", "a"));
+		assertEquals(Long.valueOf(2), counter.get("a"));
+		assertEquals(Long.valueOf(1), counter.get("b"));
+		assertTrue(counter.containsKey("b"));
+		assertEquals(3, counter.totalCount());
+
+		assertEquals(Long.valueOf(2), counter.sum("a", 5L).getFirst());
+		assertEquals(Long.valueOf(6), counter.deduct("a").getSecond());
+		assertEquals(6, counter.getLong("a"));
+
+		counter.clear();
+		assertTrue(counter.isEmpty());
+		assertEquals(0, counter.getLong("a"));
+	}
+
+	/**
+	 * Test of the error bounds of class CountMinSketchCounter, with and
+	 * without conservative update.
+	 */
+	@Test
+	public void testBounds_01(){
+		CountMinSketchCounter<Integer> plain=new CountMinSketchCounterBuilder<Integer>().setAccuracy(0.01, 0.01).build();
+		CountMinSketchCounter<Integer> conservative=new CountMinSketchCounterBuilder<Integer>().setAccuracy(0.01, 0.01).setConservativeUpdate(true).build();
+		Map<Integer, Long> real=new HashMap<>();
+		Random rand=new Random(314159);
+		int total=50000;
+
+		for(int i=0; i < total; i++){
+			int key=rand.nextInt(4) == 0 ? rand.nextInt(10) : rand.nextInt(5000);
+			plain.sum(key);
+			conservative.sum(key);
+			real.put(key, real.containsKey(key) ? real.get(key) + 1 : 1);
+		}
+
+		int misses=0;
+		for(Entry<Integer, Long> entry:real.entrySet()){
+			long p=plain.getLong(entry.getKey());
+			long c=conservative.getLong(entry.getKey());
+			assertTrue(p >= entry.getValue());
+			assertTrue(c >= entry.getValue());
+			assertTrue(c <= p);
+			if(p > entry.getValue() + 0.01 * total){
+				misses++;
+			}
+		}
+		assertTrue(misses <= real.size() / 50);
+	}
+
+	/**
+	 * Test of merge method, of class CountMinSketchCounter.
+	 */
+	@Test
+	public void testMerge_01(){
+		CountMinSketchCounter<String> counter1=new CountMinSketchCounterBuilder<String>().setSeed(7).build();
+		CountMinSketchCounter<String> counter2=new CountMinSketchCounterBuilder<String>().setSeed(7).build();
+		counter1.sum("a", 3L);
+		counter2.sum("a", 4L);
+		counter2.sum("b");
+
+		counter1.merge(counter2);
+		assertEquals(Long.valueOf(7), counter1.get("a"));
+		assertEquals(Long.valueOf(1), counter1.get("b"));
+		assertEquals(8, counter1.totalCount());
+		assertEquals(Long.valueOf(4), counter2.get("a"));
+
+		try{
+			counter1.merge(new CountMinSketchCounterBuilder<String>().setSeed(8).build());
+			fail();
+		}catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test of deduct method, of class CountMinSketchCounter, with
+	 * conservative update.
+	 */
+	@Test(expected=UnsupportedOperationException.class)
+	public void testDeduct_01(){
+		CountMinSketchCounter<String> counter=new CountMinSketchCounterBuilder<String>().setConservativeUpdate(true).build();
+		counter.sum("a", 2L);
+		counter.deduct("a");
+	}
+}
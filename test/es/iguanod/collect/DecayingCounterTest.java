@@ -0,0 +1,142 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Clock;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.DecayingCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class DecayingCounterTest{
+
+	private static final double DELTA=1e-9;
+
+	private static class ManualClock implements Clock{
+
+		private static final long serialVersionUID=2402712863498521704L;
+		private long now=0;
+
+		@Override
+		public long now(){
+			return now;
+		}
+	}
+
+	/**
+	 * Test of sum method, of class DecayingCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		ManualClock clock=new ManualClock();
+		DecayingCounter<String> counter=new DecayingCounter.DecayingCounterBuilder<String>(10, TimeUnit.SECONDS).setClock(clock).build();
+
+		counter.sum("a", 8.0);
+		counter.sum("b", 2.0);
+		clock.now=10000;
+		assertEquals(4.0, counter.get("a"), DELTA);
+		assertEquals(1.0, counter.get("b"), DELTA);
+
+		assertEquals(5.0, counter.sum("b", 4.0).getSecond(), DELTA);
+		assertEquals(5.0, counter.maxValue(), DELTA);
+		assertEquals(new HashSet<>(Arrays.asList("b")), counter.maxKeySet());
+
+		clock.now=20000;
+		assertEquals(2.0, counter.get("a"), DELTA);
+		assertEquals(2.5, counter.get("b"), DELTA);
+		assertEquals(2.0, counter.minValue(), DELTA);
+	}
+
+	/**
+	 * Test of the rescaling of the stored values of class DecayingCounter.
+	 */
+	@Test
+	public void testSum_02(){
+		ManualClock clock=new ManualClock();
+		DecayingCounter<String> counter=new DecayingCounter.DecayingCounterBuilder<String>(1, TimeUnit.SECONDS).setClock(clock).build();
+
+		for(int i=0; i < 1000; i++){
+			counter.sum("a", 1.0);
+			counter.sum("b", 0.5);
+			clock.now+=1000;
+		}
+
+		assertEquals(1.0, counter.get("a"), DELTA);
+		assertEquals(0.5, counter.get("b"), DELTA);
+		assertEquals(2.0, counter.get("a") / counter.get("b"), DELTA);
+		assertFalse(Double.isInfinite(counter.maxValue()));
+	}
+
+	/**
+	 * Test of sumToAll method, of class DecayingCounter.
+	 */
+	@Test
+	public void testSumToAll_01(){
+		ManualClock clock=new ManualClock();
+		DecayingCounter<String> counter=new DecayingCounter.DecayingCounterBuilder<String>(10, TimeUnit.MILLISECONDS).setClock(clock).build();
+
+		counter.sum("a", 4.0);
+		counter.sum("b", 8.0);
+		clock.now=10;
+		counter.sumToAll(1.0);
+		assertEquals(3.0, counter.get("a"), DELTA);
+		assertEquals(5.0, counter.get("b"), DELTA);
+
+		double sum=0;
+		for(Double value:counter.values()){
+			sum+=value;
+		}
+		assertEquals(8.0, sum, DELTA);
+	}
+
+	/**
+	 * Test of prune method, of class DecayingCounter.
+	 */
+	@Test
+	public void testPrune_01(){
+		ManualClock clock=new ManualClock();
+		DecayingCounter<String> counter=new DecayingCounter.DecayingCounterBuilder<String>(10, TimeUnit.MILLISECONDS).setClock(clock).build();
+
+		counter.sum("a", 1.0);
+		counter.sum("b", 4.0);
+		counter.sum("c", 16.0);
+		clock.now=20;
+
+		assertEquals(2, counter.prune(1.5));
+		assertEquals(new HashSet<>(Arrays.asList("c")), counter.keySet());
+		assertEquals(4.0, counter.get("c"), DELTA);
+	}
+
+	/**
+	 * Test of subCounter method, of class DecayingCounter.
+	 */
+	@Test(expected=UnsupportedOperationException.class)
+	public void testSubCounter_01(){
+		new DecayingCounter<String>(1, TimeUnit.SECONDS).subCounter(0.0, true, 1.0, true);
+	}
+}
@@ -0,0 +1,314 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.tuples.Tuple2;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.DoubleHashCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class DoubleHashCounterTest{
+
+	/**
+	 * Test of sum method, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		Tuple2<Double, Double> ret=counter.sum("a", 3.5);
+		assertNull(ret.getFirst());
+		assertEquals(Double.valueOf(3.5), ret.getSecond());
+		ret=counter.sum("a", 2.0);
+		assertEquals(Double.valueOf(3.5), ret.getFirst());
+		assertEquals(Double.valueOf(5.5), ret.getSecond());
+		ret=counter.deduct("b", 0.25);
+		assertNull(ret.getFirst());
+		assertEquals(Double.valueOf(-0.25), ret.getSecond());
+	}
+
+	/**
+	 * Test of sumDouble and deductDouble methods, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testSumDouble_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		assertEquals(1.5, counter.sumDouble("a", 1.5), 0);
+		assertEquals(4.0, counter.sumDouble("a", 2.5), 0);
+		assertEquals(-2.0, counter.deductDouble("b", 2.0), 0);
+		assertEquals(7.0, counter.sumDouble(null, 7.0), 0);
+		assertEquals(6.5, counter.deductDouble(null, 0.5), 0);
+		assertEquals(Double.valueOf(4.0), counter.get("a"));
+		assertEquals(6.5, counter.getDouble(null), 0);
+		assertEquals(0.0, counter.getDouble("c"), 0);
+		assertNull(counter.get("c"));
+		assertEquals(3, counter.size());
+	}
+
+	/**
+	 * Test of the Map behaviour of class DoubleHashCounter against a HashMap,
+	 * including growth and removals.
+	 */
+	@Test
+	public void testMap_01(){
+		DoubleHashCounter<Integer> counter=new DoubleHashCounter<>();
+		Map<Integer, Double> map=new HashMap<>();
+		Random rand=new Random(271828);
+
+		for(int i=0; i < 100000; i++){
+			Integer key=rand.nextInt(2000);
+			switch(rand.nextInt(4)){
+				case 0:
+				case 1:
+					counter.sumDouble(key, 0.5);
+					map.put(key, map.containsKey(key) ? map.get(key) + 0.5 : 0.5);
+					break;
+				case 2:
+					counter.deductDouble(key, 1.0);
+					map.put(key, map.containsKey(key) ? map.get(key) - 1.0 : -1.0);
+					break;
+				default:
+					assertEquals(map.remove(key), counter.remove(key));
+			}
+		}
+
+		assertEquals(map.size(), counter.size());
+		for(Entry<Integer, Double> entry:counter.entrySet()){
+			assertEquals(map.get(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * Test of the rehash of class DoubleHashCounter when the table is full of
+	 * removed slots but the number of mappings stays small.
+	 */
+	@Test
+	public void testMap_02(){
+		DoubleHashCounter<Integer> counter=new DoubleHashCounter<>();
+		for(int i=0; i < 100000; i++){
+			counter.sumDouble(i, i);
+			if(i >= 10){
+				assertEquals(Double.valueOf(i - 10), counter.remove(i - 10));
+			}
+		}
+
+		assertEquals(10, counter.size());
+		for(int i=0; i < 100000; i++){
+			assertEquals(i >= 99990, counter.containsKey(i));
+		}
+		assertEquals(99995.0, counter.getDouble(99995), 0);
+		assertTrue(counter.containsValue(99999.0));
+		assertFalse(counter.containsValue(99989.0));
+	}
+
+	/**
+	 * Test of the removals through the views and their iterators, of class
+	 * DoubleHashCounter.
+	 */
+	@Test
+	public void testViews_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		counter.sumDouble("a", 1.0);
+		counter.sumDouble("b", 2.0);
+		counter.sumDouble("c", 3.0);
+		counter.sumDouble("d", 4.0);
+		counter.sumDouble("e", 5.0);
+
+		assertTrue(counter.keySet().remove("a"));
+		assertFalse(counter.keySet().remove("a"));
+		assertFalse(counter.entrySet().remove(new AbstractMap.SimpleEntry<>("b", 3.0)));
+		assertTrue(counter.entrySet().remove(new AbstractMap.SimpleEntry<>("b", 2.0)));
+
+		for(Iterator<Double> iter=counter.values().iterator(); iter.hasNext();){
+			if(iter.next() == 3.0){
+				iter.remove();
+			}
+		}
+		for(Iterator<String> iter=counter.keySet().iterator(); iter.hasNext();){
+			if(iter.next().equals("d")){
+				iter.remove();
+			}
+		}
+
+		assertEquals(1, counter.size());
+		assertEquals(Collections.singletonMap("e", 5.0), new HashMap<>(counter));
+		assertFalse(counter.containsValue(3.0));
+
+		counter.values().clear();
+		assertTrue(counter.isEmpty());
+		counter.sumDouble("f", 0.5);
+		assertEquals("{f=0.5}", counter.toString());
+	}
+
+	/**
+	 * Test of the entrySet iterator, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testEntrySet_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		counter.sumDouble("a", 1.0);
+		counter.sumDouble("b", 2.0);
+		counter.sumDouble("c", 3.0);
+
+		for(Iterator<Entry<String, Double>> iter=counter.entrySet().iterator(); iter.hasNext();){
+			Entry<String, Double> entry=iter.next();
+			if(entry.getKey().equals("b")){
+				iter.remove();
+			}else{
+				entry.setValue(entry.getValue() * 10);
+			}
+		}
+
+		assertEquals(2, counter.size());
+		assertFalse(counter.containsKey("b"));
+		assertEquals(Double.valueOf(10.0), counter.get("a"));
+		assertEquals(Double.valueOf(30.0), counter.get("c"));
+		assertTrue(counter.containsValue(30.0));
+	}
+
+	/**
+	 * Test of sumToAll and deductToAll methods, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testSumToAll_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		counter.sum("a", 3.0);
+		counter.sum("b", 5.0);
+		counter.sumToAll(10.0);
+		assertEquals(Double.valueOf(13.0), counter.get("a"));
+		assertEquals(0.0, counter.getDouble("c"), 0);
+
+		counter.sum("c", 1.0);
+		counter.put("d", 4.0);
+		counter.deductToAll(2.0);
+		assertEquals(11.0, counter.getDouble("a"), 0);
+		assertEquals(-1.0, counter.getDouble("c"), 0);
+		assertEquals(Double.valueOf(2.0), counter.remove("d"));
+		assertTrue(counter.containsValue(13.0));
+
+		for(Map.Entry<String, Double> entry:counter.entrySet()){
+			entry.setValue(entry.getValue() * 2);
+		}
+		assertEquals(new Tuple2<>(22.0, 23.0), counter.sum("a", 1.0));
+		assertEquals(new Tuple2<Double, Double>(null, -7.0), counter.deduct("e", 7.0));
+	}
+
+	/**
+	 * Test of sumToAll and deductToAll methods, of class DoubleHashCounter,
+	 * on an empty counter and with huge and infinite values.
+	 */
+	@Test
+	public void testSumToAll_02(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		counter.sumToAll(1e20);
+		counter.deductToAll(3.0);
+		assertEquals(1.0, counter.sumDouble("z", 1.0), 0);
+		assertEquals(Double.valueOf(1.0), counter.get("z"));
+
+		counter.sumToAll(1e20);
+		assertEquals(1e20, counter.getDouble("z"), 0);
+		assertEquals(0.5, counter.sumDouble("y", 0.5), 0);
+		counter.deductToAll(1e20);
+		assertEquals(0.0, counter.getDouble("z"), 0);
+		assertEquals(0.5 - 1e20, counter.getDouble("y"), 0);
+
+		counter.remove("z");
+		counter.keySet().remove("y");
+		assertTrue(counter.isEmpty());
+		counter.sumToAll(Double.POSITIVE_INFINITY);
+		assertNull(counter.put("k", 1.0));
+		assertEquals(Double.valueOf(1.0), counter.get("k"));
+		counter.sumToAll(Double.POSITIVE_INFINITY);
+		assertEquals(Double.POSITIVE_INFINITY, counter.getDouble("k"), 0);
+		counter.put("j", 2.0);
+		assertEquals(Double.valueOf(2.0), counter.get("j"));
+
+		// Removing the last key through an iterator resets the offset too
+		counter.clear();
+		counter.sumDouble("a", 1.0);
+		counter.sumToAll(1000.0);
+		Iterator<Double> iter=counter.values().iterator();
+		iter.next();
+		iter.remove();
+		counter.sumToAll(1e300);
+		assertEquals(0.25, counter.sumDouble("b", 0.25), 0);
+	}
+
+	/**
+	 * Test of sumAll method, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testSumAll_01(){
+		DoubleHashCounter<String> counter=new DoubleHashCounter<>();
+		counter.sumAll(new String[]{"a", "b", "a"}, new double[]{1.0, 2.0, 3.5});
+		counter.sumAll(Arrays.asList("a", "c"));
+		counter.deductAll(new String[]{"b", "d"});
+		counter.sumAll(Collections.singletonMap("c", 10.0));
+		assertEquals(5.5, counter.getDouble("a"), 0);
+		assertEquals(1.0, counter.getDouble("b"), 0);
+		assertEquals(11.0, counter.getDouble("c"), 0);
+		assertEquals(-1.0, counter.getDouble("d"), 0);
+
+		try{
+			counter.sumAll(new String[]{"a"}, new double[0]);
+			fail();
+		}catch(IllegalArgumentException e){
+		}
+		try{
+			counter.put("a", null);
+			fail();
+		}catch(NullPointerException e){
+		}
+	}
+
+	/**
+	 * Test of mergeFrom method, of class DoubleHashCounter.
+	 */
+	@Test
+	public void testMergeFrom_01(){
+		DoubleHashCounter<String> counter1=new DoubleHashCounter<>();
+		DoubleHashCounter<String> counter2=new DoubleHashCounter<>();
+		counter1.sumDouble("a", 1.0);
+		counter1.sumDouble("b", 2.0);
+		counter2.sumDouble("b", 3.0);
+		counter2.sumDouble("c", -4.0);
+		counter2.sumToAll(0.5);
+
+		counter1.mergeFrom(counter2);
+		assertEquals(3, counter1.size());
+		assertEquals(1.0, counter1.getDouble("a"), 0);
+		assertEquals(5.5, counter1.getDouble("b"), 0);
+		assertEquals(-3.5, counter1.getDouble("c"), 0);
+		assertEquals(2, counter2.size());
+	}
+}
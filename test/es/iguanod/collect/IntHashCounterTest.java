@@ -0,0 +1,217 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.tuples.Tuple2;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.IntHashCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class IntHashCounterTest{
+
+	/**
+	 * Test of sum method, of class IntHashCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		IntHashCounter<String> counter=new IntHashCounter<>();
+		Tuple2<Integer, Integer> ret=counter.sum("a", 3);
+		assertNull(ret.getFirst());
+		assertEquals(Integer.valueOf(3), ret.getSecond());
+		ret=counter.sum("a", 2);
+		assertEquals(Integer.valueOf(3), ret.getFirst());
+		assertEquals(Integer.valueOf(5), ret.getSecond());
+	}
+
+	/**
+	 * Test of sumInt and deductInt methods, of class IntHashCounter.
+	 */
+	@Test
+	public void testSumInt_01(){
+		IntHashCounter<String> counter=new IntHashCounter<>();
+		assertEquals(1, counter.sumInt("a", 1));
+		assertEquals(4, counter.sumInt("a", 3));
+		assertEquals(-2, counter.deductInt("b", 2));
+		assertEquals(7, counter.sumInt(null, 7));
+		assertEquals(Integer.valueOf(4), counter.get("a"));
+		assertEquals(7, counter.getInt(null));
+		assertEquals(0, counter.getInt("c"));
+		assertEquals(3, counter.size());
+	}
+
+	/**
+	 * Test of the Map behaviour of class IntHashCounter against a HashMap,
+	 * including growth and removals.
+	 */
+	@Test
+	public void testMap_01(){
+		IntHashCounter<Integer> counter=new IntHashCounter<>();
+		Map<Integer, Integer> map=new HashMap<>();
+		Random rand=new Random(314159);
+
+		for(int i=0; i < 100000; i++){
+			Integer key=rand.nextInt(2000);
+			switch(rand.nextInt(4)){
+				case 0:
+				case 1:
+					counter.sumInt(key, 5);
+					map.put(key, map.containsKey(key) ? map.get(key) + 5 : 5);
+					break;
+				case 2:
+					counter.deduct(key);
+					map.put(key, map.containsKey(key) ? map.get(key) - 1 : -1);
+					break;
+				default:
+					assertEquals(map.remove(key), counter.remove(key));
+			}
+		}
+
+		assertEquals(map.size(), counter.size());
+		for(Entry<Integer, Integer> entry:counter.entrySet()){
+			assertEquals(map.get(entry.getKey()), entry.getValue());
+		}
+	}
+
+	/**
+	 * Test of the entrySet iterator, of class IntHashCounter.
+	 */
+	@Test
+	public void testEntrySet_01(){
+		IntHashCounter<String> counter=new IntHashCounter<>();
+		counter.sumInt("a", 1);
+		counter.sumInt("b", 2);
+		counter.sumInt("c", 3);
+
+		for(Iterator<Entry<String, Integer>> iter=counter.entrySet().iterator(); iter.hasNext();){
+			Entry<String, Integer> entry=iter.next();
+			if(entry.getKey().equals("b")){
+				iter.remove();
+			}else{
+				entry.setValue(entry.getValue() * 10);
+			}
+		}
+
+		assertEquals(2, counter.size());
+		assertFalse(counter.containsKey("b"));
+		assertEquals(Integer.valueOf(10), counter.get("a"));
+		assertEquals(Integer.valueOf(30), counter.get("c"));
+		assertTrue(counter.containsValue(30));
+	}
+
+	/**
+	 * Test of sumToAll and deductToAll methods, of class IntHashCounter.
+	 */
+	@Test
+	public void testSumToAll_01(){
+		IntHashCounter<String> counter=new IntHashCounter<>();
+		counter.sum("a", 3);
+		counter.sum("b", 5);
+		counter.sumToAll(10);
+		assertEquals(Integer.valueOf(13), counter.get("a"));
+		assertEquals(0, counter.getInt("c"));
+
+		counter.sum("c", 1);
+		counter.put("d", 4);
+		counter.deductToAll(2);
+		assertEquals(11, counter.getInt("a"));
+		assertEquals(-1, counter.getInt("c"));
+		assertEquals(Integer.valueOf(2), counter.remove("d"));
+		assertTrue(counter.containsValue(13));
+
+		for(Map.Entry<String, Integer> entry:counter.entrySet()){
+			entry.setValue(entry.getValue() * 2);
+		}
+		assertEquals(new Tuple2<>(22, 23), counter.sum("a", 1));
+		assertEquals(new Tuple2<Integer, Integer>(null, -7), counter.deduct("e", 7));
+
+		IntHashCounter<String> other=new IntHashCounter<>();
+		other.sumInt("a", 1);
+		other.sumToAll(100);
+		counter.mergeFrom(other);
+		assertEquals(124, counter.getInt("a"));
+
+		counter.clear();
+		counter.sumInt("a", 1);
+		assertEquals("{a=1}", counter.toString());
+	}
+
+	/**
+	 * Test of sumAll method, of class IntHashCounter.
+	 */
+	@Test
+	public void testSumAll_01(){
+		IntHashCounter<String> counter=new IntHashCounter<>();
+		counter.sumAll(new String[]{"a", "b", "a"}, new int[]{1, 2, 3});
+		counter.sumAll(Arrays.asList("a", "c"));
+		counter.deductAll(new String[]{"b", "d"});
+		counter.sumAll(Collections.singletonMap("c", 10));
+		assertEquals(5, counter.getInt("a"));
+		assertEquals(1, counter.getInt("b"));
+		assertEquals(11, counter.getInt("c"));
+		assertEquals(-1, counter.getInt("d"));
+
+		try{
+			counter.sumAll(new String[]{"a"}, new int[0]);
+			fail();
+		}catch(IllegalArgumentException e){
+		}
+		try{
+			counter.sumAll(Collections.singletonMap("a", (Integer)null));
+			fail();
+		}catch(NullPointerException e){
+		}
+	}
+
+	/**
+	 * Test of mergeFrom method, of class IntHashCounter.
+	 */
+	@Test
+	public void testMergeFrom_01(){
+		IntHashCounter<String> counter1=new IntHashCounter<>();
+		IntHashCounter<String> counter2=new IntHashCounter<>();
+		IntTreeCounter<String> counter3=new IntTreeCounter<>();
+		counter1.sumInt("a", 1);
+		counter1.sumInt("b", 2);
+		counter2.sumInt("b", 3);
+		counter2.sumInt("c", -4);
+		counter3.sum("a", 10);
+
+		counter1.mergeFrom(counter2);
+		counter1.mergeFrom(counter3);
+		assertEquals(3, counter1.size());
+		assertEquals(11, counter1.getInt("a"));
+		assertEquals(5, counter1.getInt("b"));
+		assertEquals(-4, counter1.getInt("c"));
+		assertEquals(2, counter2.size());
+	}
+}
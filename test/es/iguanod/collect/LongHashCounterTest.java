@@ -0,0 +1,111 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.tuples.Tuple2;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.LongHashCounter} and
+ * {@link es.iguanod.collect.LongTreeCounter} classes.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class LongHashCounterTest{
+
+	/**
+	 * Test of sum method, of class LongHashCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		LongHashCounter<String> counter=new LongHashCounter<>();
+		assertEquals(new Tuple2<Long, Long>(null, 3000000000L), counter.sum("a", 3000000000L));
+		assertEquals(new Tuple2<>(3000000000L, 6000000000L), counter.sum("a", 3000000000L));
+		assertEquals(5999999999L, counter.deductLong("a", 1));
+		assertEquals(-7L, counter.deductLong("b", 7));
+		assertEquals(0, counter.getLong("c"));
+		assertEquals(2, counter.size());
+	}
+
+	/**
+	 * Test of the overflow checks, of class LongHashCounter.
+	 */
+	@Test
+	public void testOverflow_01(){
+		LongHashCounter<String> counter=new LongHashCounter<>();
+		counter.sumLong("a", Long.MAX_VALUE - 1);
+		counter.sumLong("b", 1);
+
+		try{
+			counter.sumLong("a", 2);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			counter.sumToAll(Long.MAX_VALUE);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			counter.deduct("c", Long.MIN_VALUE);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		counter.deductLong("d", Long.MAX_VALUE);
+		try{
+			counter.deductToAll(2L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		assertEquals(Long.MAX_VALUE - 1, counter.getLong("a"));
+		assertEquals(1, counter.getLong("b"));
+		assertEquals(-Long.MAX_VALUE, counter.getLong("d"));
+		assertFalse(counter.containsKey("c"));
+
+		counter.sumLong("a", 1);
+		assertEquals(Long.MAX_VALUE, counter.getLong("a"));
+	}
+
+	/**
+	 * Test of the overflow checks, of class LongTreeCounter.
+	 */
+	@Test
+	public void testOverflow_02(){
+		LongTreeCounter<String> counter=new LongTreeCounter<>();
+		counter.sum("a", Long.MAX_VALUE);
+		counter.sum("b", 5L);
+
+		try{
+			counter.sum("a");
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			counter.sumToAll(1L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		assertEquals(Long.valueOf(Long.MAX_VALUE), counter.maxValue());
+		assertEquals(Long.valueOf(5), counter.minValue());
+	}
+}
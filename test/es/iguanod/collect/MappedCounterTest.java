@@ -0,0 +1,167 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.MappedCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class MappedCounterTest{
+
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException{
+		path=Files.createTempFile("counter", ".snapshot");
+	}
+
+	@After
+	public void tearDown() throws IOException{
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Test of writeInts and openInts methods, of class MappedCounter.
+	 */
+	@Test
+	public void testSnapshot_01() throws IOException{
+		OffHeapIntCounter counter=new OffHeapIntCounter();
+		for(long i=-500; i < 5000; i++){
+			counter.sumInt(i * 31, (int)i);
+		}
+		MappedCounter.writeInts(counter, path);
+
+		MappedCounter<Integer> mapped=MappedCounter.openInts(path);
+		assertEquals(counter.size(), mapped.size());
+		assertEquals(Integer.valueOf(-500), mapped.get(-500L * 31));
+		assertEquals(4999, mapped.getLong(4999L * 31));
+		assertEquals(0, mapped.getLong(1L));
+		assertNull(mapped.get(1L));
+		assertFalse(mapped.containsKey(1L));
+		assertTrue(mapped.containsValue(42));
+		assertEquals(new HashMap<>(counter), new HashMap<>(mapped));
+
+		try{
+			mapped.sum(1L, 1);
+			fail();
+		}catch(UnsupportedOperationException e){
+		}
+	}
+
+	/**
+	 * Test of writeDoubles and openDoubles methods, of class MappedCounter.
+	 */
+	@Test
+	public void testSnapshot_02() throws IOException{
+		OffHeapDoubleCounter counter=new OffHeapDoubleCounter();
+		MappedCounter.writeDoubles(counter, path);
+		assertTrue(MappedCounter.openDoubles(path).isEmpty());
+
+		counter.sumDouble(Long.MIN_VALUE, 0.5);
+		counter.sumDouble(Long.MAX_VALUE, -2.5);
+		MappedCounter.writeDoubles(counter, path);
+		MappedCounter<Double> mapped=MappedCounter.openDoubles(path);
+		assertEquals(2, mapped.size());
+		assertEquals(0.5, mapped.getDouble(Long.MIN_VALUE), 0);
+		assertEquals(Double.valueOf(-2.5), mapped.get(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test of rewriting a mapped snapshot, of class MappedCounter.
+	 */
+	@Test
+	public void testSnapshot_03() throws IOException{
+		LongHashCounter<Long> counter=new LongHashCounter<>();
+		counter.sumLong(1L, 1);
+		MappedCounter.writeLongs(counter, path);
+		MappedCounter<Long> old=MappedCounter.openLongs(path);
+
+		counter.sumLong(1L, 1);
+		counter.sumLong(2L, 5);
+		MappedCounter.writeLongs(counter, path);
+		MappedCounter<Long> mapped=MappedCounter.openLongs(path);
+		assertEquals(1, old.size());
+		assertEquals(1, old.getLong(1L));
+		assertEquals(2, mapped.size());
+		assertEquals(2, mapped.getLong(1L));
+
+		counter.sumLong(null, 1);
+		try{
+			MappedCounter.writeLongs(counter, path);
+			fail();
+		}catch(NullPointerException e){
+		}
+		assertEquals(2, MappedCounter.openLongs(path).size());
+		try(DirectoryStream<Path> dir=Files.newDirectoryStream(path.getParent(), "." + path.getFileName() + "*")){
+			assertFalse(dir.iterator().hasNext());
+		}
+	}
+
+	/**
+	 * Test of the format checks of the openX methods, of class
+	 * MappedCounter.
+	 */
+	@Test
+	public void testOpen_01() throws IOException{
+		LongHashCounter<Long> counter=new LongHashCounter<>();
+		counter.sumLong(7L, 7);
+		MappedCounter.writeLongs(counter, path);
+		assertEquals(Long.valueOf(7), MappedCounter.openLongs(path).get(7L));
+
+		try{
+			MappedCounter.openInts(path);
+			fail();
+		}catch(IOException e){
+		}
+
+		try(FileChannel channel=FileChannel.open(path, StandardOpenOption.WRITE)){
+			channel.write(ByteBuffer.wrap(new byte[]{99}), 4);
+		}
+		try{
+			MappedCounter.openLongs(path);
+			fail();
+		}catch(IOException e){
+			assertTrue(e.getMessage().contains("version"));
+		}
+
+		Files.write(path, new byte[]{1, 2, 3});
+		try{
+			MappedCounter.openLongs(path);
+			fail();
+		}catch(IOException e){
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.tuples.Tuple2;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.OffHeapIntCounter},
+ * {@link es.iguanod.collect.OffHeapLongCounter} and
+ * {@link es.iguanod.collect.OffHeapDoubleCounter} classes.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class OffHeapCounterTest{
+
+	/**
+	 * Test of sum method, of class OffHeapIntCounter.
+	 */
+	@Test
+	public void testSum_01(){
+		OffHeapIntCounter counter=new OffHeapIntCounter();
+		assertEquals(new Tuple2<Integer, Integer>(null, 3), counter.sum(5L, 3));
+		assertEquals(new Tuple2<>(3, 5), counter.sum(5L, 2));
+		assertEquals(new Tuple2<Integer, Integer>(null, -4), counter.deduct(-7L, 4));
+		assertEquals(6, counter.sumInt(5L, 1));
+		assertEquals(-5, counter.deductInt(-7L, 1));
+		assertEquals(0, counter.getInt(8L));
+		assertEquals(Integer.valueOf(6), counter.get(5L));
+		assertNull(counter.get("5"));
+		assertNull(counter.get(null));
+		assertEquals(2, counter.size());
+
+		try{
+			counter.sum(null, 1);
+			fail();
+		}catch(NullPointerException e){
+		}
+	}
+
+	/**
+	 * Test of the growth of the table, of class OffHeapIntCounter.
+	 */
+	@Test
+	public void testGrowth_01(){
+		OffHeapIntCounter counter=new OffHeapIntCounter();
+		HashMap<Long, Integer> expected=new HashMap<>();
+		for(long i=0; i < 200000; i++){
+			long key=i * 1000003L - 77;
+			counter.sumInt(key, (int)(i % 7));
+			counter.sumInt(key, 1);
+			expected.put(key, (int)(i % 7) + 1);
+		}
+		for(long i=0; i < 200000; i+=2){
+			assertEquals(expected.remove(i * 1000003L - 77), counter.remove(i * 1000003L - 77));
+		}
+		assertEquals(expected, new HashMap<>(counter));
+		assertEquals(expected, counter);
+	}
+
+	/**
+	 * Test of the views, of class OffHeapIntCounter.
+	 */
+	@Test
+	public void testViews_01(){
+		OffHeapIntCounter counter=new OffHeapIntCounter.OffHeapIntCounterBuilder().setInitialCapacity(2).build();
+		for(long i=0; i < 10; i++){
+			counter.put(i, (int)i);
+		}
+		Iterator<Long> iter=counter.keySet().iterator();
+		while(iter.hasNext()){
+			if(iter.next() % 2 == 0){
+				iter.remove();
+			}
+		}
+		assertEquals(5, counter.size());
+		assertTrue(counter.containsValue(7));
+		assertFalse(counter.containsValue(6));
+		for(Map.Entry<Long, Integer> entry:counter.entrySet()){
+			entry.setValue(entry.getValue() * 10);
+		}
+		counter.sumToAll(1);
+		assertEquals(Integer.valueOf(91), counter.get(9L));
+		counter.clear();
+		assertTrue(counter.isEmpty());
+		assertEquals("{}", counter.toString());
+	}
+
+	/**
+	 * Test of sumAll method, of class OffHeapIntCounter.
+	 */
+	@Test
+	public void testSumAll_01(){
+		OffHeapIntCounter counter=new OffHeapIntCounter();
+		counter.sumAll(new long[]{1, 2, 1}, new int[]{5, 6, 7});
+		counter.sumAll(new Long[]{2L, 3L});
+		counter.deductAll(new Long[]{1L}, 2);
+		assertEquals(10, counter.getInt(1));
+		assertEquals(7, counter.getInt(2));
+		assertEquals(1, counter.getInt(3));
+
+		try{
+			counter.sumAll(new Long[]{null});
+			fail();
+		}catch(NullPointerException e){
+		}
+	}
+
+	/**
+	 * Test of the overflow checks, of class OffHeapLongCounter.
+	 */
+	@Test
+	public void testOverflow_01(){
+		OffHeapLongCounter counter=new OffHeapLongCounter();
+		counter.sumLong(1L, Long.MAX_VALUE);
+		counter.sumLong(2L, 1);
+
+		try{
+			counter.sumLong(1L, 1);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			counter.sumToAll(1L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			counter.deduct(3L, Long.MIN_VALUE);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		counter.deductLong(4L, Long.MAX_VALUE);
+		try{
+			counter.deductToAll(2L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		assertEquals(Long.MAX_VALUE, counter.getLong(1L));
+		assertEquals(1, counter.getLong(2L));
+		assertEquals(-Long.MAX_VALUE, counter.getLong(4L));
+		assertFalse(counter.containsKey(3L));
+	}
+
+	/**
+	 * Test of serialization and mergeFrom, of class OffHeapDoubleCounter.
+	 */
+	@Test
+	public void testSerialization_01() throws Exception{
+		OffHeapDoubleCounter counter=new OffHeapDoubleCounter();
+		for(long i=0; i < 1000; i++){
+			counter.sumDouble(i, i / 2.0);
+		}
+
+		ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+		try(ObjectOutputStream out=new ObjectOutputStream(bytes)){
+			out.writeObject(counter);
+		}
+		OffHeapDoubleCounter copy;
+		try(ObjectInputStream in=new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+			copy=(OffHeapDoubleCounter)in.readObject();
+		}
+		assertEquals(new HashMap<>(counter), new HashMap<>(copy));
+
+		copy.mergeFrom(counter);
+		assertEquals(999.0, copy.getDouble(999L), 0);
+		assertTrue(copy.containsValue(1.0));
+	}
+}
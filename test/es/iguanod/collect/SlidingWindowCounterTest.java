@@ -0,0 +1,143 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.SlidingWindowCounter.SlidingWindowCounterBuilder;
+import es.iguanod.util.Caster;
+import es.iguanod.util.Clock;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.SlidingWindowCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class SlidingWindowCounterTest{
+
+	private static final Caster<BigDecimal, Integer> CASTER=new Caster<BigDecimal, Integer>(){
+		private static final long serialVersionUID=-5139087412873065190L;
+
+		@Override
+		public Integer cast(BigDecimal t){
+			return t.intValue();
+		}
+	};
+
+	private static class ManualClock implements Clock{
+
+		private static final long serialVersionUID=-1737930485092617823L;
+		private long now=0;
+
+		@Override
+		public long now(){
+			return now;
+		}
+	}
+
+	/**
+	 * Test of sum method, of class SlidingWindowCounter, when buckets expire.
+	 */
+	@Test
+	public void testSum_01(){
+		ManualClock clock=new ManualClock();
+		SlidingWindowCounter<String, Integer> counter=new SlidingWindowCounterBuilder<String, Integer>(CASTER, 1, TimeUnit.SECONDS, 10).setClock(clock).build();
+
+		counter.sum("a", 3);
+		clock.now=500;
+		counter.sum("a", 2);
+		counter.sum("b");
+		assertEquals(Integer.valueOf(5), counter.get("a"));
+		assertEquals(2, counter.size());
+
+		clock.now=1050;
+		assertEquals(Integer.valueOf(2), counter.get("a"));
+		assertEquals(Integer.valueOf(1), counter.get("b"));
+		assertEquals(new HashSet<>(Arrays.asList("a")), counter.maxKeySet());
+
+		clock.now=1500;
+		assertTrue(counter.isEmpty());
+		assertNull(counter.get("a"));
+	}
+
+	/**
+	 * Test of the values of class SlidingWindowCounter against a recount of
+	 * the modifications within the window.
+	 */
+	@Test
+	public void testSum_02(){
+		ManualClock clock=new ManualClock();
+		SlidingWindowCounter<Integer, Integer> counter=new SlidingWindowCounterBuilder<Integer, Integer>(CASTER, 100, TimeUnit.MILLISECONDS, 4).setClock(clock).build();
+		int[] keys=new int[1000];
+		long[] times=new long[1000];
+
+		for(int i=0; i < keys.length; i++){
+			clock.now+=i % 7;
+			keys[i]=(i * 31) % 13;
+			times[i]=clock.now;
+			counter.sum(keys[i]);
+
+			Map<Integer, Integer> real=new HashMap<>();
+			long oldest=(clock.now / 25 - 3) * 25;
+			for(int j=0; j <= i; j++){
+				if(times[j] >= oldest){
+					real.put(keys[j], real.containsKey(keys[j]) ? real.get(keys[j]) + 1 : 1);
+				}
+			}
+			assertEquals(real, new HashMap<>(counter));
+		}
+	}
+
+	/**
+	 * Test of remove method, of class SlidingWindowCounter.
+	 */
+	@Test
+	public void testRemove_01(){
+		ManualClock clock=new ManualClock();
+		SlidingWindowCounter<String, Integer> counter=new SlidingWindowCounterBuilder<String, Integer>(CASTER, 40, TimeUnit.MILLISECONDS, 4).setClock(clock).build();
+
+		counter.sum("a");
+		clock.now=10;
+		counter.sum("a");
+		counter.sum("b");
+		assertEquals(Integer.valueOf(2), counter.remove("a"));
+		clock.now=20;
+		counter.sum("a");
+		clock.now=45;
+		assertEquals(Integer.valueOf(1), counter.get("a"));
+		assertEquals(Integer.valueOf(1), counter.get("b"));
+	}
+
+	/**
+	 * Test of put method, of class SlidingWindowCounter.
+	 */
+	@Test(expected=UnsupportedOperationException.class)
+	public void testPut_01(){
+		new SlidingWindowCounterBuilder<String, Integer>(CASTER, 1, TimeUnit.SECONDS, 10).build().put("a", 1);
+	}
+}
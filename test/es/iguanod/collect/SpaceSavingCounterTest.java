@@ -0,0 +1,122 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.SpaceSavingCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class SpaceSavingCounterTest{
+
+	/**
+	 * Test of sum method, of class SpaceSavingCounter, when keys are evicted.
+	 */
+	@Test
+	public void testSum_01(){
+		SpaceSavingCounter<String> counter=new SpaceSavingCounter<>(2);
+		counter.sum("a", 5L);
+		counter.sum("b", 2L);
+		counter.sum("c");
+
+		assertEquals(2, counter.size());
+		assertFalse(counter.containsKey("b"));
+		assertEquals(Long.valueOf(3), counter.get("c"));
+		assertEquals(Long.valueOf(2), counter.error("c"));
+		assertEquals(Long.valueOf(1), counter.guaranteedCount("c"));
+		assertEquals(Long.valueOf(0), counter.error("a"));
+		assertEquals(new HashSet<>(Arrays.asList("a")), counter.maxKeySet());
+	}
+
+	/**
+	 * Test of the error bounds of class SpaceSavingCounter with a skewed
+	 * stream.
+	 */
+	@Test
+	public void testBounds_01(){
+		SpaceSavingCounter<Integer> counter=new SpaceSavingCounter<>(50);
+		Map<Integer, Long> real=new HashMap<>();
+		Random rand=new Random(271828);
+		int total=100000;
+
+		for(int i=0; i < total; i++){
+			int key=rand.nextInt(4) == 0 ? rand.nextInt(10) : rand.nextInt(100000);
+			counter.sum(key);
+			real.put(key, real.containsKey(key) ? real.get(key) + 1 : 1);
+		}
+
+		assertEquals(50, counter.size());
+		for(Entry<Integer, Long> entry:counter.entrySet()){
+			long count=real.get(entry.getKey());
+			assertTrue(entry.getValue() >= count);
+			assertTrue(counter.guaranteedCount(entry.getKey()) <= count);
+		}
+		for(Entry<Integer, Long> entry:real.entrySet()){
+			if(entry.getValue() > total / 50){
+				assertTrue(counter.containsKey(entry.getKey()));
+			}else if(!counter.containsKey(entry.getKey())){
+				assertTrue(entry.getValue() <= counter.minValue());
+			}
+		}
+	}
+
+	/**
+	 * Test of sum method, of class SpaceSavingCounter, with a stream of
+	 * distinct keys, in which every new key evicts another one.
+	 */
+	@Test
+	public void testSum_02(){
+		int capacity=20000;
+		SpaceSavingCounter<Integer> counter=new SpaceSavingCounter<>(capacity);
+		for(int i=0; i < 3 * capacity; i++){
+			counter.sum(i);
+		}
+
+		assertEquals(capacity, counter.size());
+		long total=0;
+		for(long value:counter.values()){
+			total+=value;
+		}
+		assertEquals(3 * capacity, total);
+		assertEquals(Long.valueOf(3), counter.maxValue());
+		assertEquals(Long.valueOf(3), counter.minValue());
+		assertTrue(counter.containsKey(3 * capacity - 1));
+		assertEquals(Long.valueOf(2), counter.error(3 * capacity - 1));
+	}
+
+	/**
+	 * Test of deduct method, of class SpaceSavingCounter.
+	 */
+	@Test(expected=UnsupportedOperationException.class)
+	public void testDeduct_01(){
+		new SpaceSavingCounter<String>(2).deduct("a");
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.util.Maybe;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.StatisticsFixedCapacityQueue}
+ * class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class StatisticsFixedCapacityQueueTest{
+
+	private static void assertStatistics(Iterable<Double> expected, StatisticsFixedCapacityQueue queue){
+		ArrayList<Double> elems=new ArrayList<>();
+		for(double elem:expected){
+			elems.add(elem);
+		}
+		assertEquals(elems, new ArrayList<>(queue));
+		if(elems.isEmpty()){
+			assertEquals(0, queue.sum(), 0);
+			return;
+		}
+		double sum=0;
+		double min=Double.POSITIVE_INFINITY;
+		double max=Double.NEGATIVE_INFINITY;
+		for(double elem:elems){
+			sum+=elem;
+			min=Math.min(min, elem);
+			max=Math.max(max, elem);
+		}
+		double mean=sum / elems.size();
+		double squares=0;
+		for(double elem:elems){
+			squares+=(elem - mean) * (elem - mean);
+		}
+		assertEquals(sum, queue.sum(), 1e-9);
+		assertEquals(mean, queue.mean(), 1e-9);
+		assertEquals(min, queue.min(), 0);
+		assertEquals(max, queue.max(), 0);
+		assertEquals(squares / elems.size(), queue.variance(), 1e-9);
+	}
+
+	/**
+	 * Test of pushDouble method, of class StatisticsFixedCapacityQueue,
+	 * against a LinkedFixedCapacityQueue.
+	 */
+	@Test
+	public void testPushDouble_01(){
+		Random rand=new Random(271828);
+		StatisticsFixedCapacityQueue queue=new StatisticsFixedCapacityQueue(9);
+		LinkedFixedCapacityQueue<Double> expected=new LinkedFixedCapacityQueue<>(9);
+
+		for(int i=0; i < 2000; i++){
+			switch(rand.nextInt(8)){
+				case 0:
+					assertEquals(expected.pop(), queue.pop());
+					break;
+				case 1:
+					Iterator<Double> iter=queue.iterator();
+					Iterator<Double> exp_iter=expected.iterator();
+					int skip=rand.nextInt(10);
+					for(int j=0; j < skip && exp_iter.hasNext(); j++){
+						assertEquals(exp_iter.next(), iter.next());
+					}
+					if(skip > 0 && skip <= expected.size()){
+						iter.remove();
+						exp_iter.remove();
+					}
+					break;
+				case 2:
+					if(rand.nextInt(20) == 0){
+						expected.clear();
+						queue.clear();
+					}
+					break;
+				default:
+					double elem=rand.nextInt(10) == 0 ? 5 : rand.nextGaussian() * 100;
+					assertEquals(expected.push(elem), queue.push(elem));
+			}
+			assertEquals(expected.size(), queue.size());
+			assertEquals(expected.isFull(), queue.isFull());
+			assertEquals(expected.peek(), queue.peek());
+			assertStatistics(expected, queue);
+		}
+	}
+
+	/**
+	 * Test of pushDouble method, of class StatisticsFixedCapacityQueue, with
+	 * a long sequence of elements of very different magnitudes.
+	 */
+	@Test
+	public void testPushDouble_02(){
+		StatisticsFixedCapacityQueue queue=new StatisticsFixedCapacityQueue(4);
+		for(int i=0; i < 100000; i++){
+			queue.pushDouble(i % 2 == 0 ? 1e12 + i : 1e-3 * i);
+		}
+		queue.pushDouble(1);
+		queue.pushDouble(2);
+		queue.pushDouble(3);
+		queue.pushDouble(4);
+		assertEquals(10, queue.sum(), 0);
+		assertEquals(2.5, queue.mean(), 0);
+		assertEquals(1.25, queue.variance(), 1e-12);
+		assertEquals(1, queue.min(), 0);
+		assertEquals(4, queue.max(), 0);
+		assertEquals(Maybe.from(1.0), queue.push(5.0));
+		assertEquals(2, queue.min(), 0);
+	}
+
+	/**
+	 * Test of min method, of class StatisticsFixedCapacityQueue, on an empty
+	 * queue.
+	 */
+	@Test(expected=NoSuchElementException.class)
+	public void testMin_01(){
+		new StatisticsFixedCapacityQueue(1).min();
+	}
+
+	/**
+	 * Test of pushDouble method, of class StatisticsFixedCapacityQueue, with a
+	 * NaN element.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testPushDouble_03(){
+		new StatisticsFixedCapacityQueue(1).pushDouble(Double.NaN);
+	}
+
+	/**
+	 * Test of pushDouble method, of class StatisticsFixedCapacityQueue, with
+	 * infinite elements.
+	 */
+	@Test
+	public void testPushDouble_04(){
+		StatisticsFixedCapacityQueue queue=new StatisticsFixedCapacityQueue(4);
+		queue.pushDouble(1);
+		for(double elem:new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}){
+			try{
+				queue.pushDouble(elem);
+				fail();
+			}catch(IllegalArgumentException e){
+			}
+		}
+		assertEquals(1, queue.size());
+
+		for(int i=2; i <= 5; i++){
+			queue.pushDouble(i);
+		}
+		assertEquals(14, queue.sum(), 0);
+		assertEquals(3.5, queue.mean(), 0);
+		assertEquals(1.25, queue.variance(), 1e-12);
+		assertEquals(2, queue.min(), 0);
+		assertEquals(5, queue.max(), 0);
+	}
+}
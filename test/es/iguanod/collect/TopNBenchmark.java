@@ -0,0 +1,84 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.DoubleTreeCounter.DoubleTreeCounterBuilder;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Micro-benchmark comparing {@link SortedCounter#topN(int) topN} with reading
+ * the top keys by iterating {@link SortedCounter#inverseEntrySet()
+ * inverseEntrySet} and flattening the sets of keys. It is not run with the
+ * unit tests; run its {@code main} method directly.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class TopNBenchmark{
+
+	private static final int KEYS=1000000;
+	private static final int N=10;
+	private static final int ROUNDS=200000;
+
+	public static void main(String[] args){
+		DoubleTreeCounter<Integer> counter=new DoubleTreeCounterBuilder<Integer>().reverse(true).build();
+		Random rand=new Random(314159);
+		for(int i=0; i < KEYS; i++){
+			counter.put(i, (double)rand.nextInt(KEYS / 10));
+		}
+
+		for(int warmup=0; warmup < 5; warmup++){
+			long sink=0;
+			long start=System.nanoTime();
+			for(int i=0; i < ROUNDS; i++){
+				sink+=iterate(counter);
+			}
+			long iterate=System.nanoTime() - start;
+
+			start=System.nanoTime();
+			for(int i=0; i < ROUNDS; i++){
+				RankedKeys<Integer, Double> top=counter.topN(N);
+				for(int j=0; j < top.size(); j++){
+					sink+=top.key(j) + (long)top.doubleValue(j);
+				}
+			}
+			long topn=System.nanoTime() - start;
+
+			System.out.printf("inverseEntrySet: %.1f ns/op, topN: %.1f ns/op (%d)%n", (double)iterate / ROUNDS, (double)topn / ROUNDS, sink);
+		}
+	}
+
+	private static long iterate(SortedCounter<Integer, Double> counter){
+		long sink=0;
+		int count=0;
+		for(Entry<Double, Set<Integer>> entry:counter.inverseEntrySet()){
+			for(Integer key:entry.getValue()){
+				sink+=key + entry.getKey().longValue();
+				if(++count == N){
+					return sink;
+				}
+			}
+		}
+		return sink;
+	}
+}
@@ -0,0 +1,414 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.collect;
+
+import es.iguanod.collect.DoubleTreeCounter.DoubleTreeCounterBuilder;
+import es.iguanod.collect.IntTreeCounter.IntTreeCounterBuilder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.collect.TreeCounter} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class TreeCounterTest{
+
+	/**
+	 * Test of beginBatch and commit methods, of class TreeCounter.
+	 */
+	@Test
+	public void testBatch_01(){
+		IntTreeCounter<String> counter=new IntTreeCounter<>();
+		counter.sum("a", 3);
+		counter.sum("b", 5);
+
+		counter.beginBatch();
+		assertTrue(counter.isBatching());
+		counter.sum("a", 4);
+		counter.sum("c", 1);
+		counter.deduct("b", 5);
+		counter.remove("c");
+		counter.put("d", 2);
+		assertEquals(Integer.valueOf(7), counter.get("a"));
+		assertEquals(Integer.valueOf(7), counter.maxValue());
+		counter.sum("d", 10);
+		assertEquals(Integer.valueOf(12), counter.maxValue());
+		counter.commit();
+		assertFalse(counter.isBatching());
+
+		assertEquals(3, counter.size());
+		assertEquals(Integer.valueOf(0), counter.minValue());
+		assertEquals(new HashSet<>(Arrays.asList("d")), counter.maxKeySet());
+		Iterator<String> iter=counter.keySet().iterator();
+		assertEquals("b", iter.next());
+		assertEquals("a", iter.next());
+		assertEquals("d", iter.next());
+		assertFalse(iter.hasNext());
+	}
+
+	/**
+	 * Test of sumAll method, of class TreeCounter, against a sequence of
+	 * single sums.
+	 */
+	@Test
+	public void testSumAll_01(){
+		IntTreeCounter<Integer> batched=new IntTreeCounterBuilder<Integer>().reverse(true).build();
+		IntTreeCounter<Integer> single=new IntTreeCounterBuilder<Integer>().reverse(true).build();
+		Random rand=new Random(161803);
+		Integer[] keys=new Integer[10000];
+		for(int i=0; i < keys.length; i++){
+			keys[i]=rand.nextInt(300);
+			single.sum(keys[i]);
+		}
+		batched.sumAll(keys);
+
+		assertEquals(new HashMap<>(single), new HashMap<>(batched));
+		assertEquals(single.maxValue(), batched.maxValue());
+		assertEquals(single.maxKeySet(), batched.maxKeySet());
+		assertEquals(single.headCounter(20, true).size(), batched.headCounter(20, true).size());
+		assertEquals(new HashSet<>(single.inverseEntrySet()), new HashSet<>(batched.inverseEntrySet()));
+
+		Map<Integer, Integer> deltas=new HashMap<>();
+		for(int i=0; i < 300; i+=2){
+			deltas.put(i, -i);
+			single.deduct(i, -i);
+		}
+		batched.deductAll(deltas);
+		assertEquals(new HashSet<>(single.inverseEntrySet()), new HashSet<>(batched.inverseEntrySet()));
+	}
+
+	/**
+	 * Test of beginBatch method, of class TreeCounter, with a batch already
+	 * in progress.
+	 */
+	@Test(expected=IllegalStateException.class)
+	public void testBatch_02(){
+		IntTreeCounter<String> counter=new IntTreeCounter<>();
+		counter.beginBatch();
+		counter.beginBatch();
+	}
+
+	/**
+	 * Test of a TreeCounter with a lazy index, through its sub-counters.
+	 */
+	@Test
+	public void testLazyIndex_01(){
+		DoubleTreeCounter<String> counter=new DoubleTreeCounterBuilder<String>().lazyIndex(true).build();
+		counter.sum("a", 1.0);
+		counter.sum("b", 2.0);
+		counter.sum("c", 3.0);
+		assertEquals(Double.valueOf(3), counter.maxValue());
+
+		SortedCounter<String, Double> head=counter.headCounter(2.0, true);
+		assertEquals(2, head.size());
+		counter.sum("c", -2.5);
+		counter.sum("d", 5.0);
+		assertEquals(3, head.size());
+		assertEquals(new HashSet<>(Arrays.asList("c", "a", "b")), new HashSet<>(head.keySet()));
+		assertEquals(Double.valueOf(0.5), head.minValue());
+
+		counter.remove("d");
+		counter.beginBatch();
+		counter.sum("a", 10.0);
+		counter.commit();
+		assertFalse(counter.isEmpty());
+		assertEquals(new HashSet<>(Arrays.asList("a")), counter.maxKeySet());
+		assertEquals(2, head.size());
+	}
+
+	/**
+	 * Test of sumToAll and deductToAll methods, of class TreeCounter.
+	 */
+	@Test
+	public void testSumToAll_01(){
+		IntTreeCounter<String> counter=new IntTreeCounter<>();
+		counter.sum("a", 3);
+		counter.sum("b", 5);
+		counter.sum("c", 5);
+		counter.sumToAll(10);
+		assertEquals(Integer.valueOf(15), counter.maxValue());
+		assertEquals(Integer.valueOf(13), counter.minValue());
+		assertEquals(new HashSet<>(Arrays.asList("b", "c")), counter.maxKeySet());
+
+		counter.sum("a", 2);
+		counter.deductToAll(5);
+		assertEquals(counter.minValue(), counter.maxValue());
+		assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), counter.keySet(10));
+		assertEquals(Integer.valueOf(10), counter.get("a"));
+
+		counter.sum("a", Integer.MAX_VALUE - 10);
+		counter.sumToAll(1);
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), counter.minValue());
+		assertEquals(new HashSet<>(Arrays.asList("a")), counter.minKeySet());
+		assertEquals(Integer.valueOf(11), counter.maxValue());
+
+		try{
+			counter.tailCounter(0, true).sumToAll(1);
+			fail();
+		}catch(UnsupportedOperationException e){
+		}
+	}
+
+	/**
+	 * Test of sumToAll method, of class TreeCounter, with a reverse order
+	 * and a pending batch.
+	 */
+	@Test
+	public void testSumToAll_02(){
+		DoubleTreeCounter<String> counter=new DoubleTreeCounterBuilder<String>().reverse(true).build();
+		counter.beginBatch();
+		counter.sum("a", 1.5);
+		counter.sum("b", 0.5);
+		counter.sumToAll(1.0);
+		counter.sum("c", 3.0);
+		counter.commit();
+
+		Iterator<String> iter=counter.keySet().iterator();
+		assertEquals("c", iter.next());
+		assertEquals("a", iter.next());
+		assertEquals("b", iter.next());
+		assertEquals(Double.valueOf(1.5), counter.minValue());
+	}
+
+	/**
+	 * Test of topN and bottomN methods, of class TreeCounter.
+	 */
+	@Test
+	public void testTopN_01(){
+		for(boolean reverse:new boolean[]{false, true}){
+			IntTreeCounter<String> counter=new IntTreeCounterBuilder<String>().reverse(reverse).build();
+			counter.sum("a", 5);
+			counter.sum("b", 3);
+			counter.sum("c", 3);
+			counter.sum("d", 1);
+
+			RankedKeys<String, Integer> top=counter.topN(2);
+			assertEquals(2, top.size());
+			assertEquals("a", top.key(0));
+			assertEquals(5, top.longValue(0));
+			assertTrue(top.key(1).equals("b") || top.key(1).equals("c"));
+			assertEquals(Integer.valueOf(3), top.value(1));
+
+			RankedKeys<String, Integer> bottom=counter.bottomN(3);
+			assertEquals("d", bottom.key(0));
+			assertEquals(new HashSet<>(Arrays.asList("b", "c")), new HashSet<>(bottom.keys().subList(1, 3)));
+			assertArrayEquals(new double[]{1, 3, 3}, bottom.doubleValues(), 0);
+
+			assertEquals(4, counter.topN(10).size());
+			assertEquals(Arrays.asList(5, 3, 3, 1), counter.topN(10).values());
+			assertTrue(counter.bottomN(0).isEmpty());
+			assertEquals(Arrays.asList(3, 3), (reverse ? counter.subCounter(4, 2) : counter.subCounter(2, 5)).topN(5).values());
+		}
+	}
+
+	/**
+	 * Test of topN method, of class TreeCounter, with a negative number of
+	 * keys.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testTopN_02(){
+		new IntTreeCounterBuilder<String>().build().topN(-1);
+	}
+
+	/**
+	 * Test of rankOf, keyAtRank and valueAtPercentile methods, of class
+	 * TreeCounter, against a sorted copy of the values.
+	 */
+	@Test
+	public void testRankOf_01(){
+		Random rand=new Random(161803);
+		for(boolean reverse:new boolean[]{false, true}){
+			IntTreeCounter<Integer> counter=new IntTreeCounterBuilder<Integer>().reverse(reverse).build();
+			for(int round=0; round < 2000; round++){
+				int key=rand.nextInt(200);
+				switch(rand.nextInt(8)){
+					case 0:
+						counter.remove(key);
+						break;
+					case 1:
+						counter.keySet().remove(key);
+						break;
+					case 2:
+						counter.beginBatch();
+						counter.sum(key, rand.nextInt(5));
+						counter.deduct(rand.nextInt(200), rand.nextInt(5));
+						counter.commit();
+						break;
+					case 3:
+						Iterator<Integer> iter=counter.values().iterator();
+						if(iter.hasNext()){
+							iter.next();
+							iter.remove();
+						}
+						break;
+					case 4:
+						counter.keySet(rand.nextInt(10)).remove(key);
+						break;
+					default:
+						counter.sum(key, rand.nextInt(20) - 5);
+				}
+				if(round % 500 == 0){
+					counter.sumToAll(3);
+				}
+				if(round % 50 == 0){
+					assertRanks(counter);
+				}
+			}
+			assertRanks(counter);
+		}
+	}
+
+	private static void assertRanks(SortedCounter<Integer, Integer> counter){
+		int[] sorted=new int[counter.size()];
+		int i=0;
+		for(Integer value:counter.values()){
+			sorted[i++]=value;
+		}
+		Arrays.sort(sorted);
+
+		for(Map.Entry<Integer, Integer> entry:counter.entrySet()){
+			int higher=0;
+			for(int value:sorted){
+				if(value > entry.getValue()){
+					higher++;
+				}
+			}
+			assertEquals(higher, counter.rankOf(entry.getKey()));
+		}
+		for(int rank=0; rank < sorted.length; rank++){
+			assertEquals(Integer.valueOf(sorted[sorted.length - 1 - rank]), counter.get(counter.keyAtRank(rank)));
+		}
+		if(sorted.length > 0){
+			assertEquals(Integer.valueOf(sorted[0]), counter.valueAtPercentile(0));
+			assertEquals(Integer.valueOf(sorted[(sorted.length + 1) / 2 - 1]), counter.valueAtPercentile(50));
+			assertEquals(Integer.valueOf(sorted[(int)Math.ceil(sorted.length * 0.99) - 1]), counter.valueAtPercentile(99));
+			assertEquals(Integer.valueOf(sorted[sorted.length - 1]), counter.valueAtPercentile(100));
+		}
+	}
+
+	/**
+	 * Test of rankOf and keyAtRank methods, of class TreeCounter, on
+	 * sub-counters.
+	 */
+	@Test
+	public void testRankOf_02(){
+		IntTreeCounter<String> counter=new IntTreeCounterBuilder<String>().build();
+		counter.sum("a", 1);
+		counter.sum("b", 2);
+		counter.sum("c", 3);
+		counter.sum("d", 4);
+		counter.sum("e", 4);
+
+		SortedCounter<String, Integer> tail=counter.tailCounter(2, false);
+		assertEquals(0, tail.rankOf("d"));
+		assertEquals(2, tail.rankOf("c"));
+		assertEquals(-1, tail.rankOf("b"));
+		assertEquals("c", tail.keyAtRank(2));
+		assertEquals(Integer.valueOf(3), tail.valueAtPercentile(0));
+		assertEquals(4, counter.rankOf("a"));
+		assertEquals(-1, counter.rankOf("z"));
+
+		try{
+			tail.keyAtRank(3);
+			fail();
+		}catch(IndexOutOfBoundsException e){
+		}
+		try{
+			counter.valueAtPercentile(100.5);
+			fail();
+		}catch(IllegalArgumentException e){
+		}
+	}
+
+	/**
+	 * Test of keyAtRank method, of class TreeCounter, with many keys tied to
+	 * the same value.
+	 */
+	@Test
+	public void testKeyAtRank_01(){
+		IntTreeCounter<Integer> counter=new IntTreeCounterBuilder<Integer>().build();
+		for(int i=0; i < 10000; i++){
+			counter.put(i, 7);
+		}
+		counter.put(-1, 8);
+		counter.put(-2, 6);
+		for(int i=0; i < 10000; i+=3){
+			counter.remove(i);
+		}
+
+		assertEquals(Integer.valueOf(-1), counter.keyAtRank(0));
+		assertEquals(Integer.valueOf(-2), counter.keyAtRank(counter.size() - 1));
+		HashSet<Integer> tied=new HashSet<>();
+		for(int rank=1; rank < counter.size() - 1; rank++){
+			tied.add(counter.keyAtRank(rank));
+		}
+		assertEquals(counter.keySet(7), tied);
+	}
+
+	/**
+	 * Test of size, containsKey and get methods, of the sub-counters of
+	 * class TreeCounter.
+	 */
+	@Test
+	public void testSubCounter_01(){
+		IntTreeCounter<String> counter=new IntTreeCounterBuilder<String>().build();
+		counter.sum("a", 1);
+		counter.sum("b", 2);
+		counter.sum("c", 3);
+		counter.sum("d", 4);
+		counter.sum("e", 4);
+
+		SortedCounter<String, Integer> head=counter.headCounter(3);
+		assertEquals(2, head.size());
+		assertTrue(head.containsKey("b"));
+		assertFalse(head.containsKey("c"));
+		assertNull(head.get("d"));
+		assertNull(head.remove("d"));
+		assertTrue(counter.containsKey("d"));
+
+		SortedCounter<String, Integer> tail=counter.tailCounter(3);
+		assertEquals(3, tail.size());
+		counter.sum("a", 10);
+		counter.remove("c");
+		assertEquals(3, tail.size());
+		assertEquals(1, head.size());
+		assertTrue(tail.containsKey("a"));
+
+		SortedCounter<String, Integer> sub=counter.subCounter(2, true, 11, true).headCounter(4, true);
+		assertEquals(new HashSet<>(Arrays.asList("b", "d", "e")), new HashSet<>(sub.keySet()));
+		assertEquals(3, sub.size());
+		assertTrue(sub.containsKey("d"));
+		assertFalse(sub.containsKey("a"));
+
+		SortedCounter<String, Integer> empty=counter.subCounter(4, 4).tailCounter(5);
+		assertEquals(0, empty.size());
+		assertFalse(empty.containsKey("d"));
+		assertNull(empty.get("a"));
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * -------------------- DO NOT REMOVE OR MODIFY THIS HEADER --------------------
+ *
+ * Copyright (C) 2014 The Iguanod Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * A copy of the License should have been provided along with this file, usually
+ * under the name "LICENSE.txt". If that is not the case you may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package es.iguanod.math;
+
+import es.iguanod.util.Adder;
+import es.iguanod.util.Caster;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link es.iguanod.math.Adders} class.
+ *
+ * @author <a href="mailto:rubiof.david@gmail.com">David Rubio Fernández</a>
+ * @since 1.0.1
+ * @version 1.0.1
+ */
+public class AddersTest{
+
+	private static final Caster<BigDecimal, Number> NUMBER_CASTER=new Caster<BigDecimal, Number>(){
+		private static final long serialVersionUID=1L;
+
+		@Override
+		public Number cast(BigDecimal t){
+			try{
+				return t.longValueExact();
+			}catch(ArithmeticException e){
+				return t.doubleValue();
+			}
+		}
+	};
+
+	/**
+	 * Test of the Adders of the primitive wrappers, of class Adders.
+	 */
+	@Test
+	public void testPrimitives_01(){
+		assertEquals(Integer.valueOf(5), Adders.INTEGER.add(2, 3));
+		assertEquals(Integer.valueOf(-1), Adders.INTEGER.subtract(2, 3));
+		assertEquals(Integer.valueOf(-2), Adders.INTEGER.negate(2));
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), Adders.INTEGER.add(Integer.MAX_VALUE, 1));
+
+		assertEquals(Long.valueOf(5), Adders.LONG.add(2L, 3L));
+		assertEquals(Long.valueOf(-1), Adders.LONG.subtract(2L, 3L));
+		assertEquals(Long.valueOf(-2), Adders.LONG.negate(2L));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), Adders.LONG.add(Long.MAX_VALUE, 1L));
+
+		assertEquals(Long.valueOf(5), Adders.LONG_EXACT.add(2L, 3L));
+		assertEquals(Long.valueOf(-1), Adders.LONG_EXACT.subtract(2L, 3L));
+		assertEquals(Long.valueOf(-2), Adders.LONG_EXACT.negate(2L));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), Adders.LONG_EXACT.subtract(-1L, Long.MAX_VALUE));
+
+		assertEquals(Double.valueOf(5.5), Adders.DOUBLE.add(2.0, 3.5));
+		assertEquals(Double.valueOf(-1.5), Adders.DOUBLE.subtract(2.0, 3.5));
+		assertEquals(Double.valueOf(-2.0), Adders.DOUBLE.negate(2.0));
+
+		assertEquals(Float.valueOf(5.5f), Adders.FLOAT.add(2f, 3.5f));
+		assertEquals(Float.valueOf(-1.5f), Adders.FLOAT.subtract(2f, 3.5f));
+		assertEquals(Float.valueOf(-2f), Adders.FLOAT.negate(2f));
+	}
+
+	/**
+	 * Test of the Adders of the arbitrary precision classes, of class Adders.
+	 */
+	@Test
+	public void testBig_01(){
+		BigInteger huge=BigInteger.valueOf(Long.MAX_VALUE);
+		assertEquals(huge.shiftLeft(1), Adders.BIG_INTEGER.add(huge, huge));
+		assertEquals(BigInteger.ONE, Adders.BIG_INTEGER.subtract(huge, huge.subtract(BigInteger.ONE)));
+		assertEquals(huge.negate(), Adders.BIG_INTEGER.negate(huge));
+
+		assertEquals(new BigDecimal("0.3"), Adders.BIG_DECIMAL.add(new BigDecimal("0.1"), new BigDecimal("0.2")));
+		assertEquals(new BigDecimal("-0.1"), Adders.BIG_DECIMAL.subtract(new BigDecimal("0.1"), new BigDecimal("0.2")));
+		assertEquals(new BigDecimal("-0.1"), Adders.BIG_DECIMAL.negate(new BigDecimal("0.1")));
+
+		BigLong l1=new BigLong(Long.MAX_VALUE);
+		BigLong l2=new BigLong(3);
+		BigLong sum=Adders.BIG_LONG.add(l1, l2);
+		assertTrue(sum instanceof BigLongM);
+		assertEquals(new BigLong(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.valueOf(3))), sum);
+		assertEquals(new BigLong(Long.MAX_VALUE - 3), Adders.BIG_LONG.subtract(l1, l2));
+		assertEquals(new BigLong(-3), Adders.BIG_LONG.negate(l2));
+		assertEquals(new BigLong(Long.MAX_VALUE), l1);
+		assertEquals(new BigLong(3), l2);
+
+		BigDouble d1=new BigDouble(2.5);
+		BigDouble d2=new BigDouble(0.25);
+		BigDouble dsum=Adders.BIG_DOUBLE.add(d1, d2);
+		assertTrue(dsum instanceof BigDoubleM);
+		assertEquals(2.75, dsum.doubleValue(), 0);
+		assertEquals(2.25, Adders.BIG_DOUBLE.subtract(d1, d2).doubleValue(), 0);
+		assertEquals(-0.25, Adders.BIG_DOUBLE.negate(d2).doubleValue(), 0);
+		assertEquals(2.5, d1.doubleValue(), 0);
+		assertEquals(0.25, d2.doubleValue(), 0);
+	}
+
+	/**
+	 * Test of the overflows of LONG_EXACT, addExact and subtractExact, of
+	 * class Adders.
+	 */
+	@Test
+	public void testLongExact_01(){
+		try{
+			Adders.LONG_EXACT.add(Long.MAX_VALUE, 1L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			Adders.LONG_EXACT.subtract(Long.MIN_VALUE, 1L);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			Adders.LONG_EXACT.subtract(0L, Long.MIN_VALUE);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			Adders.LONG_EXACT.negate(Long.MIN_VALUE);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			Adders.addExact(Long.MIN_VALUE, -1);
+			fail();
+		}catch(ArithmeticException e){
+		}
+		try{
+			Adders.subtractExact(Long.MAX_VALUE, -1);
+			fail();
+		}catch(ArithmeticException e){
+		}
+
+		assertEquals(Long.MAX_VALUE, Adders.addExact(Long.MAX_VALUE, 0));
+		assertEquals(-1, Adders.addExact(Long.MAX_VALUE, Long.MIN_VALUE));
+		assertEquals(Long.MIN_VALUE, Adders.subtractExact(-1, Long.MAX_VALUE));
+		assertEquals(Long.valueOf(Long.MIN_VALUE + 1), Adders.LONG_EXACT.negate(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test of forClass method, of class Adders.
+	 */
+	@Test
+	public void testForClass_01(){
+		assertSame(Adders.INTEGER, Adders.forClass(Integer.class));
+		assertSame(Adders.LONG, Adders.forClass(Long.class));
+		assertSame(Adders.DOUBLE, Adders.forClass(Double.class));
+		assertSame(Adders.FLOAT, Adders.forClass(Float.class));
+		assertSame(Adders.BIG_INTEGER, Adders.forClass(BigInteger.class));
+		assertSame(Adders.BIG_DECIMAL, Adders.forClass(BigDecimal.class));
+		assertSame(Adders.BIG_LONG, Adders.forClass(BigLong.class));
+		assertSame(Adders.BIG_LONG, Adders.forClass(BigLongM.class));
+		assertSame(Adders.BIG_DOUBLE, Adders.forClass(BigDouble.class));
+		assertSame(Adders.BIG_DOUBLE, Adders.forClass(BigDoubleM.class));
+		assertNull(Adders.forClass(Short.class));
+		assertNull(Adders.forClass(null));
+	}
+
+	/**
+	 * Test of fromCaster method, of class Adders.
+	 */
+	@Test
+	public void testFromCaster_01(){
+		Adder<AtomicLong> adder=Adders.fromCaster(new Caster<BigDecimal, AtomicLong>(){
+			private static final long serialVersionUID=1L;
+
+			@Override
+			public AtomicLong cast(BigDecimal t){
+				return new AtomicLong(t.longValueExact());
+			}
+		});
+		assertEquals(5, adder.add(new AtomicLong(2), new AtomicLong(3)).get());
+		assertEquals(-1, adder.subtract(new AtomicLong(2), new AtomicLong(3)).get());
+		assertEquals(-2, adder.negate(new AtomicLong(2)).get());
+		try{
+			adder.add(new AtomicLong(Long.MAX_VALUE), new AtomicLong(1));
+			fail();
+		}catch(ArithmeticException e){
+		}
+
+		Adder<Number> mixed=Adders.fromCaster(NUMBER_CASTER);
+		assertEquals(2.5, mixed.add(2L, 0.5).doubleValue(), 0);
+		assertEquals(Long.valueOf(3), mixed.add(2.5, 0.5));
+		assertEquals(Long.valueOf(-3), mixed.negate(3));
+	}
+
+	/**
+	 * Test of forCaster method, of class Adders.
+	 */
+	@Test
+	public void testForCaster_01(){
+		Adder<Number> adder=Adders.forCaster(NUMBER_CASTER);
+
+		// Both operands are Longs, so LONG is used and the sum wraps around
+		assertEquals(Long.valueOf(Long.MIN_VALUE), adder.add(Long.MAX_VALUE, 1L));
+		assertEquals(Long.valueOf(Long.MAX_VALUE), adder.subtract(Long.MIN_VALUE, 1L));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), adder.negate(Long.MIN_VALUE));
+
+		// Any other operand goes through BigDecimal, which doesn't wrap around
+		assertEquals(Math.pow(2, 63), adder.add(Long.MAX_VALUE, 1).doubleValue(), 0);
+		assertEquals(Long.valueOf(2), adder.add(1.5, 0.5));
+		assertEquals(Double.valueOf(-1.5), adder.subtract(1L, 2.5));
+		assertEquals(Long.valueOf(-3), adder.negate(3));
+
+		// The Adders of BigLong and BigDouble dispatch on their subclasses too
+		Adder<BigLong> big=Adders.forCaster(new Caster<BigDecimal, BigLong>(){
+			private static final long serialVersionUID=1L;
+
+			@Override
+			public BigLong cast(BigDecimal t){
+				return new BigLongM(t.toBigIntegerExact());
+			}
+		});
+		assertEquals(new BigLong(7), big.add(new BigLong(3), new BigLongM(4)));
+		assertEquals(new BigLong(-1), big.subtract(new BigLongM(3), new BigLong(4)));
+
+		// Without a built-in Adder for the class, the fromCaster one is used
+		Adder<AtomicLong> atomic=Adders.forCaster(new Caster<BigDecimal, AtomicLong>(){
+			private static final long serialVersionUID=1L;
+
+			@Override
+			public AtomicLong cast(BigDecimal t){
+				return new AtomicLong(t.longValueExact());
+			}
+		});
+		assertEquals(5, atomic.add(new AtomicLong(2), new AtomicLong(3)).get());
+	}
+}